@@ -1,9 +1,12 @@
 package me.dpohvar.powernbt;
 
+import me.dpohvar.powernbt.api.NBTBatchEdit;
 import me.dpohvar.powernbt.api.NBTManager;
+import me.dpohvar.powernbt.api.NBTSearch;
 import me.dpohvar.powernbt.command.CommandNBT;
 import me.dpohvar.powernbt.completer.CompleterNBT;
 import me.dpohvar.powernbt.completer.TypeCompleter;
+import me.dpohvar.powernbt.listener.PlayerCacheListener;
 import me.dpohvar.powernbt.listener.SelectListener;
 import me.dpohvar.powernbt.utils.*;
 import me.dpohvar.powernbt.utils.viewer.InteractiveViewer;
@@ -145,13 +148,32 @@ public class PowerNBT extends JavaPlugin {
 		this.translator = new Translator(this, lang);
 		this.typeCompleter = new TypeCompleter(getTemplateFolder());
 		getServer().getPluginManager().registerEvents(new SelectListener(), this);
+		getServer().getPluginManager().registerEvents(new PlayerCacheListener(), this);
 		NBTStaticViewer.applyConfig(getConfig());
+		NBTManager.getInstance().setFileBackups(getConfig().getInt("backups", NBTManager.getInstance().getFileBackups()));
+		NBTManager.getInstance().setPlayerCacheSize(getConfig().getInt("player_cache", NBTManager.getInstance().getPlayerCacheSize()));
 		getCommand("powernbt").setExecutor(new CommandNBT());
 		getCommand("powernbt.").setExecutor(new CommandNBT(SILENT));
 		getCommand("powernbt").setTabCompleter(new CompleterNBT());
 		getCommand("powernbt.").setTabCompleter(new CompleterNBT());
 	}
 
+	@Override
+	public void onDisable() {
+		for (Caller caller : callers.values()) {
+			NBTSearch search = caller.getSearch();
+			if (search != null) {
+				search.cancel();
+			}
+			NBTBatchEdit batch = caller.getBatch();
+			if (batch != null) {
+				batch.cancel();
+			}
+		}
+		NBTManager.getInstance().awaitWrites();
+		NBTManager.getInstance().clearPlayerCache();
+	}
+
 	public TypeCompleter getTypeCompleter() {
 		return typeCompleter;
 	}
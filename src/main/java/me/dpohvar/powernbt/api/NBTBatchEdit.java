@@ -0,0 +1,345 @@
+package me.dpohvar.powernbt.api;
+
+import me.dpohvar.powernbt.exception.NBTQueryException;
+import me.dpohvar.powernbt.exception.NBTTagNotFound;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Edit of compressed NBT files by script, usually all files of <code>playerdata/</code>.<br>
+ * Files are read and changed by edits in fork-join pool, file is written only if its data is changed.
+ * Edits copy only changed nodes, so changes are found by comparing data before and after edits.
+ * Files are replaced atomically by {@link NBTManager#writeCompressedAsync(File, Object)}, in dry run nothing is written.
+ * Result of edit is count of changed files.
+ * <pre>
+ *   Predicate&lt;Object&gt; bedrock = NBTSearch.contains(Map.of("id", "minecraft:bedrock"));
+ *   NBTBatchEdit batch = new NBTBatchEdit(NBTBatchEdit.listFiles(playerFolder), List.of(
+ *       NBTBatchEdit.removeIf(NBTQuery.fromString("Inventory"), bedrock),
+ *       NBTBatchEdit.removeIf(NBTQuery.fromString("EnderItems"), bedrock)
+ *   ), false);
+ *   batch.start(result -&gt; log(result)).thenAccept(count -&gt; log(count + " files changed"));
+ * </pre>
+ */
+public class NBTBatchEdit extends NBTFileTask<NBTBatchEdit.Result> {
+
+	private static final int MAX_CHANGES = 8;
+
+	/**
+	 * Step of edit script
+	 */
+	@FunctionalInterface
+	public interface Edit {
+
+		/**
+		 * Change data of file, data should not be modified in place
+		 *
+		 * @param root
+		 * 			  root tag of file
+		 * @return changed root tag or root itself
+		 */
+		Object apply(Object root) throws NBTQueryException;
+
+	}
+
+	/**
+	 * Changed file
+	 *
+	 * @param file
+	 * 			  edited file
+	 * @param changes
+	 * 			  first changed paths: <code>+path</code> added, <code>-path</code> removed, <code>~path</code> changed
+	 * @param changeCount
+	 * 			  count of all changed paths
+	 */
+	public record Result(File file, List<String> changes, int changeCount) {
+	}
+
+	private final List<File> files;
+	private final List<Edit> edits;
+	private final boolean dryRun;
+	private final Predicate<File> writeGuard;
+	private final Executor guardExecutor;
+	private final AtomicInteger changedFiles = new AtomicInteger();
+	private final AtomicInteger skippedFiles = new AtomicInteger();
+	private final Queue<CompletableFuture<Void>> writes = new ConcurrentLinkedQueue<>();
+	private volatile Semaphore writePermits;
+
+	/**
+	 * Create batch edit
+	 *
+	 * @param files
+	 * 			  compressed nbt files
+	 * @param edits
+	 * 			  edits applied to every file in order
+	 * @param dryRun
+	 * 			  only find changes, files are not written
+	 */
+	public NBTBatchEdit(Collection<File> files, List<Edit> edits, boolean dryRun) {
+		this(files, edits, dryRun, file -> true, Runnable::run);
+	}
+
+	/**
+	 * Create batch edit with check of every file before write.<br>
+	 * Check and start of write run together in executor, so with main thread executor
+	 * server can not load file between them
+	 *
+	 * @param files
+	 * 			  compressed nbt files
+	 * @param edits
+	 * 			  edits applied to every file in order
+	 * @param dryRun
+	 * 			  only find changes, files are not written
+	 * @param writeGuard
+	 * 			  check that file can be written, for example that player is offline
+	 * @param guardExecutor
+	 * 			  executor of check
+	 */
+	public NBTBatchEdit(Collection<File> files, List<Edit> edits, boolean dryRun, Predicate<File> writeGuard, Executor guardExecutor) {
+		this.files = List.copyOf(files);
+		this.edits = List.copyOf(edits);
+		this.dryRun = dryRun;
+		this.writeGuard = writeGuard;
+		this.guardExecutor = guardExecutor;
+	}
+
+	/**
+	 * Create edit which sets value selected by query, missing compounds on the path are created
+	 *
+	 * @param query
+	 * 			  query to select value
+	 * @param value
+	 * 			  value to set
+	 * @return edit
+	 */
+	public static Edit set(NBTQuery query, Object value) {
+		return root -> query.set(root, value, NBTQuery.Mode.SHARE);
+	}
+
+	/**
+	 * Create edit which removes value selected by query, files without this value are not changed
+	 *
+	 * @param query
+	 * 			  query to select value
+	 * @return edit
+	 */
+	public static Edit remove(NBTQuery query) {
+		return root -> {
+			try {
+				return query.remove(root, NBTQuery.Mode.SHARE);
+			} catch (NBTTagNotFound e) {
+				return root;
+			}
+		};
+	}
+
+	/**
+	 * Create edit which removes matching elements of list or entries of compound selected by query
+	 *
+	 * @param query
+	 * 			  query to select list or compound
+	 * @param predicate
+	 * 			  check of element, see {@link NBTSearch#contains(Object)}
+	 * @return edit
+	 */
+	public static Edit removeIf(NBTQuery query, Predicate<Object> predicate) {
+		return root -> {
+			Object value;
+			try {
+				value = query.get(root);
+			} catch (NBTTagNotFound e) {
+				return root;
+			}
+			if (value instanceof Map<?, ?> map) {
+				Map<Object, Object> kept = new LinkedHashMap<>();
+				map.forEach((k, v) -> {
+					if (!predicate.test(v)) {
+						kept.put(k, v);
+					}
+				});
+				return kept.size() == map.size() ? root : query.set(root, kept, NBTQuery.Mode.SHARE);
+			}
+			if (value instanceof Collection<?> list) {
+				List<Object> kept = new ArrayList<>(list.size());
+				for (Object element : list) {
+					if (!predicate.test(element)) {
+						kept.add(element);
+					}
+				}
+				return kept.size() == list.size() ? root : query.set(root, kept, NBTQuery.Mode.SHARE);
+			}
+			return root;
+		};
+	}
+
+	@Override
+	protected List<Runnable> createJobs(Consumer<Result> consumer, int parallelism) {
+		writePermits = new Semaphore(parallelism * 2);
+		List<Runnable> jobs = new ArrayList<>(files.size());
+		for (File file : files) {
+			jobs.add(() -> editFile(file, consumer));
+		}
+		return jobs;
+	}
+
+	/**
+	 * Wait until changed files are written
+	 *
+	 * @return count of changed files
+	 */
+	@Override
+	protected int finish() {
+		CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+		return changedFiles.get();
+	}
+
+	public boolean isDryRun() {
+		return dryRun;
+	}
+
+	@Override
+	public int getTotalFiles() {
+		return files.size();
+	}
+
+	/**
+	 * @return count of changed files, in dry run count of files which would be changed
+	 */
+	public int getChangedFiles() {
+		return changedFiles.get();
+	}
+
+	/**
+	 * @return count of changed files which are not written because write guard rejected them
+	 */
+	public int getSkippedFiles() {
+		return skippedFiles.get();
+	}
+
+	/**
+	 * List files of folder
+	 *
+	 * @param folder
+	 * 			  folder with files, for example <code>playerdata/</code>
+	 * @return files with extension <code>.dat</code>
+	 */
+	public static List<File> listFiles(File folder) {
+		return listFiles(folder, ".dat");
+	}
+
+	private void editFile(File file, Consumer<Result> consumer) {
+		if (!isCancelled()) {
+			try {
+				Object before = NBTManager.getInstance().readCompressed(file);
+				Object after = before;
+				for (Edit edit : edits) {
+					after = edit.apply(after);
+				}
+				Diff diff = new Diff();
+				diff.compare("", before, after);
+				if (diff.count > 0) {
+					changedFiles.incrementAndGet();
+					if (!dryRun) {
+						write(file, after);
+					}
+					consumer.accept(new Result(file, diff.changes, diff.count));
+				}
+			} catch (NBTQueryException | RuntimeException e) {
+				errors.incrementAndGet();
+			}
+		}
+		processedFiles.incrementAndGet();
+	}
+
+	private void write(File file, Object value) {
+		writePermits.acquireUninterruptibly();
+		try {
+			writes.add(CompletableFuture.supplyAsync(() -> {
+				if (writeGuard.test(file)) {
+					return NBTManager.getInstance().writeCompressedAsync(file, value);
+				}
+				changedFiles.decrementAndGet();
+				skippedFiles.incrementAndGet();
+				return CompletableFuture.<Void>completedFuture(null);
+			}, guardExecutor).thenCompose(write -> write).handle((v, e) -> {
+				if (e != null) {
+					errors.incrementAndGet();
+				}
+				writePermits.release();
+				return null;
+			}));
+		} catch (RuntimeException e) {
+			writePermits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Changed paths of two trees, equal subtrees are shared and skipped by identity of tags
+	 */
+	static class Diff {
+
+		final List<String> changes = new ArrayList<>();
+		int count;
+
+		private void add(String change) {
+			if (count++ < MAX_CHANGES) {
+				changes.add(change);
+			}
+		}
+
+		void compare(String path, Object before, Object after) {
+			if (before == after) {
+				return;
+			}
+			if (before instanceof NBTBox a && after instanceof NBTBox b && a.getHandle() == b.getHandle()) {
+				return;
+			}
+			if (before instanceof Map<?, ?> a && after instanceof Map<?, ?> b) {
+				for (Map.Entry<?, ?> entry : a.entrySet()) {
+					String entryPath = path.isEmpty() ? String.valueOf(entry.getKey()) : path + "." + entry.getKey();
+					if (b.containsKey(entry.getKey())) {
+						compare(entryPath, entry.getValue(), b.get(entry.getKey()));
+					} else {
+						add("-" + entryPath);
+					}
+				}
+				for (Object key : b.keySet()) {
+					if (!a.containsKey(key)) {
+						add("+" + (path.isEmpty() ? String.valueOf(key) : path + "." + key));
+					}
+				}
+				return;
+			}
+			if (before instanceof List<?> a && after instanceof List<?> b && a.size() == b.size()) {
+				for (int i = 0; i < a.size(); i++) {
+					compare(path + "[" + i + "]", a.get(i), b.get(i));
+				}
+				return;
+			}
+			if (before instanceof List<?> a && after instanceof List<?> b) {
+				add("~" + path + " (" + a.size() + " -> " + b.size() + ")");
+				return;
+			}
+			if (!Objects.deepEquals(before, after)) {
+				add("~" + path);
+			}
+		}
+
+	}
+
+}
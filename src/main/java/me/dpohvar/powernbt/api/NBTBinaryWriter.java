@@ -0,0 +1,217 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes java values to binary NBT data without creating tags.<br>
+ * Values are converted by the same rules as {@link NBTCompound#put(String, Object)} and {@link NBTList#add(Object)}:
+ * elements of list are converted to type of first element, null entries of map are skipped
+ */
+final class NBTBinaryWriter {
+
+	private static final NBTBridge nbtBridge = NBTBridge.getInstance();
+
+	private final DataOutput out;
+
+	NBTBinaryWriter(DataOutput out) {
+		this.out = out;
+	}
+
+	/**
+	 * Write value as named root tag, value is checked by {@link NBTValidator#getDefault()}
+	 *
+	 * @param value
+	 * 			  java value or {@link NBTBox}
+	 */
+	void writeRoot(Object value) throws IOException {
+		NBTValidator.getDefault().validate(value);
+		byte type = getType(value);
+		out.writeByte(type);
+		if (type == 0) {
+			return;
+		}
+		out.writeUTF("");
+		writePayload(value, type);
+	}
+
+	private void writePayload(Object value, byte type) throws IOException {
+		if (value instanceof NBTBox box) {
+			nbtBridge.writeNBTPayload(out, box.getHandle());
+			return;
+		}
+		if (value instanceof NBTMappedCompound compound && type == 10) {
+			compound.writePayload(out);
+			return;
+		}
+		if (value instanceof NBTMappedList list && type == 9) {
+			list.writePayload(out);
+			return;
+		}
+		switch (type) {
+			case 1 -> {
+				if (value instanceof Boolean bool) {
+					out.writeByte(bool ? 1 : 0);
+				} else if (value instanceof Character character) {
+					out.writeByte((byte) character.charValue());
+				} else {
+					out.writeByte(((Number) value).byteValue());
+				}
+			}
+			case 2 -> out.writeShort(((Number) value).shortValue());
+			case 3 -> out.writeInt(((Number) value).intValue());
+			case 4 -> out.writeLong(((Number) value).longValue());
+			case 5 -> out.writeFloat(((Number) value).floatValue());
+			case 6 -> out.writeDouble(((Number) value).doubleValue());
+			case 7 -> {
+				byte[] array = (byte[]) value;
+				out.writeInt(array.length);
+				out.write(array);
+			}
+			case 8 -> out.writeUTF((String) value);
+			case 9 -> {
+				if (value instanceof Collection<?> collection) {
+					writeList(collection.iterator(), collection.size());
+				} else {
+					Object[] array = (Object[]) value;
+					writeList(Arrays.asList(array).iterator(), array.length);
+				}
+			}
+			case 10 -> writeCompound((Map<?, ?>) value);
+			case 11 -> {
+				int[] array = (int[]) value;
+				out.writeInt(array.length);
+				for (int v : array) {
+					out.writeInt(v);
+				}
+			}
+			case 12 -> {
+				long[] array = (long[]) value;
+				out.writeInt(array.length);
+				for (long v : array) {
+					out.writeLong(v);
+				}
+			}
+			default -> throw new RuntimeException("unknown tag type: " + type);
+		}
+	}
+
+	private void writeCompound(Map<?, ?> map) throws IOException {
+		for (Map.Entry<?, ?> entry : normalizeKeys(map).entrySet()) {
+			Object value = entry.getValue();
+			if (value == null) {
+				continue;
+			}
+			byte type = getType(value);
+			out.writeByte(type);
+			out.writeUTF((String) entry.getKey());
+			writePayload(value, type);
+		}
+		out.writeByte(0);
+	}
+
+	/**
+	 * Leading null elements are skipped, they can not define type of list
+	 */
+	private void writeList(Iterator<?> iterator, int size) throws IOException {
+		Object first = null;
+		while (first == null && iterator.hasNext()) {
+			first = iterator.next();
+			size--;
+		}
+		if (first == null) {
+			out.writeByte(0);
+			out.writeInt(0);
+			return;
+		}
+		byte type = getType(first);
+		out.writeByte(type);
+		out.writeInt(size + 1);
+		writePayload(first, type);
+		while (iterator.hasNext()) {
+			writePayload(NBTManagerUtils.convertValue(iterator.next(), type), type);
+		}
+	}
+
+	/**
+	 * @return map with string keys, keys which are equal as strings are merged like in {@link NBTCompound#put(String, Object)}
+	 */
+	@SuppressWarnings("unchecked")
+	private static Map<String, ?> normalizeKeys(Map<?, ?> map) {
+		boolean stringKeys = true;
+		for (Object key : map.keySet()) {
+			if (!(key instanceof String)) {
+				stringKeys = false;
+				break;
+			}
+		}
+		if (stringKeys) {
+			return (Map<String, ?>) map;
+		}
+		Map<String, Object> result = new LinkedHashMap<>();
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			String key = String.valueOf(entry.getKey());
+			if (entry.getValue() == null) {
+				result.remove(key);
+			} else {
+				result.put(key, entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return type of tag which is created for value
+	 */
+	private static byte getType(Object value) {
+		if (value == null) {
+			return 0;
+		}
+		if (value instanceof NBTBox box) {
+			return nbtBridge.getTagType(box.getHandle());
+		}
+		if (value instanceof Map) {
+			return 10;
+		}
+		if (value instanceof Collection || value instanceof Object[]) {
+			return 9;
+		}
+		if (value instanceof Boolean || value instanceof Byte || value instanceof Character) {
+			return 1;
+		}
+		if (value instanceof Short) {
+			return 2;
+		}
+		if (value instanceof Integer) {
+			return 3;
+		}
+		if (value instanceof Long) {
+			return 4;
+		}
+		if (value instanceof Float) {
+			return 5;
+		}
+		if (value instanceof Double) {
+			return 6;
+		}
+		if (value instanceof byte[]) {
+			return 7;
+		}
+		if (value instanceof String) {
+			return 8;
+		}
+		if (value instanceof int[]) {
+			return 11;
+		}
+		if (value instanceof long[]) {
+			return 12;
+		}
+		throw new RuntimeException("can not convert value to nbt tag");
+	}
+
+}
@@ -1,5 +1,7 @@
 package me.dpohvar.powernbt.api;
 
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
 import org.bukkit.World;
 import org.bukkit.block.BlockState;
 import org.bukkit.entity.Entity;
@@ -10,18 +12,47 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 abstract class NBTBridge {
 
 	private static NBTBridge instance;
 
+	/**
+	 * System property to force bridge implementation: "spigot" or "standalone"
+	 */
+	static final String BRIDGE_PROPERTY = "powernbt.bridge";
+
 	public static NBTBridge getInstance() {
 		if (instance == null) {
-			instance = new NBTBridgeSpigot();
+			String bridge = System.getProperty(BRIDGE_PROPERTY);
+			if ("standalone".equals(bridge)) {
+				instance = new NBTBridgeStandalone();
+			} else if ("spigot".equals(bridge) || isServerAvailable()) {
+				instance = new NBTBridgeSpigot();
+			} else {
+				instance = new NBTBridgeStandalone();
+			}
 		}
 		return instance;
 	}
 
+	/**
+	 * @return true if bukkit server is running and NMS nbt classes can be loaded
+	 */
+	private static boolean isServerAvailable() {
+		try {
+			Server server = Bukkit.getServer();
+			if (server == null) {
+				return false;
+			}
+			Class.forName("net.minecraft.nbt.NBTTagCompound", false, server.getClass().getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
 	abstract Map<String, Object> getNbtInnerMap(Object nbtTagCompound);
 
 	abstract List<Object> getNbtInnerList(Object nbtTagList);
@@ -42,8 +73,12 @@ abstract class NBTBridge {
 
 	abstract Object readNBTData(DataInput dataInput, byte type) throws IOException;
 
+	abstract Object readNBTPayload(DataInput dataInput, byte type) throws IOException;
+
 	abstract void writeNBTData(DataOutput dataInput, Object tag) throws IOException;
 
+	abstract void writeNBTPayload(DataOutput dataOutput, Object tag) throws IOException;
+
 	abstract Entity spawnEntity(Object tag, World world);
 
 	abstract byte getTagType(Object tag);
@@ -52,6 +87,30 @@ abstract class NBTBridge {
 
 	abstract Object getTagValueByPrimitive(Object javaPrimitive);
 
+	abstract byte getByteValue(Object numericTag);
+
+	abstract short getShortValue(Object numericTag);
+
+	abstract int getIntValue(Object numericTag);
+
+	abstract long getLongValue(Object numericTag);
+
+	abstract float getFloatValue(Object numericTag);
+
+	abstract double getDoubleValue(Object numericTag);
+
+	abstract Object createNBTTagByte(byte value);
+
+	abstract Object createNBTTagShort(short value);
+
+	abstract Object createNBTTagInt(int value);
+
+	abstract Object createNBTTagLong(long value);
+
+	abstract Object createNBTTagFloat(float value);
+
+	abstract Object createNBTTagDouble(double value);
+
 	abstract Object cloneTag(Object tag);
 
 	abstract Object createNBTTagCompound();
@@ -62,4 +121,22 @@ abstract class NBTBridge {
 
 	abstract void setNBTTagListType(Object tagList, byte type);
 
+	/**
+	 * @return true if chunks are read and written by chunk storage of server
+	 */
+	abstract boolean isChunkStorageAvailable();
+
+	/**
+	 * Read chunk tag by chunk storage of server in its I/O thread, pending writes of server are read too
+	 *
+	 * @return future of chunk tag or null if chunk is not stored
+	 */
+	abstract CompletableFuture<Object> readChunkNBTTag(World world, int chunkX, int chunkZ);
+
+	/**
+	 * Write chunk tag by chunk storage of server, it writes region file in background
+	 * with its own cache of opened region files
+	 */
+	abstract void writeChunkNBTTag(World world, int chunkX, int chunkZ, Object tag);
+
 }
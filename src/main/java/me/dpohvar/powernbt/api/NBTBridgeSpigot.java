@@ -5,6 +5,7 @@ import com.google.common.base.Charsets;
 import me.dpohvar.powernbt.PowerNBT;
 import me.dpohvar.powernbt.utils.ReflectionUtils.RefClass;
 import me.dpohvar.powernbt.utils.ReflectionUtils.RefConstructor;
+import me.dpohvar.powernbt.utils.ReflectionUtils.RefCache;
 import me.dpohvar.powernbt.utils.ReflectionUtils.RefField;
 import me.dpohvar.powernbt.utils.ReflectionUtils.RefMethod;
 
@@ -21,52 +22,161 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 
 import static me.dpohvar.powernbt.utils.ReflectionUtils.getRefClass;
 
 class NBTBridgeSpigot extends NBTBridge {
 
+	private static final long initStartTime = System.nanoTime();
+	private static final FileConfiguration config = loadConfig();
+	private static final RefCache refCache = new RefCache(new File("plugins/PowerNBT/hooks-cache.properties"), getCacheKey(config));
+
 	// NBT:
-	private final RefConstructor<?> nbtTagEndCon = getRefClass("net.minecraft.nbt.NBTTagEnd").getConstructor();//
-	private final RefConstructor<?> nbtTagByteCon = getRefClass("net.minecraft.nbt.NBTTagByte").getConstructor(byte.class);//
-	private final RefConstructor<?> nbtTagShortCon = getRefClass("net.minecraft.nbt.NBTTagShort").getConstructor(short.class);//
-	private final RefConstructor<?> nbtTagIntCon = getRefClass("net.minecraft.nbt.NBTTagInt").getConstructor(int.class);//
-	private final RefConstructor<?> nbtTagLongCon = getRefClass("net.minecraft.nbt.NBTTagLong").getConstructor(long.class);//
-	private final RefConstructor<?> nbtTagFloatCon = getRefClass("net.minecraft.nbt.NBTTagFloat").getConstructor(float.class);//
-	private final RefConstructor<?> nbtTagDoubleCon = getRefClass("net.minecraft.nbt.NBTTagDouble").getConstructor(double.class);//
-	private final RefClass<?> nbtTagByteArrayClazz = getRefClass("net.minecraft.nbt.NBTTagByteArray");
-	private final RefConstructor<?> nbtTagByteArrayCon = nbtTagByteArrayClazz.getConstructor(byte[].class);//
-	private final RefClass<?> nmNBTTagStringClazz = getRefClass("net.minecraft.nbt.NBTTagString");
-	private final RefConstructor<?> nbtTagStringCon = nmNBTTagStringClazz.getConstructor(String.class);//
-	private final RefClass<?> nbtTagIntArrayClazz = getRefClass("net.minecraft.nbt.NBTTagIntArray");
-	private final RefConstructor<?> nbtTagIntArrayCon = nbtTagIntArrayClazz.getConstructor(int[].class);
-	private final RefClass<?> nbtTagLongArrayClazz = getRefClass("net.minecraft.nbt.NBTTagLongArray");
-	private final RefConstructor<?> nbtTagLongArrayCon = nbtTagLongArrayClazz.getConstructor(long[].class);
-	private final RefClass<?> nbtNumberClazz = getRefClass("net.minecraft.nbt.NBTNumber");
-	private final RefClass<?> nbtTagListClazz = getRefClass("net.minecraft.nbt.NBTTagList");
-	private final RefConstructor<?> nbtTagListCon = nbtTagListClazz.getConstructor();
-	private final RefClass<?> nbtTagCompoundClazz = getRefClass("net.minecraft.nbt.NBTTagCompound");
-	private final RefConstructor<?> nbtTagCompoundCon = nbtTagCompoundClazz.getConstructor();
-	private final RefField<?> nmCompoundMapField = nbtTagCompoundClazz.findField(Map.class);
-	private final RefConstructor<?> nmCompoundCon = nbtTagCompoundClazz.getConstructor();
-	private final RefField<Byte> nmListTypeField = nbtTagListClazz.findField(byte.class, false);
-	private final RefField<List> nmListListField = nbtTagListClazz.findField(List.class);
-	private final RefMethod<?> nmNBTTagGetTypeMethod = RefMethod.parse("net.minecraft.nbt.NBTTagTypes static *(int): net.minecraft.nbt.NBTTagType");
-	private final RefMethod<?> nmNBTTagParseTypeMethod = RefMethod.parse("net.minecraft.nbt.NBTTagType !static *(java.io.DataInput, int, net.minecraft.nbt.NBTReadLimiter)");
-	private final RefField<?> nmNBTGetReadLimiterField = RefField.parse("net.minecraft.nbt.NBTReadLimiter *:net.minecraft.nbt.NBTReadLimiter");
-	private final Object readLimiter = nmNBTGetReadLimiterField.of(null).get();
-	private final RefField<?> nmNBTTagStringValueField = RefField.parse("net.minecraft.nbt.NBTTagString *:java.lang.String");
-	private final RefMethod<?> nmNBTNumberValueMethod = RefMethod.parse("net.minecraft.nbt.NBTNumber *():java.lang.Number");
-	private final RefField<?> nmNBTTagByteArrayValueField = RefField.parse("net.minecraft.nbt.NBTTagByteArray *:byte[]");
-	private final RefField<?> nmNBTTagIntArrayValueField = RefField.parse("net.minecraft.nbt.NBTTagIntArray *:int[]");
-	private final RefField<?> nmNBTTagLongArrayValueField = RefField.parse("net.minecraft.nbt.NBTTagLongArray *:long[]");
-	private final RefMethod<?> nbtBaseWriteDataMethod = RefMethod.parse("net.minecraft.nbt.NBTBase *(java.io.DataOutput): void");
-	private final RefMethod<?> nbtBaseGetTypeMethod = RefMethod.parse("net.minecraft.nbt.NBTBase *(): byte");
-	private final RefMethod<?> nbtBaseCloneMethod = RefMethod.parse("net.minecraft.nbt.NBTBase *(): net.minecraft.nbt.NBTBase");
-	private final RefMethod<?> toolsReadDataInput = RefMethod.parse("net.minecraft.nbt.NBTCompressedStreamTools *(java.io.DataInput): net.minecraft.nbt.NBTTagCompound");
+	private static final RefClass<?> nbtTagEndClazz = getRefClass("net.minecraft.nbt.NBTTagEnd");
+	private static final RefClass<?> nbtTagByteClazz = getRefClass("net.minecraft.nbt.NBTTagByte");
+	private static final RefClass<?> nbtTagShortClazz = getRefClass("net.minecraft.nbt.NBTTagShort");
+	private static final RefClass<?> nbtTagIntClazz = getRefClass("net.minecraft.nbt.NBTTagInt");
+	private static final RefClass<?> nbtTagLongClazz = getRefClass("net.minecraft.nbt.NBTTagLong");
+	private static final RefClass<?> nbtTagFloatClazz = getRefClass("net.minecraft.nbt.NBTTagFloat");
+	private static final RefClass<?> nbtTagDoubleClazz = getRefClass("net.minecraft.nbt.NBTTagDouble");
+	private static final RefClass<?> nbtTagByteArrayClazz = getRefClass("net.minecraft.nbt.NBTTagByteArray");
+	private static final RefClass<?> nmNBTTagStringClazz = getRefClass("net.minecraft.nbt.NBTTagString");
+	private static final RefClass<?> nbtTagListClazz = getRefClass("net.minecraft.nbt.NBTTagList");
+	private static final RefClass<?> nbtTagCompoundClazz = getRefClass("net.minecraft.nbt.NBTTagCompound");
+	private static final RefClass<?> nbtTagIntArrayClazz = getRefClass("net.minecraft.nbt.NBTTagIntArray");
+	private static final RefClass<?> nbtTagLongArrayClazz = getRefClass("net.minecraft.nbt.NBTTagLongArray");
+
+	// erased method handles, called with invokeExact: ()Object, (byte)Object, (Object)byte ...
+	private static final MethodHandle nbtTagEndCon = nbtTagEndClazz.getConstructor().getHandle();
+	private static final MethodHandle nbtTagByteCon = nbtTagByteClazz.getConstructor(byte.class).getHandle();
+	private static final MethodHandle nbtTagShortCon = nbtTagShortClazz.getConstructor(short.class).getHandle();
+	private static final MethodHandle nbtTagIntCon = nbtTagIntClazz.getConstructor(int.class).getHandle();
+	private static final MethodHandle nbtTagLongCon = nbtTagLongClazz.getConstructor(long.class).getHandle();
+	private static final MethodHandle nbtTagFloatCon = nbtTagFloatClazz.getConstructor(float.class).getHandle();
+	private static final MethodHandle nbtTagDoubleCon = nbtTagDoubleClazz.getConstructor(double.class).getHandle();
+	private static final MethodHandle nbtTagByteArrayCon = nbtTagByteArrayClazz.getConstructor(byte[].class).getHandle();
+	private static final MethodHandle nbtTagStringCon = nmNBTTagStringClazz.getConstructor(String.class).getHandle();
+	private static final MethodHandle nbtTagIntArrayCon = nbtTagIntArrayClazz.getConstructor(int[].class).getHandle();
+	private static final MethodHandle nbtTagLongArrayCon = nbtTagLongArrayClazz.getConstructor(long[].class).getHandle();
+	private static final MethodHandle nbtTagListCon = nbtTagListClazz.getConstructor().getHandle();
+	private static final MethodHandle nbtTagCompoundCon = nbtTagCompoundClazz.getConstructor().getHandle();
+	private static final MethodHandle nmCompoundMapGetter = nbtTagCompoundClazz.findField(Map.class).getGetterHandle();
+	private static final RefField<Byte> nmListTypeField = nbtTagListClazz.findField(byte.class, false);
+	private static final MethodHandle nmListTypeGetter = nmListTypeField.getGetterHandle();
+	private static final MethodHandle nmListTypeSetter = nmListTypeField.getSetterHandle();
+	private static final MethodHandle nmListListGetter = nbtTagListClazz.findField(List.class).getGetterHandle();
+	private static final MethodHandle nmNBTTagStringValueGetter = refCache.parseField("net.minecraft.nbt.NBTTagString *:java.lang.String").getGetterHandle();
+	private static final MethodHandle nmNBTNumberValueMethod = refCache.parseMethod("net.minecraft.nbt.NBTNumber *():java.lang.Number").getHandle();
+	private static final MethodHandle nmNBTNumberAsByteMethod = refCache.parseMethod("net.minecraft.nbt.NBTNumber declared *(): byte").getHandle();
+	private static final MethodHandle nmNBTNumberAsShortMethod = refCache.parseMethod("net.minecraft.nbt.NBTNumber declared *(): short").getHandle();
+	private static final MethodHandle nmNBTNumberAsIntMethod = refCache.parseMethod("net.minecraft.nbt.NBTNumber declared *(): int").getHandle();
+	private static final MethodHandle nmNBTNumberAsLongMethod = refCache.parseMethod("net.minecraft.nbt.NBTNumber declared *(): long").getHandle();
+	private static final MethodHandle nmNBTNumberAsFloatMethod = refCache.parseMethod("net.minecraft.nbt.NBTNumber declared *(): float").getHandle();
+	private static final MethodHandle nmNBTNumberAsDoubleMethod = refCache.parseMethod("net.minecraft.nbt.NBTNumber declared *(): double").getHandle();
+	private static final MethodHandle nmNBTTagByteArrayValueGetter = refCache.parseField("net.minecraft.nbt.NBTTagByteArray *:byte[]").getGetterHandle();
+	private static final MethodHandle nmNBTTagIntArrayValueGetter = refCache.parseField("net.minecraft.nbt.NBTTagIntArray *:int[]").getGetterHandle();
+	private static final MethodHandle nmNBTTagLongArrayValueGetter = refCache.parseField("net.minecraft.nbt.NBTTagLongArray *:long[]").getGetterHandle();
+	private static final MethodHandle nbtBaseWriteDataMethod = refCache.parseMethod("net.minecraft.nbt.NBTBase *(java.io.DataOutput): void").getHandle();
+	private static final MethodHandle nbtBaseGetTypeMethod = refCache.parseMethod("net.minecraft.nbt.NBTBase *(): byte").getHandle();
+	private static final MethodHandle nbtBaseCloneMethod = refCache.parseMethod("net.minecraft.nbt.NBTBase *(): net.minecraft.nbt.NBTBase").getHandle();
+
+	// tag classes and (Object)Object value extractors indexed by type id
+	private static final RefClass<?>[] tagClasses = {
+			nbtTagEndClazz, nbtTagByteClazz, nbtTagShortClazz, nbtTagIntClazz, nbtTagLongClazz, nbtTagFloatClazz,
+			nbtTagDoubleClazz, nbtTagByteArrayClazz, nmNBTTagStringClazz, nbtTagListClazz, nbtTagCompoundClazz,
+			nbtTagIntArrayClazz, nbtTagLongArrayClazz
+	};
+	private static final MethodHandle[] tagValueGetters = {
+			null, nmNBTNumberValueMethod, nmNBTNumberValueMethod, nmNBTNumberValueMethod, nmNBTNumberValueMethod,
+			nmNBTNumberValueMethod, nmNBTNumberValueMethod, nmNBTTagByteArrayValueGetter, nmNBTTagStringValueGetter,
+			null, null, nmNBTTagIntArrayValueGetter, nmNBTTagLongArrayValueGetter
+	};
+
+	/**
+	 * Type id and value extractor of concrete NMS tag class, type is -1 for unknown classes
+	 */
+	private record TagHandler(byte type, MethodHandle valueGetter) { }
+
+	private static final ClassValue<TagHandler> tagHandlers = new ClassValue<>() {
+		@Override
+		protected TagHandler computeValue(Class<?> clazz) {
+			for (byte type = 0; type < tagClasses.length; type++) {
+				if (tagClasses[type].getRealClass().isAssignableFrom(clazz)) {
+					return new TagHandler(type, tagValueGetters[type]);
+				}
+			}
+			return new TagHandler((byte) -1, null);
+		}
+	};
+
+	/**
+	 * (Object)Object tag constructors by class of java value
+	 */
+	private static final ClassValue<MethodHandle> tagConstructors = new ClassValue<>() {
+		@Override
+		protected MethodHandle computeValue(Class<?> clazz) {
+			MethodHandle constructor;
+			if (clazz == Boolean.class) {
+				constructor = MethodHandles.filterArguments(nbtTagByteCon, 0, findConverter("booleanToByte", boolean.class));
+			} else if (clazz == Character.class) {
+				constructor = MethodHandles.filterArguments(nbtTagByteCon, 0, findConverter("charToByte", char.class));
+			} else if (clazz == Byte.class) {
+				constructor = nbtTagByteCon;
+			} else if (clazz == Short.class) {
+				constructor = nbtTagShortCon;
+			} else if (clazz == Integer.class) {
+				constructor = nbtTagIntCon;
+			} else if (clazz == Long.class) {
+				constructor = nbtTagLongCon;
+			} else if (clazz == Float.class) {
+				constructor = nbtTagFloatCon;
+			} else if (clazz == Double.class) {
+				constructor = nbtTagDoubleCon;
+			} else if (clazz == String.class) {
+				constructor = nbtTagStringCon;
+			} else if (clazz == byte[].class) {
+				constructor = nbtTagByteArrayCon;
+			} else if (clazz == int[].class) {
+				constructor = nbtTagIntArrayCon;
+			} else if (clazz == long[].class) {
+				constructor = nbtTagLongArrayCon;
+			} else {
+				return null;
+			}
+			return constructor.asType(MethodType.methodType(Object.class, Object.class));
+		}
+	};
+
+	private static MethodHandle findConverter(String name, Class<?> from) {
+		try {
+			return MethodHandles.lookup().findStatic(NBTBridgeSpigot.class, name, MethodType.methodType(byte.class, from));
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static byte booleanToByte(boolean value) {
+		return value ? (byte) 1 : (byte) 0;
+	}
+
+	private static byte charToByte(char value) {
+		return (byte) value;
+	}
+
+	private final RefMethod<?> nmNBTTagGetTypeMethod = refCache.parseMethod("net.minecraft.nbt.NBTTagTypes static *(int): net.minecraft.nbt.NBTTagType");
+	private final RefMethod<?> nmNBTTagParseTypeMethod = refCache.parseMethod("net.minecraft.nbt.NBTTagType !static *(java.io.DataInput, int, net.minecraft.nbt.NBTReadLimiter)");
+	private final RefField<?> nmNBTGetReadLimiterField = refCache.parseField("net.minecraft.nbt.NBTReadLimiter *:net.minecraft.nbt.NBTReadLimiter");
+	private final Object readLimiter = nmNBTGetReadLimiterField.get(null);
+	private final RefMethod<?> toolsReadDataInput = refCache.parseMethod("net.minecraft.nbt.NBTCompressedStreamTools *(java.io.DataInput): net.minecraft.nbt.NBTTagCompound");
 
 	// Entity:
 	private final RefMethod<?> cEntityGetHandleMethod; // getHandle()
@@ -91,37 +201,78 @@ class NBTBridgeSpigot extends NBTBridge {
 	private final RefMethod<?> cWorldGetHandleMethod;
 	private final RefMethod<?> cWorldAddEntityMethod;
 
+	/**
+	 * Hooks of chunk storage of server, chunks are not written if they are not resolved
+	 */
+	private record ChunkStorageHooks(RefMethod<?> getChunkSource, RefField<?> chunkMap, RefConstructor<?> chunkPos,
+									 RefMethod<?> readChunk, RefMethod<?> writeChunk) { }
+
+	private final ChunkStorageHooks chunkStorageHooks;
+
 	public NBTBridgeSpigot() {
-		FileConfiguration config = YamlConfiguration.loadConfiguration(new File("plugins/PowerNBT/config.yml"));
-		final InputStream defConfigStream = PowerNBT.class.getClassLoader().getResourceAsStream("config.yml");
-		if (defConfigStream != null) {
-			YamlConfiguration defaults = YamlConfiguration.loadConfiguration(new InputStreamReader(defConfigStream, Charsets.UTF_8));
-			config.setDefaults(defaults);
-		}
 		var bukkitVersionKey = Bukkit.getBukkitVersion().replace('.', '_');
 
 		ConfigurationSection section = config.getConfigurationSection("hooks." + bukkitVersionKey);
 		ConfigurationSection defSection = config.getConfigurationSection("hooks.default");
 
-		cEntityGetNBTMethod = RefMethod.parse(getConfString("entity.getNBT", section, defSection));
-		cEntityGetNBTSimpleMethod = RefMethod.parse(getConfString("entity.getNBTSimple", section, defSection));
-		cEntitySetNBTMethod = RefMethod.parse(getConfString("entity.setNBT", section, defSection));
-		cEntityGetHandleMethod = RefMethod.parse(getConfString("entity.getHandle", section, defSection));
-		cEntityTypesCreateMethod = RefMethod.parse(getConfString("entity.createType", section, defSection));
-		nEntityGetBukkitMethod = RefMethod.parse(getConfString("entity.getBukkitEntity", section, defSection));
-
-		cBlockGetSnapshotMethod = RefMethod.parse(getConfString("block.getSnapshot", section, defSection));
-		nBlockGetNBTMethod = RefMethod.parse(getConfString("block.getNBT", section, defSection));
-		nBlockSetNBTMethod = RefMethod.parse(getConfString("block.setNBT", section, defSection));
+		cEntityGetNBTMethod = refCache.parseMethod(getConfString("entity.getNBT", section, defSection));
+		cEntityGetNBTSimpleMethod = refCache.parseMethod(getConfString("entity.getNBTSimple", section, defSection));
+		cEntitySetNBTMethod = refCache.parseMethod(getConfString("entity.setNBT", section, defSection));
+		cEntityGetHandleMethod = refCache.parseMethod(getConfString("entity.getHandle", section, defSection));
+		cEntityTypesCreateMethod = refCache.parseMethod(getConfString("entity.createType", section, defSection));
+		nEntityGetBukkitMethod = refCache.parseMethod(getConfString("entity.getBukkitEntity", section, defSection));
+
+		cBlockGetSnapshotMethod = refCache.parseMethod(getConfString("block.getSnapshot", section, defSection));
+		nBlockGetNBTMethod = refCache.parseMethod(getConfString("block.getNBT", section, defSection));
+		nBlockSetNBTMethod = refCache.parseMethod(getConfString("block.setNBT", section, defSection));
+
+		cItemHandleField = refCache.parseField(getConfString("item.handle", section, defSection));
+		cItemCraftCopyMethod = refCache.parseMethod(getConfString("item.craftCopy", section, defSection));
+		nItemGetNBTMethod = refCache.parseMethod(getConfString("item.getNBT", section, defSection));
+		nItemSetNBTMethod = refCache.parseMethod(getConfString("item.setNBT", section, defSection));
+
+		cWorldGetHandleMethod = refCache.parseMethod(getConfString("world.getHandle", section, defSection));
+		cWorldAddEntityMethod = refCache.parseMethod(getConfString("world.addEntity", section, defSection));
+		chunkStorageHooks = resolveChunkStorageHooks(section, defSection);
+
+		refCache.save();
+		long time = (System.nanoTime() - initStartTime) / 1000000;
+		Bukkit.getLogger().info("[PowerNBT] NMS hooks resolved in " + time + " ms ("
+				+ refCache.getHits() + " from cache, " + refCache.getMisses() + " scanned)");
+	}
 
-		cItemHandleField = RefField.parse(getConfString("item.handle", section, defSection));
-		cItemCraftCopyMethod = RefMethod.parse(getConfString("item.craftCopy", section, defSection));
-		nItemGetNBTMethod = RefMethod.parse(getConfString("item.getNBT", section, defSection));
-		nItemSetNBTMethod = RefMethod.parse(getConfString("item.setNBT", section, defSection));
+	private static ChunkStorageHooks resolveChunkStorageHooks(ConfigurationSection section, ConfigurationSection defSection) {
+		try {
+			return new ChunkStorageHooks(
+					refCache.parseMethod(getConfString("world.getChunkSource", section, defSection)),
+					refCache.parseField(getConfString("world.chunkMap", section, defSection)),
+					getRefClass("net.minecraft.world.level.ChunkCoordIntPair").getConstructor(int.class, int.class),
+					refCache.parseMethod(getConfString("world.readChunk", section, defSection)),
+					refCache.parseMethod(getConfString("world.writeChunk", section, defSection))
+			);
+		} catch (RuntimeException e) {
+			Bukkit.getLogger().log(Level.WARNING, "[PowerNBT] chunk storage of server is not found, chunks can not be edited", e);
+			return null;
+		}
+	}
 
-		cWorldGetHandleMethod = RefMethod.parse(getConfString("world.getHandle", section, defSection));
-		cWorldAddEntityMethod = RefMethod.parse(getConfString("world.addEntity", section, defSection));
+	private static FileConfiguration loadConfig() {
+		FileConfiguration config = YamlConfiguration.loadConfiguration(new File("plugins/PowerNBT/config.yml"));
+		final InputStream defConfigStream = PowerNBT.class.getClassLoader().getResourceAsStream("config.yml");
+		if (defConfigStream != null) {
+			YamlConfiguration defaults = YamlConfiguration.loadConfiguration(new InputStreamReader(defConfigStream, Charsets.UTF_8));
+			config.setDefaults(defaults);
+		}
+		return config;
+	}
 
+	/**
+	 * @return key of hooks cache: server version and hash of hooks config
+	 */
+	private static String getCacheKey(FileConfiguration config) {
+		ConfigurationSection hooks = config.getConfigurationSection("hooks");
+		int hooksHash = hooks == null ? 0 : new TreeMap<>(hooks.getValues(true)).toString().hashCode();
+		return Bukkit.getVersion() + "/" + Bukkit.getBukkitVersion() + "/" + Integer.toHexString(hooksHash);
 	}
 
 	private static String getConfString(String path, ConfigurationSection section, ConfigurationSection defSection) {
@@ -136,13 +287,22 @@ class NBTBridgeSpigot extends NBTBridge {
 
 	@Override
 	public Map<String, Object> getNbtInnerMap(Object nbtTagCompound) {
-		// noinspection unchecked
-		return (Map<String, Object>) nmCompoundMapField.of(nbtTagCompound).get();
+		try {
+			// noinspection unchecked
+			return (Map<String, Object>) (Object) nmCompoundMapGetter.invokeExact(nbtTagCompound);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	@Override
 	public List<Object> getNbtInnerList(Object nbtTagList) {
-		return (List<Object>) nmListListField.of(nbtTagList).get();
+		try {
+			// noinspection unchecked
+			return (List<Object>) (Object) nmListListGetter.invokeExact(nbtTagList);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	@Override
@@ -151,14 +311,14 @@ class NBTBridgeSpigot extends NBTBridge {
 			return null;
 		}
 		Object snapshot = cBlockGetSnapshotMethod.of(state).call();
-		Object tag = nmCompoundCon.create();
+		Object tag = createNBTTagCompound();
 		return nBlockGetNBTMethod.of(snapshot).callIfPossible(tag);
 	}
 
 	@Override
 	public Object getEntityNBTTag(Entity entity) {
 		Object nmEntity = cEntityGetHandleMethod.of(entity).call();
-		Object tag = nmCompoundCon.create();
+		Object tag = createNBTTagCompound();
 		boolean readCompleted = (boolean) cEntityGetNBTMethod.of(nmEntity).call(tag);
 		if (!readCompleted) {
 			tag = cEntityGetNBTSimpleMethod.of(nmEntity).call(tag);
@@ -171,7 +331,7 @@ class NBTBridgeSpigot extends NBTBridge {
 		Object cItemStack = cItemHandleField.getRefClass().isInstance(itemStack) ? itemStack
 		                                                                         : cItemCraftCopyMethod.call(itemStack);
 		Object nItemStack = cItemHandleField.of(cItemStack).get();
-		Object tag = nmCompoundCon.create();
+		Object tag = createNBTTagCompound();
 		return nItemGetNBTMethod.of(nItemStack).call(tag);
 	}
 
@@ -214,60 +374,49 @@ class NBTBridgeSpigot extends NBTBridge {
 	@Override
 	public @Nullable Object readNBTData(@NotNull DataInput dataInput, byte type) throws IOException {
 		dataInput.skipBytes(dataInput.readUnsignedShort());
-		var nbtTagType = nmNBTTagGetTypeMethod.call(type);
-		return nmNBTTagParseTypeMethod.of(nbtTagType).call(dataInput, (int) type, readLimiter);
+		return readNBTPayload(dataInput, type);
+	}
+
+	@Override
+	public Object readNBTPayload(@NotNull DataInput dataInput, byte type) throws IOException {
+		var nbtTagType = nmNBTTagGetTypeMethod.invoke(null, (Object) (int) type);
+		return nmNBTTagParseTypeMethod.invoke(nbtTagType, dataInput, (int) type, readLimiter);
 	}
 
 	@Override
 	public Object getTagValueByPrimitive(Object javaValue) {
-		if (javaValue == null) {
-			return nbtTagEndCon.create();
-		}
-		if (javaValue instanceof Boolean bool) {
-			return nbtTagByteCon.create(bool ? (byte) 1 : (byte) 0);
-		}
-		if (javaValue instanceof Byte) {
-			return nbtTagByteCon.create(javaValue);
-		}
-		if (javaValue instanceof Character character) {
-			return nbtTagByteCon.create((byte) character.charValue());
-		}
-		if (javaValue instanceof Short) {
-			return nbtTagShortCon.create(javaValue);
-		}
-		if (javaValue instanceof Integer) {
-			return nbtTagIntCon.create(javaValue);
-		}
-		if (javaValue instanceof Long) {
-			return nbtTagLongCon.create(javaValue);
-		}
-		if (javaValue instanceof Float) {
-			return nbtTagFloatCon.create(javaValue);
-		}
-		if (javaValue instanceof Double) {
-			return nbtTagDoubleCon.create(javaValue);
-		}
-		if (javaValue instanceof String) {
-			return nbtTagStringCon.create(javaValue);
-		}
-		if (javaValue instanceof byte[]) {
-			return nbtTagByteArrayCon.create(javaValue);
-		}
-		if (javaValue instanceof int[]) {
-			return nbtTagIntArrayCon.create(javaValue);
-		}
-		if (javaValue instanceof long[]) {
-			return nbtTagLongArrayCon.create(javaValue);
+		try {
+			if (javaValue == null) {
+				return (Object) nbtTagEndCon.invokeExact();
+			}
+			MethodHandle constructor = tagConstructors.get(javaValue.getClass());
+			if (constructor != null) {
+				return (Object) constructor.invokeExact(javaValue);
+			}
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
 		}
 		throw new RuntimeException("can not convert value to nbt tag");
 	}
 
 	public byte getTagType(Object tag) {
-		return (byte) nbtBaseGetTypeMethod.of(tag).call();
+		byte type = tagHandlers.get(tag.getClass()).type();
+		if (type >= 0) {
+			return type;
+		}
+		try {
+			return (byte) nbtBaseGetTypeMethod.invokeExact(tag);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	public Object cloneTag(Object tag) {
-		return nbtBaseCloneMethod.of(tag).call();
+		try {
+			return (Object) nbtBaseCloneMethod.invokeExact(tag);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	public void writeNBTData(DataOutput dataInput, Object tag) throws IOException {
@@ -277,7 +426,18 @@ class NBTBridgeSpigot extends NBTBridge {
 			return;
 		}
 		dataInput.writeUTF("");
-		nbtBaseWriteDataMethod.of(tag).call(dataInput);
+		writeNBTPayload(dataInput, tag);
+	}
+
+	@Override
+	public void writeNBTPayload(DataOutput dataOutput, Object tag) throws IOException {
+		try {
+			nbtBaseWriteDataMethod.invokeExact(tag, (Object) dataOutput);
+		} catch (IOException | RuntimeException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	@Override
@@ -295,42 +455,187 @@ class NBTBridgeSpigot extends NBTBridge {
 
 	@Override
 	public Object getPrimitiveValue(Object tag) {
-		if (nmNBTTagStringClazz.isInstance(tag)) {
-			return nmNBTTagStringValueField.of(tag).get();
+		MethodHandle valueGetter = tagHandlers.get(tag.getClass()).valueGetter();
+		if (valueGetter == null) {
+			throw new RuntimeException("unknown tag");
 		}
-		if (nbtNumberClazz.isInstance(tag)) {
-			return nmNBTNumberValueMethod.of(tag).call();
+		try {
+			return (Object) valueGetter.invokeExact(tag);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
 		}
-		if (nbtTagByteArrayClazz.isInstance(tag)) {
-			return nmNBTTagByteArrayValueField.of(tag).get();
+	}
+
+	@Override
+	byte getByteValue(Object numericTag) {
+		try {
+			return (byte) nmNBTNumberAsByteMethod.invokeExact(numericTag);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	short getShortValue(Object numericTag) {
+		try {
+			return (short) nmNBTNumberAsShortMethod.invokeExact(numericTag);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	int getIntValue(Object numericTag) {
+		try {
+			return (int) nmNBTNumberAsIntMethod.invokeExact(numericTag);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	long getLongValue(Object numericTag) {
+		try {
+			return (long) nmNBTNumberAsLongMethod.invokeExact(numericTag);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	float getFloatValue(Object numericTag) {
+		try {
+			return (float) nmNBTNumberAsFloatMethod.invokeExact(numericTag);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	double getDoubleValue(Object numericTag) {
+		try {
+			return (double) nmNBTNumberAsDoubleMethod.invokeExact(numericTag);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	Object createNBTTagByte(byte value) {
+		try {
+			return (Object) nbtTagByteCon.invokeExact(value);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	Object createNBTTagShort(short value) {
+		try {
+			return (Object) nbtTagShortCon.invokeExact(value);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	Object createNBTTagInt(int value) {
+		try {
+			return (Object) nbtTagIntCon.invokeExact(value);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
 		}
-		if (nbtTagIntArrayClazz.isInstance(tag)) {
-			return nmNBTTagIntArrayValueField.of(tag).get();
+	}
+
+	@Override
+	Object createNBTTagLong(long value) {
+		try {
+			return (Object) nbtTagLongCon.invokeExact(value);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
 		}
-		if (nbtTagLongArrayClazz.isInstance(tag)) {
-			return nmNBTTagLongArrayValueField.of(tag).get();
+	}
+
+	@Override
+	Object createNBTTagFloat(float value) {
+		try {
+			return (Object) nbtTagFloatCon.invokeExact(value);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	Object createNBTTagDouble(double value) {
+		try {
+			return (Object) nbtTagDoubleCon.invokeExact(value);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
 		}
-		throw new RuntimeException("unknown tag");
 	}
 
 	@Override
 	Object createNBTTagCompound() {
-		return nbtTagCompoundCon.create();
+		try {
+			return (Object) nbtTagCompoundCon.invokeExact();
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	@Override
 	Object createNBTTagList() {
-		return nbtTagListCon.create();
+		try {
+			return (Object) nbtTagListCon.invokeExact();
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	@Override
 	byte getNBTTagListType(Object tagList) {
-		return nmListTypeField.of(tagList).get();
+		try {
+			return (byte) nmListTypeGetter.invokeExact(tagList);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	@Override
 	void setNBTTagListType(Object tagList, byte type) {
-		nmListTypeField.of(tagList).set(type);
+		try {
+			nmListTypeSetter.invokeExact(tagList, type);
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	boolean isChunkStorageAvailable() {
+		return chunkStorageHooks != null;
+	}
+
+	private Object getChunkStorage(World world) {
+		if (chunkStorageHooks == null) {
+			throw new RuntimeException("chunk storage of server is not found");
+		}
+		Object nWorldServer = cWorldGetHandleMethod.of(world).call();
+		Object chunkSource = chunkStorageHooks.getChunkSource().of(nWorldServer).call();
+		return chunkStorageHooks.chunkMap().of(chunkSource).get();
+	}
+
+	@Override
+	CompletableFuture<Object> readChunkNBTTag(World world, int chunkX, int chunkZ) {
+		Object chunkPos = chunkStorageHooks.chunkPos().create(chunkX, chunkZ);
+		Object result = chunkStorageHooks.readChunk().of(getChunkStorage(world)).call(chunkPos);
+		CompletableFuture<?> future = result instanceof CompletableFuture<?> f ? f : CompletableFuture.completedFuture(result);
+		return future.thenApply(value -> value instanceof Optional<?> optional ? optional.orElse(null) : value);
+	}
+
+	@Override
+	void writeChunkNBTTag(World world, int chunkX, int chunkZ, Object tag) {
+		Object chunkPos = chunkStorageHooks.chunkPos().create(chunkX, chunkZ);
+		chunkStorageHooks.writeChunk().of(getChunkStorage(world)).call(chunkPos, tag);
 	}
 
 }
@@ -0,0 +1,950 @@
+package me.dpohvar.powernbt.api;
+
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.Entity;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Pure java implementation of {@link NBTBridge}.<br>
+ * Works without CraftBukkit and NMS classes, tags are represented by own lightweight model.<br>
+ * Methods which require a running server (entities, blocks, items) are not supported.
+ */
+class NBTBridgeStandalone extends NBTBridge {
+
+	private static final int MAX_DEPTH = 512;
+
+	@Override
+	Map<String, Object> getNbtInnerMap(Object nbtTagCompound) {
+		return ((TagCompound) nbtTagCompound).map;
+	}
+
+	@Override
+	List<Object> getNbtInnerList(Object nbtTagList) {
+		return ((TagList) nbtTagList).list;
+	}
+
+	@Override
+	Object getBlockNBTTag(BlockState state) {
+		throw new RuntimeException("block methods are not available in standalone mode");
+	}
+
+	@Override
+	Object getEntityNBTTag(Entity entity) {
+		throw new RuntimeException("entity methods are not available in standalone mode");
+	}
+
+	@Override
+	Object getItemStackNBTTag(ItemStack itemStack) {
+		throw new RuntimeException("item methods are not available in standalone mode");
+	}
+
+	@Override
+	void setBlockNBTTag(BlockState state, Object tag) {
+		throw new RuntimeException("block methods are not available in standalone mode");
+	}
+
+	@Override
+	void setEntityNBTTag(Entity entity, Object tag) {
+		throw new RuntimeException("entity methods are not available in standalone mode");
+	}
+
+	@Override
+	void setItemStackNBTTag(ItemStack itemStack, Object tag) {
+		throw new RuntimeException("item methods are not available in standalone mode");
+	}
+
+	@Override
+	ItemStack asCraftCopyItemStack(ItemStack itemStack) {
+		throw new RuntimeException("item methods are not available in standalone mode");
+	}
+
+	@Override
+	Object readNBTData(DataInput dataInput, byte type) throws IOException {
+		if (type == 0) {
+			return TagEnd.INSTANCE;
+		}
+		dataInput.skipBytes(dataInput.readUnsignedShort());
+		return readPayload(dataInput, type, 0);
+	}
+
+	@Override
+	Object readNBTPayload(DataInput dataInput, byte type) throws IOException {
+		return readPayload(dataInput, type, 0);
+	}
+
+	@Override
+	void writeNBTData(DataOutput dataOutput, Object tag) throws IOException {
+		Tag nbtTag = (Tag) tag;
+		byte type = nbtTag.getType();
+		dataOutput.writeByte(type);
+		if (type == 0) {
+			return;
+		}
+		dataOutput.writeUTF("");
+		nbtTag.write(dataOutput);
+	}
+
+	@Override
+	void writeNBTPayload(DataOutput dataOutput, Object tag) throws IOException {
+		((Tag) tag).write(dataOutput);
+	}
+
+	@Override
+	Entity spawnEntity(Object tag, World world) {
+		throw new RuntimeException("entity methods are not available in standalone mode");
+	}
+
+	@Override
+	byte getTagType(Object tag) {
+		return ((Tag) tag).getType();
+	}
+
+	@Override
+	Object getPrimitiveValue(Object tag) {
+		return ((Tag) tag).getValue();
+	}
+
+	@Override
+	Object getTagValueByPrimitive(Object javaValue) {
+		if (javaValue == null) {
+			return TagEnd.INSTANCE;
+		}
+		if (javaValue instanceof Boolean bool) {
+			return new TagByte(bool ? (byte) 1 : (byte) 0);
+		}
+		if (javaValue instanceof Byte value) {
+			return new TagByte(value);
+		}
+		if (javaValue instanceof Character character) {
+			return new TagByte((byte) character.charValue());
+		}
+		if (javaValue instanceof Short value) {
+			return new TagShort(value);
+		}
+		if (javaValue instanceof Integer value) {
+			return new TagInt(value);
+		}
+		if (javaValue instanceof Long value) {
+			return new TagLong(value);
+		}
+		if (javaValue instanceof Float value) {
+			return new TagFloat(value);
+		}
+		if (javaValue instanceof Double value) {
+			return new TagDouble(value);
+		}
+		if (javaValue instanceof String value) {
+			return new TagString(value);
+		}
+		if (javaValue instanceof byte[] value) {
+			return new TagByteArray(value);
+		}
+		if (javaValue instanceof int[] value) {
+			return new TagIntArray(value);
+		}
+		if (javaValue instanceof long[] value) {
+			return new TagLongArray(value);
+		}
+		throw new RuntimeException("can not convert value to nbt tag");
+	}
+
+	@Override
+	byte getByteValue(Object numericTag) {
+		TagNumber number = (TagNumber) numericTag;
+		return (byte) number.asLong();
+	}
+
+	@Override
+	short getShortValue(Object numericTag) {
+		TagNumber number = (TagNumber) numericTag;
+		return (short) number.asLong();
+	}
+
+	@Override
+	int getIntValue(Object numericTag) {
+		TagNumber number = (TagNumber) numericTag;
+		return (int) number.asLong();
+	}
+
+	@Override
+	long getLongValue(Object numericTag) {
+		TagNumber number = (TagNumber) numericTag;
+		return number.asLong();
+	}
+
+	@Override
+	float getFloatValue(Object numericTag) {
+		TagNumber number = (TagNumber) numericTag;
+		return number.asFloat();
+	}
+
+	@Override
+	double getDoubleValue(Object numericTag) {
+		TagNumber number = (TagNumber) numericTag;
+		return number.asDouble();
+	}
+
+	@Override
+	Object createNBTTagByte(byte value) {
+		return new TagByte(value);
+	}
+
+	@Override
+	Object createNBTTagShort(short value) {
+		return new TagShort(value);
+	}
+
+	@Override
+	Object createNBTTagInt(int value) {
+		return new TagInt(value);
+	}
+
+	@Override
+	Object createNBTTagLong(long value) {
+		return new TagLong(value);
+	}
+
+	@Override
+	Object createNBTTagFloat(float value) {
+		return new TagFloat(value);
+	}
+
+	@Override
+	Object createNBTTagDouble(double value) {
+		return new TagDouble(value);
+	}
+
+	@Override
+	Object cloneTag(Object tag) {
+		return ((Tag) tag).copy();
+	}
+
+	@Override
+	Object createNBTTagCompound() {
+		return new TagCompound();
+	}
+
+	@Override
+	Object createNBTTagList() {
+		return new TagList();
+	}
+
+	@Override
+	byte getNBTTagListType(Object tagList) {
+		return ((TagList) tagList).type;
+	}
+
+	@Override
+	void setNBTTagListType(Object tagList, byte type) {
+		((TagList) tagList).type = type;
+	}
+
+	private static Tag readPayload(DataInput in, byte type, int depth) throws IOException {
+		if (depth > MAX_DEPTH) {
+			throw new IOException("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+		}
+		switch (type) {
+			case 0:
+				return TagEnd.INSTANCE;
+			case 1:
+				return new TagByte(in.readByte());
+			case 2:
+				return new TagShort(in.readShort());
+			case 3:
+				return new TagInt(in.readInt());
+			case 4:
+				return new TagLong(in.readLong());
+			case 5:
+				return new TagFloat(in.readFloat());
+			case 6:
+				return new TagDouble(in.readDouble());
+			case 7: {
+				byte[] value = new byte[in.readInt()];
+				in.readFully(value);
+				return new TagByteArray(value);
+			}
+			case 8:
+				return new TagString(in.readUTF());
+			case 9: {
+				TagList tagList = new TagList();
+				tagList.type = in.readByte();
+				int size = in.readInt();
+				if (tagList.type == 0 && size > 0) {
+					throw new IOException("Missing type on ListTag");
+				}
+				tagList.list.ensureCapacity(size);
+				for (int i = 0; i < size; i++) {
+					tagList.list.add(readPayload(in, tagList.type, depth + 1));
+				}
+				return tagList;
+			}
+			case 10: {
+				TagCompound compound = new TagCompound();
+				byte childType;
+				while ((childType = in.readByte()) != 0) {
+					String key = in.readUTF();
+					compound.map.put(key, readPayload(in, childType, depth + 1));
+				}
+				return compound;
+			}
+			case 11: {
+				int[] value = new int[in.readInt()];
+				for (int i = 0; i < value.length; i++) {
+					value[i] = in.readInt();
+				}
+				return new TagIntArray(value);
+			}
+			case 12: {
+				long[] value = new long[in.readInt()];
+				for (int i = 0; i < value.length; i++) {
+					value[i] = in.readLong();
+				}
+				return new TagLongArray(value);
+			}
+			default:
+				throw new IOException("Invalid tag id: " + type);
+		}
+	}
+
+	/**
+	 * Base of standalone tag model
+	 */
+	interface Tag {
+
+		byte getType();
+
+		/**
+		 * @return deep copy of tag, immutable tags return itself
+		 */
+		Tag copy();
+
+		/**
+		 * write tag payload without type and name
+		 */
+		void write(DataOutput out) throws IOException;
+
+		/**
+		 * @return java value of primitive tag
+		 */
+		default Object getValue() {
+			throw new RuntimeException("unknown tag");
+		}
+
+	}
+
+	/**
+	 * Numeric tag with primitive accessors
+	 */
+	interface TagNumber extends Tag {
+
+		long asLong();
+
+		float asFloat();
+
+		double asDouble();
+
+	}
+
+	static final class TagEnd implements Tag {
+
+		static final TagEnd INSTANCE = new TagEnd();
+
+		private TagEnd() { }
+
+		@Override
+		public byte getType() {
+			return 0;
+		}
+
+		@Override
+		public Tag copy() {
+			return this;
+		}
+
+		@Override
+		public void write(DataOutput out) { }
+
+		@Override
+		public String toString() {
+			return "END";
+		}
+
+	}
+
+	record TagByte(byte value) implements TagNumber {
+
+		@Override
+		public long asLong() {
+			return value;
+		}
+
+		@Override
+		public float asFloat() {
+			return value;
+		}
+
+		@Override
+		public double asDouble() {
+			return value;
+		}
+
+		@Override
+		public byte getType() {
+			return 1;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public Tag copy() {
+			return this;
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(value);
+		}
+
+		@Override
+		public String toString() {
+			return value + "b";
+		}
+
+	}
+
+	record TagShort(short value) implements TagNumber {
+
+		@Override
+		public long asLong() {
+			return value;
+		}
+
+		@Override
+		public float asFloat() {
+			return value;
+		}
+
+		@Override
+		public double asDouble() {
+			return value;
+		}
+
+		@Override
+		public byte getType() {
+			return 2;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public Tag copy() {
+			return this;
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeShort(value);
+		}
+
+		@Override
+		public String toString() {
+			return value + "s";
+		}
+
+	}
+
+	record TagInt(int value) implements TagNumber {
+
+		@Override
+		public long asLong() {
+			return value;
+		}
+
+		@Override
+		public float asFloat() {
+			return value;
+		}
+
+		@Override
+		public double asDouble() {
+			return value;
+		}
+
+		@Override
+		public byte getType() {
+			return 3;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public Tag copy() {
+			return this;
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeInt(value);
+		}
+
+		@Override
+		public String toString() {
+			return String.valueOf(value);
+		}
+
+	}
+
+	record TagLong(long value) implements TagNumber {
+
+		@Override
+		public long asLong() {
+			return value;
+		}
+
+		@Override
+		public float asFloat() {
+			return value;
+		}
+
+		@Override
+		public double asDouble() {
+			return value;
+		}
+
+		@Override
+		public byte getType() {
+			return 4;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public Tag copy() {
+			return this;
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeLong(value);
+		}
+
+		@Override
+		public String toString() {
+			return value + "L";
+		}
+
+	}
+
+	record TagFloat(float value) implements TagNumber {
+
+		@Override
+		public long asLong() {
+			return (long) value;
+		}
+
+		@Override
+		public float asFloat() {
+			return value;
+		}
+
+		@Override
+		public double asDouble() {
+			return value;
+		}
+
+		@Override
+		public byte getType() {
+			return 5;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public Tag copy() {
+			return this;
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeFloat(value);
+		}
+
+		@Override
+		public String toString() {
+			return value + "f";
+		}
+
+	}
+
+	record TagDouble(double value) implements TagNumber {
+
+		@Override
+		public long asLong() {
+			return (long) value;
+		}
+
+		@Override
+		public float asFloat() {
+			return (float) value;
+		}
+
+		@Override
+		public double asDouble() {
+			return value;
+		}
+
+		@Override
+		public byte getType() {
+			return 6;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public Tag copy() {
+			return this;
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeDouble(value);
+		}
+
+		@Override
+		public String toString() {
+			return value + "d";
+		}
+
+	}
+
+	record TagString(String value) implements Tag {
+
+		@Override
+		public byte getType() {
+			return 8;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public Tag copy() {
+			return this;
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeUTF(value);
+		}
+
+		@Override
+		public String toString() {
+			return quote(value);
+		}
+
+	}
+
+	record TagByteArray(byte[] value) implements Tag {
+
+		@Override
+		public byte getType() {
+			return 7;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public Tag copy() {
+			return new TagByteArray(value.clone());
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeInt(value.length);
+			out.write(value);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof TagByteArray t && Arrays.equals(value, t.value);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(value);
+		}
+
+		@Override
+		public String toString() {
+			StringJoiner joiner = new StringJoiner(",", "[B;", "]");
+			for (byte b : value) {
+				joiner.add(b + "B");
+			}
+			return joiner.toString();
+		}
+
+	}
+
+	record TagIntArray(int[] value) implements Tag {
+
+		@Override
+		public byte getType() {
+			return 11;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public Tag copy() {
+			return new TagIntArray(value.clone());
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeInt(value.length);
+			for (int i : value) {
+				out.writeInt(i);
+			}
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof TagIntArray t && Arrays.equals(value, t.value);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(value);
+		}
+
+		@Override
+		public String toString() {
+			StringJoiner joiner = new StringJoiner(",", "[I;", "]");
+			for (int i : value) {
+				joiner.add(String.valueOf(i));
+			}
+			return joiner.toString();
+		}
+
+	}
+
+	record TagLongArray(long[] value) implements Tag {
+
+		@Override
+		public byte getType() {
+			return 12;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public Tag copy() {
+			return new TagLongArray(value.clone());
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeInt(value.length);
+			for (long l : value) {
+				out.writeLong(l);
+			}
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof TagLongArray t && Arrays.equals(value, t.value);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(value);
+		}
+
+		@Override
+		public String toString() {
+			StringJoiner joiner = new StringJoiner(",", "[L;", "]");
+			for (long l : value) {
+				joiner.add(l + "L");
+			}
+			return joiner.toString();
+		}
+
+	}
+
+	/**
+	 * Typed list of tags, type is 0 while list is empty and was not typed
+	 */
+	static final class TagList implements Tag {
+
+		final ArrayList<Object> list = new ArrayList<>();
+		byte type = 0;
+
+		@Override
+		public byte getType() {
+			return 9;
+		}
+
+		@Override
+		public Tag copy() {
+			TagList copy = new TagList();
+			copy.type = type;
+			copy.list.ensureCapacity(list.size());
+			for (Object tag : list) {
+				copy.list.add(((Tag) tag).copy());
+			}
+			return copy;
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			byte listType = list.isEmpty() ? 0 : type;
+			out.writeByte(listType);
+			out.writeInt(list.size());
+			for (Object tag : list) {
+				((Tag) tag).write(out);
+			}
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return this == o || o instanceof TagList t && list.equals(t.list);
+		}
+
+		@Override
+		public int hashCode() {
+			return list.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			StringJoiner joiner = new StringJoiner(",", "[", "]");
+			for (Object tag : list) {
+				joiner.add(tag.toString());
+			}
+			return joiner.toString();
+		}
+
+	}
+
+	/**
+	 * Compound tag, keeps insertion order of keys
+	 */
+	static final class TagCompound implements Tag {
+
+		private static final Pattern SIMPLE_KEY = Pattern.compile("[A-Za-z0-9._+-]+");
+
+		final LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+
+		@Override
+		public byte getType() {
+			return 10;
+		}
+
+		@Override
+		public Tag copy() {
+			TagCompound copy = new TagCompound();
+			map.forEach((key, tag) -> copy.map.put(key, ((Tag) tag).copy()));
+			return copy;
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			for (Map.Entry<String, Object> entry : map.entrySet()) {
+				Tag tag = (Tag) entry.getValue();
+				if (tag.getType() == 0) {
+					continue;
+				}
+				out.writeByte(tag.getType());
+				out.writeUTF(entry.getKey());
+				tag.write(out);
+			}
+			out.writeByte(0);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return this == o || o instanceof TagCompound t && map.equals(t.map);
+		}
+
+		@Override
+		public int hashCode() {
+			return map.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			StringJoiner joiner = new StringJoiner(",", "{", "}");
+			map.forEach((key, tag) -> {
+				String name = SIMPLE_KEY.matcher(key).matches() ? key : quote(key);
+				joiner.add(name + ":" + tag);
+			});
+			return joiner.toString();
+		}
+
+	}
+
+	private static String quote(String value) {
+		StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' || c == '"') {
+				builder.append('\\');
+			}
+			builder.append(c);
+		}
+		return builder.append('"').toString();
+	}
+
+	@Override
+	boolean isChunkStorageAvailable() {
+		return false;
+	}
+
+	@Override
+	CompletableFuture<Object> readChunkNBTTag(World world, int chunkX, int chunkZ) {
+		throw new RuntimeException("chunk methods are not available in standalone mode");
+	}
+
+	@Override
+	void writeChunkNBTTag(World world, int chunkX, int chunkZ, Object tag) {
+		throw new RuntimeException("chunk methods are not available in standalone mode");
+	}
+
+}
@@ -0,0 +1,84 @@
+package me.dpohvar.powernbt.api;
+
+/**
+ * Tag factory backed by {@link NBTBridge}
+ */
+final class NBTBridgeTagFactory implements NBTTagFactory {
+
+	static final NBTBridgeTagFactory INSTANCE = new NBTBridgeTagFactory();
+
+	private final NBTBridge nbtBridge = NBTBridge.getInstance();
+
+	private NBTBridgeTagFactory() { }
+
+	@Override
+	public Object createByte(byte value) {
+		return nbtBridge.createNBTTagByte(value);
+	}
+
+	@Override
+	public Object createShort(short value) {
+		return nbtBridge.createNBTTagShort(value);
+	}
+
+	@Override
+	public Object createInt(int value) {
+		return nbtBridge.createNBTTagInt(value);
+	}
+
+	@Override
+	public Object createLong(long value) {
+		return nbtBridge.createNBTTagLong(value);
+	}
+
+	@Override
+	public Object createFloat(float value) {
+		return nbtBridge.createNBTTagFloat(value);
+	}
+
+	@Override
+	public Object createDouble(double value) {
+		return nbtBridge.createNBTTagDouble(value);
+	}
+
+	@Override
+	public Object createString(String value) {
+		return nbtBridge.getTagValueByPrimitive(value);
+	}
+
+	@Override
+	public Object createByteArray(byte[] value) {
+		return nbtBridge.getTagValueByPrimitive(value);
+	}
+
+	@Override
+	public Object createIntArray(int[] value) {
+		return nbtBridge.getTagValueByPrimitive(value);
+	}
+
+	@Override
+	public Object createLongArray(long[] value) {
+		return nbtBridge.getTagValueByPrimitive(value);
+	}
+
+	@Override
+	public Object createCompound() {
+		return nbtBridge.createNBTTagCompound();
+	}
+
+	@Override
+	public void put(Object compound, String key, Object tag) {
+		nbtBridge.getNbtInnerMap(compound).put(key, tag);
+	}
+
+	@Override
+	public Object createList() {
+		return nbtBridge.createNBTTagList();
+	}
+
+	@Override
+	public void add(Object list, Object tag) {
+		NBTList.forNBT(list).addTag(tag);
+	}
+
+}
@@ -0,0 +1,165 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * Compression of NBT and JSON files.<br>
+ * Compression of input data is detected by magic bytes, see {@link #decodeDetected(InputStream)}.
+ * Default deflate level and buffer size can be changed by system properties
+ * {@value #LEVEL_PROPERTY} and {@value #BUFFER_SIZE_PROPERTY}.
+ * Inflaters, deflaters and buffers of compressed streams are pooled, see {@link NBTZlibStreams}
+ *
+ * @param type
+ * 			  compression format
+ * @param level
+ * 			  deflate level from 0 to 9, or -1 for default level of zlib
+ * @param bufferSize
+ * 			  size of buffers of streams
+ */
+public record NBTCodec(Type type, int level, int bufferSize) {
+
+	public static final String LEVEL_PROPERTY = "powernbt.deflateLevel";
+	public static final String BUFFER_SIZE_PROPERTY = "powernbt.bufferSize";
+
+	private static final int DEFAULT_LEVEL = Integer.getInteger(LEVEL_PROPERTY, Deflater.DEFAULT_COMPRESSION);
+	private static final int DEFAULT_BUFFER_SIZE = Integer.getInteger(BUFFER_SIZE_PROPERTY, 8192);
+
+	public static final NBTCodec RAW = new NBTCodec(Type.RAW, DEFAULT_LEVEL, DEFAULT_BUFFER_SIZE);
+	public static final NBTCodec GZIP = new NBTCodec(Type.GZIP, DEFAULT_LEVEL, DEFAULT_BUFFER_SIZE);
+	public static final NBTCodec ZLIB = new NBTCodec(Type.ZLIB, DEFAULT_LEVEL, DEFAULT_BUFFER_SIZE);
+
+	public enum Type {
+		RAW, GZIP, ZLIB
+	}
+
+	public NBTCodec {
+		if (level < -1 || level > 9) {
+			throw new IllegalArgumentException("wrong deflate level: " + level);
+		}
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("wrong buffer size: " + bufferSize);
+		}
+	}
+
+	/**
+	 * @param level
+	 * 			  deflate level from 0 to 9, or -1 for default level of zlib
+	 * @return codec with other deflate level
+	 */
+	public NBTCodec withLevel(int level) {
+		return new NBTCodec(type, level, bufferSize);
+	}
+
+	/**
+	 * @param bufferSize
+	 * 			  size of buffers of streams
+	 * @return codec with other buffer size
+	 */
+	public NBTCodec withBufferSize(int bufferSize) {
+		return new NBTCodec(type, level, bufferSize);
+	}
+
+	/**
+	 * Wrap input stream to decompress data
+	 *
+	 * @param inputStream
+	 * 			  compressed data
+	 * @return buffered stream of decompressed data, it supports mark
+	 */
+	public InputStream decode(InputStream inputStream) throws IOException {
+		return switch (type) {
+			case RAW -> inputStream instanceof BufferedInputStream ? inputStream : new BufferedInputStream(inputStream, bufferSize);
+			case GZIP -> NBTZlibStreams.inflate(inputStream, true, bufferSize);
+			case ZLIB -> NBTZlibStreams.inflate(inputStream, false, bufferSize);
+		};
+	}
+
+	/**
+	 * Open file to decompress data, file is closed with returned stream or on error
+	 *
+	 * @param file
+	 * 			  compressed file
+	 * @return buffered stream of decompressed data, it should be closed
+	 */
+	public InputStream decode(File file) throws IOException {
+		return decodeFile(file, this);
+	}
+
+	/**
+	 * Wrap output stream to compress data, returned stream should be closed
+	 *
+	 * @param outputStream
+	 * 			  receiver of compressed data
+	 * @return buffered stream
+	 */
+	public OutputStream encode(OutputStream outputStream) throws IOException {
+		return switch (type) {
+			case RAW -> new BufferedOutputStream(outputStream, bufferSize);
+			case GZIP -> NBTZlibStreams.deflate(outputStream, true, level, bufferSize);
+			case ZLIB -> NBTZlibStreams.deflate(outputStream, false, level, bufferSize);
+		};
+	}
+
+	/**
+	 * Detect compression of data by magic bytes, stream is not consumed
+	 *
+	 * @param inputStream
+	 * 			  stream which supports mark
+	 * @return codec with default settings
+	 */
+	public static NBTCodec detect(InputStream inputStream) throws IOException {
+		inputStream.mark(2);
+		int first = inputStream.read();
+		int second = inputStream.read();
+		inputStream.reset();
+		if (first == 0x1F && second == 0x8B) {
+			return GZIP;
+		}
+		if (first != -1 && second != -1 && (first & 0x0F) == 8 && (first >> 4) <= 7 && ((first << 8) | second) % 31 == 0) {
+			return ZLIB;
+		}
+		return RAW;
+	}
+
+	/**
+	 * Buffer input stream once, detect compression and decompress data in single pass
+	 *
+	 * @param inputStream
+	 * 			  raw or compressed data
+	 * @return buffered stream of decompressed data, it supports mark
+	 */
+	public static InputStream decodeDetected(InputStream inputStream) throws IOException {
+		InputStream buffered = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream, DEFAULT_BUFFER_SIZE);
+		return detect(buffered).decode(buffered);
+	}
+
+	/**
+	 * Open file once, detect compression and decompress data in single pass.
+	 * File is closed with returned stream or on error
+	 *
+	 * @param file
+	 * 			  raw or compressed file
+	 * @return buffered stream of decompressed data, it should be closed
+	 */
+	public static InputStream decodeDetected(File file) throws IOException {
+		return decodeFile(file, null);
+	}
+
+	private static InputStream decodeFile(File file, NBTCodec codec) throws IOException {
+		var fileInput = new FileInputStream(file);
+		try {
+			return codec != null ? codec.decode(fileInput) : decodeDetected(fileInput);
+		} catch (IOException | RuntimeException e) {
+			fileInput.close();
+			throw e;
+		}
+	}
+
+}
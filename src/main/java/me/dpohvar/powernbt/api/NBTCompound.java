@@ -24,14 +24,29 @@ import java.util.*;
  *   cmp.get("self"); // result = {foo=bar}
  * </pre><br>
  * {@link me.dpohvar.powernbt.api.NBTCompound} can not contain empty keys or values (null)<br>
- * {@link me.dpohvar.powernbt.api.NBTCompound} can not contain cross-references.
+ * {@link me.dpohvar.powernbt.api.NBTCompound} can not contain cross-references.<br>
+ * Compound can be read by many threads while it is not modified, modifications need external synchronization.
  */
 @SuppressWarnings("UnusedDeclaration")
 public class NBTCompound implements Map<String, Object>, NBTBox {
 
 	private static NBTBridge nbtBridge = NBTBridge.getInstance();
-	private final Map<String, Object> handleMap;
-	private final Object handle;
+	private Map<String, Object> handleMap;
+	private Object handle;
+	/**
+	 * Cached wrappers of child compounds and lists by hash of key, valid while they wrap the current tag of key.<br>
+	 * Slots are set without locks by reading threads: racing reads may lose cached views, but never return wrong ones
+	 */
+	private ChildView[] childViews;
+
+	/**
+	 * Tree of copy-on-write compound, null if compound changes its tag in place
+	 */
+	private NBTCopyOnWrite cow;
+	private NBTBox cowParent;
+
+	private record ChildView(String key, NBTBox view) {
+	}
 
 	/**
 	 * Create new instance of NBTCompound by NBTTagCompound
@@ -121,11 +136,13 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 	}
 
 	/**
-	 * get Map stored in original NBTTagCompound.
+	 * get Map stored in original NBTTagCompound.<br>
+	 * Tag of copy-on-write compound is copied before, because the map can be changed
 	 *
 	 * @return Map
 	 */
 	public Map<String, Object> getHandleMap() {
+		beforeChange();
 		return handleMap;
 	}
 
@@ -143,16 +160,23 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 
 	/**
 	 * Convert java {@link java.util.Map} to NBTCompound.<br>
-	 * map should not contain cross-references!
+	 * map is checked by {@link NBTValidator#getDefault()} before conversion
 	 *
 	 * @param map
 	 * 			  map to convert
 	 */
 	public NBTCompound(Map<?, ?> map) {
 		this(nbtBridge.createNBTTagCompound());
-		for (var key : map.keySet()) {
-			put(String.valueOf(key), map.get(key));
+		if (map instanceof NBTCompound cmp) {
+			putAll(cmp);
+			return;
 		}
+		NBTValidator.convert(map, () -> {
+			for (var key : map.keySet()) {
+				put(String.valueOf(key), map.get(key));
+			}
+			return null;
+		});
 	}
 
 	/**
@@ -166,6 +190,76 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 		return new NBTCompound(nbtBridge.cloneTag(handle));
 	}
 
+	/**
+	 * Create copy of this compound which shares child tags with original compound.<br>
+	 * Only this node is copied, changes of nested tags affect both compounds.
+	 * Copy of copy-on-write compound is copy-on-write too
+	 *
+	 * @return shallow copy of {@link me.dpohvar.powernbt.api.NBTCompound}
+	 */
+	public NBTCompound shallowClone() {
+		NBTCompound copy = new NBTCompound();
+		copy.handleMap.putAll(handleMap);
+		if (cow != null) {
+			copy.attach(new NBTCopyOnWrite(), null);
+			copy.cow.adopt(copy.handle, copy);
+		}
+		return copy;
+	}
+
+	/**
+	 * Create copy-on-write clone of this compound in constant time.<br>
+	 * Clone shares tags with this compound, a tag is copied with its parents on first change through the clone.
+	 * This compound must not be changed while the clone is used, so use it for snapshots which are not live views
+	 *
+	 * @return copy-on-write {@link me.dpohvar.powernbt.api.NBTCompound}
+	 */
+	public NBTCompound lazyClone() {
+		NBTCompound copy = new NBTCompound(handle);
+		copy.attach(new NBTCopyOnWrite(), null);
+		return copy;
+	}
+
+	/**
+	 * @return true if this compound is view of copy-on-write tree
+	 */
+	boolean isCopyOnWrite() {
+		return cow != null;
+	}
+
+	void attach(NBTCopyOnWrite cow, NBTBox parent) {
+		this.cow = cow;
+		this.cowParent = parent;
+	}
+
+	/**
+	 * Copy shared tag of copy-on-write compound and its parents, must be called before change of tag
+	 */
+	void beforeChange() {
+		if (cow == null || cow.owns(handle)) {
+			return;
+		}
+		Object copy = nbtBridge.createNBTTagCompound();
+		nbtBridge.getNbtInnerMap(copy).putAll(handleMap);
+		NBTCopyOnWrite.replaceChild(cowParent, handle, copy);
+		cow.copied(handle, copy);
+		handle = copy;
+		handleMap = nbtBridge.getNbtInnerMap(copy);
+	}
+
+	/**
+	 * Replace child tag with its copy
+	 */
+	void replaceTag(Object tag, Object copy) {
+		beforeChange();
+		for (Entry<String, Object> e : handleMap.entrySet()) {
+			if (e.getValue() == tag) {
+				e.setValue(copy);
+				return;
+			}
+		}
+	}
+
 	@Override
 	public int size() {
 		return handleMap.size();
@@ -198,7 +292,51 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 
 	@Override
 	public Object get(Object key) {
-		return NBTManager.getInstance().getValueOfTag(handleMap.get(key));
+		Object tag = handleMap.get(key);
+		if (tag == null) {
+			return null;
+		}
+		ChildView[] views = childViews;
+		if (views != null) {
+			ChildView cached = views[slot(views, key)];
+			if (cached != null && cached.key.equals(key) && cached.view.getHandle() == tag) {
+				return cached.view;
+			}
+		}
+		Object value = getValueOfTag(tag);
+		if (value instanceof NBTBox view) {
+			cacheView((String) key, view);
+		}
+		return value;
+	}
+
+	private Object getValueOfTag(Object tag) {
+		return cow != null ? cow.getValue(tag, this) : NBTManager.getInstance().getValueOfTag(tag);
+	}
+
+	private void cacheView(String key, NBTBox view) {
+		ChildView[] views = childViews;
+		if (views == null) {
+			views = new ChildView[Integer.highestOneBit(Math.max(8, handleMap.size() * 2 - 1))];
+			childViews = views;
+		}
+		views[slot(views, key)] = new ChildView(key, view);
+	}
+
+	private void dropView(Object key) {
+		ChildView[] views = childViews;
+		if (views != null) {
+			int slot = slot(views, key);
+			ChildView cached = views[slot];
+			if (cached != null && cached.key.equals(key)) {
+				views[slot] = null;
+			}
+		}
+	}
+
+	private static int slot(ChildView[] views, Object key) {
+		int hash = key.hashCode();
+		return (hash ^ hash >>> 16) & (views.length - 1);
 	}
 
 	/**
@@ -219,7 +357,9 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 			return remove(key);
 		}
 		Object tag;
-		if (value instanceof Map map) {
+		if (value instanceof NBTBox box) {
+			tag = box.getHandleCopy();
+		} else if (value instanceof Map map) {
 			tag = new NBTCompound(map).getHandle();
 		} else if (value instanceof Collection col) {
 			tag = new NBTList(col).getHandle();
@@ -229,17 +369,38 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 			tag = nbtBridge.getTagValueByPrimitive(value);
 		}
 		Object oldTag = put_handle(key, tag);
-		return NBTManager.getInstance().getValueOfTag(oldTag);
+		return getValueOfTag(oldTag);
+	}
+
+	/**
+	 * Put value to NBTTagCompound without copy.<br>
+	 * Tag of {@link NBTBox} value is linked as is, value should not be used after this call
+	 *
+	 * @param key
+	 * 			  Key with which the value is to be associated
+	 * @param value
+	 * 			  Value to be associated with the specified key
+	 */
+	public void putShared(String key, Object value) {
+		if (key != null && value instanceof NBTBox box) {
+			put_handle(key, cow != null ? box.getHandle() : NBTCopyOnWrite.getTagToLink(box));
+		} else {
+			put(key, value);
+		}
 	}
 
 	private Object put_handle(String key, Object tag) {
+		beforeChange();
+		dropView(key);
 		return handleMap.put(key, tag);
 	}
 
 	@Override
 	public Object remove(Object key) {
+		beforeChange();
+		dropView(key);
 		Object oldTag = handleMap.remove(key);
-		return NBTManager.getInstance().getValueOfTag(oldTag);
+		return getValueOfTag(oldTag);
 	}
 
 	/**
@@ -250,6 +411,10 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 	 */
 	@Override
 	public void putAll(@NotNull Map<? extends String, ?> map) {
+		if (map instanceof NBTCompound cmp) {
+			putAll(cmp);
+			return;
+		}
 		for (Entry<? extends String, ?> e : map.entrySet()) {
 			String key = e.getKey();
 			if (key == null) {
@@ -259,24 +424,60 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 		}
 	}
 
+	/**
+	 * Copies all tags of other compound to this NBTTagCompound.<br>
+	 * Tags are cloned directly without conversion to java values
+	 *
+	 * @param compound
+	 * 			  compound to copy from
+	 */
+	public void putAll(NBTCompound compound) {
+		if (compound == this) {
+			return;
+		}
+		for (Entry<String, Object> e : compound.handleMap.entrySet()) {
+			put_handle(e.getKey(), nbtBridge.cloneTag(e.getValue()));
+		}
+	}
+
 	@Override
 	public void clear() {
+		beforeChange();
+		childViews = null;
 		handleMap.clear();
 	}
 
+	/**
+	 * Get keys of compound, tag of copy-on-write compound is copied before because the keys can be removed
+	 *
+	 * @return set of keys
+	 */
 	@Override
 	public Set<String> keySet() {
+		beforeChange();
 		return handleMap.keySet();
 	}
 
+	/**
+	 * Get values of compound, tag of copy-on-write compound is copied before because the values can be removed
+	 *
+	 * @return collection of values
+	 */
 	@Override
 	public Collection<Object> values() {
-		return new NBTValues(handleMap.values());
+		beforeChange();
+		return new NBTValues(this, handleMap.values());
 	}
 
+	/**
+	 * Get entries of compound, tag of copy-on-write compound is copied before because the entries can be changed
+	 *
+	 * @return set of entries
+	 */
 	@Override
 	public NBTEntrySet entrySet() {
-		return new NBTEntrySet(handleMap.entrySet());
+		beforeChange();
+		return new NBTEntrySet(this, handleMap.entrySet());
 	}
 
 	/**
@@ -353,6 +554,10 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 	 * @return value, 0 by default
 	 */
 	public byte getByte(String key) {
+		Object tag = getNumericTag(key, (byte) 4);
+		if (tag != null) {
+			return nbtBridge.getByteValue(tag);
+		}
 		Object val = get(key);
 		if (val instanceof Number) {
 			return ((Number) val).byteValue();
@@ -378,6 +583,10 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 	 * @return value, 0 by default
 	 */
 	public short getShort(String key) {
+		Object tag = getNumericTag(key, (byte) 4);
+		if (tag != null) {
+			return nbtBridge.getShortValue(tag);
+		}
 		Object val = get(key);
 		if (val instanceof Number) {
 			return ((Number) val).shortValue();
@@ -403,6 +612,10 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 	 * @return value, 0 by default
 	 */
 	public int getInt(String key) {
+		Object tag = getNumericTag(key, (byte) 4);
+		if (tag != null) {
+			return nbtBridge.getIntValue(tag);
+		}
 		Object val = get(key);
 		if (val instanceof Number num) {
 			return num.intValue();
@@ -428,6 +641,10 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 	 * @return value, 0 by default
 	 */
 	public long getLong(String key) {
+		Object tag = getNumericTag(key, (byte) 4);
+		if (tag != null) {
+			return nbtBridge.getLongValue(tag);
+		}
 		Object val = get(key);
 		if (val instanceof Number num) {
 			return num.longValue();
@@ -453,6 +670,10 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 	 * @return value, 0 by default
 	 */
 	public float getFloat(String key) {
+		Object tag = getNumericTag(key, (byte) 6);
+		if (tag != null) {
+			return nbtBridge.getFloatValue(tag);
+		}
 		Object val = get(key);
 		if (val instanceof Number) {
 			return ((Number) val).floatValue();
@@ -474,6 +695,10 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 	 * @return value, 0 by default
 	 */
 	public double getDouble(String key) {
+		Object tag = getNumericTag(key, (byte) 6);
+		if (tag != null) {
+			return nbtBridge.getDoubleValue(tag);
+		}
 		Object val = get(key);
 		if (val instanceof Number) {
 			return ((Number) val).doubleValue();
@@ -577,6 +802,114 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 		return null;
 	}
 
+	/**
+	 * Put byte value without boxing
+	 *
+	 * @param key
+	 * 			  key
+	 * @param value
+	 * 			  value
+	 * @return this compound
+	 */
+	public NBTCompound putByte(String key, byte value) {
+		if (key != null) {
+			put_handle(key, nbtBridge.createNBTTagByte(value));
+		}
+		return this;
+	}
+
+	/**
+	 * Put short value without boxing
+	 *
+	 * @param key
+	 * 			  key
+	 * @param value
+	 * 			  value
+	 * @return this compound
+	 */
+	public NBTCompound putShort(String key, short value) {
+		if (key != null) {
+			put_handle(key, nbtBridge.createNBTTagShort(value));
+		}
+		return this;
+	}
+
+	/**
+	 * Put int value without boxing
+	 *
+	 * @param key
+	 * 			  key
+	 * @param value
+	 * 			  value
+	 * @return this compound
+	 */
+	public NBTCompound putInt(String key, int value) {
+		if (key != null) {
+			put_handle(key, nbtBridge.createNBTTagInt(value));
+		}
+		return this;
+	}
+
+	/**
+	 * Put long value without boxing
+	 *
+	 * @param key
+	 * 			  key
+	 * @param value
+	 * 			  value
+	 * @return this compound
+	 */
+	public NBTCompound putLong(String key, long value) {
+		if (key != null) {
+			put_handle(key, nbtBridge.createNBTTagLong(value));
+		}
+		return this;
+	}
+
+	/**
+	 * Put float value without boxing
+	 *
+	 * @param key
+	 * 			  key
+	 * @param value
+	 * 			  value
+	 * @return this compound
+	 */
+	public NBTCompound putFloat(String key, float value) {
+		if (key != null) {
+			put_handle(key, nbtBridge.createNBTTagFloat(value));
+		}
+		return this;
+	}
+
+	/**
+	 * Put double value without boxing
+	 *
+	 * @param key
+	 * 			  key
+	 * @param value
+	 * 			  value
+	 * @return this compound
+	 */
+	public NBTCompound putDouble(String key, double value) {
+		if (key != null) {
+			put_handle(key, nbtBridge.createNBTTagDouble(value));
+		}
+		return this;
+	}
+
+	/**
+	 * @return numeric tag of key with type in range 1..maxType or null
+	 */
+	private Object getNumericTag(String key, byte maxType) {
+		Object tag = handleMap.get(key);
+		if (tag == null) {
+			return null;
+		}
+		byte type = nbtBridge.getTagType(tag);
+		return type >= 1 && type <= maxType ? tag : null;
+	}
+
 	/**
 	 * Get NBTCompound or create new one<br>
 	 * Example: <br><pre>
@@ -595,6 +928,11 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 		}
 		NBTCompound compound = new NBTCompound();
 		put_handle(key, compound.getHandle());
+		if (cow != null) {
+			compound.attach(cow, this);
+			cow.adopt(compound.getHandle(), compound);
+		}
+		cacheView(key, compound);
 		return compound;
 	}
 
@@ -616,6 +954,11 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 		}
 		NBTList list = new NBTList();
 		put_handle(key, list.getHandle());
+		if (cow != null) {
+			list.attach(cow, this);
+			cow.adopt(list.getHandle(), list);
+		}
+		cacheView(key, list);
 		return list;
 	}
 
@@ -632,7 +975,7 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 	 */
 	public Object bind(String key, NBTCompound value) {
 		Object val = get(key);
-		put_handle(key, value.getHandle());
+		put_handle(key, cow != null ? value.getHandle() : NBTCopyOnWrite.getTagToLink(value));
 		return val;
 	}
 
@@ -648,7 +991,7 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 	 */
 	public Object bind(String key, NBTList value) {
 		Object val = get(key);
-		put_handle(key, value.getHandle());
+		put_handle(key, cow != null ? value.getHandle() : NBTCopyOnWrite.getTagToLink(value));
 		return val;
 	}
 
@@ -682,15 +1025,17 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 
 	public static class NBTValues extends AbstractCollection<Object> {
 
+		private final NBTCompound compound;
 		Collection<Object> handle;
 
-		private NBTValues(Collection<Object> values) {
+		private NBTValues(NBTCompound compound, Collection<Object> values) {
+			this.compound = compound;
 			this.handle = values;
 		}
 
 		@Override
 		public Iterator<Object> iterator() {
-			return new NBTValuesIterator(handle.iterator());
+			return new NBTValuesIterator(compound, handle.iterator());
 		}
 
 		@Override
@@ -700,9 +1045,11 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 
 		public static class NBTValuesIterator implements Iterator<Object> {
 
+			private final NBTCompound compound;
 			private final Iterator<Object> handle;
 
-			private NBTValuesIterator(Iterator<Object> iterator) {
+			private NBTValuesIterator(NBTCompound compound, Iterator<Object> iterator) {
+				this.compound = compound;
 				this.handle = iterator;
 			}
 
@@ -713,7 +1060,7 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 
 			@Override
 			public Object next() {
-				return NBTManager.getInstance().getValueOfTag(handle.next());
+				return compound.getValueOfTag(handle.next());
 			}
 
 			@Override
@@ -727,15 +1074,17 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 
 	public static class NBTEntrySet extends AbstractSet<Entry<String, Object>> {
 
+		private final NBTCompound compound;
 		private final Set<Entry<String, Object>> entries;
 
-		private NBTEntrySet(Set<Entry<String, Object>> entries) {
+		private NBTEntrySet(NBTCompound compound, Set<Entry<String, Object>> entries) {
+			this.compound = compound;
 			this.entries = entries;
 		}
 
 		@Override
 		public NBTIterator iterator() {
-			return new NBTIterator(entries.iterator());
+			return new NBTIterator(compound, entries.iterator());
 		}
 
 		@Override
@@ -745,9 +1094,11 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 
 		public static class NBTIterator implements Iterator<Entry<String, Object>> {
 
+			private final NBTCompound compound;
 			private final Iterator<Entry<String, Object>> iterator;
 
-			private NBTIterator(Iterator<Entry<String, Object>> iterator) {
+			private NBTIterator(NBTCompound compound, Iterator<Entry<String, Object>> iterator) {
+				this.compound = compound;
 				this.iterator = iterator;
 			}
 
@@ -781,7 +1132,7 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 
 				@Override
 				public Object getValue() {
-					return NBTManager.getInstance().getValueOfTag(entry.getValue());
+					return compound.getValueOfTag(entry.getValue());
 				}
 
 				@Override
@@ -802,7 +1153,7 @@ public class NBTCompound implements Map<String, Object>, NBTBox {
 							tag = nbtBridge.getTagValueByPrimitive(value);
 						}
 						Object oldTag = entry.setValue(tag);
-						return NBTManager.getInstance().getValueOfTag(oldTag);
+						return compound.getValueOfTag(oldTag);
 					}
 				}
 
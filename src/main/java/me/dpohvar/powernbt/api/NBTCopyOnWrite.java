@@ -0,0 +1,111 @@
+package me.dpohvar.powernbt.api;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * State of copy-on-write tree of {@link NBTCompound} and {@link NBTList} views.<br>
+ * Tags of tree are shared with the source until they are changed. Changed tag is copied with its parents once,
+ * copies are owned by tree and changed in place.<br>
+ * Each tag of tree has one view, so a view follows the copy of its tag
+ */
+final class NBTCopyOnWrite {
+
+	private final Set<Object> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Map<Object, NBTBox> views = new IdentityHashMap<>();
+
+	synchronized boolean owns(Object tag) {
+		return owned.contains(tag);
+	}
+
+	/**
+	 * Get value of child tag, compounds and lists are views of this tree
+	 *
+	 * @param tag
+	 * 			  child tag
+	 * @param parent
+	 * 			  view of parent tag
+	 * @return value of tag
+	 */
+	synchronized Object getValue(Object tag, NBTBox parent) {
+		NBTBox view = views.get(tag);
+		if (view != null) {
+			return view;
+		}
+		Object value = NBTManager.getInstance().getValueOfTag(tag);
+		if (value instanceof NBTCompound compound) {
+			compound.attach(this, parent);
+			views.put(tag, compound);
+		} else if (value instanceof NBTList list) {
+			list.attach(this, parent);
+			views.put(tag, list);
+		}
+		return value;
+	}
+
+	/**
+	 * Add view of new tag which is owned by this tree
+	 *
+	 * @param tag
+	 * 			  new tag
+	 * @param view
+	 * 			  view of tag, attached to tree
+	 */
+	synchronized void adopt(Object tag, NBTBox view) {
+		owned.add(tag);
+		views.put(tag, view);
+	}
+
+	/**
+	 * Replace shared tag with its copy
+	 *
+	 * @param tag
+	 * 			  shared tag
+	 * @param copy
+	 * 			  copy of tag
+	 */
+	synchronized void copied(Object tag, Object copy) {
+		owned.add(copy);
+		NBTBox view = views.remove(tag);
+		if (view != null) {
+			views.put(copy, view);
+		}
+	}
+
+	/**
+	 * Copy shared tags of parent view before its child is replaced
+	 *
+	 * @param parent
+	 * 			  parent view or null
+	 * @param tag
+	 * 			  child tag
+	 * @param copy
+	 * 			  copy of child tag
+	 */
+	static void replaceChild(NBTBox parent, Object tag, Object copy) {
+		if (parent instanceof NBTCompound compound) {
+			compound.replaceTag(tag, copy);
+		} else if (parent instanceof NBTList list) {
+			list.replaceTag(tag, copy);
+		}
+	}
+
+	/**
+	 * Get tag of box to link into other tag, tags of copy-on-write views are copied
+	 * because they may be shared with the source
+	 *
+	 * @param box
+	 * 			  compound or list
+	 * @return tag to link
+	 */
+	static Object getTagToLink(NBTBox box) {
+		if (box instanceof NBTCompound compound && compound.isCopyOnWrite()
+				|| box instanceof NBTList list && list.isCopyOnWrite()) {
+			return box.getHandleCopy();
+		}
+		return box.getHandle();
+	}
+
+}
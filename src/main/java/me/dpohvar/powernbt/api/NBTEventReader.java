@@ -0,0 +1,161 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Decodes binary NBT data to events of {@link NBTVisitor}
+ */
+final class NBTEventReader {
+
+	private static final int MAX_DEPTH = 512;
+
+	private final DataInput in;
+	private final NBTVisitor visitor;
+	private boolean done;
+
+	NBTEventReader(DataInput in, NBTVisitor visitor) {
+		this.in = in;
+		this.visitor = visitor;
+	}
+
+	/**
+	 * Read named root tag
+	 *
+	 * @param type
+	 * 			  type of root tag, already read from input
+	 */
+	void readRoot(byte type) throws IOException {
+		if (type == 0) {
+			return;
+		}
+		in.skipBytes(in.readUnsignedShort());
+		readPayload(type, 0);
+	}
+
+	private void readPayload(byte type, int depth) throws IOException {
+		if (depth > MAX_DEPTH) {
+			throw new IOException("NBT tag is too deep");
+		}
+		switch (type) {
+			case 1 -> visitor.primitive(in.readByte());
+			case 2 -> visitor.primitive(in.readShort());
+			case 3 -> visitor.primitive(in.readInt());
+			case 4 -> visitor.primitive(in.readLong());
+			case 5 -> visitor.primitive(in.readFloat());
+			case 6 -> visitor.primitive(in.readDouble());
+			case 7 -> {
+				byte[] array = new byte[readLength(in)];
+				in.readFully(array);
+				visitor.array(array);
+			}
+			case 8 -> visitor.primitive(in.readUTF());
+			case 9 -> {
+				byte elementType = in.readByte();
+				int size = readLength(in);
+				visitor.startList(elementType, size);
+				for (int i = 0; i < size; i++) {
+					if (done || (done = visitor.isDone())) {
+						return;
+					}
+					readPayload(elementType, depth + 1);
+				}
+				visitor.endList();
+			}
+			case 10 -> {
+				visitor.startCompound();
+				byte entryType;
+				while (!done && !(done = visitor.isDone()) && (entryType = in.readByte()) != 0) {
+					String key = in.readUTF();
+					if (visitor.key(key, entryType)) {
+						readPayload(entryType, depth + 1);
+					} else {
+						skipPayload(in, entryType, depth + 1);
+					}
+				}
+				if (!done) {
+					visitor.endCompound();
+				}
+			}
+			case 11 -> {
+				int[] array = new int[readLength(in)];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = in.readInt();
+				}
+				visitor.array(array);
+			}
+			case 12 -> {
+				long[] array = new long[readLength(in)];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = in.readLong();
+				}
+				visitor.array(array);
+			}
+			default -> throw new IOException("unknown tag type: " + type);
+		}
+	}
+
+	/**
+	 * Skip payload of tag using length prefixes, values are not decoded
+	 */
+	static void skipPayload(DataInput in, byte type, int depth) throws IOException {
+		if (depth > MAX_DEPTH) {
+			throw new IOException("NBT tag is too deep");
+		}
+		switch (type) {
+			case 1 -> skip(in, 1);
+			case 2 -> skip(in, 2);
+			case 3, 5 -> skip(in, 4);
+			case 4, 6 -> skip(in, 8);
+			case 7 -> skip(in, readLength(in));
+			case 8 -> skip(in, in.readUnsignedShort());
+			case 9 -> {
+				byte elementType = in.readByte();
+				int size = readLength(in);
+				switch (elementType) {
+					case 0 -> {
+					}
+					case 1 -> skip(in, size);
+					case 2 -> skip(in, 2L * size);
+					case 3, 5 -> skip(in, 4L * size);
+					case 4, 6 -> skip(in, 8L * size);
+					default -> {
+						for (int i = 0; i < size; i++) {
+							skipPayload(in, elementType, depth + 1);
+						}
+					}
+				}
+			}
+			case 10 -> {
+				byte entryType;
+				while ((entryType = in.readByte()) != 0) {
+					skip(in, in.readUnsignedShort());
+					skipPayload(in, entryType, depth + 1);
+				}
+			}
+			case 11 -> skip(in, 4L * readLength(in));
+			case 12 -> skip(in, 8L * readLength(in));
+			default -> throw new IOException("unknown tag type: " + type);
+		}
+	}
+
+	static int readLength(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			throw new IOException("negative length: " + length);
+		}
+		return length;
+	}
+
+	static void skip(DataInput in, long bytes) throws IOException {
+		while (bytes > 0) {
+			int skipped = in.skipBytes((int) Math.min(bytes, Integer.MAX_VALUE));
+			if (skipped <= 0) {
+				in.readByte(); // throws EOFException at end of data
+				skipped = 1;
+			}
+			bytes -= skipped;
+		}
+	}
+
+}
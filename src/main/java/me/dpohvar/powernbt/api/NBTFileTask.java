@@ -0,0 +1,150 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Task which processes files in own fork-join pool, base of {@link NBTSearch} and {@link NBTBatchEdit}
+ *
+ * @param <T> type of results passed to consumer
+ */
+public abstract class NBTFileTask<T> {
+
+	protected final AtomicInteger processedFiles = new AtomicInteger();
+	protected final AtomicInteger errors = new AtomicInteger();
+	private volatile boolean cancelled;
+	private volatile CompletableFuture<Integer> future;
+	private final CompletableFuture<Integer> listed = new CompletableFuture<>();
+
+	/**
+	 * Create jobs of task, called once by {@link #start(Consumer, int)} in pool thread,
+	 * so files can be listed here without blocking the caller
+	 *
+	 * @param consumer
+	 * 			  receiver of results
+	 * @param parallelism
+	 * 			  count of threads
+	 * @return jobs, usually one job per file
+	 */
+	protected abstract List<Runnable> createJobs(Consumer<T> consumer, int parallelism);
+
+	/**
+	 * Finish task in pool thread when all jobs are done
+	 *
+	 * @return result of task
+	 */
+	protected abstract int finish();
+
+	/**
+	 * Start task in pool with parallelism of available processors minus one
+	 *
+	 * @param consumer
+	 * 			  receiver of results, it is called from pool threads
+	 * @return future with result of task
+	 */
+	public CompletableFuture<Integer> start(Consumer<T> consumer) {
+		return start(consumer, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+	}
+
+	/**
+	 * Start task in new fork-join pool
+	 *
+	 * @param consumer
+	 * 			  receiver of results, it is called from pool threads
+	 * @param parallelism
+	 * 			  count of threads
+	 * @return future with result of task
+	 */
+	public synchronized CompletableFuture<Integer> start(Consumer<T> consumer, int parallelism) {
+		if (future != null) {
+			throw new IllegalStateException("task is already started");
+		}
+		CompletableFuture<Integer> result = new CompletableFuture<>();
+		future = result;
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		pool.execute(() -> {
+			try {
+				List<Runnable> jobs = createJobs(consumer, parallelism);
+				listed.complete(getTotalFiles());
+				List<ForkJoinTask<?>> tasks = new ArrayList<>(jobs.size());
+				for (Runnable job : jobs) {
+					tasks.add(ForkJoinTask.adapt(job));
+				}
+				ForkJoinTask.invokeAll(tasks);
+				result.complete(finish());
+			} catch (Throwable e) {
+				listed.completeExceptionally(e);
+				result.completeExceptionally(e);
+			} finally {
+				pool.shutdown();
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Stop task, future of task is completed with result reached before
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return true if task is started and finished
+	 */
+	public boolean isDone() {
+		CompletableFuture<Integer> f = future;
+		return f != null && f.isDone();
+	}
+
+	/**
+	 * @return count of files, it is known when {@link #whenListed()} is completed
+	 */
+	public abstract int getTotalFiles();
+
+	/**
+	 * Get count of files when jobs of started task are created in pool thread
+	 *
+	 * @return future of {@link #getTotalFiles()}
+	 */
+	public CompletableFuture<Integer> whenListed() {
+		return listed;
+	}
+
+	public int getProcessedFiles() {
+		return processedFiles.get();
+	}
+
+	/**
+	 * @return count of files and parts of files which can not be processed
+	 */
+	public int getErrors() {
+		return errors.get();
+	}
+
+	/**
+	 * List files of folder
+	 *
+	 * @param folder
+	 * 			  folder with files
+	 * @param extension
+	 * 			  extension of files, for example <code>.dat</code>
+	 * @return files with extension, empty if folder does not exist
+	 */
+	public static List<File> listFiles(File folder, String extension) {
+		File[] files = folder.listFiles((dir, name) -> name.endsWith(extension));
+		return files == null ? List.of() : Arrays.asList(files);
+	}
+
+}
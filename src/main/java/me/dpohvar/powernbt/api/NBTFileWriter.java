@@ -0,0 +1,215 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Crash-safe replacement of files.<br>
+ * Data is written to sibling temp file by caller thread or by background thread for async writes.
+ * Temp file is synced to disk, previous file is kept in rotating backups
+ * and temp file is atomically moved over target file by background thread.
+ * Commits of one file are applied in order of writes, readers of file wait for its pending commit.
+ * Commits run in own executor, so tasks of other executors can wait for them without starving it
+ */
+final class NBTFileWriter {
+
+	private static final Logger LOGGER = Logger.getLogger(NBTFileWriter.class.getName()); // works without server
+
+	static final String BACKUPS_PROPERTY = "powernbt.backups";
+
+	interface Output {
+		void write(OutputStream outputStream) throws IOException;
+	}
+
+	private final Executor executor = new NBTIOExecutor("PowerNBT commit");
+	private final Map<File, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+	private volatile int backups = Integer.getInteger(BACKUPS_PROPERTY, 1);
+
+	int getBackups() {
+		return backups;
+	}
+
+	void setBackups(int backups) {
+		if (backups < 0) {
+			throw new IllegalArgumentException("wrong count of backups: " + backups);
+		}
+		this.backups = backups;
+	}
+
+	/**
+	 * Write data to temp file and schedule its commit
+	 *
+	 * @param file
+	 * 			  target file
+	 * @param output
+	 * 			  writer of data, stream is closed after it
+	 * @return future of commit, it is completed exceptionally if file can not be replaced
+	 */
+	CompletableFuture<Void> write(File file, Output output) throws IOException {
+		File target = file.getAbsoluteFile();
+		Path temp = writeTemp(target, output);
+		return schedule(target, () -> commit(temp, target.toPath()));
+	}
+
+	/**
+	 * Schedule write of data to temp file and its commit, nothing is done by caller thread
+	 *
+	 * @param file
+	 * 			  target file
+	 * @param output
+	 * 			  writer of data, it is called by background thread after previous commit of file
+	 * @return future of commit, it is completed exceptionally if data can not be written or file can not be replaced
+	 */
+	CompletableFuture<Void> writeAsync(File file, Output output) {
+		File target = file.getAbsoluteFile();
+		return schedule(target, () -> {
+			try {
+				commit(writeTemp(target, output), target.toPath());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private static Path writeTemp(File target, Output output) throws IOException {
+		Path folder = target.getParentFile().toPath();
+		Files.createDirectories(folder);
+		Path temp = Files.createTempFile(folder, target.getName() + ".", ".tmp");
+		try (var outputStream = Files.newOutputStream(temp)) {
+			output.write(outputStream);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+		return temp;
+	}
+
+	private CompletableFuture<Void> schedule(File target, Runnable task) {
+		CompletableFuture<Void> commit = pending.compute(target, (f, previous) -> {
+			CompletableFuture<Void> before = previous == null ? CompletableFuture.completedFuture(null) : previous.handle((v, e) -> null);
+			return before.thenRunAsync(task, executor);
+		});
+		commit.whenComplete((v, e) -> {
+			pending.remove(target, commit);
+			if (e != null) {
+				LOGGER.log(Level.WARNING, "[PowerNBT] can not write " + target, e);
+			}
+		});
+		return commit;
+	}
+
+	/**
+	 * Wait for pending commit of file
+	 *
+	 * @param file
+	 * 			  file to read
+	 */
+	void await(File file) {
+		CompletableFuture<Void> commit = pending.get(file.getAbsoluteFile());
+		if (commit != null) {
+			commit.handle((v, e) -> null).join();
+		}
+	}
+
+	/**
+	 * Run reading of file after its pending commit, thread of executor is not blocked by waiting
+	 *
+	 * @param file
+	 * 			  file to read
+	 * @param read
+	 * 			  reader of file
+	 * @param executor
+	 * 			  executor of reader
+	 * @return future of read value
+	 */
+	<T> CompletableFuture<T> afterCommit(File file, Supplier<T> read, Executor executor) {
+		CompletableFuture<Void> commit = pending.get(file.getAbsoluteFile());
+		if (commit == null) {
+			return CompletableFuture.supplyAsync(read, executor);
+		}
+		return commit.handle((v, e) -> null).thenApplyAsync(v -> read.get(), executor);
+	}
+
+	/**
+	 * Wait for all pending commits
+	 */
+	void awaitAll() {
+		CompletableFuture.allOf(pending.values().stream()
+				.map(commit -> commit.handle((v, e) -> null))
+				.toArray(CompletableFuture[]::new)
+		).join();
+	}
+
+	private void commit(Path temp, Path target) {
+		try {
+			try (var channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				channel.force(true);
+			}
+			if (backups > 0 && Files.exists(target)) {
+				rotateBackups(target);
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			syncFolder(target.getParent());
+		} catch (IOException e) {
+			try {
+				Files.deleteIfExists(temp);
+			} catch (IOException ignored) {
+			}
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Shift backups <code>name.1.bak</code> .. <code>name.N.bak</code> and keep current file as the first one
+	 */
+	private void rotateBackups(Path target) throws IOException {
+		int count = backups;
+		for (int i = count - 1; i >= 1; i--) {
+			Path backup = getBackup(target, i);
+			if (Files.exists(backup)) {
+				Files.move(backup, getBackup(target, i + 1), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		Path first = getBackup(target, 1);
+		Files.deleteIfExists(first);
+		try {
+			Files.createLink(first, target); // target is replaced by move, so link keeps old data
+		} catch (IOException | UnsupportedOperationException e) {
+			Files.copy(target, first, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static Path getBackup(Path target, int index) {
+		return target.resolveSibling(target.getFileName() + "." + index + ".bak");
+	}
+
+	/**
+	 * Sync entry of moved file, not supported on some systems
+	 */
+	private static void syncFolder(Path folder) {
+		try (var channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException ignored) {
+		}
+	}
+
+}
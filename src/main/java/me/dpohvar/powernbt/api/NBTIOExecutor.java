@@ -0,0 +1,62 @@
+package me.dpohvar.powernbt.api;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounded executor of blocking disk and compression tasks.<br>
+ * Tasks run in virtual threads on java 21+ and in pool of daemon threads otherwise,
+ * count of concurrent tasks is limited by system property {@value #THREADS_PROPERTY}
+ */
+final class NBTIOExecutor implements Executor {
+
+	static final String THREADS_PROPERTY = "powernbt.ioThreads";
+
+	private final Executor executor;
+
+	NBTIOExecutor() {
+		this("PowerNBT I/O");
+	}
+
+	/**
+	 * @param name
+	 * 			  name of threads of pool
+	 */
+	NBTIOExecutor(String name) {
+		int threads = Math.max(1, Integer.getInteger(THREADS_PROPERTY, Math.max(2, Runtime.getRuntime().availableProcessors())));
+		ExecutorService virtualThreads = createVirtualThreadExecutor();
+		if (virtualThreads != null) {
+			Semaphore permits = new Semaphore(threads);
+			this.executor = task -> virtualThreads.execute(() -> {
+				permits.acquireUninterruptibly();
+				try {
+					task.run();
+				} finally {
+					permits.release();
+				}
+			});
+		} else {
+			this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+				Thread thread = new Thread(runnable, name);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	private static ExecutorService createVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null; // java 20 and older
+		}
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		executor.execute(task);
+	}
+
+}
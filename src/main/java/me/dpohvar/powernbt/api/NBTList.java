@@ -34,12 +34,23 @@ import java.util.*;
  *   // now innerCmp is empty, because cmp was added to the list before changes.
  * </pre><br>
  * {@link me.dpohvar.powernbt.api.NBTList} can not contain empty values (null).<br>
- * {@link me.dpohvar.powernbt.api.NBTList} can not contain cross-references.
+ * {@link me.dpohvar.powernbt.api.NBTList} can not contain cross-references.<br>
+ * List can be read by many threads while it is not modified, modifications need external synchronization.
  */
 public class NBTList implements List<Object>, NBTBox {
 
-	private final List<Object> handleList;
-	private final Object handle;
+	private List<Object> handleList;
+	private Object handle;
+	/**
+	 * Cached wrappers of child compounds and lists by index, valid while they wrap the current tag at index.<br>
+	 * Array is grown and filled without locks by reading threads: racing reads may lose cached views, but never return wrong ones
+	 */
+	private NBTBox[] childViews;
+	/**
+	 * Tree of copy-on-write list, null if list changes its tag in place
+	 */
+	private NBTCopyOnWrite cow;
+	private NBTBox cowParent;
 	private static final NBTBridge nbtBridge = NBTBridge.getInstance();
 	private static final NBTManager nbt = NBTManager.getInstance();
 
@@ -80,14 +91,14 @@ public class NBTList implements List<Object>, NBTBox {
 
 	/**
 	 * Convert java {@link java.util.Collection} to NBTList.<br>
-	 * Map should not contain cross-references!
+	 * collection is checked by {@link NBTValidator#getDefault()} before conversion
 	 *
 	 * @param collection
 	 * 			  collection
 	 */
 	public NBTList(Collection<?> collection) {
 		this(nbtBridge.createNBTTagList());
-		this.addAll(collection);
+		NBTValidator.convert(collection, () -> this.addAll(collection));
 	}
 
 	/**
@@ -98,7 +109,7 @@ public class NBTList implements List<Object>, NBTBox {
 	 */
 	public NBTList(Object[] array) {
 		this(nbtBridge.createNBTTagList());
-		this.addAll(Arrays.asList(array));
+		NBTValidator.convert(array, () -> this.addAll(Arrays.asList(array)));
 	}
 
 	/**
@@ -114,11 +125,13 @@ public class NBTList implements List<Object>, NBTBox {
 	}
 
 	/**
-	 * Get list stored in original NBTTagList.
+	 * Get list stored in original NBTTagList.<br>
+	 * Tag of copy-on-write list is copied before, because the list can be changed
 	 *
 	 * @return handle list
 	 */
 	public List<Object> getHandleList() {
+		beforeChange();
 		return handleList;
 	}
 
@@ -159,6 +172,16 @@ public class NBTList implements List<Object>, NBTBox {
 
 	private Object convertToCurrentTypeTag(Object value) {
 		byte type = getType();
+		if (value instanceof NBTBox box) {
+			Object tag = box.getHandle();
+			byte tagType = nbtBridge.getTagType(tag);
+			if (type == 0) {
+				setType(tagType);
+				return box.getHandleCopy();
+			} else if (type == tagType) {
+				return box.getHandleCopy();
+			}
+		}
 		if (type == 0) {
 			Object tag;
 			if (value instanceof Map map) {
@@ -235,6 +258,81 @@ public class NBTList implements List<Object>, NBTBox {
 		return new NBTList(nbtBridge.cloneTag(handle));
 	}
 
+	/**
+	 * Create copy of this list which shares child tags with original list.<br>
+	 * Only this node is copied, changes of nested tags affect both lists
+	 *
+	 * @return shallow copy of {@link me.dpohvar.powernbt.api.NBTList}
+	 */
+	public NBTList shallowClone() {
+		NBTList copy = new NBTList();
+		if (!isEmpty()) {
+			copy.setType(getType());
+			copy.handleList.addAll(handleList);
+		}
+		if (cow != null) {
+			copy.attach(new NBTCopyOnWrite(), null);
+			copy.cow.adopt(copy.handle, copy);
+		}
+		return copy;
+	}
+
+	/**
+	 * Create copy-on-write clone of this list in constant time.<br>
+	 * Clone shares tags with this list, a tag is copied with its parents on first change through the clone.
+	 * This list must not be changed while the clone is used, so use it for snapshots which are not live views
+	 *
+	 * @return copy-on-write {@link me.dpohvar.powernbt.api.NBTList}
+	 */
+	public NBTList lazyClone() {
+		NBTList copy = new NBTList(handle);
+		copy.attach(new NBTCopyOnWrite(), null);
+		return copy;
+	}
+
+	/**
+	 * @return true if this list is view of copy-on-write tree
+	 */
+	boolean isCopyOnWrite() {
+		return cow != null;
+	}
+
+	void attach(NBTCopyOnWrite cow, NBTBox parent) {
+		this.cow = cow;
+		this.cowParent = parent;
+	}
+
+	/**
+	 * Copy shared tag of copy-on-write list and its parents, must be called before change of tag
+	 */
+	void beforeChange() {
+		if (cow == null || cow.owns(handle)) {
+			return;
+		}
+		Object copy = nbtBridge.createNBTTagList();
+		if (!handleList.isEmpty()) {
+			nbtBridge.setNBTTagListType(copy, getType());
+			nbtBridge.getNbtInnerList(copy).addAll(handleList);
+		}
+		NBTCopyOnWrite.replaceChild(cowParent, handle, copy);
+		cow.copied(handle, copy);
+		handle = copy;
+		handleList = nbtBridge.getNbtInnerList(copy);
+	}
+
+	/**
+	 * Replace child tag with its copy
+	 */
+	void replaceTag(Object tag, Object copy) {
+		beforeChange();
+		for (int i = 0; i < handleList.size(); i++) {
+			if (handleList.get(i) == tag) {
+				handleList.set(i, copy);
+				return;
+			}
+		}
+	}
+
 	@Override
 	public int size() {
 		return handleList.size();
@@ -263,6 +361,7 @@ public class NBTList implements List<Object>, NBTBox {
 	@Override
 	@SuppressWarnings("NullableProblems")
 	public NBTIterator iterator() {
+		beforeChange();
 		return new NBTIterator(handleList.listIterator());
 	}
 
@@ -301,12 +400,14 @@ public class NBTList implements List<Object>, NBTBox {
 	 */
 	@Override
 	public boolean add(Object o) {
+		beforeChange();
 		Object tag = convertToCurrentTypeTag(o);
 		return handleList.add(tag);
 	}
 
 	@Override
 	public boolean remove(Object value) {
+		beforeChange();
 		Object tag;
 		if (value instanceof Map map) {
 			tag = new NBTCompound(map).getHandle();
@@ -317,6 +418,7 @@ public class NBTList implements List<Object>, NBTBox {
 		} else {
 			tag = nbtBridge.getTagValueByPrimitive(value);
 		}
+		invalidateViews();
 		return handleList.remove(tag);
 	}
 
@@ -332,6 +434,10 @@ public class NBTList implements List<Object>, NBTBox {
 
 	@Override
 	public boolean addAll(@SuppressWarnings("NullableProblems") Collection<?> primCollection) {
+		beforeChange();
+		if (primCollection instanceof NBTList list && isCompatible(list)) {
+			return handleList.addAll(copyTags(list));
+		}
 		boolean modified = false;
 		for (Object t : primCollection) {
 			Object tag = convertToCurrentTypeTag(t);
@@ -342,6 +448,12 @@ public class NBTList implements List<Object>, NBTBox {
 
 	@Override
 	public boolean addAll(int index, @SuppressWarnings("NullableProblems") Collection<?> c) {
+		beforeChange();
+		if (c instanceof NBTList list && isCompatible(list)) {
+			List<Object> tags = copyTags(list);
+			invalidateViews();
+			return handleList.addAll(index, tags);
+		}
 		boolean modified = false;
 		for (Object t : c) {
 			if (t == null) {
@@ -349,13 +461,37 @@ public class NBTList implements List<Object>, NBTBox {
 			}
 			Object tag = convertToCurrentTypeTag(t);
 			modified = true;
+			invalidateViews();
 			handleList.add(index++, tag);
 		}
 		return modified;
 	}
 
+	/**
+	 * @return true if tags of list can be copied to this list without conversion
+	 */
+	private boolean isCompatible(NBTList list) {
+		byte type = getType();
+		return list.isEmpty() || type == 0 || type == list.getType();
+	}
+
+	/**
+	 * Clone all tags of list and adopt its type if this list is empty
+	 */
+	private List<Object> copyTags(NBTList list) {
+		ArrayList<Object> tags = new ArrayList<>(list.size());
+		for (Object tag : list.handleList) {
+			tags.add(nbtBridge.cloneTag(tag));
+		}
+		if (!tags.isEmpty() && getType() == 0) {
+			setType(list.getType());
+		}
+		return tags;
+	}
+
 	@Override
 	public boolean removeAll(@SuppressWarnings("NullableProblems") Collection<?> c) {
+		beforeChange();
 		boolean modified = false;
 		for (Object value : c) {
 			Object tag;
@@ -370,6 +506,7 @@ public class NBTList implements List<Object>, NBTBox {
 			}
 			modified |= handleList.remove(tag);
 		}
+		invalidateViews();
 		return modified;
 	}
 
@@ -388,41 +525,379 @@ public class NBTList implements List<Object>, NBTBox {
 
 	@Override
 	public void clear() {
+		beforeChange();
+		invalidateViews();
 		handleList.clear();
 	}
 
 	public void clear(int fromIndex, int toIndex) {
+		beforeChange();
+		invalidateViews();
 		handleList.subList(fromIndex, toIndex).clear();
 	}
 
 	@Override
 	public Object get(int index) {
 		Object tag = handleList.get(index);
-		return nbt.getValueOfTag(tag);
+		NBTBox[] views = childViews;
+		if (views != null && index < views.length) {
+			NBTBox view = views[index];
+			if (view != null && view.getHandle() == tag) {
+				return view;
+			}
+		}
+		Object value = getValueOfTag(tag);
+		if (value instanceof NBTBox view) {
+			cacheView(index, view);
+		}
+		return value;
+	}
+
+	private Object getValueOfTag(Object tag) {
+		return cow != null ? cow.getValue(tag, this) : nbt.getValueOfTag(tag);
+	}
+
+	private void cacheView(int index, NBTBox view) {
+		NBTBox[] views = childViews;
+		if (views == null || views.length <= index) {
+			int length = Math.max(index + 1, handleList.size());
+			views = views == null ? new NBTBox[length] : Arrays.copyOf(views, length);
+			childViews = views;
+		}
+		views[index] = view;
+	}
+
+	private void dropView(int index) {
+		NBTBox[] views = childViews;
+		if (views != null && index < views.length) {
+			views[index] = null;
+		}
+	}
+
+	/**
+	 * Drop cached child views, must be called when indexes of elements are shifted
+	 */
+	private void invalidateViews() {
+		childViews = null;
+	}
+
+	/**
+	 * Get byte value at index without boxing
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @return value, 0 if element is not a number
+	 */
+	public byte getByteAt(int index) {
+		Object tag = handleList.get(index);
+		byte type = nbtBridge.getTagType(tag);
+		if (type >= 1 && type <= 4) {
+			return nbtBridge.getByteValue(tag);
+		}
+		Object val = nbt.getValueOfTag(tag);
+		if (val instanceof Number num) {
+			return num.byteValue();
+		}
+		return 0;
+	}
+
+	/**
+	 * Set byte value at index, value is stored without boxing if list contains bytes
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @param value
+	 * 			  value
+	 */
+	public void setByteAt(int index, byte value) {
+		beforeChange();
+		if (getType() == 1) {
+			handleList.set(index, nbtBridge.createNBTTagByte(value));
+		} else {
+			set(index, value);
+		}
+	}
+
+	/**
+	 * Get short value at index without boxing
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @return value, 0 if element is not a number
+	 */
+	public short getShortAt(int index) {
+		Object tag = handleList.get(index);
+		byte type = nbtBridge.getTagType(tag);
+		if (type >= 1 && type <= 4) {
+			return nbtBridge.getShortValue(tag);
+		}
+		Object val = nbt.getValueOfTag(tag);
+		if (val instanceof Number num) {
+			return num.shortValue();
+		}
+		return 0;
+	}
+
+	/**
+	 * Set short value at index, value is stored without boxing if list contains shorts
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @param value
+	 * 			  value
+	 */
+	public void setShortAt(int index, short value) {
+		beforeChange();
+		if (getType() == 2) {
+			handleList.set(index, nbtBridge.createNBTTagShort(value));
+		} else {
+			set(index, value);
+		}
+	}
+
+	/**
+	 * Get int value at index without boxing
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @return value, 0 if element is not a number
+	 */
+	public int getIntAt(int index) {
+		Object tag = handleList.get(index);
+		byte type = nbtBridge.getTagType(tag);
+		if (type >= 1 && type <= 4) {
+			return nbtBridge.getIntValue(tag);
+		}
+		Object val = nbt.getValueOfTag(tag);
+		if (val instanceof Number num) {
+			return num.intValue();
+		}
+		return 0;
+	}
+
+	/**
+	 * Set int value at index, value is stored without boxing if list contains ints
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @param value
+	 * 			  value
+	 */
+	public void setIntAt(int index, int value) {
+		beforeChange();
+		if (getType() == 3) {
+			handleList.set(index, nbtBridge.createNBTTagInt(value));
+		} else {
+			set(index, value);
+		}
+	}
+
+	/**
+	 * Get long value at index without boxing
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @return value, 0 if element is not a number
+	 */
+	public long getLongAt(int index) {
+		Object tag = handleList.get(index);
+		byte type = nbtBridge.getTagType(tag);
+		if (type >= 1 && type <= 4) {
+			return nbtBridge.getLongValue(tag);
+		}
+		Object val = nbt.getValueOfTag(tag);
+		if (val instanceof Number num) {
+			return num.longValue();
+		}
+		return 0;
+	}
+
+	/**
+	 * Set long value at index, value is stored without boxing if list contains longs
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @param value
+	 * 			  value
+	 */
+	public void setLongAt(int index, long value) {
+		beforeChange();
+		if (getType() == 4) {
+			handleList.set(index, nbtBridge.createNBTTagLong(value));
+		} else {
+			set(index, value);
+		}
+	}
+
+	/**
+	 * Get float value at index without boxing
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @return value, 0 if element is not a number
+	 */
+	public float getFloatAt(int index) {
+		Object tag = handleList.get(index);
+		byte type = nbtBridge.getTagType(tag);
+		if (type >= 1 && type <= 6) {
+			return nbtBridge.getFloatValue(tag);
+		}
+		Object val = nbt.getValueOfTag(tag);
+		if (val instanceof Number num) {
+			return num.floatValue();
+		}
+		return 0;
+	}
+
+	/**
+	 * Set float value at index, value is stored without boxing if list contains floats
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @param value
+	 * 			  value
+	 */
+	public void setFloatAt(int index, float value) {
+		beforeChange();
+		if (getType() == 5) {
+			handleList.set(index, nbtBridge.createNBTTagFloat(value));
+		} else {
+			set(index, value);
+		}
+	}
+
+	/**
+	 * Get double value at index without boxing
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @return value, 0 if element is not a number
+	 */
+	public double getDoubleAt(int index) {
+		Object tag = handleList.get(index);
+		byte type = nbtBridge.getTagType(tag);
+		if (type >= 1 && type <= 6) {
+			return nbtBridge.getDoubleValue(tag);
+		}
+		Object val = nbt.getValueOfTag(tag);
+		if (val instanceof Number num) {
+			return num.doubleValue();
+		}
+		return 0;
+	}
+
+	/**
+	 * Set double value at index, value is stored without boxing if list contains doubles
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @param value
+	 * 			  value
+	 */
+	public void setDoubleAt(int index, double value) {
+		beforeChange();
+		if (getType() == 6) {
+			handleList.set(index, nbtBridge.createNBTTagDouble(value));
+		} else {
+			set(index, value);
+		}
+	}
+
+	/**
+	 * Replace element of NBTList without copy.<br>
+	 * Tag of {@link NBTBox} value is linked as is if it matches type of list, value should not be used after this call
+	 *
+	 * @param index
+	 * 			  index of element
+	 * @param value
+	 * 			  value
+	 */
+	public void setShared(int index, Object value) {
+		beforeChange();
+		Object tag = getSharedTag(value);
+		if (tag == null) {
+			set(index, value);
+			return;
+		}
+		handleList.set(index, tag);
+		dropView(index);
+	}
+
+	/**
+	 * Append value to NBTList without copy.<br>
+	 * Tag of {@link NBTBox} value is linked as is if it matches type of list, value should not be used after this call
+	 *
+	 * @param value
+	 * 			  value
+	 */
+	public void addShared(Object value) {
+		beforeChange();
+		Object tag = getSharedTag(value);
+		if (tag == null) {
+			add(value);
+			return;
+		}
+		handleList.add(tag);
+	}
+
+	/**
+	 * Append tag to NBTList without copy, tag of other type is converted to type of list
+	 *
+	 * @param tag
+	 * 			  NBT tag
+	 */
+	void addTag(Object tag) {
+		beforeChange();
+		Object shared = getSharedTagOfHandle(tag);
+		handleList.add(shared != null ? shared : convertToCurrentTypeTag(nbt.getValueOfTag(tag)));
+	}
+
+	private Object getSharedTag(Object value) {
+		if (!(value instanceof NBTBox box)) {
+			return null;
+		}
+		return getSharedTagOfHandle(cow != null ? box.getHandle() : NBTCopyOnWrite.getTagToLink(box));
+	}
+
+	private Object getSharedTagOfHandle(Object tag) {
+		byte type = getType();
+		byte tagType = nbtBridge.getTagType(tag);
+		if (type == 0) {
+			setType(tagType);
+		} else if (type != tagType) {
+			return null;
+		}
+		return tag;
 	}
 
 	@Override
 	public Object set(int index, Object element) {
+		beforeChange();
 		if (element == null) {
 			return remove(index);
 		}
 		Object tag = convertToCurrentTypeTag(element);
 		Object oldTag = handleList.set(index, tag);
-		return nbt.getValueOfTag(oldTag);
+		dropView(index);
+		return getValueOfTag(oldTag);
 	}
 
 	@Override
 	public void add(int index, Object element) {
+		beforeChange();
 		if (element == null) {
 			return;
 		}
 		Object tag = convertToCurrentTypeTag(element);
+		invalidateViews();
 		handleList.add(index, tag);
 	}
 
 	@Override
 	public Object remove(int index) {
-		return nbt.getValueOfTag(handleList.remove(index));
+		beforeChange();
+		invalidateViews();
+		return getValueOfTag(handleList.remove(index));
 	}
 
 	@Override
@@ -458,12 +933,14 @@ public class NBTList implements List<Object>, NBTBox {
 	@Override
 	@SuppressWarnings("NullableProblems")
 	public NBTIterator listIterator() {
+		beforeChange();
 		return new NBTIterator(handleList.listIterator());
 	}
 
 	@Override
 	@SuppressWarnings("NullableProblems")
 	public NBTIterator listIterator(int index) {
+		beforeChange();
 		return new NBTIterator(handleList.listIterator(index));
 	}
 
@@ -489,7 +966,7 @@ public class NBTList implements List<Object>, NBTBox {
 		@Override
 		public Object next() {
 			Object nbtTag = iterator.next();
-			return nbt.getValueOfTag(nbtTag);
+			return getValueOfTag(nbtTag);
 		}
 
 		@Override
@@ -499,7 +976,7 @@ public class NBTList implements List<Object>, NBTBox {
 
 		@Override
 		public Object previous() {
-			return nbt.getValueOfTag(iterator.previous());
+			return getValueOfTag(iterator.previous());
 		}
 
 		@Override
@@ -514,6 +991,7 @@ public class NBTList implements List<Object>, NBTBox {
 
 		@Override
 		public void remove() {
+			invalidateViews();
 			iterator.remove();
 		}
 
@@ -530,6 +1008,7 @@ public class NBTList implements List<Object>, NBTBox {
 		@Override
 		public void add(Object o) {
 			Object tag = convertToCurrentTypeTag(o);
+			invalidateViews();
 			iterator.add(tag);
 		}
 
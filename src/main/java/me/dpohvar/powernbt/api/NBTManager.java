@@ -1,6 +1,9 @@
 package me.dpohvar.powernbt.api;
 
+import me.dpohvar.powernbt.exception.NBTTagNotFound;
 import me.dpohvar.powernbt.utils.NBTParser;
+import me.dpohvar.powernbt.utils.PowerJSONParser;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
 
 import org.bukkit.*;
 import org.bukkit.block.Block;
@@ -12,9 +15,16 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * PowerNBT API.<br>
@@ -31,6 +41,9 @@ import java.util.zip.GZIPOutputStream;
 public class NBTManager {
 
 	private final NBTBridge nbtBridge = NBTBridge.getInstance();
+	private final NBTIOExecutor ioExecutor = new NBTIOExecutor();
+	private final NBTFileWriter fileWriter = new NBTFileWriter();
+	private final NBTPlayerCache playerCache = new NBTPlayerCache();
 	public static final NBTManager nbtManager = new NBTManager();
 
 	/**
@@ -64,7 +77,7 @@ public class NBTManager {
 	 * 			  Nbt data to be stored
 	 */
 	public void write(Entity entity, NBTCompound compound) {
-		nbtBridge.setEntityNBTTag(entity, compound.getHandle());
+		nbtBridge.setEntityNBTTag(entity, NBTCopyOnWrite.getTagToLink(compound)); // entity can keep nested tags
 	}
 
 	/**
@@ -111,20 +124,122 @@ public class NBTManager {
 	 * @since 0.8.1
 	 */
 	public NBTCompound read(Chunk chunk) {
-		throw new RuntimeException("chunk methods not implemented");
+		return read(chunk.getWorld(), chunk.getX(), chunk.getZ());
 	}
 
 	/**
-	 * Store nbt tag to selected chunk.
+	 * Read nbt tag of chunk from region file of world.<br>
+	 * Chunk is not loaded, last saved data of chunk is read by chunk storage of server
+	 * or from memory-mapped region file if server is not available.
+	 * Caller thread waits for disk access, see {@link #readAsync(World, int, int)}
+	 *
+	 * @param world
+	 * 			  world of chunk
+	 * @param chunkX
+	 * 			  x coordinate of chunk
+	 * @param chunkZ
+	 * 			  z coordinate of chunk
+	 * @return Nbt data of chunk or null if chunk is not generated
+	 */
+	public NBTCompound read(World world, int chunkX, int chunkZ) {
+		if (nbtBridge.isChunkStorageAvailable()) {
+			return NBTCompound.forNBT(nbtBridge.readChunkNBTTag(world, chunkX, chunkZ).join());
+		}
+		return readRegionChunk(getRegionFolder(world), chunkX, chunkZ);
+	}
+
+	/**
+	 * Read nbt tag of chunk without waiting for disk access.<br>
+	 * Chunk storage of server reads chunk in its own I/O thread, pending writes of server are read too.
+	 * Without server memory-mapped region file is read in I/O thread of this manager.
+	 * Region files are not mapped while server uses them: server keeps chunks which are not saved yet
+	 *
+	 * @param world
+	 * 			  world of chunk
+	 * @param chunkX
+	 * 			  x coordinate of chunk
+	 * @param chunkZ
+	 * 			  z coordinate of chunk
+	 * @return future of chunk data, it is completed with null if chunk is not generated
+	 */
+	public CompletableFuture<NBTCompound> readAsync(World world, int chunkX, int chunkZ) {
+		if (nbtBridge.isChunkStorageAvailable()) {
+			return nbtBridge.readChunkNBTTag(world, chunkX, chunkZ).thenApply(NBTCompound::forNBT);
+		}
+		File regionFolder = getRegionFolder(world);
+		return CompletableFuture.supplyAsync(() -> readRegionChunk(regionFolder, chunkX, chunkZ), ioExecutor);
+	}
+
+	private static NBTCompound readRegionChunk(File regionFolder, int chunkX, int chunkZ) {
+		File file = NBTRegionFile.getRegionFile(regionFolder, chunkX, chunkZ);
+		if (!file.isFile()) {
+			return null;
+		}
+		try (var region = new NBTRegionFile(file, false)) {
+			return region.read(chunkX, chunkZ);
+		} catch (IOException e) {
+			throw new RuntimeException("can't read chunk " + chunkX + ":" + chunkZ, e);
+		}
+	}
+
+	/**
+	 * Store nbt tag to selected chunk.<br>
+	 * Loaded chunk can not be written: server replaces stored data by loaded chunk,
+	 * see {@link #write(World, int, int, NBTCompound)}
 	 *
 	 * @param chunk
-	 * 			  Chunk to be changed
+	 * 			  Chunk to be changed, it should be unloaded
 	 * @param compound
 	 * 			  Nbt data
 	 * @since 0.8.1
 	 */
 	public void write(Chunk chunk, NBTCompound compound) {
-		throw new RuntimeException("chunk methods not implemented");
+		write(chunk.getWorld(), chunk.getX(), chunk.getZ(), compound);
+	}
+
+	/**
+	 * Store nbt tag of unloaded chunk by chunk storage of server.<br>
+	 * Server keeps own cache of opened region files and writes them in background,
+	 * so chunk is not written to region file directly.
+	 *
+	 * @param world
+	 * 			  world of chunk
+	 * @param chunkX
+	 * 			  x coordinate of chunk
+	 * @param chunkZ
+	 * 			  z coordinate of chunk
+	 * @param compound
+	 * 			  Nbt data of chunk
+	 */
+	public void write(World world, int chunkX, int chunkZ, NBTCompound compound) {
+		if (world.isChunkLoaded(chunkX, chunkZ)) {
+			throw new RuntimeException("chunk " + chunkX + ":" + chunkZ + " is loaded");
+		}
+		if (!nbtBridge.isChunkStorageAvailable()) {
+			throw new RuntimeException("chunk storage of server is not available, region files are used by server");
+		}
+		nbtBridge.writeChunkNBTTag(world, chunkX, chunkZ, compound.getHandleCopy());
+	}
+
+	/**
+	 * Get folder with region files of world
+	 *
+	 * @param world
+	 * 			  world
+	 * @return region folder
+	 */
+	public File getRegionFolder(World world) {
+		File worldFolder = world.getWorldFolder();
+		File dimensionFolder = switch (world.getEnvironment()) {
+			case NETHER -> new File(worldFolder, "DIM-1");
+			case THE_END -> new File(worldFolder, "DIM1");
+			default -> worldFolder;
+		};
+		File regionFolder = new File(dimensionFolder, "region");
+		if (!regionFolder.isDirectory()) {
+			regionFolder = new File(worldFolder, "region");
+		}
+		return regionFolder;
 	}
 
 	/**
@@ -138,7 +253,7 @@ public class NBTManager {
 	 * 			  tag
 	 */
 	public void write(ItemStack item, NBTCompound compound) {
-		nbtBridge.setItemStackNBTTag(item, compound.getHandle());
+		nbtBridge.setItemStackNBTTag(item, NBTCopyOnWrite.getTagToLink(compound)); // item keeps the tag
 	}
 
 	/**
@@ -192,7 +307,7 @@ public class NBTManager {
 	 * 			  Tag to be saved
 	 */
 	public void write(TileState tileState, NBTCompound compound) {
-		nbtBridge.setBlockNBTTag(tileState, compound.getHandle());
+		nbtBridge.setBlockNBTTag(tileState, NBTCopyOnWrite.getTagToLink(compound)); // block can keep nested tags
 	}
 
 	/**
@@ -228,20 +343,79 @@ public class NBTManager {
 	}
 
 	/**
-	 * Read compressed nbt compound.
+	 * Read compressed nbt compound.<br>
+	 * Compression is detected by {@link NBTCodec#decodeDetected(InputStream)}.
+	 * Input stream is not closed, only decompressing stream is
 	 *
 	 * @param inputStream
 	 * 			  InputStream to read
 	 * @return Nbt rag
 	 */
 	public Object readCompressed(InputStream inputStream) throws IOException {
-		var dis = new DataInputStream(new BufferedInputStream(new GZIPInputStream(inputStream)));
-		return getValueOfTag(nbtBridge.readNBTData(dis, dis.readByte()));
+		try (var dis = new DataInputStream(NBTCodec.decodeDetected(unclosable(inputStream)))) {
+			return getValueOfTag(nbtBridge.readNBTData(dis, dis.readByte()));
+		}
 	}
 
 	public Object readCompressed(InputStream inputStream, byte type) throws IOException {
-		var dis = new DataInputStream(new BufferedInputStream(new GZIPInputStream(inputStream)));
-		return getValueOfTag(nbtBridge.readNBTData(dis, type));
+		try (var dis = new DataInputStream(NBTCodec.decodeDetected(unclosable(inputStream)))) {
+			return getValueOfTag(nbtBridge.readNBTData(dis, type));
+		}
+	}
+
+	/**
+	 * Stream of caller which is not closed with decompressing stream, so pooled inflater is returned only
+	 */
+	private static InputStream unclosable(InputStream inputStream) {
+		return new FilterInputStream(inputStream) {
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	/**
+	 * Read raw NBT data from input stream as events, tag tree is not created.
+	 *
+	 * @param inputStream
+	 * 			  InputStream to read
+	 * @param visitor
+	 * 			  receiver of events
+	 * @throws IOException
+	 * 			  it happens sometimes
+	 */
+	public void readEvents(InputStream inputStream, NBTVisitor visitor) throws IOException {
+		readEvents((DataInput) new DataInputStream(inputStream), visitor);
+	}
+
+	/**
+	 * Read NBT data from dataInput as events, tag tree is not created.
+	 *
+	 * @param dataInput
+	 * 			  dataInput to read
+	 * @param visitor
+	 * 			  receiver of events
+	 * @throws IOException
+	 * 			  it happens sometimes
+	 */
+	public void readEvents(DataInput dataInput, NBTVisitor visitor) throws IOException {
+		new NBTEventReader(dataInput, visitor).readRoot(dataInput.readByte());
+	}
+
+	/**
+	 * Read compressed NBT data from input stream as events, tag tree is not created.
+	 *
+	 * @param inputStream
+	 * 			  InputStream to read
+	 * @param visitor
+	 * 			  receiver of events
+	 * @throws IOException
+	 * 			  it happens sometimes
+	 */
+	public void readEventsCompressed(InputStream inputStream, NBTVisitor visitor) throws IOException {
+		try (var dis = new DataInputStream(NBTCodec.decodeDetected(unclosable(inputStream)))) {
+			readEvents((DataInput) dis, visitor);
+		}
 	}
 
 	/**
@@ -258,9 +432,26 @@ public class NBTManager {
 	}
 
 	public void writeCompressed(OutputStream outputStream, Object value) throws IOException {
-		DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(outputStream)));
-		nbtBridge.writeNBTData(dos, getTagOfValue(value));
-		dos.close();
+		writeCompressed(outputStream, value, NBTCodec.GZIP);
+	}
+
+	/**
+	 * Convert value to nbt and write to outputStream compressed by codec.<br>
+	 * outputStream is closed.
+	 *
+	 * @param outputStream
+	 * 			  outputStream to write
+	 * @param value
+	 * 			  value to be written
+	 * @param codec
+	 * 			  compression of data
+	 * @throws IOException
+	 * 			  it happens sometimes
+	 */
+	public void writeCompressed(OutputStream outputStream, Object value, NBTCodec codec) throws IOException {
+		try (DataOutputStream dos = new DataOutputStream(codec.encode(outputStream))) {
+			new NBTBinaryWriter(dos).writeRoot(value);
+		}
 	}
 
 	/**
@@ -282,7 +473,8 @@ public class NBTManager {
 	}
 
 	/**
-	 * Convert value to nbt and write to dataOutput.
+	 * Convert value to nbt and write to dataOutput.<br>
+	 * Java values are encoded directly, nbt tags are not created.
 	 *
 	 * @param dataOutput
 	 * 			  dataOutput to save
@@ -292,17 +484,7 @@ public class NBTManager {
 	 * 			  it happens sometimes
 	 */
 	public void write(DataOutput dataOutput, Object value) throws IOException {
-		Object tag;
-		if (value instanceof Map map) {
-			tag = new NBTCompound(map).getHandle();
-		} else if (value instanceof Collection col) {
-			tag = new NBTList(col).getHandle();
-		} else if (value instanceof Object[] col) {
-			tag = new NBTList(col).getHandle();
-		} else {
-			tag = nbtBridge.getTagValueByPrimitive(value);
-		}
-		nbtBridge.writeNBTData(dataOutput, tag);
+		new NBTBinaryWriter(dataOutput).writeRoot(value);
 	}
 
 	/**
@@ -315,13 +497,118 @@ public class NBTManager {
 	 * 			  it happens
 	 */
 	public Object read(File file) throws IOException {
+		fileWriter.await(file);
 		try (var inputStream = new FileInputStream(file)) {
 			return this.read(inputStream);
 		}
 	}
 
 	/**
-	 * Write to file value converted to nbt tag.
+	 * Read raw nbt data from file in I/O thread, see {@link #getIOExecutor()}
+	 *
+	 * @param file
+	 * 			  file to read
+	 * @return future of nbt data converted to java types
+	 */
+	public CompletableFuture<Object> readAsync(File file) {
+		return readAfterWrite(file, () -> {
+			try {
+				return read(file);
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+
+	/**
+	 * Read part of nbt data selected by query from file.<br>
+	 * Unselected entries are skipped without decoding.
+	 *
+	 * @param file
+	 * 			  file to read
+	 * @param query
+	 * 			  query to select value
+	 * @return selected value converted to java types
+	 * @throws IOException
+	 * 			  it happens
+	 * @throws NBTTagNotFound
+	 * 			  if query selects nothing
+	 */
+	public Object read(File file, NBTQuery query) throws IOException, NBTTagNotFound {
+		fileWriter.await(file);
+		try (var inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			return read((DataInput) inputStream, query);
+		}
+	}
+
+	/**
+	 * Map uncompressed nbt file to memory and read it lazily.<br>
+	 * Compounds and lists are returned as read-only {@link NBTMappedCompound} and {@link NBTMappedList},
+	 * only accessed entries are decoded. File should not be changed while result is used,
+	 * on Windows it can not be replaced while mapping is reachable, see {@link #readLazy(File)}
+	 *
+	 * @param file
+	 * 			  file with uncompressed nbt data, smaller than 2 GiB
+	 * @return nbt data converted to java types
+	 * @throws IOException
+	 * 			  it happens
+	 */
+	public Object readMapped(File file) throws IOException {
+		fileWriter.await(file);
+		try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("file " + file + " is too large to map");
+			}
+			return new NBTMappedData(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())).readRoot();
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("unexpected end of file " + file, e);
+		}
+	}
+
+	/**
+	 * Read uncompressed nbt file to memory and decode it lazily like {@link #readMapped(File)}.<br>
+	 * File is not mapped, so it can be replaced while result is used
+	 *
+	 * @param file
+	 * 			  file with uncompressed nbt data, smaller than 2 GiB
+	 * @return nbt data converted to java types
+	 * @throws IOException
+	 * 			  it happens
+	 */
+	public Object readLazy(File file) throws IOException {
+		fileWriter.await(file);
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).asReadOnlyBuffer();
+		try {
+			NBTMappedData data = new NBTMappedData(buffer);
+			data.checkRoot();
+			return data.readRoot();
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("unexpected end of file " + file, e);
+		}
+	}
+
+	/**
+	 * Read part of nbt data selected by query from dataInput.<br>
+	 * Unselected entries are skipped without decoding.
+	 *
+	 * @param dataInput
+	 * 			  dataInput to read
+	 * @param query
+	 * 			  query to select value
+	 * @return selected value converted to java types
+	 * @throws IOException
+	 * 			  it happens
+	 * @throws NBTTagNotFound
+	 * 			  if query selects nothing
+	 */
+	public Object read(DataInput dataInput, NBTQuery query) throws IOException, NBTTagNotFound {
+		return new NBTQueryReader(dataInput, query).read();
+	}
+
+	/**
+	 * Write to file value converted to nbt tag.<br>
+	 * Data is written to temp file and file is atomically replaced, see {@link #setFileBackups(int)}.
+	 * Method returns when file is replaced
 	 *
 	 * @param file
 	 * 			  file to write
@@ -331,18 +618,180 @@ public class NBTManager {
 	 * 			  it happens
 	 */
 	public void write(File file, Object value) throws IOException {
-		if (!file.exists()) {
-			file.getParentFile().mkdirs();
-			file.createNewFile();
+		awaitCommit(writeFuture(file, value));
+	}
+
+	/**
+	 * Write to file value converted to nbt tag.<br>
+	 * Data is written to temp file by caller thread, file is replaced in background, see {@link #setFileBackups(int)}.
+	 * Read methods of this manager wait for pending replacement of file
+	 *
+	 * @param file
+	 * 			  file to write
+	 * @param value
+	 * 			  value to be written
+	 * @return future completed when file is replaced, it is completed exceptionally if file can not be replaced
+	 * @throws IOException
+	 * 			  it happens
+	 */
+	public CompletableFuture<Void> writeFuture(File file, Object value) throws IOException {
+		if (file.isDirectory()) {
+			throw new RuntimeException(new FileNotFoundException(file.getPath()));
+		}
+		playerCache.invalidate(file);
+		return fileWriter.write(file, outputStream -> {
+			try (var buffered = new BufferedOutputStream(outputStream)) {
+				write(buffered, value);
+			}
+		});
+	}
+
+	/**
+	 * Export value to text file as SNBT.<br>
+	 * Text is streamed to temp file, file is replaced in background like in {@link #writeFuture(File, Object)}
+	 *
+	 * @param file
+	 * 			  file to write
+	 * @param value
+	 * 			  value to be written
+	 * @param format
+	 * 			  SNBT format, for example {@link NBTStringWriter#PRETTY}
+	 * @return future completed when file is replaced, it is completed exceptionally if file can not be replaced
+	 * @throws IOException
+	 * 			  it happens, also if text is longer than length budget of format, file is not changed then
+	 */
+	public CompletableFuture<Void> writeString(File file, Object value, NBTStringWriter format) throws IOException {
+		if (file.isDirectory()) {
+			throw new RuntimeException(new FileNotFoundException(file.getPath()));
+		}
+		return fileWriter.write(file, outputStream -> {
+			try (var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+				if (!format.write(value, writer)) {
+					throw new IOException("SNBT text is longer than " + format.maxLength());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Write to file value converted to nbt tag in I/O thread.<br>
+	 * Value is converted by caller thread, so it can be changed after this call
+	 *
+	 * @param file
+	 * 			  file to write
+	 * @param value
+	 * 			  value to be written
+	 * @return future completed when file is replaced
+	 * @throws IOException
+	 * 			  if value can not be converted
+	 */
+	public CompletableFuture<Void> writeAsync(File file, Object value) throws IOException {
+		if (file.isDirectory()) {
+			throw new RuntimeException(new FileNotFoundException(file.getPath()));
 		}
+		var data = new ByteArrayOutputStream();
+		write(data, value);
+		playerCache.invalidate(file);
+		return fileWriter.writeAsync(file, data::writeTo);
+	}
+
+	/**
+	 * Write value to file as JSON.<br>
+	 * File is replaced in background like in {@link #writeFuture(File, Object)}
+	 *
+	 * @param file
+	 * 			  file to write
+	 * @param value
+	 * 			  value to be written
+	 * @param codec
+	 * 			  compression of file, for example {@link NBTCodec#RAW}
+	 * @return future completed when file is replaced, it is completed exceptionally if file can not be replaced
+	 * @throws IOException
+	 * 			  it happens
+	 */
+	public CompletableFuture<Void> writeJSON(File file, Object value, NBTCodec codec) throws IOException {
 		if (file.isDirectory()) {
 			throw new RuntimeException(new FileNotFoundException(file.getPath()));
 		}
-		try (var outputStream = new FileOutputStream(file)) {
-			write(outputStream, value);
+		return fileWriter.write(file, outputStream -> {
+			try (var writer = new OutputStreamWriter(codec.encode(outputStream))) {
+				PowerJSONParser.write(value, writer);
+			}
+		});
+	}
+
+	/**
+	 * Set count of backups kept for files written by this manager.<br>
+	 * Backups of <code>name</code> are <code>name.1.bak</code> (previous version) .. <code>name.N.bak</code>.
+	 * Default count is 1, it can be changed by system property {@value NBTFileWriter#BACKUPS_PROPERTY}
+	 *
+	 * @param count
+	 * 			  count of backups, 0 to disable backups
+	 */
+	public void setFileBackups(int count) {
+		fileWriter.setBackups(count);
+	}
+
+	public int getFileBackups() {
+		return fileWriter.getBackups();
+	}
+
+	private static void awaitCommit(CompletableFuture<Void> commit) throws IOException {
+		try {
+			commit.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException cause) {
+				throw cause.getCause();
+			}
+			if (e.getCause() instanceof IOException cause) {
+				throw cause;
+			}
+			throw e;
 		}
 	}
 
+	/**
+	 * Wait until pending write of file is replaced on disk
+	 *
+	 * @param file
+	 * 			  written file
+	 */
+	public void awaitWrite(File file) {
+		fileWriter.await(file);
+	}
+
+	/**
+	 * Read file in I/O thread after pending write of file is replaced on disk.<br>
+	 * I/O thread is not blocked while write is pending
+	 *
+	 * @param file
+	 * 			  file to read
+	 * @param reader
+	 * 			  reader of file
+	 * @return future of read value
+	 */
+	public <T> CompletableFuture<T> readAfterWrite(File file, Supplier<T> reader) {
+		return fileWriter.afterCommit(file, reader, ioExecutor);
+	}
+
+	/**
+	 * Wait until all pending writes of files are replaced on disk
+	 */
+	public void awaitWrites() {
+		fileWriter.awaitAll();
+	}
+
+	/**
+	 * Get bounded executor of async file operations of this manager.<br>
+	 * Virtual threads are used on java 21+,
+	 * count of concurrent tasks is set by system property {@value NBTIOExecutor#THREADS_PROPERTY}
+	 *
+	 * @return executor of blocking I/O tasks
+	 */
+	public Executor getIOExecutor() {
+		return ioExecutor;
+	}
+
 	/**
 	 * Read items as nbt values from inventory
 	 *
@@ -449,15 +898,49 @@ public class NBTManager {
 	 * @return nbt data converted to java types
 	 */
 	public Object readCompressed(File file) {
-		try (var inputStream = new FileInputStream(file)) {
-			return readCompressed(inputStream);
+		fileWriter.await(file);
+		try (var inputStream = new DataInputStream(NBTCodec.decodeDetected(file))) {
+			return getValueOfTag(nbtBridge.readNBTData(inputStream, inputStream.readByte()));
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
 	/**
-	 * Convert value to nbt and write to file with compression.
+	 * Read compressed nbt data from file in I/O thread, see {@link #getIOExecutor()}
+	 *
+	 * @param file
+	 * 			  file to read
+	 * @return future of nbt data converted to java types
+	 */
+	public CompletableFuture<Object> readCompressedAsync(File file) {
+		return readAfterWrite(file, () -> readCompressed(file));
+	}
+
+	/**
+	 * Read part of compressed nbt data selected by query from file.<br>
+	 * Unselected entries are skipped without decoding.
+	 *
+	 * @param file
+	 * 			  file to read
+	 * @param query
+	 * 			  query to select value
+	 * @return selected value converted to java types
+	 * @throws IOException
+	 * 			  it happens
+	 * @throws NBTTagNotFound
+	 * 			  if query selects nothing
+	 */
+	public Object readCompressed(File file, NBTQuery query) throws IOException, NBTTagNotFound {
+		fileWriter.await(file);
+		try (var inputStream = new DataInputStream(NBTCodec.decodeDetected(file))) {
+			return read((DataInput) inputStream, query);
+		}
+	}
+
+	/**
+	 * Convert value to nbt and write to file with compression.<br>
+	 * File is atomically replaced like in {@link #write(File, Object)}, method returns when file is replaced
 	 *
 	 * @param file
 	 * 			  file to write
@@ -465,30 +948,146 @@ public class NBTManager {
 	 * 			  value to be written
 	 */
 	public void writeCompressed(File file, Object value) {
-		if (!file.exists()) {
-			try {
-				file.getParentFile().mkdirs();
-				file.createNewFile();
-			} catch (IOException e) {
-				throw new RuntimeException(e);
-			}
+		try {
+			awaitCommit(writeCompressedFuture(file, value));
+		} catch (IOException e) {
+			throw new RuntimeException(e);
 		}
-		try (var outputStream = new FileOutputStream(file)) {
-			writeCompressed(outputStream, value);
+	}
+
+	/**
+	 * Convert value to nbt and write to file with compression.<br>
+	 * File is replaced in background like in {@link #writeFuture(File, Object)}
+	 *
+	 * @param file
+	 * 			  file to write
+	 * @param value
+	 * 			  value to be written
+	 * @return future completed when file is replaced, it is completed exceptionally if file can not be replaced
+	 */
+	public CompletableFuture<Void> writeCompressedFuture(File file, Object value) {
+		try {
+			playerCache.invalidate(file);
+			return fileWriter.write(file, outputStream -> writeCompressed(outputStream, value));
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
 	/**
-	 * Read offline player's .dat file.
+	 * Convert value to nbt and write to file with compression in I/O thread.<br>
+	 * Value is converted by caller thread, compression is done in I/O thread
+	 *
+	 * @param file
+	 * 			  file to write
+	 * @param value
+	 * 			  value to be written
+	 * @return future completed when file is replaced
+	 */
+	public CompletableFuture<Void> writeCompressedAsync(File file, Object value) {
+		var data = new ByteArrayOutputStream();
+		try {
+			write(data, value);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		playerCache.invalidate(file);
+		return fileWriter.writeAsync(file, outputStream -> {
+			try (var compressed = NBTCodec.GZIP.encode(outputStream)) {
+				data.writeTo(compressed);
+			}
+		});
+	}
+
+	/**
+	 * Read offline player's .dat file.<br>
+	 * File is decoded only if it was changed after previous read, later reads return copy-on-write views
+	 * of cached tag, see {@link NBTCompound#lazyClone()}. Use {@link #readOfflinePlayerSnapshot(UUID)} for read-only view
 	 *
 	 * @param player
 	 * 			  player to read
 	 * @return nbt data read from a file
 	 */
 	public NBTCompound readOfflinePlayer(OfflinePlayer player) {
-		return (NBTCompound) readCompressed(getPlayerFile(player));
+		UUID uuid = player.getUniqueId();
+		return readPlayerCompound(uuid, getPlayerFile(uuid));
+	}
+
+	/**
+	 * Read offline player's .dat file in I/O thread.
+	 *
+	 * @param player
+	 * 			  player to read
+	 * @return future of nbt data read from a file
+	 */
+	public CompletableFuture<NBTCompound> readOfflinePlayerAsync(OfflinePlayer player) {
+		UUID uuid = player.getUniqueId();
+		File file = getPlayerFile(uuid);
+		return readAfterWrite(file, () -> readPlayerCompound(uuid, file));
+	}
+
+	/**
+	 * Read offline player's .dat file using cache.<br>
+	 * Decompressed files of recently read players are cached while time and size of file are not changed.
+	 * Result is read-only view of cached data: compounds and lists are {@link NBTMappedCompound} and {@link NBTMappedList},
+	 * they are decoded on access and can be copied to modifiable tags by {@link NBTCompound#NBTCompound(Map)}
+	 *
+	 * @param uuid
+	 * 			  player's uuid
+	 * @return snapshot of nbt data
+	 */
+	public Object readOfflinePlayerSnapshot(UUID uuid) {
+		return readPlayerFile(uuid, getPlayerFile(uuid));
+	}
+
+	private Object readPlayerFile(UUID uuid, File file) {
+		fileWriter.await(file);
+		try {
+			return playerCache.read(uuid, file);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private NBTCompound readPlayerCompound(UUID uuid, File file) {
+		fileWriter.await(file);
+		try {
+			return playerCache.readCompound(uuid, file);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Drop cached data of offline player, next read decompresses player's file
+	 *
+	 * @param uuid
+	 * 			  player's uuid
+	 */
+	public void invalidateOfflinePlayer(UUID uuid) {
+		playerCache.invalidate(uuid);
+	}
+
+	/**
+	 * Set count of offline players cached by {@link #readOfflinePlayerSnapshot(UUID)}.<br>
+	 * Default count is 64, it can be changed by system property {@value NBTPlayerCache#SIZE_PROPERTY}
+	 *
+	 * @param size
+	 * 			  max count of cached players, 0 to disable cache
+	 */
+	public void setPlayerCacheSize(int size) {
+		playerCache.setMaxSize(size);
+	}
+
+	public int getPlayerCacheSize() {
+		return playerCache.getMaxSize();
+	}
+
+	/**
+	 * Drop all cached offline players and stop watching player folder
+	 */
+	public void clearPlayerCache() {
+		playerCache.clear();
 	}
 
 	/**
@@ -504,7 +1103,7 @@ public class NBTManager {
 	}
 
 	/**
-	 * Write nbt data to player's .dat file.
+	 * Write nbt data to player's .dat file and wait until file is replaced.
 	 *
 	 * @param player
 	 * 			  offline player
@@ -514,15 +1113,27 @@ public class NBTManager {
 	 */
 	public boolean writeOfflinePlayer(OfflinePlayer player, NBTCompound value) {
 		try {
-			writeCompressed(getPlayerFile(player), value);
-			return true;
+			return writeCompressedFuture(getPlayerFile(player), value).handle((v, e) -> e == null).join();
 		} catch (Exception e) {
 			return false;
 		}
 	}
 
 	/**
-	 * Write nbt data to player's .dat file.
+	 * Write nbt data to player's .dat file in I/O thread.
+	 *
+	 * @param player
+	 * 			  offline player
+	 * @param value
+	 * 			  value to be written, it is converted by caller thread
+	 * @return future completed when file is replaced
+	 */
+	public CompletableFuture<Void> writeOfflinePlayerAsync(OfflinePlayer player, NBTCompound value) {
+		return writeCompressedAsync(getPlayerFile(player), value);
+	}
+
+	/**
+	 * Write nbt data to player's .dat file and wait until file is replaced.
 	 *
 	 * @param player
 	 * 			  player name
@@ -542,8 +1153,18 @@ public class NBTManager {
 	 * @return player's file
 	 */
 	public File getPlayerFile(OfflinePlayer player) {
+		return getPlayerFile(player.getUniqueId());
+	}
+
+	/**
+	 * Get file with stored nbt data of player.
+	 *
+	 * @param uuid
+	 * 			  player's uuid
+	 * @return player's file
+	 */
+	public File getPlayerFile(UUID uuid) {
 		File baseDir = (Bukkit.getWorlds().get(0)).getWorldFolder();
-		UUID uuid = player.getUniqueId();
 		File playerDir = new File(baseDir, "playerdata");
 		return new File(playerDir, uuid + ".dat");
 	}
@@ -567,8 +1188,7 @@ public class NBTManager {
 		if (value == null) {
 			return null;
 		}
-		Object tag = NBTParser.parser("", value).parse();
-		return getValueOfTag(tag);
+		return NBTParser.parse(value);
 	}
 
 	public Object getValueOfTag(Object tag) {
@@ -585,6 +1205,10 @@ public class NBTManager {
 	}
 
 	public Object getTagOfValue(Object value) {
+		return NBTValidator.convert(value, () -> convertToTag(value));
+	}
+
+	private Object convertToTag(Object value) {
 		if (value instanceof Map a) {
 			return new NBTCompound(a).getHandle();
 		}
@@ -632,10 +1256,10 @@ public class NBTManager {
 		if (value instanceof String) {
 			return 8;
 		}
-		if (value instanceof NBTList) {
+		if (value instanceof NBTList || value instanceof NBTMappedList) {
 			return 9;
 		}
-		if (value instanceof NBTCompound) {
+		if (value instanceof NBTCompound || value instanceof NBTMappedCompound) {
 			return 10;
 		}
 		if (value instanceof int[]) {
@@ -662,7 +1286,7 @@ public class NBTManager {
 		if (compound == null) {
 			return null;
 		}
-		compound = compound.clone();
+		compound = compound.shallowClone(); // bridge spawns entity from its own copy of tag
 		compound.remove("UUID");
 		var entity = nbtBridge.spawnEntity(compound.getHandle(), world);
 		var passengers = compound.getList("Passengers");
@@ -671,6 +1295,7 @@ public class NBTManager {
 			var pos = compound.getList("Pos");
 			for (Object passengerData : passengers) {
 				if (passengerData instanceof NBTCompound passengerCompound) {
+					passengerCompound = passengerCompound.shallowClone();
 					passengerCompound.put("Pos", pos);
 					var passenger = spawnEntity(passengerCompound, world);
 					if (passenger != null) {
@@ -705,7 +1330,7 @@ public class NBTManager {
 			return new ItemStack(Material.AIR);
 		}
 		var itemStack = asCraftItemStack(new ItemStack(Material.APPLE));
-		nbtBridge.setItemStackNBTTag(itemStack, compound.getHandle());
+		nbtBridge.setItemStackNBTTag(itemStack, NBTCopyOnWrite.getTagToLink(compound));
 		return itemStack;
 	}
 
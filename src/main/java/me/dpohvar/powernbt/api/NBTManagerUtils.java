@@ -465,50 +465,4 @@ public class NBTManagerUtils {
 		};
 	}
 
-	static boolean checkCrossReferences(LinkedList<Object> list, Collection<?> values) {
-		for (Object value : values) {
-			if (list.contains(value)) {
-				return true;
-			}
-			if (value instanceof Collection col) {
-				list.push(value);
-				if (checkCrossReferences(list, col)) {
-					return true;
-				}
-				list.pop();
-			} else if (value instanceof Map map) {
-				list.push(value);
-				if (checkCrossReferences(list, map.values())) {
-					return true;
-				}
-				list.pop();
-			} else if (value instanceof Object[]) {
-				list.push(value);
-				if (checkCrossReferences(list, Arrays.asList((Object[]) value))) {
-					return true;
-				}
-				list.pop();
-			}
-		}
-		return false;
-	}
-
-	static boolean checkCrossReferences(Map<?, ?> map) {
-		LinkedList<Object> list = new LinkedList<>();
-		list.push(map);
-		return checkCrossReferences(list, map.values());
-	}
-
-	static boolean checkCrossReferences(Collection<?> collection) {
-		LinkedList<Object> list = new LinkedList<>();
-		list.push(collection);
-		return checkCrossReferences(list, collection);
-	}
-
-	static boolean checkCrossReferences(Object[] collection) {
-		LinkedList<Object> list = new LinkedList<>();
-		list.push(collection);
-		return checkCrossReferences(list, Arrays.asList(collection));
-	}
-
 }
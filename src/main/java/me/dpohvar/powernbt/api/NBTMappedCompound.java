@@ -0,0 +1,204 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Read-only compound backed by binary NBT data, see {@link NBTManager#readMapped(java.io.File)}.<br>
+ * Node keeps only offset of its payload. Entries are indexed on first access by one pass over length prefixes,
+ * keys and values are decoded only when they are requested.
+ * Use {@link NBTCompound#NBTCompound(Map)} to get modifiable copy
+ */
+public final class NBTMappedCompound extends AbstractMap<String, Object> {
+
+	private final NBTMappedData data;
+	private final int offset;
+	private final int depth;
+	private volatile int[] entries; // offsets of entry types
+	private int end;
+
+	NBTMappedCompound(NBTMappedData data, int offset, int depth) {
+		this.data = data;
+		this.offset = offset;
+		this.depth = depth;
+	}
+
+	private int[] entries() {
+		int[] result = entries;
+		if (result != null) {
+			return result;
+		}
+		int[] found = new int[16];
+		int count = 0;
+		int position = offset;
+		byte entryType;
+		while ((entryType = data.getByte(position)) != 0) {
+			if (count == found.length) {
+				found = Arrays.copyOf(found, count * 2);
+			}
+			found[count++] = position;
+			position = data.skipPayload(entryType, valueOffset(position), depth + 1);
+		}
+		end = position + 1;
+		result = Arrays.copyOf(found, count);
+		entries = result;
+		return result;
+	}
+
+	private int valueOffset(int entry) {
+		return entry + 3 + data.getUnsignedShort(entry + 1);
+	}
+
+	private Object valueAt(int entry) {
+		return data.readValue(data.getByte(entry), valueOffset(entry), depth + 1);
+	}
+
+	private int find(Object key) {
+		if (!(key instanceof String string)) {
+			return -1;
+		}
+		byte[] encoded = NBTMappedData.encodeUTF(string);
+		for (int entry : entries()) {
+			if (data.equalsUTF(entry + 1, encoded)) {
+				return entry;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Copy data of this compound and of all views read with it to heap memory,
+	 * so the mapped file can be replaced while they are used
+	 */
+	public void detach() {
+		data.detach();
+	}
+
+	/**
+	 * Get type of value without decoding
+	 *
+	 * @param key
+	 * 			  key of entry
+	 * @return type of tag or 0 if there is no entry
+	 */
+	public byte getType(String key) {
+		int entry = find(key);
+		return entry == -1 ? 0 : data.getByte(entry);
+	}
+
+	@Override
+	public Object get(Object key) {
+		int entry = find(key);
+		return entry == -1 ? null : valueAt(entry);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return find(key) != -1;
+	}
+
+	@Override
+	public int size() {
+		return entries().length;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				int[] entries = entries();
+				return new Iterator<>() {
+					private int index;
+
+					@Override
+					public boolean hasNext() {
+						return index < entries.length;
+					}
+
+					@Override
+					public Entry<String, Object> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						return new MappedEntry(entries[index++]);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return entries().length;
+			}
+		};
+	}
+
+	/**
+	 * @return SNBT string of data, see {@link NBTStringWriter}
+	 */
+	@Override
+	public String toString() {
+		return NBTStringWriter.COMPACT.format(this);
+	}
+
+	/**
+	 * Copy binary payload of this compound
+	 */
+	void writePayload(DataOutput out) throws IOException {
+		entries();
+		data.copy(offset, end, out);
+	}
+
+	private class MappedEntry implements Entry<String, Object> {
+
+		private final int entry;
+		private String key;
+
+		private MappedEntry(int entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public String getKey() {
+			if (key == null) {
+				key = data.readUTF(entry + 1);
+			}
+			return key;
+		}
+
+		@Override
+		public Object getValue() {
+			return valueAt(entry);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			throw new UnsupportedOperationException("mapped compound is read-only");
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Entry<?, ?> e && getKey().equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return getKey().hashCode() ^ Objects.hashCode(getValue());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+
+	}
+
+}
@@ -0,0 +1,248 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary NBT data in byte buffer, values are decoded on access by absolute offset.<br>
+ * Buffer is never moved, so nodes of one tree can be read from different threads.
+ * It is only replaced by a heap copy with the same content, see {@link #detach()}
+ */
+final class NBTMappedData {
+
+	private static final int MAX_DEPTH = 512;
+	private static final int COPY_BUFFER_SIZE = 8192;
+
+	private volatile ByteBuffer data;
+
+	NBTMappedData(ByteBuffer data) {
+		this.data = data;
+	}
+
+	/**
+	 * @return value of named root tag
+	 */
+	Object readRoot() {
+		byte type = data.get(0);
+		if (type == 0) {
+			return null;
+		}
+		return readValue(type, 3 + getUnsignedShort(1), 0);
+	}
+
+	/**
+	 * Copy mapped data to heap, so views of data do not use mapped file any more
+	 */
+	synchronized void detach() {
+		ByteBuffer mapped = data;
+		if (mapped.isDirect()) {
+			ByteBuffer copy = ByteBuffer.allocate(mapped.limit());
+			copy.put(0, mapped, 0, mapped.limit());
+			data = copy.asReadOnlyBuffer();
+		}
+	}
+
+	/**
+	 * Check that root tag is complete, values are not decoded
+	 */
+	void checkRoot() {
+		byte type = data.get(0);
+		if (type != 0 && skipPayload(type, 3 + getUnsignedShort(1), 0) > data.limit()) {
+			throw new IndexOutOfBoundsException("end of root tag is out of data");
+		}
+	}
+
+	/**
+	 * Decode value, compounds and lists are not read until accessed
+	 */
+	Object readValue(byte type, int offset, int depth) {
+		if (depth > MAX_DEPTH) {
+			throw new RuntimeException("NBT tag is too deep");
+		}
+		return switch (type) {
+			case 1 -> data.get(offset);
+			case 2 -> data.getShort(offset);
+			case 3 -> data.getInt(offset);
+			case 4 -> data.getLong(offset);
+			case 5 -> data.getFloat(offset);
+			case 6 -> data.getDouble(offset);
+			case 7 -> {
+				byte[] array = new byte[getLength(offset)];
+				data.get(offset + 4, array);
+				yield array;
+			}
+			case 8 -> readUTF(offset);
+			case 9 -> new NBTMappedList(this, offset, depth);
+			case 10 -> new NBTMappedCompound(this, offset, depth);
+			case 11 -> {
+				int[] array = new int[getLength(offset)];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = data.getInt(offset + 4 + i * 4);
+				}
+				yield array;
+			}
+			case 12 -> {
+				long[] array = new long[getLength(offset)];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = data.getLong(offset + 4 + i * 8);
+				}
+				yield array;
+			}
+			default -> throw new RuntimeException("unknown tag type: " + type);
+		};
+	}
+
+	/**
+	 * Find end of payload using length prefixes, values are not decoded
+	 *
+	 * @return offset after payload
+	 */
+	int skipPayload(byte type, int offset, int depth) {
+		if (depth > MAX_DEPTH) {
+			throw new RuntimeException("NBT tag is too deep");
+		}
+		int size = getFixedSize(type);
+		if (size > 0) {
+			return offset + size;
+		}
+		return switch (type) {
+			case 7 -> offset + 4 + getLength(offset);
+			case 8 -> offset + 2 + getUnsignedShort(offset);
+			case 9 -> {
+				byte elementType = data.get(offset);
+				int length = getLength(offset + 1);
+				int position = offset + 5;
+				int elementSize = getFixedSize(elementType);
+				if (elementSize >= 0) {
+					yield position + elementSize * length;
+				}
+				for (int i = 0; i < length; i++) {
+					position = skipPayload(elementType, position, depth + 1);
+				}
+				yield position;
+			}
+			case 10 -> {
+				int position = offset;
+				byte entryType;
+				while ((entryType = data.get(position++)) != 0) {
+					position = skipPayload(entryType, position + 2 + getUnsignedShort(position), depth + 1);
+				}
+				yield position;
+			}
+			case 11 -> offset + 4 + 4 * getLength(offset);
+			case 12 -> offset + 4 + 8 * getLength(offset);
+			default -> throw new RuntimeException("unknown tag type: " + type);
+		};
+	}
+
+	/**
+	 * @return size of payload of primitive type, 0 for end tag, -1 for other types
+	 */
+	static int getFixedSize(byte type) {
+		return switch (type) {
+			case 0 -> 0;
+			case 1 -> 1;
+			case 2 -> 2;
+			case 3, 5 -> 4;
+			case 4, 6 -> 8;
+			default -> -1;
+		};
+	}
+
+	byte getByte(int offset) {
+		return data.get(offset);
+	}
+
+	int getUnsignedShort(int offset) {
+		return data.getShort(offset) & 0xFFFF;
+	}
+
+	int getLength(int offset) {
+		int length = data.getInt(offset);
+		if (length < 0) {
+			throw new RuntimeException("negative length: " + length);
+		}
+		return length;
+	}
+
+	/**
+	 * Decode string in modified UTF-8 with length prefix
+	 */
+	String readUTF(int offset) {
+		int length = getUnsignedShort(offset);
+		byte[] bytes = new byte[length + 2];
+		data.get(offset, bytes);
+		boolean ascii = true;
+		for (int i = 2; i < bytes.length && ascii; i++) {
+			ascii = bytes[i] > 0;
+		}
+		if (ascii) {
+			return new String(bytes, 2, length, StandardCharsets.ISO_8859_1);
+		}
+		try {
+			return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Compare string in modified UTF-8 with length prefix to encoded key
+	 */
+	boolean equalsUTF(int offset, byte[] key) {
+		if (getUnsignedShort(offset) != key.length) {
+			return false;
+		}
+		for (int i = 0; i < key.length; i++) {
+			if (data.get(offset + 2 + i) != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return key encoded in modified UTF-8 without length prefix
+	 */
+	static byte[] encodeUTF(String key) {
+		int length = 0;
+		for (int i = 0; i < key.length(); i++) {
+			char c = key.charAt(i);
+			length += c >= 1 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+		}
+		byte[] bytes = new byte[length];
+		int pos = 0;
+		for (int i = 0; i < key.length(); i++) {
+			char c = key.charAt(i);
+			if (c >= 1 && c < 0x80) {
+				bytes[pos++] = (byte) c;
+			} else if (c < 0x800) {
+				bytes[pos++] = (byte) (0xC0 | (c >> 6));
+				bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+			} else {
+				bytes[pos++] = (byte) (0xE0 | (c >> 12));
+				bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Copy bytes of payload to output without decoding
+	 */
+	void copy(int from, int to, DataOutput out) throws IOException {
+		byte[] buffer = new byte[Math.min(COPY_BUFFER_SIZE, to - from)];
+		while (from < to) {
+			int length = Math.min(buffer.length, to - from);
+			data.get(from, buffer, 0, length);
+			out.write(buffer, 0, length);
+			from += length;
+		}
+	}
+
+}
@@ -0,0 +1,105 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list backed by binary NBT data, see {@link NBTManager#readMapped(java.io.File)}.<br>
+ * Elements of primitive types are read by computed offset.
+ * Offsets of other elements are found on demand only up to requested index, elements are decoded when requested.
+ * Use {@link NBTList#NBTList(java.util.Collection)} to get modifiable copy
+ */
+public final class NBTMappedList extends AbstractList<Object> implements RandomAccess {
+
+	private final NBTMappedData data;
+	private final int offset;
+	private final int depth;
+	private final byte type;
+	private final int size;
+	private final int elementSize;
+	private int[] offsets; // offsets of elements with variable size, first known elements are filled
+	private int known;
+
+	NBTMappedList(NBTMappedData data, int offset, int depth) {
+		this.data = data;
+		this.offset = offset;
+		this.depth = depth;
+		this.type = data.getByte(offset);
+		this.size = data.getLength(offset + 1);
+		this.elementSize = NBTMappedData.getFixedSize(type);
+	}
+
+	/**
+	 * Copy data of this list and of all views read with it to heap memory,
+	 * so the mapped file can be replaced while they are used
+	 */
+	public void detach() {
+		data.detach();
+	}
+
+	/**
+	 * Get byte type of elements
+	 *
+	 * @return type of list or 0 if list is empty
+	 */
+	public byte getType() {
+		return size == 0 ? 0 : type;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Object get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + " of list with size " + size);
+		}
+		return data.readValue(type, elementOffset(index), depth + 1);
+	}
+
+	private synchronized int elementOffset(int index) {
+		if (elementSize >= 0) {
+			return offset + 5 + elementSize * index;
+		}
+		if (offsets == null) {
+			offsets = new int[Math.min(size, 16)];
+			offsets[0] = offset + 5;
+			known = 1;
+		}
+		if (index >= offsets.length) {
+			offsets = Arrays.copyOf(offsets, Math.min(size, Math.max(index + 1, offsets.length * 2)));
+		}
+		while (known <= index) {
+			offsets[known] = data.skipPayload(type, offsets[known - 1], depth + 1);
+			known++;
+		}
+		return offsets[index];
+	}
+
+	/**
+	 * @return SNBT string of data, see {@link NBTStringWriter}
+	 */
+	@Override
+	public String toString() {
+		return NBTStringWriter.COMPACT.format(this);
+	}
+
+	/**
+	 * Copy binary payload of this list
+	 */
+	void writePayload(DataOutput out) throws IOException {
+		int end;
+		if (elementSize >= 0 || size == 0) {
+			end = offset + 5 + Math.max(elementSize, 0) * size;
+		} else {
+			end = data.skipPayload(type, elementOffset(size - 1), depth + 1);
+		}
+		data.copy(offset, end, out);
+	}
+
+}
@@ -0,0 +1,243 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * LRU cache of decompressed offline player files.<br>
+ * Entry is valid while time and size of file are not changed, entries are also dropped
+ * when file is changed in watched player folder. Cached data is never modified:
+ * reads return lazy read-only views, see {@link NBTMappedCompound}, or copy-on-write views
+ * of tag that is decoded once per entry, see {@link NBTCompound#lazyClone()}
+ */
+final class NBTPlayerCache {
+
+	private static final Logger LOGGER = Logger.getLogger(NBTPlayerCache.class.getName()); // works without server
+
+	static final String SIZE_PROPERTY = "powernbt.playerCacheSize";
+
+	private static final class Entry {
+
+		private final File file;
+		private final FileTime modified;
+		private final long size;
+		private final ByteBuffer data;
+		private volatile Object tag;
+
+		Entry(File file, FileTime modified, long size, ByteBuffer data) {
+			this.file = file;
+			this.modified = modified;
+			this.size = size;
+			this.data = data;
+		}
+
+		boolean isValid(File file, BasicFileAttributes attributes) {
+			return this.file.equals(file) && modified.equals(attributes.lastModifiedTime()) && size == attributes.size();
+		}
+
+		/**
+		 * @return root tag decoded on first call, it is shared and must not be modified
+		 */
+		Object tag() {
+			Object result = tag;
+			if (result == null) {
+				// concurrent calls may decode twice, both results are equal
+				result = new NBTCompound((Map<?, ?>) new NBTMappedData(data).readRoot()).getHandle();
+				tag = result;
+			}
+			return result;
+		}
+
+	}
+
+	private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private int maxSize = Integer.getInteger(SIZE_PROPERTY, 64);
+	private WatchService watchService;
+	private Path watchedFolder;
+
+	synchronized int getMaxSize() {
+		return maxSize;
+	}
+
+	synchronized void setMaxSize(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("wrong size of cache: " + maxSize);
+		}
+		this.maxSize = maxSize;
+		trim();
+	}
+
+	/**
+	 * Read player file, file is decompressed only if it was changed
+	 *
+	 * @param uuid
+	 * 			  player's uuid
+	 * @param file
+	 * 			  player's file
+	 * @return read-only view of root tag
+	 */
+	Object read(UUID uuid, File file) throws IOException {
+		return new NBTMappedData(getEntry(uuid, file).data).readRoot();
+	}
+
+	/**
+	 * Read player file as modifiable compound, file is decompressed and decoded only if it was changed
+	 *
+	 * @param uuid
+	 * 			  player's uuid
+	 * @param file
+	 * 			  player's file
+	 * @return copy-on-write view of cached root tag, changed nodes are copied
+	 */
+	NBTCompound readCompound(UUID uuid, File file) throws IOException {
+		return NBTCompound.forNBT(getEntry(uuid, file).tag()).lazyClone();
+	}
+
+	private Entry getEntry(UUID uuid, File file) throws IOException {
+		File target = file.getAbsoluteFile();
+		BasicFileAttributes attributes = Files.readAttributes(target.toPath(), BasicFileAttributes.class);
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(uuid);
+		}
+		if (entry == null || !entry.isValid(target, attributes)) {
+			entry = load(target, attributes);
+			synchronized (this) {
+				if (maxSize > 0) {
+					entries.put(uuid, entry);
+					trim();
+					watch(target.getParentFile().toPath());
+				}
+			}
+		}
+		return entry;
+	}
+
+	private static Entry load(File file, BasicFileAttributes attributes) throws IOException {
+		byte[] data;
+		try (var input = NBTCodec.decodeDetected(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+			data = input.readAllBytes();
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
+		try {
+			new NBTMappedData(buffer).checkRoot();
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("unexpected end of file " + file, e);
+		}
+		// time of file read before data, so changes made while reading are found next time
+		return new Entry(file, attributes.lastModifiedTime(), attributes.size(), buffer);
+	}
+
+	synchronized void invalidate(UUID uuid) {
+		entries.remove(uuid);
+	}
+
+	/**
+	 * Drop entry of player file
+	 *
+	 * @param file
+	 * 			  any file, only files named <code>uuid.dat</code> are cached
+	 */
+	void invalidate(File file) {
+		UUID uuid = getPlayerUUID(file.getName());
+		if (uuid != null) {
+			invalidate(uuid);
+		}
+	}
+
+	/**
+	 * Drop all entries and stop watching folder
+	 */
+	synchronized void clear() {
+		entries.clear();
+		closeWatcher();
+	}
+
+	private void closeWatcher() {
+		if (watchService != null) {
+			try {
+				watchService.close();
+			} catch (IOException ignored) {
+			}
+			watchService = null;
+		}
+		watchedFolder = null;
+	}
+
+	private void trim() {
+		Iterator<UUID> iterator = entries.keySet().iterator();
+		while (entries.size() > maxSize && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
+	private static UUID getPlayerUUID(String fileName) {
+		if (!fileName.endsWith(".dat")) {
+			return null;
+		}
+		try {
+			return UUID.fromString(fileName.substring(0, fileName.length() - 4));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private void watch(Path folder) {
+		if (folder.equals(watchedFolder)) {
+			return;
+		}
+		closeWatcher();
+		try {
+			WatchService service = folder.getFileSystem().newWatchService();
+			folder.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+			Thread thread = new Thread(() -> watchEvents(service), "PowerNBT player cache watcher");
+			thread.setDaemon(true);
+			thread.start();
+			watchService = service;
+			watchedFolder = folder;
+		} catch (IOException | UnsupportedOperationException e) { // entries are still validated by time and size of file
+			LOGGER.log(Level.WARNING, "[PowerNBT] can not watch " + folder, e);
+			watchedFolder = folder; // warning is not repeated
+		}
+	}
+
+	private void watchEvents(WatchService service) {
+		try {
+			while (true) {
+				WatchKey key = service.take();
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						synchronized (this) {
+							entries.clear();
+						}
+					} else if (event.context() instanceof Path name) {
+						invalidate(name.toFile());
+					}
+				}
+				if (!key.reset()) {
+					return;
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException ignored) {
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package me.dpohvar.powernbt.api;
+
+import me.dpohvar.powernbt.exception.NBTTagNotFound;
+import me.dpohvar.powernbt.utils.query.IntegerSelector;
+import me.dpohvar.powernbt.utils.query.KeySelector;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
+import me.dpohvar.powernbt.utils.query.QSelector;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads only the part of binary NBT data selected by query.<br>
+ * Keys of compounds and indexes of lists are resolved while reading,
+ * other entries are skipped by their length prefixes.
+ * Rest of query is applied to the first value which can not be selected in binary form
+ */
+final class NBTQueryReader {
+
+	private final DataInput in;
+	private final NBTQuery query;
+
+	NBTQueryReader(DataInput in, NBTQuery query) {
+		this.in = in;
+		this.query = query;
+	}
+
+	Object read() throws IOException, NBTTagNotFound {
+		byte type = in.readByte();
+		if (type == 0) {
+			return query.get(null);
+		}
+		in.skipBytes(in.readUnsignedShort());
+		List<QSelector> selectors = query.getSelectors();
+		for (int i = 0; i < selectors.size(); i++) {
+			QSelector selector = selectors.get(i);
+			if (selector instanceof KeySelector keySelector && type == 10) {
+				type = findEntry(keySelector, i);
+			} else if (selector instanceof IntegerSelector indexSelector && type == 9) {
+				type = findElement(indexSelector, i);
+			} else {
+				return query.getSlice(i, selectors.size()).get(readValue(type));
+			}
+		}
+		return readValue(type);
+	}
+
+	private byte findEntry(KeySelector selector, int depth) throws IOException, NBTTagNotFound {
+		byte entryType;
+		while ((entryType = in.readByte()) != 0) {
+			if (selector.key().equals(in.readUTF())) {
+				return entryType;
+			}
+			NBTEventReader.skipPayload(in, entryType, depth + 1);
+		}
+		throw new NBTTagNotFound(null, selector);
+	}
+
+	private byte findElement(IntegerSelector selector, int depth) throws IOException, NBTTagNotFound {
+		byte elementType = in.readByte();
+		int size = NBTEventReader.readLength(in);
+		int index = selector.indexToGet(size);
+		if (index < 0 || index >= size) {
+			throw new NBTTagNotFound(null, selector);
+		}
+		switch (elementType) {
+			case 1 -> NBTEventReader.skip(in, index);
+			case 2 -> NBTEventReader.skip(in, 2L * index);
+			case 3, 5 -> NBTEventReader.skip(in, 4L * index);
+			case 4, 6 -> NBTEventReader.skip(in, 8L * index);
+			default -> {
+				for (int i = 0; i < index; i++) {
+					NBTEventReader.skipPayload(in, elementType, depth + 1);
+				}
+			}
+		}
+		return elementType;
+	}
+
+	private Object readValue(byte type) throws IOException {
+		return NBTManager.getInstance().getValueOfTag(NBTBridge.getInstance().readNBTPayload(in, type));
+	}
+
+}
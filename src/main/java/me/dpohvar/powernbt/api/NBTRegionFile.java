@@ -0,0 +1,296 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Region file (.mca) of minecraft world.<br>
+ * File is memory-mapped, only requested chunk is decompressed.
+ * Region file should not be used by server while chunks are written:
+ * server keeps own table of used sectors for opened region files,
+ * chunks of worlds loaded by server are written by {@link NBTManager#write(org.bukkit.World, int, int, NBTCompound)}
+ */
+public class NBTRegionFile implements Closeable {
+
+	private static final int SECTOR_SIZE = 4096;
+	private static final int HEADER_SECTORS = 2;
+	private static final int MAX_SECTORS = 255;
+
+	private static final byte COMPRESSION_GZIP = 1;
+	private static final byte COMPRESSION_ZLIB = 2;
+	private static final byte COMPRESSION_NONE = 3;
+	private static final int EXTERNAL_FLAG = 128;
+
+	private final File file;
+	private final FileChannel channel;
+	private final boolean writable;
+	private MappedByteBuffer buffer;
+
+	/**
+	 * Open region file
+	 *
+	 * @param file
+	 * 			  region file, it is created on first write if not exists
+	 * @param writable
+	 * 			  true to allow {@link #write(int, int, NBTCompound)}
+	 * @throws IOException
+	 * 			  if file can not be opened
+	 */
+	public NBTRegionFile(File file, boolean writable) throws IOException {
+		this.file = file;
+		this.writable = writable;
+		if (writable) {
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+		} else {
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		}
+	}
+
+	/**
+	 * Get region file which contains chunk
+	 *
+	 * @param regionFolder
+	 * 			  region folder of world
+	 * @param chunkX
+	 * 			  x coordinate of chunk
+	 * @param chunkZ
+	 * 			  z coordinate of chunk
+	 * @return region file
+	 */
+	public static File getRegionFile(File regionFolder, int chunkX, int chunkZ) {
+		return new File(regionFolder, "r." + (chunkX >> 5) + "." + (chunkZ >> 5) + ".mca");
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @param chunkX
+	 * 			  x coordinate of chunk
+	 * @param chunkZ
+	 * 			  z coordinate of chunk
+	 * @return true if chunk is stored in this region
+	 */
+	public synchronized boolean hasChunk(int chunkX, int chunkZ) throws IOException {
+		return getLocation(mapped(), index(chunkX, chunkZ)) != 0;
+	}
+
+	/**
+	 * @param chunkX
+	 * 			  x coordinate of chunk
+	 * @param chunkZ
+	 * 			  z coordinate of chunk
+	 * @return time of last save of chunk in seconds, 0 if chunk is not stored
+	 */
+	public synchronized int getTimestamp(int chunkX, int chunkZ) throws IOException {
+		ByteBuffer data = mapped();
+		if (data.capacity() < HEADER_SECTORS * SECTOR_SIZE) {
+			return 0;
+		}
+		return data.getInt(SECTOR_SIZE + index(chunkX, chunkZ) * 4);
+	}
+
+	/**
+	 * Read chunk data
+	 *
+	 * @param chunkX
+	 * 			  x coordinate of chunk
+	 * @param chunkZ
+	 * 			  z coordinate of chunk
+	 * @return chunk compound or null if chunk is not stored
+	 * @throws IOException
+	 * 			  if data is corrupted
+	 */
+	public NBTCompound read(int chunkX, int chunkZ) throws IOException {
+		ByteBuffer chunkData;
+		synchronized (this) {
+			ByteBuffer data = mapped();
+			int location = getLocation(data, index(chunkX, chunkZ));
+			if (location == 0) {
+				return null;
+			}
+			long start = (long) (location >>> 8) * SECTOR_SIZE;
+			if (start + 5 > data.capacity()) {
+				throw new IOException("chunk " + chunkX + ":" + chunkZ + " is out of file " + file);
+			}
+			int length = data.getInt((int) start);
+			if (length <= 0 || start + 4 + length > data.capacity()) {
+				throw new IOException("wrong length of chunk " + chunkX + ":" + chunkZ + " in " + file);
+			}
+			chunkData = data.slice((int) start + 4, length);
+		}
+		int compression = chunkData.get() & 0xFF;
+		boolean external = (compression & EXTERNAL_FLAG) != 0;
+		try (var input = external ? new FileInputStream(getExternalFile(chunkX, chunkZ)) : new ByteBufferInputStream(chunkData);
+			 var dataInput = new DataInputStream(decompress(input, compression & ~EXTERNAL_FLAG))) {
+			Object value = NBTManager.getInstance().read((DataInput) dataInput);
+			if (value instanceof NBTCompound compound) {
+				return compound;
+			}
+			throw new IOException("chunk " + chunkX + ":" + chunkZ + " is not a compound");
+		}
+	}
+
+	/**
+	 * Write chunk data, sectors of chunk are reallocated if new data does not fit
+	 *
+	 * @param chunkX
+	 * 			  x coordinate of chunk
+	 * @param chunkZ
+	 * 			  z coordinate of chunk
+	 * @param compound
+	 * 			  chunk compound
+	 * @throws IOException
+	 * 			  it happens
+	 */
+	public synchronized void write(int chunkX, int chunkZ, NBTCompound compound) throws IOException {
+		if (!writable) {
+			throw new IOException("region file " + file + " is opened for reading");
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(SECTOR_SIZE);
+		bytes.write(new byte[5]); // length and compression type
+		try (var output = new DataOutputStream(NBTCodec.ZLIB.encode(bytes))) {
+			NBTManager.getInstance().write((DataOutput) output, compound);
+		}
+		byte[] payload = bytes.toByteArray();
+		int compression = COMPRESSION_ZLIB;
+		File externalFile = getExternalFile(chunkX, chunkZ);
+		if (sectorsFor(payload.length) > MAX_SECTORS) {
+			try (var output = new FileOutputStream(externalFile)) {
+				output.write(payload, 5, payload.length - 5);
+			}
+			payload = new byte[5];
+			compression |= EXTERNAL_FLAG;
+		} else if (externalFile.exists()) {
+			externalFile.delete();
+		}
+		ByteBuffer chunkData = ByteBuffer.wrap(payload);
+		chunkData.putInt(0, payload.length - 4);
+		chunkData.put(4, (byte) compression);
+
+		ByteBuffer data = mapped();
+		if (data.capacity() < HEADER_SECTORS * SECTOR_SIZE) {
+			channel.write(ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE), 0);
+			data = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE);
+		}
+		int index = index(chunkX, chunkZ);
+		int location = getLocation(data, index);
+		int sectors = sectorsFor(payload.length);
+		int sector = location >>> 8;
+		if (sectors > (location & 0xFF)) {
+			sector = allocate(data, index, sectors);
+		}
+		channel.write(chunkData, (long) sector * SECTOR_SIZE);
+		int padding = sectors * SECTOR_SIZE - payload.length;
+		if (padding > 0) {
+			channel.write(ByteBuffer.allocate(padding), (long) sector * SECTOR_SIZE + payload.length);
+		}
+		ByteBuffer header = ByteBuffer.allocate(4);
+		header.putInt(0, (sector << 8) | sectors);
+		channel.write(header, index * 4L);
+		header.putInt(0, (int) (System.currentTimeMillis() / 1000));
+		channel.write(header.rewind(), SECTOR_SIZE + index * 4L);
+		buffer = null;
+	}
+
+	/**
+	 * Find first free run of sectors, sectors of replaced chunk are free
+	 */
+	private static int allocate(ByteBuffer data, int replacedIndex, int sectors) {
+		BitSet used = new BitSet();
+		used.set(0, HEADER_SECTORS);
+		for (int i = 0; i < 1024; i++) {
+			int location = getLocation(data, i);
+			if (i != replacedIndex && location != 0) {
+				used.set(location >>> 8, (location >>> 8) + (location & 0xFF));
+			}
+		}
+		int fileSectors = Math.max(HEADER_SECTORS, (int) ((data.capacity() + SECTOR_SIZE - 1) / SECTOR_SIZE));
+		int start = used.nextClearBit(HEADER_SECTORS);
+		while (start < fileSectors) {
+			int end = used.nextSetBit(start);
+			if (end == -1 || end - start >= sectors) {
+				return start;
+			}
+			start = used.nextClearBit(end);
+		}
+		return start;
+	}
+
+	private MappedByteBuffer mapped() throws IOException {
+		if (buffer == null) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		return buffer;
+	}
+
+	private static int getLocation(ByteBuffer data, int index) {
+		if (data.capacity() < HEADER_SECTORS * SECTOR_SIZE) {
+			return 0;
+		}
+		return data.getInt(index * 4);
+	}
+
+	private static int index(int chunkX, int chunkZ) {
+		return (chunkX & 31) + (chunkZ & 31) * 32;
+	}
+
+	private static int sectorsFor(int bytes) {
+		return (bytes + SECTOR_SIZE - 1) / SECTOR_SIZE;
+	}
+
+	private File getExternalFile(int chunkX, int chunkZ) {
+		return new File(file.getParentFile(), "c." + chunkX + "." + chunkZ + ".mcc");
+	}
+
+	private static InputStream decompress(InputStream input, int compression) throws IOException {
+		return switch (compression) {
+			case COMPRESSION_GZIP -> NBTCodec.GZIP.decode(input);
+			case COMPRESSION_ZLIB -> NBTCodec.ZLIB.decode(input);
+			case COMPRESSION_NONE -> NBTCodec.RAW.decode(input);
+			default -> throw new IOException("unsupported compression type: " + compression);
+		};
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		buffer = null;
+		channel.close();
+	}
+
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		private ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+			return len;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+
+	}
+
+}
@@ -0,0 +1,321 @@
+package me.dpohvar.powernbt.api;
+
+import me.dpohvar.powernbt.exception.NBTTagNotFound;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Search of NBT data in files of world folder.<br>
+ * Block entities and entities of region files in <code>region/</code> and <code>entities/</code>
+ * and players in <code>playerdata/</code> are checked in fork-join pool.
+ * Every object is selected by query and checked by predicate, saved data of world is searched.
+ * Result of search is count of matches.
+ * <pre>
+ *   NBTSearch search = new NBTSearch(worldFolder, NBTQuery.fromString("Items"), NBTSearch.contains("minecraft:diamond"));
+ *   search.start(match -&gt; log(match)).thenAccept(count -&gt; log(count + " found"));
+ * </pre>
+ */
+public class NBTSearch extends NBTFileTask<NBTSearch.Match> {
+
+	private static final Pattern REGION_NAME = Pattern.compile("r\\.(-?[0-9]+)\\.(-?[0-9]+)\\.mca");
+	private static final int CHUNKS_PER_TASK = 64;
+
+	/**
+	 * Kind of object which is matched
+	 */
+	public enum Source {
+		BLOCK_ENTITY, ENTITY, PLAYER
+	}
+
+	/**
+	 * Found object
+	 *
+	 * @param source
+	 * 			  kind of object
+	 * @param file
+	 * 			  file where object is stored
+	 * @param x
+	 * 			  x coordinate of object
+	 * @param y
+	 * 			  y coordinate of object
+	 * @param z
+	 * 			  z coordinate of object
+	 * @param data
+	 * 			  nbt data of object
+	 * @param value
+	 * 			  value selected by query
+	 */
+	public record Match(Source source, File file, double x, double y, double z, NBTCompound data, Object value) {
+	}
+
+	private final File folder;
+	private final NBTQuery query;
+	private final Predicate<Object> predicate;
+	private final AtomicInteger totalFiles = new AtomicInteger();
+	private final AtomicInteger processedChunks = new AtomicInteger();
+	private final AtomicInteger matches = new AtomicInteger();
+
+	/**
+	 * Create search
+	 *
+	 * @param folder
+	 * 			  world folder, or folder of dimension with <code>region/</code> and <code>entities/</code>
+	 * @param query
+	 * 			  query to select value of every object
+	 * @param predicate
+	 * 			  check of selected value
+	 */
+	public NBTSearch(File folder, NBTQuery query, Predicate<Object> predicate) {
+		this.folder = folder;
+		this.query = query;
+		this.predicate = predicate;
+	}
+
+	@Override
+	protected List<Runnable> createJobs(Consumer<Match> consumer, int parallelism) {
+		List<File> regionFiles = listFiles(new File(folder, "region"), ".mca");
+		List<File> entityFiles = listFiles(new File(folder, "entities"), ".mca");
+		List<File> playerFiles = listFiles(new File(folder, "playerdata"), ".dat");
+		totalFiles.set(regionFiles.size() + entityFiles.size() + playerFiles.size());
+		List<Runnable> jobs = new ArrayList<>(totalFiles.get());
+		for (File file : regionFiles) {
+			jobs.add(() -> searchRegion(file, consumer));
+		}
+		for (File file : entityFiles) {
+			jobs.add(() -> searchRegion(file, consumer));
+		}
+		for (File file : playerFiles) {
+			jobs.add(() -> searchPlayer(file, consumer));
+		}
+		return jobs;
+	}
+
+	@Override
+	protected int finish() {
+		return matches.get();
+	}
+
+	@Override
+	public int getTotalFiles() {
+		return totalFiles.get();
+	}
+
+	public int getProcessedChunks() {
+		return processedChunks.get();
+	}
+
+	public int getMatches() {
+		return matches.get();
+	}
+
+	/**
+	 * Create predicate which finds pattern in selected value.<br>
+	 * Pattern matches value if they are equal or if pattern is found in any nested tag of value.
+	 * Compound pattern matches compound which has all its entries,
+	 * list pattern matches list which has matching element for every element of pattern
+	 *
+	 * @param pattern
+	 * 			  value to find
+	 * @return predicate
+	 */
+	public static Predicate<Object> contains(Object pattern) {
+		return value -> find(value, pattern);
+	}
+
+	private static boolean find(Object value, Object pattern) {
+		if (matches(value, pattern)) {
+			return true;
+		}
+		if (value instanceof Map<?, ?> map) {
+			for (Object child : map.values()) {
+				if (find(child, pattern)) {
+					return true;
+				}
+			}
+		} else if (value instanceof Collection<?> list) {
+			for (Object child : list) {
+				if (find(child, pattern)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean matches(Object value, Object pattern) {
+		if (pattern instanceof Map<?, ?> patternMap) {
+			if (!(value instanceof Map<?, ?> map)) {
+				return false;
+			}
+			for (Map.Entry<?, ?> entry : patternMap.entrySet()) {
+				if (!matches(map.get(entry.getKey()), entry.getValue())) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (pattern instanceof Collection<?> patternList) {
+			if (!(value instanceof Collection<?> list)) {
+				return false;
+			}
+			patternLoop:
+			for (Object patternElement : patternList) {
+				for (Object element : list) {
+					if (matches(element, patternElement)) {
+						continue patternLoop;
+					}
+				}
+				return false;
+			}
+			return true;
+		}
+		if (pattern instanceof byte[] a) {
+			return value instanceof byte[] b && Arrays.equals(a, b);
+		}
+		if (pattern instanceof int[] a) {
+			return value instanceof int[] b && Arrays.equals(a, b);
+		}
+		if (pattern instanceof long[] a) {
+			return value instanceof long[] b && Arrays.equals(a, b);
+		}
+		return Objects.equals(pattern, value);
+	}
+
+	private void searchRegion(File file, Consumer<Match> consumer) {
+		Matcher matcher = REGION_NAME.matcher(file.getName());
+		if (isCancelled() || !matcher.matches()) {
+			processedFiles.incrementAndGet();
+			return;
+		}
+		int regionX = Integer.parseInt(matcher.group(1));
+		int regionZ = Integer.parseInt(matcher.group(2));
+		try (var region = new NBTRegionFile(file, false)) {
+			new ChunkTask(region, regionX, regionZ, 0, 1024, consumer).invoke();
+		} catch (IOException | InternalError e) {
+			errors.incrementAndGet();
+		}
+		processedFiles.incrementAndGet();
+	}
+
+	private class ChunkTask extends RecursiveAction {
+
+		private final NBTRegionFile region;
+		private final int regionX;
+		private final int regionZ;
+		private final int from;
+		private final int to;
+		private final Consumer<Match> consumer;
+
+		private ChunkTask(NBTRegionFile region, int regionX, int regionZ, int from, int to, Consumer<Match> consumer) {
+			this.region = region;
+			this.regionX = regionX;
+			this.regionZ = regionZ;
+			this.from = from;
+			this.to = to;
+			this.consumer = consumer;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > CHUNKS_PER_TASK) {
+				int middle = (from + to) >>> 1;
+				invokeAll(
+						new ChunkTask(region, regionX, regionZ, from, middle, consumer),
+						new ChunkTask(region, regionX, regionZ, middle, to, consumer)
+				);
+				return;
+			}
+			for (int i = from; i < to && !isCancelled(); i++) {
+				int chunkX = (regionX << 5) + (i & 31);
+				int chunkZ = (regionZ << 5) + (i >> 5);
+				try {
+					if (!region.hasChunk(chunkX, chunkZ)) {
+						continue;
+					}
+					NBTCompound chunk = region.read(chunkX, chunkZ);
+					processedChunks.incrementAndGet();
+					if (chunk != null) {
+						searchChunk(region.getFile(), chunk, consumer);
+					}
+				} catch (IOException | RuntimeException | InternalError e) { // InternalError is thrown by truncated mapped file
+					errors.incrementAndGet();
+				}
+			}
+		}
+
+	}
+
+	private void searchChunk(File file, NBTCompound chunk, Consumer<Match> consumer) {
+		NBTCompound level = chunk.getCompound("Level"); // chunk format before 1.18
+		if (level == null) {
+			level = chunk;
+		}
+		searchList(file, Source.BLOCK_ENTITY, level.getList("block_entities"), consumer);
+		searchList(file, Source.BLOCK_ENTITY, level.getList("TileEntities"), consumer);
+		searchList(file, Source.ENTITY, level.getList("Entities"), consumer);
+	}
+
+	private void searchList(File file, Source source, NBTList list, Consumer<Match> consumer) {
+		if (list == null) {
+			return;
+		}
+		for (Object value : list) {
+			if (value instanceof NBTCompound data) {
+				searchObject(file, source, data, consumer);
+			}
+		}
+	}
+
+	private void searchPlayer(File file, Consumer<Match> consumer) {
+		if (!isCancelled()) {
+			try {
+				if (NBTManager.getInstance().readCompressed(file) instanceof NBTCompound data) {
+					searchObject(file, Source.PLAYER, data, consumer);
+				}
+			} catch (RuntimeException e) {
+				errors.incrementAndGet();
+			}
+		}
+		processedFiles.incrementAndGet();
+	}
+
+	private void searchObject(File file, Source source, NBTCompound data, Consumer<Match> consumer) {
+		Object value;
+		try {
+			value = query.get(data);
+		} catch (NBTTagNotFound e) {
+			return;
+		}
+		if (!predicate.test(value)) {
+			return;
+		}
+		double x, y, z;
+		NBTList pos = data.getList("Pos");
+		if (source != Source.BLOCK_ENTITY && pos != null && pos.size() >= 3) {
+			x = pos.getDoubleAt(0);
+			y = pos.getDoubleAt(1);
+			z = pos.getDoubleAt(2);
+		} else {
+			x = data.getInt("x");
+			y = data.getInt("y");
+			z = data.getInt("z");
+		}
+		matches.incrementAndGet();
+		consumer.accept(new Match(source, file, x, y, z, data, value));
+	}
+
+}
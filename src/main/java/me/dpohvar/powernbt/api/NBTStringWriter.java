@@ -0,0 +1,288 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming SNBT serializer of java values and tags.<br>
+ * Values are written directly to {@link Appendable}, string of the whole tree is not created.
+ * Output stops as soon as length budget is exceeded, so only used characters are produced.
+ * Null entries of maps and null elements of lists are skipped like in {@link NBTCompound#put(String, Object)}
+ * <pre>
+ *   String selector = NBTStringWriter.COMPACT.withMaxLength(255).format(compound); // null if longer
+ *   NBTStringWriter.PRETTY.withSortedKeys(true).write(compound, fileWriter);
+ * </pre>
+ *
+ * @param pretty
+ * 			  write entries on separate lines with indent
+ * @param sortedKeys
+ * 			  write entries of compounds in order of keys
+ * @param maxLength
+ * 			  length budget, max count of written characters
+ */
+public record NBTStringWriter(boolean pretty, boolean sortedKeys, int maxLength) {
+
+	public static final NBTStringWriter COMPACT = new NBTStringWriter(false, false, Integer.MAX_VALUE);
+	public static final NBTStringWriter PRETTY = new NBTStringWriter(true, false, Integer.MAX_VALUE);
+
+	private static final String INDENT = "    ";
+
+	public NBTStringWriter {
+		if (maxLength < 0) {
+			throw new IllegalArgumentException("wrong max length: " + maxLength);
+		}
+	}
+
+	/**
+	 * @param sortedKeys
+	 * 			  write entries of compounds in order of keys
+	 * @return writer with other order of keys
+	 */
+	public NBTStringWriter withSortedKeys(boolean sortedKeys) {
+		return new NBTStringWriter(pretty, sortedKeys, maxLength);
+	}
+
+	/**
+	 * @param maxLength
+	 * 			  max count of written characters
+	 * @return writer with other length budget
+	 */
+	public NBTStringWriter withMaxLength(int maxLength) {
+		return new NBTStringWriter(pretty, sortedKeys, maxLength);
+	}
+
+	/**
+	 * Convert value to SNBT string
+	 *
+	 * @param value
+	 * 			  java value or {@link NBTBox}
+	 * @return SNBT string or null if length budget is exceeded
+	 */
+	public String format(Object value) {
+		StringBuilder builder = new StringBuilder();
+		try {
+			return write(value, builder) ? builder.toString() : null;
+		} catch (IOException e) {
+			throw new RuntimeException(e); // StringBuilder does not throw it
+		}
+	}
+
+	/**
+	 * Write value as SNBT
+	 *
+	 * @param value
+	 * 			  java value or {@link NBTBox}
+	 * @param out
+	 * 			  receiver of characters, for example {@link java.io.Writer}
+	 * @return false if length budget is exceeded, output is cut before first character over budget
+	 */
+	public boolean write(Object value, Appendable out) throws IOException {
+		Output output = new Output(out, maxLength);
+		try {
+			output.writeValue(value, 0);
+			return true;
+		} catch (LengthExceeded e) {
+			return false;
+		}
+	}
+
+	private static final class LengthExceeded extends RuntimeException {
+
+		private static final LengthExceeded INSTANCE = new LengthExceeded();
+
+		private LengthExceeded() {
+			super(null, null, false, false);
+		}
+
+	}
+
+	private final class Output {
+
+		private final Appendable out;
+		private int remaining;
+
+		private Output(Appendable out, int maxLength) {
+			this.out = out;
+			this.remaining = maxLength;
+		}
+
+		private void append(CharSequence text) throws IOException {
+			append(text, 0, text.length());
+		}
+
+		private void append(CharSequence text, int start, int end) throws IOException {
+			if (end - start > remaining) {
+				throw LengthExceeded.INSTANCE;
+			}
+			remaining -= end - start;
+			out.append(text, start, end);
+		}
+
+		private void append(char c) throws IOException {
+			if (remaining == 0) {
+				throw LengthExceeded.INSTANCE;
+			}
+			remaining--;
+			out.append(c);
+		}
+
+		private void writeValue(Object value, int depth) throws IOException {
+			if (value instanceof Map<?, ?> map) {
+				writeCompound(map, depth);
+			} else if (value instanceof Collection<?> collection) {
+				writeList(collection, depth);
+			} else if (value instanceof Object[] array) {
+				writeList(Arrays.asList(array), depth);
+			} else if (value instanceof String string) {
+				writeString(string);
+			} else if (value instanceof Boolean bool) {
+				append(bool ? "1b" : "0b");
+			} else if (value instanceof Character character) {
+				append((byte) character.charValue() + "b");
+			} else if (value instanceof Byte number) {
+				append(number + "b");
+			} else if (value instanceof Short number) {
+				append(number + "s");
+			} else if (value instanceof Integer number) {
+				append(number.toString());
+			} else if (value instanceof Long number) {
+				append(number + "L");
+			} else if (value instanceof Float number) {
+				append(number + "f");
+			} else if (value instanceof Double number) {
+				append(number + "d");
+			} else if (value instanceof byte[] array) {
+				append("[B;");
+				for (int i = 0; i < array.length; i++) {
+					separator(i);
+					append(array[i] + "B");
+				}
+				append(']');
+			} else if (value instanceof int[] array) {
+				append("[I;");
+				for (int i = 0; i < array.length; i++) {
+					separator(i);
+					append(Integer.toString(array[i]));
+				}
+				append(']');
+			} else if (value instanceof long[] array) {
+				append("[L;");
+				for (int i = 0; i < array.length; i++) {
+					separator(i);
+					append(array[i] + "L");
+				}
+				append(']');
+			} else {
+				throw new RuntimeException("can not convert value to nbt tag");
+			}
+		}
+
+		/**
+		 * Separator of array elements, pretty arrays stay on one line
+		 */
+		private void separator(int index) throws IOException {
+			if (index > 0) {
+				append(',');
+			}
+			if (pretty) {
+				append(' ');
+			}
+		}
+
+		private void writeCompound(Map<?, ?> map, int depth) throws IOException {
+			Collection<? extends Map.Entry<?, ?>> entries = map.entrySet();
+			if (sortedKeys) {
+				List<Map.Entry<?, ?>> sorted = new ArrayList<>(entries);
+				sorted.sort((a, b) -> String.valueOf(a.getKey()).compareTo(String.valueOf(b.getKey())));
+				entries = sorted;
+			}
+			append('{');
+			boolean first = true;
+			for (Map.Entry<?, ?> entry : entries) {
+				if (entry.getValue() == null) {
+					continue;
+				}
+				nextElement(first, depth);
+				first = false;
+				writeKey(String.valueOf(entry.getKey()));
+				append(pretty ? ": " : ":");
+				writeValue(entry.getValue(), depth + 1);
+			}
+			endElements(first, depth);
+			append('}');
+		}
+
+		private void writeList(Collection<?> list, int depth) throws IOException {
+			append('[');
+			boolean first = true;
+			for (Object element : list) {
+				if (element == null) {
+					continue;
+				}
+				nextElement(first, depth);
+				first = false;
+				writeValue(element, depth + 1);
+			}
+			endElements(first, depth);
+			append(']');
+		}
+
+		private void nextElement(boolean first, int depth) throws IOException {
+			if (!first) {
+				append(',');
+			}
+			if (pretty) {
+				newLine(depth + 1);
+			}
+		}
+
+		private void endElements(boolean empty, int depth) throws IOException {
+			if (pretty && !empty) {
+				newLine(depth);
+			}
+		}
+
+		private void newLine(int depth) throws IOException {
+			append('\n');
+			for (int i = 0; i < depth; i++) {
+				append(INDENT);
+			}
+		}
+
+		private void writeKey(String key) throws IOException {
+			if (key.isEmpty()) {
+				append("\"\"");
+				return;
+			}
+			for (int i = 0; i < key.length(); i++) {
+				char c = key.charAt(i);
+				if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '-' || c == '.' || c == '+')) {
+					writeString(key);
+					return;
+				}
+			}
+			append(key);
+		}
+
+		private void writeString(String value) throws IOException {
+			append('"');
+			int start = 0;
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (c == '\\' || c == '"') {
+					append(value, start, i);
+					append('\\');
+					start = i;
+				}
+			}
+			append(value, start, value.length());
+			append('"');
+		}
+
+	}
+
+}
@@ -0,0 +1,81 @@
+package me.dpohvar.powernbt.api;
+
+/**
+ * Creates tags of current bridge: NMS tags on server or standalone tags without server.<br>
+ * Used by parsers to build tag tree in one pass, values are not converted to {@link NBTCompound} or {@link NBTList} and back.
+ * Created tags can be wrapped by {@link NBTManager#getValueOfTag(Object)}
+ */
+public interface NBTTagFactory {
+
+	/**
+	 * @return factory of tags of current bridge
+	 */
+	static NBTTagFactory getDefault() {
+		return NBTBridgeTagFactory.INSTANCE;
+	}
+
+	Object createByte(byte value);
+
+	Object createShort(short value);
+
+	Object createInt(int value);
+
+	Object createLong(long value);
+
+	Object createFloat(float value);
+
+	Object createDouble(double value);
+
+	Object createString(String value);
+
+	/**
+	 * @param value
+	 * 			  array, it is used by tag without copy
+	 * @return byte array tag
+	 */
+	Object createByteArray(byte[] value);
+
+	/**
+	 * @param value
+	 * 			  array, it is used by tag without copy
+	 * @return int array tag
+	 */
+	Object createIntArray(int[] value);
+
+	/**
+	 * @param value
+	 * 			  array, it is used by tag without copy
+	 * @return long array tag
+	 */
+	Object createLongArray(long[] value);
+
+	Object createCompound();
+
+	/**
+	 * Put tag to compound tag without copy
+	 *
+	 * @param compound
+	 * 			  compound tag
+	 * @param key
+	 * 			  key of entry
+	 * @param tag
+	 * 			  value of entry
+	 */
+	void put(Object compound, String key, Object tag);
+
+	Object createList();
+
+	/**
+	 * Append tag to list tag without copy.<br>
+	 * First tag defines type of list, tags of other type are converted like in {@link NBTList#add(Object)}
+	 *
+	 * @param list
+	 * 			  list tag
+	 * @param tag
+	 * 			  element
+	 * @throws RuntimeException
+	 * 			  if tag can not be converted to type of list
+	 */
+	void add(Object list, Object tag);
+
+}
@@ -0,0 +1,199 @@
+package me.dpohvar.powernbt.api;
+
+import me.dpohvar.powernbt.exception.NBTConvertException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Checks java values before they are converted to NBT tags.<br>
+ * Rejects cross-references and values which exceed depth, tag count or serialized size limits.<br>
+ * Default limits can be changed by system properties {@value #MAX_DEPTH_PROPERTY},
+ * {@value #MAX_NODES_PROPERTY} and {@value #MAX_SIZE_PROPERTY}
+ *
+ * @param maxDepth
+ * 			  max nesting level of maps and collections
+ * @param maxNodes
+ * 			  max count of values
+ * @param maxSize
+ * 			  max size of value in NBT binary format, in bytes
+ */
+public record NBTValidator(int maxDepth, int maxNodes, long maxSize) {
+
+	public static final String MAX_DEPTH_PROPERTY = "powernbt.maxDepth";
+	public static final String MAX_NODES_PROPERTY = "powernbt.maxNodes";
+	public static final String MAX_SIZE_PROPERTY = "powernbt.maxSize";
+
+	private static volatile NBTValidator defaultValidator = new NBTValidator(
+			Integer.getInteger(MAX_DEPTH_PROPERTY, 512),
+			Integer.getInteger(MAX_NODES_PROPERTY, 4_194_304),
+			Long.getLong(MAX_SIZE_PROPERTY, 128L * 1024 * 1024)
+	);
+
+	private static final ThreadLocal<int[]> conversionDepth = ThreadLocal.withInitial(() -> new int[1]);
+
+	/**
+	 * @return validator used before conversion of java values to NBT tags
+	 */
+	public static NBTValidator getDefault() {
+		return defaultValidator;
+	}
+
+	/**
+	 * Set validator used before conversion of java values to NBT tags
+	 *
+	 * @param validator
+	 * 			  new default validator
+	 */
+	public static void setDefault(NBTValidator validator) {
+		defaultValidator = validator;
+	}
+
+	/**
+	 * Check value in single pass
+	 *
+	 * @param value
+	 * 			  java value to check
+	 * @throws NBTConvertException
+	 * 			  if value has cross-references or exceeds limits
+	 */
+	public void validate(Object value) throws NBTConvertException {
+		if (value != null) {
+			new Walker(value).visit(value, 0);
+		}
+	}
+
+	/**
+	 * Run conversion of value, value is validated by default validator
+	 * unless conversion is nested in other conversion of this thread
+	 */
+	static <T> T convert(Object value, Supplier<T> converter) {
+		int[] depth = conversionDepth.get();
+		if (depth[0] == 0) {
+			defaultValidator.validate(value);
+		}
+		depth[0]++;
+		try {
+			return converter.get();
+		} finally {
+			depth[0]--;
+		}
+	}
+
+	private final class Walker {
+
+		private final Object root;
+		private final Set<Object> path = Collections.newSetFromMap(new IdentityHashMap<>());
+		private int nodes;
+		private long size;
+
+		private Walker(Object root) {
+			this.root = root;
+		}
+
+		private void visit(Object value, int depth) {
+			if (value == null) {
+				return;
+			}
+			if (++nodes > maxNodes) {
+				throw new NBTConvertException(root, "more than " + maxNodes + " tags");
+			}
+			if (value instanceof NBTBox || value instanceof NBTMappedCompound || value instanceof NBTMappedList) {
+				return; // already binary tags
+			}
+			if (value instanceof Map<?, ?> map) {
+				enter(value, depth);
+				for (Map.Entry<?, ?> entry : map.entrySet()) {
+					addSize(1 + utfSize(String.valueOf(entry.getKey())));
+					visit(entry.getValue(), depth + 1);
+				}
+				addSize(1);
+				path.remove(value);
+			} else if (value instanceof Collection<?> collection) {
+				enter(value, depth);
+				addSize(5);
+				for (Object element : collection) {
+					visit(element, depth + 1);
+				}
+				path.remove(value);
+			} else if (value instanceof Object[] array) {
+				enter(value, depth);
+				addSize(5);
+				for (Object element : array) {
+					visit(element, depth + 1);
+				}
+				path.remove(value);
+			} else {
+				addSize(payloadSize(value));
+			}
+		}
+
+		private void enter(Object value, int depth) {
+			if (depth >= maxDepth) {
+				throw new NBTConvertException(root, "depth is more than " + maxDepth);
+			}
+			if (!path.add(value)) {
+				throw new NBTConvertException(root, "value contains cross-reference");
+			}
+		}
+
+		private void addSize(long bytes) {
+			size += bytes;
+			if (size > maxSize) {
+				throw new NBTConvertException(root, "size is more than " + maxSize + " bytes");
+			}
+		}
+
+	}
+
+	private static long payloadSize(Object value) {
+		if (value instanceof Byte || value instanceof Boolean || value instanceof Character) {
+			return 1;
+		}
+		if (value instanceof Short) {
+			return 2;
+		}
+		if (value instanceof Integer || value instanceof Float) {
+			return 4;
+		}
+		if (value instanceof Long || value instanceof Double) {
+			return 8;
+		}
+		if (value instanceof CharSequence s) {
+			return utfSize(s);
+		}
+		if (value instanceof byte[] a) {
+			return 4L + a.length;
+		}
+		if (value instanceof int[] a) {
+			return 4L + 4L * a.length;
+		}
+		if (value instanceof long[] a) {
+			return 4L + 8L * a.length;
+		}
+		return 0;
+	}
+
+	/**
+	 * @return size of string in modified UTF-8 with length prefix
+	 */
+	private static long utfSize(CharSequence s) {
+		long size = 2;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c >= 0x0001 && c <= 0x007F) {
+				size++;
+			} else if (c <= 0x07FF) {
+				size += 2;
+			} else {
+				size += 3;
+			}
+		}
+		return size;
+	}
+
+}
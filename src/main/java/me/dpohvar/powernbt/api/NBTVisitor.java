@@ -0,0 +1,83 @@
+package me.dpohvar.powernbt.api;
+
+/**
+ * Receives events of NBT data read by {@link NBTManager#readEvents(java.io.InputStream, NBTVisitor)}.<br>
+ * Tags are decoded directly from binary data, tag tree is not created.
+ * <pre>
+ *   compound: startCompound, (key, value)*, endCompound
+ *   list:     startList, value*, endList
+ *   value:    compound | list | primitive | array
+ * </pre>
+ */
+public interface NBTVisitor {
+
+	/**
+	 * Compound tag is started
+	 */
+	default void startCompound() {
+	}
+
+	/**
+	 * Next entry of compound is started
+	 *
+	 * @param key
+	 * 			  key of entry
+	 * @param type
+	 * 			  type of value
+	 * @return false to skip value of entry
+	 */
+	default boolean key(String key, byte type) {
+		return true;
+	}
+
+	/**
+	 * Compound tag is ended
+	 */
+	default void endCompound() {
+	}
+
+	/**
+	 * List tag is started
+	 *
+	 * @param type
+	 * 			  type of elements
+	 * @param size
+	 * 			  count of elements
+	 */
+	default void startList(byte type, int size) {
+	}
+
+	/**
+	 * List tag is ended
+	 */
+	default void endList() {
+	}
+
+	/**
+	 * Number or string tag
+	 *
+	 * @param value
+	 * 			  byte, short, int, long, float, double or String
+	 */
+	default void primitive(Object value) {
+	}
+
+	/**
+	 * Array tag
+	 *
+	 * @param array
+	 * 			  byte[], int[] or long[]
+	 */
+	default void array(Object array) {
+	}
+
+	/**
+	 * Checked before every entry of compound and element of list
+	 *
+	 * @return true to stop reading, rest of data is not read
+	 */
+	default boolean isDone() {
+		return false;
+	}
+
+}
@@ -0,0 +1,452 @@
+package me.dpohvar.powernbt.api;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Buffered gzip and zlib streams with pooled {@link Inflater}, {@link Deflater} and buffers.<br>
+ * Native zlib state and buffers are returned to pool when stream is closed,
+ * so bulk reading and writing of files does not allocate them for every file.
+ * Size of pools is set by system property {@value #POOL_SIZE_PROPERTY}
+ */
+final class NBTZlibStreams {
+
+	static final String POOL_SIZE_PROPERTY = "powernbt.zlibPoolSize";
+
+	private static final int POOL_SIZE = Integer.getInteger(POOL_SIZE_PROPERTY, Runtime.getRuntime().availableProcessors() * 2);
+	private static final byte[] GZIP_HEADER = {0x1F, (byte) 0x8B, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+
+	private static final Pool<Inflater> gzipInflaters = new Pool<>();
+	private static final Pool<Inflater> zlibInflaters = new Pool<>();
+	private static final Pool<Deflater> gzipDeflaters = new Pool<>();
+	private static final Pool<Deflater> zlibDeflaters = new Pool<>();
+	private static final Map<Integer, Pool<byte[]>> buffers = new ConcurrentHashMap<>();
+
+	private NBTZlibStreams() { }
+
+	private static final class Pool<T> {
+
+		private final ArrayBlockingQueue<T> queue = new ArrayBlockingQueue<>(Math.max(1, POOL_SIZE));
+
+		T take() {
+			return queue.poll();
+		}
+
+		/**
+		 * @return false if pool is full
+		 */
+		boolean release(T value) {
+			return queue.offer(value);
+		}
+
+		int size() {
+			return queue.size();
+		}
+
+	}
+
+	/**
+	 * @return count of inflaters in pool
+	 */
+	static int pooledInflaters(boolean gzip) {
+		return (gzip ? gzipInflaters : zlibInflaters).size();
+	}
+
+	private static Inflater takeInflater(boolean gzip) {
+		Inflater inflater = (gzip ? gzipInflaters : zlibInflaters).take();
+		return inflater != null ? inflater : new Inflater(gzip);
+	}
+
+	private static void releaseInflater(Inflater inflater, boolean gzip) {
+		inflater.reset();
+		if (!(gzip ? gzipInflaters : zlibInflaters).release(inflater)) {
+			inflater.end();
+		}
+	}
+
+	private static Deflater takeDeflater(boolean gzip, int level) {
+		Deflater deflater = (gzip ? gzipDeflaters : zlibDeflaters).take();
+		if (deflater == null) {
+			return new Deflater(level, gzip);
+		}
+		deflater.setLevel(level);
+		return deflater;
+	}
+
+	private static void releaseDeflater(Deflater deflater, boolean gzip) {
+		deflater.reset();
+		if (!(gzip ? gzipDeflaters : zlibDeflaters).release(deflater)) {
+			deflater.end();
+		}
+	}
+
+	private static byte[] takeBuffer(int size) {
+		byte[] buffer = buffers.computeIfAbsent(size, s -> new Pool<>()).take();
+		return buffer != null ? buffer : new byte[size];
+	}
+
+	private static void releaseBuffer(byte[] buffer) {
+		buffers.computeIfAbsent(buffer.length, s -> new Pool<>()).release(buffer);
+	}
+
+	/**
+	 * Decompress gzip or zlib data
+	 *
+	 * @param inputStream
+	 * 			  compressed data, it is closed with returned stream
+	 * @param gzip
+	 * 			  gzip format, zlib format otherwise
+	 * @param bufferSize
+	 * 			  size of buffers
+	 * @return buffered stream which supports mark
+	 */
+	static InputStream inflate(InputStream inputStream, boolean gzip, int bufferSize) throws IOException {
+		if (gzip) {
+			readGzipHeader(inputStream);
+		}
+		return new InflatingInputStream(inputStream, gzip, bufferSize);
+	}
+
+	/**
+	 * Compress data to gzip or zlib format
+	 *
+	 * @param outputStream
+	 * 			  receiver of compressed data, it is closed with returned stream
+	 * @param gzip
+	 * 			  gzip format, zlib format otherwise
+	 * @param level
+	 * 			  deflate level
+	 * @param bufferSize
+	 * 			  size of buffers
+	 * @return buffered stream, data is written completely when it is closed
+	 */
+	static OutputStream deflate(OutputStream outputStream, boolean gzip, int level, int bufferSize) throws IOException {
+		if (gzip) {
+			outputStream.write(GZIP_HEADER);
+		}
+		return new DeflatingOutputStream(outputStream, gzip, level, bufferSize);
+	}
+
+	private static void readGzipHeader(InputStream in) throws IOException {
+		if (readByte(in) != 0x1F || readByte(in) != 0x8B) {
+			throw new ZipException("Not in GZIP format");
+		}
+		if (readByte(in) != Deflater.DEFLATED) {
+			throw new ZipException("Unsupported compression method");
+		}
+		int flags = readByte(in);
+		skip(in, 6); // time, extra flags, os
+		if ((flags & FEXTRA) != 0) {
+			skip(in, readByte(in) | (readByte(in) << 8));
+		}
+		if ((flags & FNAME) != 0) {
+			while (readByte(in) != 0) {
+				// skip name
+			}
+		}
+		if ((flags & FCOMMENT) != 0) {
+			while (readByte(in) != 0) {
+				// skip comment
+			}
+		}
+		if ((flags & FHCRC) != 0) {
+			skip(in, 2);
+		}
+	}
+
+	private static int readByte(InputStream in) throws IOException {
+		int b = in.read();
+		if (b == -1) {
+			throw new EOFException("unexpected end of compressed data");
+		}
+		return b;
+	}
+
+	private static void skip(InputStream in, int count) throws IOException {
+		for (int i = 0; i < count; i++) {
+			readByte(in);
+		}
+	}
+
+	private static final class InflatingInputStream extends InputStream {
+
+		private final InputStream in;
+		private final boolean gzip;
+		private final CRC32 crc;
+		private Inflater inflater;
+		private byte[] input; // compressed data
+		private byte[] buffer; // decompressed data
+		private int inputLength;
+		private int position;
+		private int limit;
+		private int markPosition = -1;
+		private boolean finished;
+
+		private InflatingInputStream(InputStream in, boolean gzip, int bufferSize) {
+			this.in = in;
+			this.gzip = gzip;
+			this.crc = gzip ? new CRC32() : null;
+			this.inflater = takeInflater(gzip);
+			this.input = takeBuffer(bufferSize);
+			this.buffer = takeBuffer(bufferSize);
+		}
+
+		/**
+		 * Decompress next part of data to buffer, data after mark is kept
+		 *
+		 * @return false if end of data is reached
+		 */
+		private boolean fill() throws IOException {
+			if (buffer == null) {
+				throw new IOException("Stream closed");
+			}
+			if (markPosition > 0) {
+				System.arraycopy(buffer, markPosition, buffer, 0, limit - markPosition);
+				position -= markPosition;
+				limit -= markPosition;
+				markPosition = 0;
+			} else if (markPosition < 0 || limit == buffer.length) {
+				markPosition = -1; // mark is dropped if buffer is full
+				position = limit = 0;
+			}
+			while (!finished) {
+				int count;
+				try {
+					count = inflater.inflate(buffer, limit, buffer.length - limit);
+				} catch (DataFormatException e) {
+					throw new ZipException(e.getMessage());
+				}
+				if (count > 0) {
+					if (crc != null) {
+						crc.update(buffer, limit, count);
+					}
+					limit += count;
+					return true;
+				}
+				if (inflater.finished()) {
+					finished = true;
+					if (gzip) {
+						readTrailer();
+					}
+				} else if (inflater.needsDictionary()) {
+					throw new ZipException("preset dictionary is not supported");
+				} else if (inflater.needsInput()) {
+					inputLength = in.read(input, 0, input.length);
+					if (inputLength == -1) {
+						throw new EOFException("unexpected end of compressed data");
+					}
+					inflater.setInput(input, 0, inputLength);
+				}
+			}
+			return false;
+		}
+
+		private void readTrailer() throws IOException {
+			byte[] trailer = new byte[8];
+			int remaining = Math.min(inflater.getRemaining(), trailer.length);
+			System.arraycopy(input, inputLength - inflater.getRemaining(), trailer, 0, remaining);
+			for (int i = remaining; i < trailer.length; i++) {
+				trailer[i] = (byte) readByte(in);
+			}
+			long checksum = (trailer[0] & 0xFFL) | (trailer[1] & 0xFFL) << 8 | (trailer[2] & 0xFFL) << 16 | (trailer[3] & 0xFFL) << 24;
+			long size = (trailer[4] & 0xFFL) | (trailer[5] & 0xFFL) << 8 | (trailer[6] & 0xFFL) << 16 | (trailer[7] & 0xFFL) << 24;
+			if (checksum != crc.getValue() || size != (inflater.getBytesWritten() & 0xFFFFFFFFL)) {
+				throw new ZipException("Corrupt GZIP trailer");
+			}
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (position == limit && !fill()) {
+				return -1;
+			}
+			return buffer[position++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (position == limit && !fill()) {
+				return -1;
+			}
+			int count = Math.min(len, limit - position);
+			System.arraycopy(buffer, position, b, off, count);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public int available() throws IOException {
+			if (buffer == null) {
+				throw new IOException("Stream closed");
+			}
+			return limit - position;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return true;
+		}
+
+		/**
+		 * Mark position, mark is kept while less than size of buffer is read
+		 */
+		@Override
+		public void mark(int readLimit) {
+			markPosition = position;
+		}
+
+		@Override
+		public void reset() throws IOException {
+			if (markPosition < 0) {
+				throw new IOException("Resetting to invalid mark");
+			}
+			position = markPosition;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (buffer == null) {
+				return;
+			}
+			releaseInflater(inflater, gzip);
+			releaseBuffer(input);
+			releaseBuffer(buffer);
+			inflater = null;
+			input = buffer = null;
+			in.close();
+		}
+
+	}
+
+	private static final class DeflatingOutputStream extends OutputStream {
+
+		private final OutputStream out;
+		private final boolean gzip;
+		private final CRC32 crc;
+		private Deflater deflater;
+		private byte[] buffer; // uncompressed data
+		private byte[] output; // compressed data
+		private int count;
+
+		private DeflatingOutputStream(OutputStream out, boolean gzip, int level, int bufferSize) {
+			this.out = out;
+			this.gzip = gzip;
+			this.crc = gzip ? new CRC32() : null;
+			this.deflater = takeDeflater(gzip, level);
+			this.buffer = takeBuffer(bufferSize);
+			this.output = takeBuffer(bufferSize);
+		}
+
+		private void checkOpen() throws IOException {
+			if (buffer == null) {
+				throw new IOException("Stream closed");
+			}
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			checkOpen();
+			if (count == buffer.length) {
+				flushBuffer();
+			}
+			buffer[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			checkOpen();
+			if (len >= buffer.length) {
+				flushBuffer();
+				deflate(b, off, len);
+				return;
+			}
+			if (len > buffer.length - count) {
+				flushBuffer();
+			}
+			System.arraycopy(b, off, buffer, count, len);
+			count += len;
+		}
+
+		private void flushBuffer() throws IOException {
+			if (count > 0) {
+				deflate(buffer, 0, count);
+				count = 0;
+			}
+		}
+
+		private void deflate(byte[] b, int off, int len) throws IOException {
+			if (crc != null) {
+				crc.update(b, off, len);
+			}
+			deflater.setInput(b, off, len);
+			while (!deflater.needsInput()) {
+				writeDeflated();
+			}
+		}
+
+		private void writeDeflated() throws IOException {
+			int length = deflater.deflate(output, 0, output.length);
+			if (length > 0) {
+				out.write(output, 0, length);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			checkOpen();
+			flushBuffer();
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (buffer == null) {
+				return;
+			}
+			try {
+				flushBuffer();
+				deflater.finish();
+				while (!deflater.finished()) {
+					writeDeflated();
+				}
+				if (gzip) {
+					writeInt((int) crc.getValue());
+					writeInt((int) deflater.getBytesRead());
+				}
+			} finally {
+				releaseDeflater(deflater, gzip);
+				releaseBuffer(buffer);
+				releaseBuffer(output);
+				deflater = null;
+				buffer = output = null;
+				out.close();
+			}
+		}
+
+		private void writeInt(int value) throws IOException {
+			out.write(value & 0xFF);
+			out.write((value >> 8) & 0xFF);
+			out.write((value >> 16) & 0xFF);
+			out.write((value >> 24) & 0xFF);
+		}
+
+	}
+
+}
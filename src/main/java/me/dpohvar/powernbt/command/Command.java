@@ -1,12 +1,16 @@
 package me.dpohvar.powernbt.command;
 
+import me.dpohvar.powernbt.command.action.Action;
 import me.dpohvar.powernbt.utils.Caller;
 
 import org.apache.commons.lang.StringUtils;
+import org.bukkit.Bukkit;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 
 import java.util.LinkedList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 
 import static me.dpohvar.powernbt.PowerNBT.plugin;
@@ -38,6 +42,70 @@ public abstract class Command implements CommandExecutor {
 		}
 	}
 
+	/**
+	 * Execute action after previous actions of caller.<br>
+	 * Files of action are loaded in I/O threads, action is executed in main thread
+	 * at once if nothing is loaded or later when data is ready
+	 *
+	 * @param caller
+	 * 			  caller of command
+	 * @param action
+	 * 			  action to execute
+	 */
+	protected void execute(Caller caller, Action action) {
+		CompletableFuture<?> ready = caller.getPendingAction()
+				.handle((v, e) -> null)
+				.thenCompose(v -> prefetch(action));
+		CompletableFuture<Void> done;
+		if (ready.isDone() && Bukkit.isPrimaryThread()) {
+			run(caller, action);
+			done = CompletableFuture.completedFuture(null);
+		} else {
+			done = ready.handleAsync((v, e) -> {
+				run(caller, action);
+				return null;
+			}, task -> Bukkit.getScheduler().runTask(plugin, task));
+		}
+		caller.setPendingAction(done);
+	}
+
+	/**
+	 * Start loading of action, failed loading is repeated and reported by action
+	 */
+	private static CompletableFuture<?> prefetch(Action action) {
+		try {
+			return action.prefetch().handle((r, e) -> null);
+		} catch (Throwable t) {
+			return CompletableFuture.completedFuture(null);
+		}
+	}
+
+	private void run(Caller caller, Action action) {
+		caller.setSilent(silent);
+		try {
+			action.execute();
+		} catch (Throwable t) {
+			handleException(caller, action, t);
+		} finally {
+			action.discardPrefetch();
+		}
+		for (CompletableFuture<?> write : action.takePendingWrites()) {
+			write.whenComplete((v, e) -> {
+				if (e != null) {
+					Throwable error = new RuntimeException(plugin.translate("fail_write"), e instanceof CompletionException ? e.getCause() : e);
+					Bukkit.getScheduler().runTask(plugin, () -> handleException(caller, action, error));
+				}
+			});
+		}
+	}
+
+	private void handleException(Caller caller, Action action, Throwable t) {
+		caller.handleException(t);
+		if (plugin.isDebug()) {
+			plugin.getLogger().log(Level.WARNING, "Exception on action: " + action.getClass().getSimpleName(), t);
+		}
+	}
+
 	abstract protected boolean command(Caller caller, LinkedList<String> words) throws Throwable;
 
 }
@@ -25,7 +25,7 @@ public class CommandNBT extends Command {
 				  "|=", // a = a | b
 				  "^=", // a = a ^ b
 				  "*=", // a = a * b
-				  "~", "paste", "add", "+=", "cut", "set", "select", "as", "view", "?", "debug", "cancel", "swap", "<>", ">", ">>", "<<", "insert", "ins", "spawn"));
+				  "~", "paste", "add", "+=", "cut", "set", "select", "as", "view", "?", "debug", "cancel", "swap", "<>", ">", ">>", "<<", "insert", "ins", "spawn", "search", "batch"));
 
 	@Override
 	public boolean command(final Caller caller, LinkedList<String> words) throws Throwable {
@@ -53,7 +53,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionView(caller, argsBefore.poll(), argsBefore.poll(), argsBefore.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("view") || action.equals("?")) {
 			if (argsBefore.size() > 3) {
 				throw exceptionTMArgs;
@@ -65,7 +65,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionView(caller, argsBefore.poll(), argsBefore.poll(), argsBefore.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("paste")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -77,7 +77,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionEdit(caller, argsBefore.poll(), argsBefore.poll(), "buffer", argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("debug")) {
 			if (argsBefore.size() > 0) {
 				throw exceptionTMArgs;
@@ -86,7 +86,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionDebug(caller, argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("cancel")) {
 			if (argsBefore.size() > 0) {
 				throw exceptionTMArgs;
@@ -95,7 +95,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionCancel(caller);
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("=") || action.equals("<")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -110,7 +110,7 @@ public class CommandNBT extends Command {
 				throw exceptionNEArgs;
 			}
 			Action a = new ActionEdit(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals(">")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -125,7 +125,7 @@ public class CommandNBT extends Command {
 				throw exceptionNEArgs;
 			}
 			Action a = new ActionEditLast(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals(">>")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -140,7 +140,7 @@ public class CommandNBT extends Command {
 				throw exceptionNEArgs;
 			}
 			Action a = new ActionMove(caller, argsAfter.poll(), argsAfter.poll(), argsBefore.poll(), argsBefore.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("<<")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -155,7 +155,7 @@ public class CommandNBT extends Command {
 				throw exceptionNEArgs;
 			}
 			Action a = new ActionMoveLast(caller, argsAfter.poll(), argsAfter.poll(), argsBefore.poll(), argsBefore.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("cut")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -167,7 +167,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionCut(caller, argsBefore.poll(), argsBefore.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("rm") || action.equals("rem") || action.equals("remove")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -179,7 +179,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionRemove(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("ren") || action.equals("rename")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -191,7 +191,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionRename(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("copy")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -203,7 +203,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionCopy(caller, argsBefore.poll(), argsBefore.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("select") || action.equals("set")) {
 			if (argsBefore.size() > 1) {
 				throw exceptionTMArgs;
@@ -215,7 +215,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionSet(caller, argsBefore.poll(), argsAfter.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("as")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -227,7 +227,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionSet(caller, argsAfter.poll(), argsBefore.poll(), argsBefore.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("swap") || action.equals("<>")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -242,7 +242,7 @@ public class CommandNBT extends Command {
 				throw exceptionNEArgs;
 			}
 			Action a = new ActionSwap(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("add") || action.equals("+=")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -257,7 +257,7 @@ public class CommandNBT extends Command {
 				throw exceptionNEArgs;
 			}
 			Action a = new ActionAddAll(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("insert") || action.equals("ins")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -272,7 +272,7 @@ public class CommandNBT extends Command {
 				throw exceptionNEArgs;
 			}
 			Action a = new ActionInsert(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll(), argsAfter.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("&=")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -287,7 +287,7 @@ public class CommandNBT extends Command {
 				throw exceptionNEArgs;
 			}
 			Action a = new ActionBitAnd(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("|=")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -302,7 +302,7 @@ public class CommandNBT extends Command {
 				throw exceptionNEArgs;
 			}
 			Action a = new ActionBitOr(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("^=")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -317,7 +317,7 @@ public class CommandNBT extends Command {
 				throw exceptionNEArgs;
 			}
 			Action a = new ActionBitXor(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("*=")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -332,7 +332,7 @@ public class CommandNBT extends Command {
 				throw exceptionNEArgs;
 			}
 			Action a = new ActionMultiply(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("~")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -344,7 +344,7 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionBitInverse(caller, argsBefore.poll(), argsBefore.poll());
-			a.execute();
+			execute(caller, a);
 		} else if (action.equals("spawn")) {
 			if (argsBefore.size() > 2) {
 				throw exceptionTMArgs;
@@ -356,7 +356,35 @@ public class CommandNBT extends Command {
 				throw exceptionTMArgs;
 			}
 			Action a = new ActionSpawn(caller, argsBefore.poll(), argsBefore.poll(), argsAfter.poll());
-			a.execute();
+			execute(caller, a);
+		} else if (action.equals("search")) {
+			if (argsBefore.size() > 0) {
+				throw exceptionTMArgs;
+			}
+			if (argsAfter.size() > 4) {
+				throw exceptionTMArgs;
+			}
+			if (argsAfter.size() < 1) {
+				throw exceptionNEArgs;
+			}
+			Action a = new ActionSearch(caller, argsAfter.poll(), argsAfter.poll(), argsAfter.poll(), argsAfter.poll());
+			execute(caller, a);
+		} else if (action.equals("batch")) {
+			if (argsBefore.size() > 0) {
+				throw exceptionTMArgs;
+			}
+			boolean dryRun = "dry".equals(argsAfter.peekLast());
+			if (dryRun) {
+				argsAfter.pollLast();
+			}
+			if (argsAfter.size() > 4) {
+				throw exceptionTMArgs;
+			}
+			if (argsAfter.size() < 2) {
+				throw exceptionNEArgs;
+			}
+			Action a = new ActionBatch(caller, argsAfter.poll(), argsAfter.poll(), argsAfter.poll(), argsAfter.poll(), dryRun);
+			execute(caller, a);
 		}
 		return true;
 	}
@@ -1,7 +1,91 @@
 package me.dpohvar.powernbt.command.action;
 
+import me.dpohvar.powernbt.nbt.NBTContainer;
+import me.dpohvar.powernbt.utils.Caller;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
 public abstract class Action {
 
+	private final List<Argument> arguments = new ArrayList<>();
+	private final Set<Argument> targets = new HashSet<>();
+
 	abstract public void execute() throws Exception;
 
+	/**
+	 * Create argument of action, its container is prefetched by {@link #prefetch()}
+	 */
+	protected final Argument argument(Caller caller, String object, String query) {
+		return argument(new Argument(caller, object, query));
+	}
+
+	protected final Argument argument(Argument argument) {
+		arguments.add(argument);
+		return argument;
+	}
+
+	/**
+	 * Create argument which is written by action, its container is not prefetched if it is replaced as whole
+	 */
+	protected final Argument target(Caller caller, String object, String query) {
+		Argument argument = argument(caller, object, query);
+		targets.add(argument);
+		return argument;
+	}
+
+	private boolean isReplaced(Argument argument) {
+		NBTQuery query = argument.getQuery();
+		return targets.contains(argument) && (query == null || query.isEmpty());
+	}
+
+	/**
+	 * Start loading of containers in I/O threads, see {@link NBTContainer#prefetch()}
+	 *
+	 * @return future completed when all containers of arguments are loaded
+	 */
+	public CompletableFuture<Void> prefetch() {
+		return CompletableFuture.allOf(arguments.stream()
+				.filter(argument -> !isReplaced(argument))
+				.map(Argument::getContainer)
+				.filter(Objects::nonNull)
+				.map(NBTContainer::prefetch)
+				.toArray(CompletableFuture[]::new)
+		);
+	}
+
+	/**
+	 * Take background writes of containers started by action, see {@link NBTContainer#takePendingWrite()}
+	 *
+	 * @return futures of writes
+	 */
+	public List<CompletableFuture<?>> takePendingWrites() {
+		List<CompletableFuture<?>> writes = new ArrayList<>();
+		for (Argument argument : arguments) {
+			NBTContainer<?> container = argument.getContainer();
+			CompletableFuture<?> write = container == null ? null : container.takePendingWrite();
+			if (write != null) {
+				writes.add(write);
+			}
+		}
+		return writes;
+	}
+
+	/**
+	 * Drop data loaded by {@link #prefetch()} and not used by action
+	 */
+	public void discardPrefetch() {
+		for (Argument argument : arguments) {
+			NBTContainer<?> container = argument.getContainer();
+			if (container != null) {
+				container.discardPrefetch();
+			}
+		}
+	}
+
 }
@@ -0,0 +1,102 @@
+package me.dpohvar.powernbt.command.action;
+
+import me.dpohvar.powernbt.api.NBTBatchEdit;
+import me.dpohvar.powernbt.api.NBTManager;
+import me.dpohvar.powernbt.api.NBTSearch;
+import me.dpohvar.powernbt.nbt.NBTContainer;
+import me.dpohvar.powernbt.nbt.NBTContainerValue;
+import me.dpohvar.powernbt.utils.Caller;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.util.List;
+
+import static me.dpohvar.powernbt.PowerNBT.plugin;
+
+public class ActionBatch extends Action {
+
+	private final Caller caller;
+	private final String query;
+	private final String operation;
+	private final String value;
+	private final String type;
+	private final boolean dryRun;
+
+	public ActionBatch(Caller caller, String query, String operation, String value, String type, boolean dryRun) {
+		this.caller = caller;
+		this.query = query;
+		this.operation = operation;
+		this.value = value;
+		this.type = type;
+		this.dryRun = dryRun;
+	}
+
+	@Override
+	public void execute() {
+		NBTBatchEdit running = caller.getBatch();
+		if (running != null && !running.isDone()) {
+			throw new RuntimeException(plugin.translate("error_batchrunning"));
+		}
+		NBTQuery q = NBTQuery.fromString(query);
+		NBTBatchEdit.Edit edit = switch (operation) {
+			case "delete" -> NBTBatchEdit.remove(q);
+			case "strip" -> NBTBatchEdit.removeIf(q, NBTSearch.contains(parseValue()));
+			case "put" -> NBTBatchEdit.set(q, parseValue());
+			default -> throw new RuntimeException(plugin.translate("error_batchoperation", operation));
+		};
+		int online = Bukkit.getOnlinePlayers().size();
+		File folder = new File(Bukkit.getWorlds().get(0).getWorldFolder(), "playerdata");
+		List<File> files = NBTBatchEdit.listFiles(folder).stream().filter(ActionBatch::isOffline).toList();
+		// player can join while file is edited, so file is checked again in main thread before write
+		NBTBatchEdit batch = new NBTBatchEdit(files, List.of(edit), dryRun, ActionBatch::isOffline,
+				task -> Bukkit.getScheduler().runTask(plugin, task));
+		caller.setBatch(batch);
+		new FileTaskReport<NBTBatchEdit.Result>(caller, ActionBatch::formatResult).start(batch,
+				total -> plugin.translate("batch_start", total, online),
+				() -> plugin.translate("batch_progress", batch.getProcessedFiles(), batch.getTotalFiles(), batch.getChangedFiles()),
+				count -> {
+					if (batch.isCancelled()) {
+						return plugin.translate("batch_cancel", count);
+					} else if (dryRun) {
+						return plugin.translate("batch_dryrun", count, batch.getTotalFiles(), batch.getErrors());
+					}
+					return plugin.translate("batch_done", count, batch.getTotalFiles(), batch.getSkippedFiles(), batch.getErrors());
+				}
+		);
+	}
+
+	/**
+	 * Data of online players is saved by server, so their files are not edited
+	 */
+	private static boolean isOffline(File file) {
+		for (Player player : Bukkit.getOnlinePlayers()) {
+			if (NBTManager.getInstance().getPlayerFile(player).equals(file)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Object parseValue() {
+		if (value == null) {
+			throw new RuntimeException(plugin.translate("error_notenougharguments"));
+		}
+		NBTContainer<?> container = Argument.getContainer(caller, value, type);
+		if (!(container instanceof NBTContainerValue)) {
+			throw new RuntimeException(plugin.translate("error_parsevalue", value));
+		}
+		return container.getCustomTag();
+	}
+
+	private static String formatResult(NBTBatchEdit.Result result) {
+		String changes = String.join(", ", result.changes());
+		if (result.changeCount() > result.changes().size()) {
+			changes += ", ...";
+		}
+		return plugin.translate("batch_change", result.file().getName(), result.changeCount(), changes);
+	}
+
+}
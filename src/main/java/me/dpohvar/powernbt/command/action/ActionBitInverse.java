@@ -15,7 +15,7 @@ public class ActionBitInverse extends Action {
 
 	public ActionBitInverse(Caller caller, String o1, String q1) {
 		this.caller = caller;
-		this.arg1 = new Argument(caller, o1, q1);
+		this.arg1 = argument(caller, o1, q1);
 	}
 
 	@Override
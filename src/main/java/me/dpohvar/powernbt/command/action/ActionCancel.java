@@ -1,5 +1,7 @@
 package me.dpohvar.powernbt.command.action;
 
+import me.dpohvar.powernbt.api.NBTBatchEdit;
+import me.dpohvar.powernbt.api.NBTSearch;
 import me.dpohvar.powernbt.utils.Caller;
 
 import static me.dpohvar.powernbt.PowerNBT.plugin;
@@ -14,6 +16,16 @@ public class ActionCancel extends Action {
 
 	@Override
 	public void execute() {
+		NBTSearch search = caller.getSearch();
+		if (search != null && !search.isDone()) {
+			search.cancel();
+			return;
+		}
+		NBTBatchEdit batch = caller.getBatch();
+		if (batch != null && !batch.isDone()) {
+			batch.cancel();
+			return;
+		}
 		caller.hold(null, null);
 		caller.send(plugin.translate("selection_cancel"));
 	}
@@ -12,7 +12,7 @@ public class ActionCopy extends Action {
 
 	public ActionCopy(Caller caller, String object, String query) {
 		this.caller = caller;
-		this.arg = new Argument(caller, object, query);
+		this.arg = argument(caller, object, query);
 	}
 
 	@Override
@@ -12,7 +12,7 @@ public class ActionCut extends Action {
 
 	public ActionCut(Caller caller, String o1, String q1) {
 		this.caller = caller;
-		this.arg = new Argument(caller, o1, q1);
+		this.arg = argument(caller, o1, q1);
 	}
 
 	@Override
@@ -13,8 +13,8 @@ public class ActionEditLast extends Action {
 
 	public ActionEditLast(Caller caller, String o1, String q1, String o2, String q2) {
 		this.caller = caller;
-		this.arg1 = new Argument(caller, o1, q1);
-		this.arg2 = new Argument(caller, o2, q2);
+		this.arg1 = argument(caller, o1, q1);
+		this.arg2 = target(caller, o2, q2);
 	}
 
 	@Override
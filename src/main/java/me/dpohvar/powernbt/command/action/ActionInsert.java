@@ -24,8 +24,8 @@ public class ActionInsert extends Action {
 		if (this.pos < 0) {
 			caller.send(PowerNBT.plugin.translate("error_index", this.pos));
 		}
-		this.arg1 = new Argument(caller, o1, q1);
-		this.arg2 = new Argument(caller, o2, q2);
+		this.arg1 = argument(caller, o1, q1);
+		this.arg2 = argument(caller, o2, q2);
 	}
 
 	@Override
@@ -16,8 +16,8 @@ public class ActionMultiply extends Action {
 
 	public ActionMultiply(Caller caller, String o1, String q1, String o2, String q2) {
 		this.caller = caller;
-		this.arg1 = new Argument(caller, o1, q1);
-		this.arg2 = new Argument(caller, o2, q2);
+		this.arg1 = argument(caller, o1, q1);
+		this.arg2 = argument(caller, o2, q2);
 	}
 
 	@Override
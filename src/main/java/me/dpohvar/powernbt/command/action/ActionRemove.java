@@ -13,7 +13,7 @@ public class ActionRemove extends Action {
 
 	public ActionRemove(Caller caller, String object, String query, String param) {
 		this.caller = caller;
-		this.arg = new Argument(caller, object, query);
+		this.arg = argument(caller, object, query);
 		this.param = param;
 	}
 
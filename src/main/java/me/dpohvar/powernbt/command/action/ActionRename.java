@@ -17,7 +17,7 @@ public class ActionRename extends Action {
 
 	public ActionRename(Caller caller, String o1, String q1, String name) {
 		this.caller = caller;
-		this.arg1 = new Argument(caller, o1, q1);
+		this.arg1 = argument(caller, o1, q1);
 		this.name = name;
 		this.query2 = NBTQuery.fromString(name);
 	}
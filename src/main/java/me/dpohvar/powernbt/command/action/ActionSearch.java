@@ -0,0 +1,70 @@
+package me.dpohvar.powernbt.command.action;
+
+import me.dpohvar.powernbt.api.NBTManager;
+import me.dpohvar.powernbt.api.NBTSearch;
+import me.dpohvar.powernbt.nbt.NBTContainer;
+import me.dpohvar.powernbt.nbt.NBTContainerValue;
+import me.dpohvar.powernbt.utils.Caller;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.io.File;
+import java.util.function.Predicate;
+
+import static me.dpohvar.powernbt.PowerNBT.plugin;
+
+public class ActionSearch extends Action {
+
+	private final Caller caller;
+	private final String world;
+	private final String query;
+	private final String value;
+	private final String type;
+
+	public ActionSearch(Caller caller, String world, String query, String value, String type) {
+		this.caller = caller;
+		this.world = world;
+		this.query = query;
+		this.value = value;
+		this.type = type;
+	}
+
+	@Override
+	public void execute() {
+		NBTSearch running = caller.getSearch();
+		if (running != null && !running.isDone()) {
+			throw new RuntimeException(plugin.translate("error_searchrunning"));
+		}
+		World w = Bukkit.getWorld(world);
+		if (w == null) {
+			throw new RuntimeException(plugin.translate("error_noworld", world));
+		}
+		Predicate<Object> predicate = v -> true;
+		if (value != null) {
+			NBTContainer<?> container = Argument.getContainer(caller, value, type);
+			if (!(container instanceof NBTContainerValue)) {
+				throw new RuntimeException(plugin.translate("error_parsevalue", value));
+			}
+			predicate = NBTSearch.contains(container.getCustomTag());
+		}
+		File folder = NBTManager.getInstance().getRegionFolder(w).getParentFile();
+		NBTSearch search = new NBTSearch(folder, NBTQuery.fromString(query), predicate);
+		caller.setSearch(search);
+		new FileTaskReport<NBTSearch.Match>(caller, ActionSearch::formatMatch).start(search,
+				total -> plugin.translate("search_start", total),
+				() -> plugin.translate("search_progress", search.getProcessedFiles(), search.getTotalFiles(), search.getMatches()),
+				count -> search.isCancelled()
+						? plugin.translate("search_cancel", count)
+						: plugin.translate("search_done", count, search.getProcessedChunks(), search.getErrors())
+		);
+	}
+
+	private static String formatMatch(NBTSearch.Match match) {
+		String id = match.data().getString("id");
+		return plugin.translate("search_match", id == null ? match.source().name().toLowerCase() : id,
+				match.x(), match.y(), match.z(), match.file().getName());
+	}
+
+}
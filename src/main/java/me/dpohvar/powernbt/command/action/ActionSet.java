@@ -18,8 +18,8 @@ public class ActionSet extends Action {
 		if (o2 == null && q2 == null) {
 			o2 = "*";
 		}
-		this.arg1 = new Argument(caller, o1, null);
-		this.arg2 = new Argument(caller, o2, q2);
+		this.arg1 = argument(caller, o1, null);
+		this.arg2 = argument(caller, o2, q2);
 	}
 
 	@Override
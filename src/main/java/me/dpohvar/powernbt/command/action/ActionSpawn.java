@@ -24,7 +24,7 @@ public class ActionSpawn extends Action {
 
 	private ActionSpawn(Caller caller, String object, String query) {
 		this.caller = caller;
-		this.arg = new Argument(caller, object, query);
+		this.arg = argument(caller, object, query);
 	}
 
 	public ActionSpawn(Caller caller, String object, String query, String worldParam) {
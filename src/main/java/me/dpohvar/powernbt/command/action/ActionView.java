@@ -12,7 +12,7 @@ public class ActionView extends Action {
 
 	private ActionView(Caller caller, String object, String query) {
 		this.caller = caller;
-		this.arg = new Argument(caller, object, query);
+		this.arg = argument(caller, object, query);
 	}
 
 	public ActionView(Caller caller, String object, String query, String args) {
@@ -24,7 +24,7 @@ public class ActionView extends Action {
 
 	public ActionView(Caller caller, Argument arg, String args) {
 		this.caller = caller;
-		this.arg = arg;
+		this.arg = argument(arg);
 		if (args != null) {
 			this.args = args.split(",|\\.|-");
 		}
@@ -297,7 +297,7 @@ public class Argument {
 			if (w == null) {
 				throw new RuntimeException(PowerNBT.plugin.translate("error_noworld", ww));
 			}
-			return new NBTContainerChunk(w.getChunkAt(x, z));
+			return new NBTContainerChunk(w, x, z);
 		}
 		if (object.startsWith("@")) {
 			String tokenText = object.substring(1);
@@ -306,16 +306,13 @@ public class Argument {
 			}
 			if (!tokenText.contains(File.separator)) {
 				File baseDir = (Bukkit.getWorlds().get(0)).getWorldFolder();
-				File playerFile;
 				try {
 					UUID uuid = Bukkit.getOfflinePlayer(tokenText).getUniqueId();
-					File playerDir = new File(baseDir, "playerdata");
-					playerFile = new File(playerDir, uuid + ".dat");
+					return new NBTContainerFilePlayer(uuid);
 				} catch (NoSuchMethodError ignored) { // no getUniqueId()
 					File playerDir = new File(baseDir, "players");
-					playerFile = new File(playerDir, tokenText + ".dat");
+					return new NBTContainerFileGZip(new File(playerDir, tokenText + ".dat"));
 				}
-				return new NBTContainerFileGZip(playerFile);
 			}
 
 		}
@@ -326,7 +323,7 @@ public class Argument {
 				return new NBTContainerValue(PowerJSONParser.parse(s));
 			}
 			if ("mojangson".equalsIgnoreCase(param) || "mj".equalsIgnoreCase(param)) {
-				return new NBTContainerValue(NBTParser.parser("", s).parse());
+				return new NBTContainerValue(NBTParser.parse(s));
 			}
 			if (param != null) {
 				type = NBTType.fromString(param);
@@ -465,7 +462,7 @@ public class Argument {
 				if ("json".equals(param)) {
 					result = PowerJSONParser.parse(object);
 				} else {
-					result = NBTParser.parser("", object).parse();
+					result = NBTParser.parse(object);
 				}
 			} catch (Exception ignored) {
 			}
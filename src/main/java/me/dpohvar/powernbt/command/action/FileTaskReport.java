@@ -0,0 +1,86 @@
+package me.dpohvar.powernbt.command.action;
+
+import me.dpohvar.powernbt.api.NBTFileTask;
+import me.dpohvar.powernbt.utils.Caller;
+
+import org.bukkit.Bukkit;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static me.dpohvar.powernbt.PowerNBT.plugin;
+
+/**
+ * Sends results and progress of {@link NBTFileTask} to caller in main thread
+ *
+ * @param <T> type of task results
+ */
+class FileTaskReport<T> {
+
+	private static final int MAX_SHOWN_RESULTS = 50;
+	private static final long PROGRESS_PERIOD = 100; // ticks
+
+	private final Caller caller;
+	private final Function<T, String> format;
+	private final Queue<T> results = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger shown = new AtomicInteger();
+
+	/**
+	 * @param caller
+	 * 			  receiver of messages
+	 * @param format
+	 * 			  message of result, first results are shown only
+	 */
+	FileTaskReport(Caller caller, Function<T, String> format) {
+		this.caller = caller;
+		this.format = format;
+	}
+
+	/**
+	 * Start task and send its progress periodically
+	 *
+	 * @param task
+	 * 			  task to start
+	 * @param started
+	 * 			  message of started task by count of its files
+	 * @param progress
+	 * 			  message of progress
+	 * @param done
+	 * 			  message of finished task by its result
+	 */
+	void start(NBTFileTask<T> task, IntFunction<String> started, Supplier<String> progress, IntFunction<String> done) {
+		task.start(result -> {
+			if (shown.incrementAndGet() <= MAX_SHOWN_RESULTS) {
+				results.add(result);
+			}
+		}).whenComplete((count, error) -> Bukkit.getScheduler().runTask(plugin, () -> {
+			sendResults();
+			if (error != null) {
+				caller.handleException(error);
+			} else {
+				caller.send(done.apply(count));
+			}
+		}));
+		task.whenListed().thenAccept(total -> Bukkit.getScheduler().runTask(plugin, () -> caller.send(started.apply(total))));
+		Bukkit.getScheduler().runTaskTimer(plugin, timer -> {
+			sendResults();
+			if (task.isDone()) {
+				timer.cancel();
+				return;
+			}
+			caller.send(progress.get());
+		}, PROGRESS_PERIOD, PROGRESS_PERIOD);
+	}
+
+	private void sendResults() {
+		T result;
+		while ((result = results.poll()) != null) {
+			caller.send(format.apply(result));
+		}
+	}
+
+}
@@ -18,6 +18,7 @@ import net.md_5.bungee.api.ChatColor;
 
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 
@@ -43,7 +44,7 @@ public class CompleterNBT extends Completer {
 	public void fillTabs(Caller caller, TabFormer former) throws Exception {
 		String word = former.poll(); // object
 		if (word.isEmpty()) {
-			former.addIfStarts("buffer", "list", "compound", "byte[]", "int[]", "long[]", "debug", "file:", "gz:", "sch:");
+			former.addIfStarts("buffer", "list", "compound", "byte[]", "int[]", "long[]", "debug", "search", "batch", "file:", "gz:", "sch:");
 			if (caller.getOwner() instanceof Entity) {
 				former.addIfStarts("block", "inventory", "item", "hand", "hand:");
 			}
@@ -114,6 +115,19 @@ public class CompleterNBT extends Completer {
 			former.addIfStarts("on", "off", "toggle");
 			return;
 		}
+		if (word.equals("search")) {
+			for (World world : Bukkit.getWorlds()) {
+				former.addIfStarts(world.getName());
+			}
+			return;
+		}
+		if (word.equals("batch")) {
+			String query = former.poll();
+			if (!query.isEmpty() && former.poll().isEmpty()) {
+				former.addIfStarts("delete", "strip", "put");
+			}
+			return;
+		}
 		NBTContainer container = null;
 		boolean future = true;
 		try {
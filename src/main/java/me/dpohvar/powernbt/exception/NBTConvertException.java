@@ -14,6 +14,11 @@ public class NBTConvertException extends RuntimeException {
 		this.convert = convert;
 	}
 
+	public NBTConvertException(Object convert, String reason) {
+		super("can't convert " + convert.getClass().getSimpleName() + " to NBTBase tag: " + reason);
+		this.convert = convert;
+	}
+
 	public NBTConvertException(Object convert, byte type) {
 		super("can't convert " + convert.getClass().getSimpleName() + " to NBT type " + type);
 		this.convert = convert;
@@ -92,7 +92,7 @@ public class NBTExtension {
 
 	public static <T extends Block> Object nbt(T self, Closure<NBTCompound> modifier) {
 		NBTCompound tag = getNbt(self);
-		NBTCompound ext = tag != null ? tag.clone() : new NBTCompound();
+		NBTCompound ext = tag != null ? tag.lazyClone() : new NBTCompound();
 		modifier.setDelegate(new NBTCompoundProperties(ext));
 		modifier.setResolveStrategy(Closure.DELEGATE_FIRST);
 		Object result = modifier.call(self);
@@ -104,7 +104,7 @@ public class NBTExtension {
 
 	public static <T extends TileState> Object nbt(T self, Closure<NBTCompound> modifier) {
 		NBTCompound tag = getNbt(self);
-		NBTCompound ext = tag != null ? tag.clone() : new NBTCompound();
+		NBTCompound ext = tag != null ? tag.lazyClone() : new NBTCompound();
 		modifier.setDelegate(new NBTCompoundProperties(ext));
 		modifier.setResolveStrategy(Closure.DELEGATE_FIRST);
 		Object result = modifier.call(self);
@@ -116,7 +116,7 @@ public class NBTExtension {
 
 	public static <T extends Entity> Object nbt(T self, Closure<NBTCompound> modifier) {
 		NBTCompound tag = getNbt(self);
-		NBTCompound ext = tag != null ? tag.clone() : new NBTCompound();
+		NBTCompound ext = tag != null ? tag.lazyClone() : new NBTCompound();
 		modifier.setDelegate(new NBTCompoundProperties(ext));
 		modifier.setResolveStrategy(Closure.DELEGATE_FIRST);
 		Object result = modifier.call(self);
@@ -128,7 +128,7 @@ public class NBTExtension {
 
 	public static <T extends Chunk> Object nbt(T self, Closure<NBTCompound> modifier) {
 		NBTCompound tag = getNbt(self);
-		NBTCompound ext = tag != null ? tag.clone() : new NBTCompound();
+		NBTCompound ext = tag != null ? tag.lazyClone() : new NBTCompound();
 		modifier.setDelegate(new NBTCompoundProperties(ext));
 		modifier.setResolveStrategy(Closure.DELEGATE_FIRST);
 		Object result = modifier.call(self);
@@ -140,7 +140,7 @@ public class NBTExtension {
 
 	public static <T extends ItemStack> Object nbt(T self, Closure<NBTCompound> modifier) {
 		NBTCompound tag = getNbt(self);
-		NBTCompound ext = tag != null ? tag.clone() : new NBTCompound();
+		NBTCompound ext = tag != null ? tag.lazyClone() : new NBTCompound();
 		modifier.setDelegate(new NBTCompoundProperties(ext));
 		modifier.setResolveStrategy(Closure.DELEGATE_FIRST);
 		Object result = modifier.call(self);
@@ -152,7 +152,7 @@ public class NBTExtension {
 
 	public static <T extends File> Object nbt(T self, Closure<Object> modifier) throws IOException {
 		NBTCompound tag = (NBTCompound) getNbt(self);
-		NBTCompound ext = tag != null ? tag.clone() : new NBTCompound();
+		NBTCompound ext = tag != null ? tag.lazyClone() : new NBTCompound();
 		modifier.setDelegate(new NBTCompoundProperties(ext));
 		modifier.setResolveStrategy(Closure.DELEGATE_FIRST);
 		Object result = modifier.call(self);
@@ -164,7 +164,7 @@ public class NBTExtension {
 
 	public static <T extends OfflinePlayer> Object nbto(T self, Closure<NBTCompound> modifier) throws IOException {
 		NBTCompound tag = getNbto(self);
-		NBTCompound ext = tag != null ? tag.clone() : new NBTCompound();
+		NBTCompound ext = tag != null ? tag.lazyClone() : new NBTCompound();
 		modifier.setDelegate(new NBTCompoundProperties(ext));
 		modifier.setResolveStrategy(Closure.DELEGATE_FIRST);
 		Object result = modifier.call(self);
@@ -176,7 +176,7 @@ public class NBTExtension {
 
 	public static <T extends File> Object nbtc(T self, Closure<Object> modifier) throws IOException {
 		NBTCompound tag = (NBTCompound) getNbtc(self);
-		NBTCompound ext = tag != null ? tag.clone() : new NBTCompound();
+		NBTCompound ext = tag != null ? tag.lazyClone() : new NBTCompound();
 		modifier.setDelegate(new NBTCompoundProperties(ext));
 		modifier.setResolveStrategy(Closure.DELEGATE_FIRST);
 		Object result = modifier.call(self);
@@ -0,0 +1,34 @@
+package me.dpohvar.powernbt.listener;
+
+import me.dpohvar.powernbt.api.NBTManager;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Drops cached file of player when the file is loaded or saved by server,
+ * file which is being written by plugin is loaded only after write
+ */
+public class PlayerCacheListener implements Listener {
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void login(AsyncPlayerPreLoginEvent event) {
+		NBTManager manager = NBTManager.getInstance();
+		manager.awaitWrite(manager.getPlayerFile(event.getUniqueId()));
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void join(PlayerJoinEvent event) {
+		NBTManager.getInstance().invalidateOfflinePlayer(event.getPlayer().getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void quit(PlayerQuitEvent event) {
+		NBTManager.getInstance().invalidateOfflinePlayer(event.getPlayer().getUniqueId());
+	}
+
+}
@@ -2,9 +2,10 @@ package me.dpohvar.powernbt.nbt;
 
 import me.dpohvar.powernbt.api.NBTBox;
 import me.dpohvar.powernbt.api.NBTCompound;
+import me.dpohvar.powernbt.api.NBTMappedCompound;
+import me.dpohvar.powernbt.api.NBTStringWriter;
 import me.dpohvar.powernbt.exception.NBTTagNotFound;
 import me.dpohvar.powernbt.exception.NBTTagUnexpectedType;
-import me.dpohvar.powernbt.utils.PowerJSONParser;
 import me.dpohvar.powernbt.utils.StringParser;
 import me.dpohvar.powernbt.utils.query.NBTQuery;
 
@@ -15,6 +16,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static me.dpohvar.powernbt.PowerNBT.plugin;
 
@@ -36,6 +38,17 @@ public abstract class NBTContainer<T> {
 
 	abstract protected Object readTag();
 
+	/**
+	 * Read part of root tag selected by query
+	 *
+	 * @param query
+	 * 			  query to select value
+	 * @return selected value
+	 */
+	protected Object readTag(NBTQuery query) throws NBTTagNotFound {
+		return query.get(readTag());
+	}
+
 	abstract protected void writeTag(Object value);
 
 	protected void writeCustomTag(Object value) {
@@ -72,6 +85,52 @@ public abstract class NBTContainer<T> {
 		return null;
 	}
 
+	/**
+	 * Check if container reads a new tag every time, so queries can modify it in place
+	 *
+	 * @return true if result of {@link #readTag()} is not shared
+	 */
+	public boolean ownsSnapshot() {
+		return false;
+	}
+
+	/**
+	 * Mode of queries which change root tag of container:
+	 * own snapshot is changed in place, nodes of shared tag are copied only on the query path,
+	 * because changed root is written back to container
+	 *
+	 * @return mode of {@link NBTQuery#set(Object, Object, NBTQuery.Mode)} and {@link NBTQuery#remove(Object, NBTQuery.Mode)}
+	 */
+	NBTQuery.Mode getEditMode() {
+		return ownsSnapshot() ? NBTQuery.Mode.IN_PLACE : NBTQuery.Mode.SHARE;
+	}
+
+	/**
+	 * Start loading of root tag in background thread, next read of container uses loaded tag once.<br>
+	 * Containers without disk access are not loaded
+	 *
+	 * @return future completed when tag is loaded
+	 */
+	public CompletableFuture<?> prefetch() {
+		return CompletableFuture.completedFuture(null);
+	}
+
+	/**
+	 * Drop tag loaded by {@link #prefetch()} if it was not read
+	 */
+	public void discardPrefetch() {
+	}
+
+	/**
+	 * Take future of background write of tag set to container, future is taken once.<br>
+	 * Containers written at once have no pending write
+	 *
+	 * @return future completed exceptionally if tag is not written, or null
+	 */
+	public CompletableFuture<?> takePendingWrite() {
+		return null;
+	}
+
 	/**
 	 * Set value of container root tag
 	 *
@@ -85,7 +144,7 @@ public abstract class NBTContainer<T> {
 
 	@Deprecated
 	final public void setTag(NBTQuery query, Object value) throws NBTTagNotFound, NBTTagUnexpectedType {
-		setTag(query.set(getTag(), value));
+		setTag(query.set(getTag(), value, getEditMode()));
 	}
 
 	/**
@@ -97,9 +156,9 @@ public abstract class NBTContainer<T> {
 	 */
 	final public void setCustomTag(Object value) {
 		if (value instanceof NBTCompound tag) {
-			NBTCompound tagClone = tag.clone();
 			List<String> ignoreList = plugin.getConfig().getStringList("ignore_set." + getName());
 			if (!ignoreList.isEmpty()) {
+				NBTCompound tagClone = tag.shallowClone(); // only root keys are removed
 				for (String ignore : ignoreList) {
 					tagClone.remove(ignore);
 				}
@@ -114,7 +173,7 @@ public abstract class NBTContainer<T> {
 		if (query.isEmpty()) {
 			setCustomTag(value);
 		} else {
-			setCustomTag(query.set(getCustomTag(), value));
+			setCustomTag(query.set(getCustomTag(), value, getEditMode()));
 		}
 	}
 
@@ -139,10 +198,15 @@ public abstract class NBTContainer<T> {
 	 */
 	final public Object getCustomTag() {
 		Object value = readTag();
-		if (value instanceof NBTCompound tag) {
-			NBTCompound tagClone = tag.clone();
+		if (value instanceof NBTCompound || value instanceof NBTMappedCompound) {
 			List<String> ignoreList = plugin.getConfig().getStringList("ignore_get." + getName());
 			if (!ignoreList.isEmpty()) {
+				NBTCompound tagClone; // only root keys are removed
+				if (value instanceof NBTCompound tag) {
+					tagClone = ownsSnapshot() ? tag : tag.shallowClone();
+				} else {
+					tagClone = new NBTCompound((Map<?, ?>) value); // mapped data is read-only
+				}
 				for (String ignore : ignoreList) {
 					tagClone.remove(ignore);
 				}
@@ -166,7 +230,7 @@ public abstract class NBTContainer<T> {
 
 	@Deprecated
 	final public void removeTag(NBTQuery query) throws NBTTagNotFound {
-		setTag(query.remove(this.getTag()));
+		setTag(query.remove(this.getTag(), getEditMode()));
 	}
 
 	/**
@@ -181,7 +245,7 @@ public abstract class NBTContainer<T> {
 		if (query == null || query.isEmpty()) {
 			removeCustomTag();
 		} else {
-			setCustomTag(query.remove(this.getCustomTag()));
+			setCustomTag(query.remove(this.getCustomTag(), getEditMode()));
 		}
 	}
 
@@ -190,6 +254,9 @@ public abstract class NBTContainer<T> {
 	}
 
 	public static String parseValueToSelector(Object value, int maxLength) {
+		if (value instanceof NBTBox || value instanceof Collection || value instanceof Map) {
+			return NBTStringWriter.COMPACT.withMaxLength(maxLength).format(value);
+		}
 		String result = parseValueToSelector(value);
 		if (result == null) {
 			return null;
@@ -237,11 +304,8 @@ public abstract class NBTContainer<T> {
 		if (value instanceof long[] array) {
 			return StringUtils.join(ArrayUtils.toObject(array), ',') + "l";
 		}
-		if (value instanceof NBTBox) {
-			return value.toString();
-		}
-		if (value instanceof Collection || value instanceof Map) {
-			return PowerJSONParser.stringify(value);
+		if (value instanceof NBTBox || value instanceof Collection || value instanceof Map) {
+			return NBTStringWriter.COMPACT.format(value);
 		}
 		return null;
 	}
@@ -70,14 +70,13 @@ public class NBTContainerBlock extends NBTContainer<Block> {
             compound = new NBTCompound();
         }
         if (value instanceof NBTCompound c) {
-            compound = c;
+            compound = c.shallowClone(); // only root keys are changed
         } else if (value instanceof Map map) {
             compound = new NBTCompound(map);
         }
         if (compound == null) {
             return;
         }
-		compound = compound.clone();
 		List<String> ignores = plugin.getConfig().getStringList("ignore_set.block");
         for (String s : ignores) {
             compound.remove(s);
@@ -95,6 +94,11 @@ public class NBTContainerBlock extends NBTContainer<Block> {
 		writeTag(compound);
 	}
 
+	@Override
+	public boolean ownsSnapshot() {
+		return true;
+	}
+
 	@Override
 	protected Class<Block> getContainerClass() {
 		return Block.class;
@@ -5,22 +5,46 @@ import me.dpohvar.powernbt.api.NBTManager;
 import me.dpohvar.powernbt.utils.StringParser;
 
 import org.bukkit.Chunk;
+import org.bukkit.World;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class NBTContainerChunk extends NBTContainer<Chunk> {
 
-	Chunk chunk;
+	private final World world;
+	private final int x;
+	private final int z;
+	private volatile CompletableFuture<NBTCompound> prefetched;
 
 	public NBTContainerChunk(Chunk chunk) {
-		super("chunk:" + chunk.getX() + ":" + chunk.getZ() + ":" + StringParser.wrapToQuotesIfNeeded(chunk.getWorld().getName()));
-		this.chunk = chunk;
+		this(chunk.getWorld(), chunk.getX(), chunk.getZ());
 	}
 
+	/**
+	 * Container of chunk stored in region file, chunk is not loaded
+	 *
+	 * @param world
+	 * 			  world of chunk
+	 * @param x
+	 * 			  x coordinate of chunk
+	 * @param z
+	 * 			  z coordinate of chunk
+	 */
+	public NBTContainerChunk(World world, int x, int z) {
+		super("chunk:" + x + ":" + z + ":" + StringParser.wrapToQuotesIfNeeded(world.getName()));
+		this.world = world;
+		this.x = x;
+		this.z = z;
+	}
+
+	/**
+	 * @return loaded chunk or null, chunk is not loaded by this method
+	 */
 	public Chunk getObject() {
-		return chunk;
+		return world.isChunkLoaded(x, z) ? world.getChunkAt(x, z) : null;
 	}
 
 	@Override
@@ -32,7 +56,24 @@ public class NBTContainerChunk extends NBTContainer<Chunk> {
 
 	@Override
 	public NBTCompound readTag() {
-		return NBTManager.getInstance().read(chunk);
+		CompletableFuture<NBTCompound> future = prefetched;
+		prefetched = null;
+		if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+			return future.join();
+		}
+		return NBTManager.getInstance().read(world, x, z);
+	}
+
+	@Override
+	public CompletableFuture<?> prefetch() {
+		CompletableFuture<NBTCompound> future = NBTManager.getInstance().readAsync(world, x, z);
+		prefetched = future;
+		return future;
+	}
+
+	@Override
+	public void discardPrefetch() {
+		prefetched = null;
 	}
 
 	@Override
@@ -46,7 +87,13 @@ public class NBTContainerChunk extends NBTContainer<Chunk> {
         if (compound == null) {
             return;
         }
-		NBTManager.getInstance().write(chunk, compound);
+		prefetched = null;
+		NBTManager.getInstance().write(world, x, z, compound);
+	}
+
+	@Override
+	public boolean ownsSnapshot() {
+		return true;
 	}
 
 	@Override
@@ -56,7 +103,7 @@ public class NBTContainerChunk extends NBTContainer<Chunk> {
 
 	@Override
 	public String toString() {
-		return chunk.toString();
+		return "chunk:" + x + ":" + z;
 	}
 
 }
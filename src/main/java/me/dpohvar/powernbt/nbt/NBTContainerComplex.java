@@ -6,6 +6,7 @@ import me.dpohvar.powernbt.utils.query.NBTQuery;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class NBTContainerComplex extends NBTContainer<NBTContainer> {
 
@@ -41,12 +42,20 @@ public class NBTContainerComplex extends NBTContainer<NBTContainer> {
 	@Override
 	public Object readTag() {
 		try {
-			return query.get(container.getTag());
+			return container.readTag(query);
 		} catch (NBTTagNotFound nbtTagNotFound) {
 			return null;
 		}
 	}
 
+	@Override
+	protected Object readTag(NBTQuery query) throws NBTTagNotFound {
+		if (query.isEmpty()) {
+			return readTag();
+		}
+		return container.readTag(this.query.join(query));
+	}
+
 	@Override
 	public Object readCustomTag() {
 		try {
@@ -59,7 +68,7 @@ public class NBTContainerComplex extends NBTContainer<NBTContainer> {
 	@Override
 	public void writeTag(Object base) {
 		try {
-			Object res = query.set(container.getTag(), base);
+			Object res = query.set(container.getTag(), base, container.getEditMode());
 			container.writeTag(res);
 		} catch (NBTQueryException exception) {
 			throw new RuntimeException(exception.getMessage(), exception);
@@ -69,7 +78,7 @@ public class NBTContainerComplex extends NBTContainer<NBTContainer> {
 	@Override
 	public void writeCustomTag(Object base) {
 		try {
-			Object res = query.set(container.getCustomTag(), base);
+			Object res = query.set(container.getCustomTag(), base, container.getEditMode());
 			container.setCustomTag(res);
 		} catch (NBTQueryException exception) {
 			throw new RuntimeException(exception.getMessage(), exception);
@@ -79,7 +88,7 @@ public class NBTContainerComplex extends NBTContainer<NBTContainer> {
 	@Override
 	public void eraseTag() {
 		try {
-			Object res = query.remove(container.getTag());
+			Object res = query.remove(container.getTag(), container.getEditMode());
 			container.setTag(res);
 		} catch (NBTTagNotFound exception) {
 			throw new RuntimeException(exception.getMessage(), exception);
@@ -89,13 +98,28 @@ public class NBTContainerComplex extends NBTContainer<NBTContainer> {
 	@Override
 	public void eraseCustomTag() {
 		try {
-			Object res = query.remove(container.getCustomTag());
+			Object res = query.remove(container.getCustomTag(), container.getEditMode());
 			container.setCustomTag(res);
 		} catch (NBTTagNotFound exception) {
 			throw new RuntimeException(exception.getMessage(), exception);
 		}
 	}
 
+	@Override
+	public CompletableFuture<?> prefetch() {
+		return container.prefetch();
+	}
+
+	@Override
+	public void discardPrefetch() {
+		container.discardPrefetch();
+	}
+
+	@Override
+	public CompletableFuture<?> takePendingWrite() {
+		return container.takePendingWrite();
+	}
+
 	@Override
 	protected Class<NBTContainer> getContainerClass() {
 		return NBTContainer.class;
@@ -127,6 +151,11 @@ public class NBTContainerComplex extends NBTContainer<NBTContainer> {
 		return container.getRootContainer();
 	}
 
+	@Override
+	public boolean ownsSnapshot() {
+		return container.ownsSnapshot();
+	}
+
 	@Override
 	public boolean isObjectReadonly() {
 		return container.isObjectReadonly();
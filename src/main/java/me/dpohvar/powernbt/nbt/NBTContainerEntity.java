@@ -75,6 +75,11 @@ public class NBTContainerEntity extends NBTContainer<Entity> {
 		}
 	}
 
+	@Override
+	public boolean ownsSnapshot() {
+		return true;
+	}
+
 	@Override
 	protected Class<Entity> getContainerClass() {
 		return Entity.class;
@@ -1,16 +1,36 @@
 package me.dpohvar.powernbt.nbt;
 
+import me.dpohvar.powernbt.api.NBTCodec;
 import me.dpohvar.powernbt.api.NBTManager;
+import me.dpohvar.powernbt.api.NBTMappedCompound;
+import me.dpohvar.powernbt.api.NBTMappedList;
+import me.dpohvar.powernbt.exception.NBTTagNotFound;
 import me.dpohvar.powernbt.utils.PowerJSONParser;
 import me.dpohvar.powernbt.utils.StringParser;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class NBTContainerFile extends NBTContainer<File> {
 
+	/**
+	 * Uncompressed NBT files of this size or larger are mapped and decoded lazily, see {@link NBTManager#readMapped(File)}
+	 */
+	private static final long LAZY_FILE_SIZE = Long.getLong("powernbt.mappedFileSize", 4L << 20);
+
+	private static final Object NOT_LOADED = new Object();
+
 	private final File file;
+	private volatile CompletableFuture<Object> prefetched;
+	private volatile CompletableFuture<?> pendingWrite;
+	/**
+	 * Read-only views of mapped file, they are copied to heap before the file is replaced
+	 */
+	private final List<Object> mappedViews = new CopyOnWriteArrayList<>();
 
 	public NBTContainerFile(File file) {
 		this(file, null);
@@ -27,27 +47,38 @@ public class NBTContainerFile extends NBTContainer<File> {
 
 	@Override
 	public Object readTag() {
+		Object loaded = takePrefetched();
+		if (loaded != NOT_LOADED) {
+			return loaded;
+		}
+		return readFile();
+	}
 
-		boolean isNBT;
+	/**
+	 * Read root tag from file, it is called by I/O thread for {@link #prefetch()}
+	 */
+	protected Object readFile() {
+		NBTManager.getInstance().awaitWrite(file);
         if (!file.exists() || file.isDirectory()) {
             return null;
         }
-		try (var input = getDataInputStream()) {
-			byte b = input.readByte();
-			NBTType nbtType = NBTType.fromByte(b);
-			isNBT = (nbtType != null);
-		} catch (FileNotFoundException e) {
-			throw new RuntimeException("no file", e);
+		try {
+			if (file.length() >= LAZY_FILE_SIZE && isUncompressedNBTFile()) {
+				Object view = NBTManager.getInstance().readMapped(file); // bounds are checked on access
+				if (view != null) {
+					mappedViews.add(view);
+				}
+				return view;
+			}
 		} catch (IOException e) {
 			throw new RuntimeException("can't read file", e);
 		}
-
-		try {
-            if (isNBT) {
-                return NBTManager.getInstance().read(file);
-            } else {
-                return PowerJSONParser.read(file);
-            }
+		try (var input = openDecoded()) {
+			if (isNBTData(input)) {
+				return NBTManager.getInstance().read(input);
+			} else {
+				return PowerJSONParser.read(new InputStreamReader(input));
+			}
 		} catch (FileNotFoundException e) {
 			return null;
 		} catch (IOException e) {
@@ -57,22 +88,107 @@ public class NBTContainerFile extends NBTContainer<File> {
 		}
 	}
 
-	protected DataInputStream getDataInputStream() throws FileNotFoundException {
-		return new DataInputStream(new FileInputStream(file));
+	@Override
+	protected Object readTag(NBTQuery query) throws NBTTagNotFound {
+		Object loaded = takePrefetched();
+		if (loaded != NOT_LOADED) {
+			return query.get(loaded);
+		}
+		NBTManager.getInstance().awaitWrite(file);
+		if (query.isEmpty() || !file.isFile()) {
+			return super.readTag(query);
+		}
+		try (var input = openDecoded()) {
+			if (isNBTData(input)) {
+				return NBTManager.getInstance().read((DataInput) new DataInputStream(input), query);
+			} else {
+				return query.get(PowerJSONParser.read(new InputStreamReader(input)));
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("can't read file", e);
+		}
+	}
+
+	@Override
+	public CompletableFuture<?> prefetch() {
+		CompletableFuture<Object> future = NBTManager.getInstance().readAfterWrite(file, this::readFile);
+		prefetched = future;
+		return future;
+	}
+
+	@Override
+	public void discardPrefetch() {
+		prefetched = null;
+	}
+
+	@Override
+	public CompletableFuture<?> takePendingWrite() {
+		CompletableFuture<?> future = pendingWrite;
+		pendingWrite = null;
+		return future;
+	}
+
+	/**
+	 * Get loaded tag, tag is taken once because caller can modify it
+	 *
+	 * @return loaded tag or {@link #NOT_LOADED} if file should be read now
+	 */
+	private Object takePrefetched() {
+		CompletableFuture<Object> future = prefetched;
+		if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+			return NOT_LOADED; // error of loading is thrown by reading again
+		}
+		prefetched = null;
+		return future.join();
+	}
+
+	/**
+	 * Open file once, compression is detected by magic bytes
+	 */
+	private InputStream openDecoded() throws IOException {
+		return NBTCodec.decodeDetected(file);
+	}
+
+	private boolean isUncompressedNBTFile() throws IOException {
+		try (var input = new BufferedInputStream(new FileInputStream(file), 2)) {
+			return NBTCodec.detect(input) == NBTCodec.RAW && isNBTData(input);
+		}
+	}
+
+	/**
+	 * Check first byte of decoded data, stream is not consumed
+	 */
+	private static boolean isNBTData(InputStream input) throws IOException {
+		input.mark(1);
+		int b = input.read();
+		input.reset();
+		return b != -1 && NBTType.fromByte((byte) b) != null;
 	}
 
 	protected final boolean isNBT(Object base) {
 		return NBTType.fromValueOrNull(base) != null;
 	}
 
+	/**
+	 * Copy views of mapped file to heap, they stay valid after the file is replaced
+	 */
+	private void detachMappedViews() {
+		for (Object view : mappedViews) {
+			if (view instanceof NBTMappedCompound compound) {
+				compound.detach();
+			} else if (view instanceof NBTMappedList list) {
+				list.detach();
+			}
+		}
+		mappedViews.clear();
+	}
+
 	@Override
 	public void writeTag(Object base) {
+		prefetched = null;
+		detachMappedViews();
 		try {
-			if (isNBT(base)) {
-				writeTagNBT(base);
-			} else {
-				writeTagJSON(base);
-			}
+			pendingWrite = isNBT(base) ? writeTagNBT(base) : writeTagJSON(base);
 		} catch (FileNotFoundException e) {
 			throw new RuntimeException("file " + file + " not found", e);
 		} catch (Exception e) {
@@ -80,12 +196,18 @@ public class NBTContainerFile extends NBTContainer<File> {
 		}
 	}
 
-	public void writeTagNBT(Object base) throws Exception {
-		NBTManager.getInstance().write(file, base);
+	/**
+	 * @return future of replacement of file
+	 */
+	public CompletableFuture<?> writeTagNBT(Object base) throws Exception {
+		return NBTManager.getInstance().writeFuture(file, base);
 	}
 
-	public void writeTagJSON(Object base) throws IOException {
-		PowerJSONParser.write(base, file);
+	/**
+	 * @return future of replacement of file
+	 */
+	public CompletableFuture<?> writeTagJSON(Object base) throws IOException {
+		return NBTManager.getInstance().writeJSON(file, base, NBTCodec.RAW);
 	}
 
 	@Override
@@ -95,9 +217,17 @@ public class NBTContainerFile extends NBTContainer<File> {
 
 	@Override
 	public void eraseTag() {
+		prefetched = null;
+		detachMappedViews();
+		NBTManager.getInstance().awaitWrite(file);
 		file.delete();
 	}
 
+	@Override
+	public boolean ownsSnapshot() {
+		return true;
+	}
+
 	@Override
 	protected Class<File> getContainerClass() {
 		return File.class;
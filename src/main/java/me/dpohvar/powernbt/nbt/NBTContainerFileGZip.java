@@ -1,14 +1,14 @@
 package me.dpohvar.powernbt.nbt;
 
+import me.dpohvar.powernbt.api.NBTCodec;
 import me.dpohvar.powernbt.api.NBTManager;
-import me.dpohvar.powernbt.utils.PowerJSONParser;
 import me.dpohvar.powernbt.utils.StringParser;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class NBTContainerFileGZip extends NBTContainerFile {
 
@@ -26,30 +26,13 @@ public class NBTContainerFileGZip extends NBTContainerFile {
 	}
 
 	@Override
-	public Object readTag() {
-		try {
-			try {
-				return NBTManager.getInstance().readCompressed(this.getObject());
-			} catch (Exception ignored) {
-			}
-			return PowerJSONParser.readCompressed(this.getObject());
-		} catch (FileNotFoundException e) {
-			return null;
-		} catch (IOException e) {
-			throw new RuntimeException("can't read file", e);
-		} catch (Exception e) {
-			throw new RuntimeException("wrong format", e);
-		}
+	public CompletableFuture<?> writeTagNBT(Object base) {
+		return NBTManager.getInstance().writeCompressedFuture(this.getObject(), base);
 	}
 
 	@Override
-	public void writeTagNBT(Object base) {
-		NBTManager.getInstance().writeCompressed(this.getObject(), base);
-	}
-
-	@Override
-	public void writeTagJSON(Object base) throws IOException {
-		PowerJSONParser.writeCompressed(base, this.getObject());
+	public CompletableFuture<?> writeTagJSON(Object base) throws IOException {
+		return NBTManager.getInstance().writeJSON(this.getObject(), base, NBTCodec.GZIP);
 	}
 
 	@Override
@@ -1,7 +1,9 @@
 package me.dpohvar.powernbt.nbt;
 
 import me.dpohvar.powernbt.api.NBTCompound;
+import me.dpohvar.powernbt.exception.NBTTagNotFound;
 import me.dpohvar.powernbt.utils.StringParser;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
 
 import java.io.File;
 
@@ -32,6 +34,11 @@ public class NBTContainerFileGZipCustom extends NBTContainerFileGZip {
 		return value;
 	}
 
+	@Override
+	protected Object readTag(NBTQuery query) throws NBTTagNotFound {
+		return query.get(readTag());
+	}
+
 	@Override
 	public void writeTag(Object base) {
 		if (isNBT(base)) {
@@ -0,0 +1,38 @@
+package me.dpohvar.powernbt.nbt;
+
+import me.dpohvar.powernbt.api.NBTManager;
+import me.dpohvar.powernbt.exception.NBTTagNotFound;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
+
+import java.util.UUID;
+
+/**
+ * File of offline player, it is read by cache of {@link NBTManager#readOfflinePlayerSnapshot(UUID)}
+ */
+public class NBTContainerFilePlayer extends NBTContainerFileGZip {
+
+	private final UUID uuid;
+
+	public NBTContainerFilePlayer(UUID uuid) {
+		super(NBTManager.getInstance().getPlayerFile(uuid));
+		this.uuid = uuid;
+	}
+
+	public UUID getUniqueId() {
+		return uuid;
+	}
+
+	@Override
+	protected Object readFile() {
+		if (!getObject().isFile()) {
+			return null;
+		}
+		return NBTManager.getInstance().readOfflinePlayerSnapshot(uuid);
+	}
+
+	@Override
+	protected Object readTag(NBTQuery query) throws NBTTagNotFound {
+		return query.get(readTag());
+	}
+
+}
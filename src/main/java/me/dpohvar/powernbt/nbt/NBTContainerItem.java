@@ -34,14 +34,14 @@ public class NBTContainerItem extends NBTContainer<ItemStack> {
 	public void writeTag(Object value) {
 		NBTCompound compound = null;
 		if (value instanceof NBTCompound c) {
-			compound = c;
+			compound = c.clone(); // item keeps the written tag
 		} else if (value instanceof Map map) {
 			compound = new NBTCompound(map);
 		}
 		if (compound == null) {
 			return;
 		}
-		NBTManager.getInstance().write(item, compound.clone());
+		NBTManager.getInstance().write(item, compound);
 	}
 
 	@Override
@@ -49,6 +49,11 @@ public class NBTContainerItem extends NBTContainer<ItemStack> {
 		writeTag(null);
 	}
 
+	@Override
+	public boolean ownsSnapshot() {
+		return true;
+	}
+
 	@Override
 	protected Class<ItemStack> getContainerClass() {
 		return ItemStack.class;
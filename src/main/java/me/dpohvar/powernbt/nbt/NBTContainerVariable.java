@@ -1,9 +1,12 @@
 package me.dpohvar.powernbt.nbt;
 
+import me.dpohvar.powernbt.exception.NBTTagNotFound;
 import me.dpohvar.powernbt.utils.Caller;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class NBTContainerVariable extends NBTContainer<Caller> {
 
@@ -54,6 +57,15 @@ public class NBTContainerVariable extends NBTContainer<Caller> {
 		return null;
 	}
 
+	@Override
+	protected Object readTag(NBTQuery query) throws NBTTagNotFound {
+		NBTContainer t = getContainer();
+        if (t != null) {
+            return t.readTag(query);
+        }
+		return query.get(null);
+	}
+
 	@Override
 	public void writeTag(Object base) {
 		NBTContainer t = getContainer();
@@ -86,6 +98,32 @@ public class NBTContainerVariable extends NBTContainer<Caller> {
         }
 	}
 
+	@Override
+	public boolean ownsSnapshot() {
+		NBTContainer t = getContainer();
+		return t != null && t.ownsSnapshot();
+	}
+
+	@Override
+	public CompletableFuture<?> prefetch() {
+		NBTContainer t = getContainer();
+		return t == null ? CompletableFuture.completedFuture(null) : t.prefetch();
+	}
+
+	@Override
+	public void discardPrefetch() {
+		NBTContainer t = getContainer();
+		if (t != null) {
+			t.discardPrefetch();
+		}
+	}
+
+	@Override
+	public CompletableFuture<?> takePendingWrite() {
+		NBTContainer t = getContainer();
+		return t == null ? null : t.takePendingWrite();
+	}
+
 	@Override
 	protected Class<Caller> getContainerClass() {
 		return Caller.class;
@@ -32,6 +32,13 @@ public enum NBTType {
 	;
 
 	private static final NBTManager nbt = NBTManager.getInstance();
+	private static final NBTType[] byType = new NBTType[13];
+
+	static {
+		for (NBTType t : values()) {
+			byType[t.type] = t;
+		}
+	}
 
 	public final String name;
 	public final String prefix;
@@ -48,12 +55,10 @@ public enum NBTType {
 	}
 
 	public static NBTType fromByte(byte b) {
-		for (NBTType t : values()) {
-			if (t.type == b) {
-				return t;
-			}
+		if (b < 0 || b >= byType.length) {
+			return null;
 		}
-		return null;
+		return byType[b];
 	}
 
 	public static NBTType fromValue(Object value) {
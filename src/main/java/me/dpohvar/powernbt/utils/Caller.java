@@ -1,5 +1,7 @@
 package me.dpohvar.powernbt.utils;
 
+import me.dpohvar.powernbt.api.NBTBatchEdit;
+import me.dpohvar.powernbt.api.NBTSearch;
 import me.dpohvar.powernbt.command.action.Action;
 import me.dpohvar.powernbt.command.action.Argument;
 import me.dpohvar.powernbt.nbt.NBTContainer;
@@ -15,6 +17,7 @@ import org.bukkit.entity.Player;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 import static me.dpohvar.powernbt.PowerNBT.plugin;
@@ -26,6 +29,9 @@ public class Caller extends NBTContainer<Caller> {
 	private Object base;
 	private Argument argument;
 	private Action action;
+	private NBTSearch search;
+	private NBTBatchEdit batch;
+	private CompletableFuture<Void> pendingAction = CompletableFuture.completedFuture(null);
 	private final HashMap<String, NBTContainer<?>> variables = new HashMap<>();
 
 	public Argument getArgument() {
@@ -41,6 +47,33 @@ public class Caller extends NBTContainer<Caller> {
 		this.action = action;
 	}
 
+	/**
+	 * @return future of last action executed by command, next action waits for it
+	 */
+	public CompletableFuture<Void> getPendingAction() {
+		return pendingAction;
+	}
+
+	public void setPendingAction(CompletableFuture<Void> pendingAction) {
+		this.pendingAction = pendingAction;
+	}
+
+	public NBTSearch getSearch() {
+		return search;
+	}
+
+	public void setSearch(NBTSearch search) {
+		this.search = search;
+	}
+
+	public NBTBatchEdit getBatch() {
+		return batch;
+	}
+
+	public void setBatch(NBTBatchEdit batch) {
+		this.batch = batch;
+	}
+
 	public boolean isSilent() {
 		return silent;
 	}
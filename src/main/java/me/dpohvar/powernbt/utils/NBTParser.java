@@ -1,429 +1,519 @@
 package me.dpohvar.powernbt.utils;
 
-import com.google.common.base.Splitter;
-import com.google.common.collect.Iterables;
-
 import me.dpohvar.powernbt.api.NBTCompound;
 import me.dpohvar.powernbt.api.NBTList;
 import me.dpohvar.powernbt.api.NBTManager;
-
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.regex.Pattern;
-
-import static java.lang.Byte.parseByte;
-import static java.lang.Double.parseDouble;
-import static java.lang.Float.parseFloat;
-import static java.lang.Integer.parseInt;
-import static java.lang.Long.parseLong;
-import static java.lang.Short.parseShort;
-import static java.util.stream.Collectors.toCollection;
-
+import me.dpohvar.powernbt.api.NBTTagFactory;
+import me.dpohvar.powernbt.exception.ParseException;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass parser of SNBT (mojangson).<br>
+ * Input is read by cursor once and tags are created by {@link NBTTagFactory} while reading,
+ * errors point to row and column of source.
+ * <pre>
+ *   compound:  {key: value, "quoted key": value}
+ *   list:      [value, value]
+ *   arrays:    [B; 1b, 2b]  [I; 1, 2]  [L; 1L, 2L]
+ *   numbers:   1b 1s 1 1i 1L 1.5f 1.5 1.5d, true and false are bytes
+ *   strings:   "text" 'text' or unquoted text
+ * </pre>
+ * Numbers are read like in minecraft: number with exponent is double only with decimal point or suffix,
+ * so <code>1.0e5</code> and <code>1e5d</code> are doubles, but <code>1e5</code> is string.
+ * Integers out of range are also strings.
+ * Legacy arrays of old parser are also accepted: <code>[1,2]b</code>, <code>[1,2]i</code>, <code>[1,2]l</code>
+ */
 public class NBTParser {
 
-	private static final Pattern b = Pattern.compile("\\[[-+\\d|,\\s]+\\]");
-
-	static int getType(String var) throws RuntimeException {
-		int type = 0;
-		boolean useQuote = false;
-		LinkedList<Character> chars = new LinkedList<>();
+	private static final int MAX_DEPTH = 512;
 
-		for (int i = 0; i < var.length(); ++i) {
-			char c = var.charAt(i);
-			if (c == '"') {
-				if (b(var, i)) {
-					if (!useQuote) {
-						throw new RuntimeException("Illegal use of \\\": " + var);
-					}
-				} else {
-					useQuote = !useQuote;
-				}
-			} else if (!useQuote) {
-				if (c != '{' && c != '[') {
-					if (c == '}' && (chars.isEmpty() || chars.pop() != '{')) {
-						throw new RuntimeException("Unbalanced curly brackets {}: " + var);
-					}
+	private final String source;
+	private final NBTTagFactory factory;
+	private int pos;
 
-					if (c == ']' && (chars.isEmpty() || chars.pop() != '[')) {
-						throw new RuntimeException("Unbalanced square brackets []: " + var);
-					}
-				} else {
-					if (chars.isEmpty()) {
-						++type;
-					}
-					chars.push(c);
-				}
-			}
-		}
-
-		if (useQuote) {
-			throw new RuntimeException("Unbalanced quotation: " + var);
-		} else if (!chars.isEmpty()) {
-			throw new RuntimeException("Unbalanced brackets: " + var);
-		} else {
-			if (type == 0 && !var.isEmpty()) {
-				type = 1;
-			}
-			return type;
-		}
+	private NBTParser(String source, NBTTagFactory factory) {
+		this.source = source;
+		this.factory = factory;
 	}
 
+	/**
+	 * Create parser of SNBT value
+	 *
+	 * @param name
+	 * 			  ignored, name of tag is not used
+	 * @param value
+	 * 			  SNBT string
+	 * @return parser of value
+	 * @deprecated use {@link #parse(String)}
+	 */
+	@Deprecated
 	public static TypeParser parser(String name, String value) {
-		value = value.trim();
-		String var3;
-		boolean var4;
-
-		if (value.startsWith("{")) {
-			value = value.substring(1, value.length() - 1);
-
-			CompoundParser cmpParser;
-			for (cmpParser = new CompoundParser(name); value.length() > 0; value = value.substring(var3.length() + 1)) {
-				var3 = b(value, true);
-				if (var3.length() > 0) {
-					var4 = false;
-					cmpParser.parsers.add(a(var3, var4));
-				}
-
-				if (value.length() < var3.length() + 1) {
-					break;
-				}
-
-				char c = value.charAt(var3.length());
-				if (c != 44 && c != 123 && c != 125 && c != 91 && c != 93) {
-					throw new RuntimeException("Unexpected token \'" + c + "\' at: " + value.substring(var3.length()));
-				}
+		return new TypeParser() {
+			@Override
+			public Object parse() {
+				return NBTParser.parse(value);
 			}
+		};
+	}
 
-			return cmpParser;
-		} else if (value.startsWith("[") && !b.matcher(value).matches()) {
-			value = value.substring(1, value.length() - 1);
+	/**
+	 * Parser of single value
+	 *
+	 * @deprecated use {@link #parse(String)}
+	 */
+	@Deprecated
+	public static abstract class TypeParser {
 
-			ListParser var2;
-			for (var2 = new ListParser(name); value.length() > 0; value = value.substring(var3.length() + 1)) {
-				var3 = b(value, false);
-				if (var3.length() > 0) {
-					var4 = true;
-					var2.parsers.add(a(var3, var4));
-				}
+		/**
+		 * @return {@link NBTCompound}, {@link NBTList}, array, String or boxed number
+		 */
+		public abstract Object parse();
 
-				if (value.length() < var3.length() + 1) {
-					break;
-				}
+	}
 
-				char c = value.charAt(var3.length());
-				if (c != 44 && c != 123 && c != 125 && c != 91 && c != 93) {
-					throw new RuntimeException("Unexpected token \'" + c + "\' at: " + value.substring(var3.length()));
-				}
-			}
+	/**
+	 * Parse SNBT value
+	 *
+	 * @param value
+	 * 			  SNBT string
+	 * @return {@link NBTCompound}, {@link NBTList}, byte[], int[], long[], String or boxed number
+	 * @throws ParseException
+	 * 			  if value is not valid SNBT
+	 */
+	public static Object parse(String value) throws ParseException {
+		return NBTManager.getInstance().getValueOfTag(parseTag(value, NBTTagFactory.getDefault()));
+	}
 
-			return var2;
-		} else {
-			return new PrimitiveParser(name, value);
+	/**
+	 * Parse SNBT value to tag
+	 *
+	 * @param value
+	 * 			  SNBT string
+	 * @param factory
+	 * 			  factory of tags, see {@link NBTTagFactory#getDefault()}
+	 * @return tag created by factory
+	 * @throws ParseException
+	 * 			  if value is not valid SNBT
+	 */
+	public static Object parseTag(String value, NBTTagFactory factory) throws ParseException {
+		NBTParser parser = new NBTParser(value, factory);
+		parser.skipWhitespace();
+		Object result = parser.readValue(0);
+		parser.skipWhitespace();
+		if (parser.pos < value.length()) {
+			throw parser.error("unexpected trailing data");
 		}
+		return result;
 	}
 
-	private static TypeParser a(String var, boolean flag) throws RuntimeException {
-		String name = parseString(var, flag);
-		String value = d(var, flag);
-		return parser(name, value);
+	private Object readValue(int depth) {
+		if (depth > MAX_DEPTH) {
+			throw error("depth is more than " + MAX_DEPTH);
+		}
+		if (pos >= source.length()) {
+			throw error("expected value");
+		}
+		char c = source.charAt(pos);
+		return switch (c) {
+			case '{' -> readCompound(depth);
+			case '[' -> isArrayStart() ? readArray() : readList(depth);
+			case '"', '\'' -> factory.createString(readQuoted());
+			default -> toTag(readPrimitive());
+		};
 	}
 
-	private static String b(String var, boolean var1) throws RuntimeException {
-		int var2 = a(var, (char) ':');
-		int var3 = a(var, (char) ',');
-		if (var1) {
-			if (var2 == -1) {
-				throw new RuntimeException("Unable to locate name/value separator for string: " + var);
-			}
+	private Object toTag(Object value) {
+		if (value instanceof String string) {
+			return factory.createString(string);
+		}
+		if (value instanceof Integer number) {
+			return factory.createInt(number);
+		}
+		if (value instanceof Byte number) {
+			return factory.createByte(number);
+		}
+		if (value instanceof Short number) {
+			return factory.createShort(number);
+		}
+		if (value instanceof Long number) {
+			return factory.createLong(number);
+		}
+		if (value instanceof Float number) {
+			return factory.createFloat(number);
+		}
+		return factory.createDouble((Double) value);
+	}
 
-			if (var3 != -1 && var3 < var2) {
-				throw new RuntimeException("Name error at: " + var);
+	private Object readCompound(int depth) {
+		Object compound = factory.createCompound();
+		pos++;
+		skipWhitespace();
+		while (!tryRead('}')) {
+			int keyStart = pos;
+			String key = readKey();
+			if (key.isEmpty() && keyStart == pos) {
+				throw error("expected key");
+			}
+			skipWhitespace();
+			expect(':');
+			skipWhitespace();
+			factory.put(compound, key, readValue(depth + 1));
+			if (!readSeparator('}')) {
+				break;
 			}
-		} else if (var2 == -1 || var2 > var3) {
-			var2 = -1;
 		}
-
-		return a(var, var2);
+		return compound;
 	}
 
-	private static String a(String value, int pos) throws RuntimeException {
-		LinkedList<Character> chars = new LinkedList<Character>();
-		int currentPos = pos + 1;
-		boolean flagQuote = false;
-		boolean var5 = false;
-		boolean var6 = false;
-
-		for (int i = 0; currentPos < value.length(); ++currentPos) {
-			char c = value.charAt(currentPos);
-			if (c == '"') {
-				if (b(value, currentPos)) {
-					if (!flagQuote) {
-						throw new RuntimeException("Illegal use of \\\": " + value);
+	/**
+	 * Read list, integer elements are also kept as numbers until legacy array suffix is checked
+	 */
+	private Object readList(int depth) {
+		Object list = factory.createList();
+		long[] numbers = null;
+		int size = 0;
+		boolean integers = true;
+		pos++;
+		skipWhitespace();
+		while (!tryRead(']')) {
+			int start = pos;
+			Object tag;
+			if (depth < MAX_DEPTH && isPrimitiveStart()) {
+				Object value = readPrimitive();
+				if (integers && isInteger(value)) {
+					if (numbers == null) {
+						numbers = new long[8];
+					} else if (size == numbers.length) {
+						numbers = Arrays.copyOf(numbers, size * 2);
 					}
+					numbers[size++] = ((Number) value).longValue();
 				} else {
-					flagQuote = !flagQuote;
-					if (flagQuote && !var6) {
-						var5 = true;
-					}
-
-					if (!flagQuote) {
-						i = currentPos;
-					}
-				}
-			} else if (!flagQuote) {
-				if (c != '{' && c != '[') {
-					if (c == '}' && (chars.isEmpty() || chars.pop() != 123)) {
-						throw new RuntimeException("Unbalanced curly brackets {}: " + value);
-					}
-
-					if (c == ']' && (chars.isEmpty() || chars.pop() != 91)) {
-						throw new RuntimeException("Unbalanced square brackets []: " + value);
-					}
-
-					if (c == ',' && chars.isEmpty()) {
-						return value.substring(0, currentPos);
-					}
-				} else {
-					chars.push(c);
+					integers = false;
 				}
+				tag = toTag(value);
+			} else {
+				integers = false;
+				tag = readValue(depth + 1);
 			}
-
-			if (!Character.isWhitespace(c)) {
-				if (!flagQuote && var5 && i != currentPos) {
-					return value.substring(0, i + 1);
+			try {
+				factory.add(list, tag);
+			} catch (RuntimeException e) {
+				pos = start;
+				throw error("element has other type than list");
+			}
+			if (!readSeparator(']')) {
+				break;
+			}
+		}
+		if (pos < source.length() && "bBiIlL".indexOf(source.charAt(pos)) != -1 && !isTokenChar(peek(1))) {
+			if (!integers) {
+				throw error("expected integer elements of legacy array");
+			}
+			char type = Character.toUpperCase(source.charAt(pos));
+			for (int i = 0; i < size; i++) {
+				if (!isInRange(numbers[i], type)) {
+					throw error("value is out of range of " + type + " array");
 				}
-
-				var6 = true;
 			}
+			pos++;
+			return toArray(numbers == null ? new long[0] : numbers, size, type);
 		}
+		return list;
+	}
 
-		return value.substring(0, currentPos);
+	private boolean isPrimitiveStart() {
+		return pos < source.length() && isTokenChar(source.charAt(pos));
 	}
 
-	private static String parseString(String value, boolean flag) throws RuntimeException {
-		if (flag) {
-			value = value.trim();
-			if (value.startsWith("{") || value.startsWith("[")) {
-				return "";
-			}
-		}
+	private static boolean isInteger(Object value) {
+		return value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long;
+	}
 
-		int var2 = a(value, ':');
-		if (var2 == -1) {
-			if (flag) {
-				return "";
-			} else {
-				throw new RuntimeException("Unable to locate name/value separator for string: " + value);
-			}
-		} else {
-			return value.substring(0, var2).trim();
+	/**
+	 * Read comma or closing bracket after element
+	 *
+	 * @return false if closing bracket is read
+	 */
+	private boolean readSeparator(char end) {
+		skipWhitespace();
+		if (tryRead(',')) {
+			skipWhitespace();
+			return true;
 		}
+		expect(end);
+		return false;
 	}
 
-	private static String d(String var, boolean var1) throws RuntimeException {
-		if (var1) {
-			var = var.trim();
-			if (var.startsWith("{") || var.startsWith("[")) {
-				return var;
+	private boolean isArrayStart() {
+		return pos + 2 < source.length() && "BILbil".indexOf(source.charAt(pos + 1)) != -1 && source.charAt(pos + 2) == ';';
+	}
+
+	private Object readArray() {
+		char type = Character.toUpperCase(source.charAt(pos + 1));
+		pos += 3;
+		skipWhitespace();
+		long[] values = new long[8];
+		int size = 0;
+		while (!tryRead(']')) {
+			int start = pos;
+			long value = toArrayElement(readPrimitive(), type, start);
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+			if (!readSeparator(']')) {
+				break;
 			}
 		}
+		return toArray(values, size, type);
+	}
 
-		int var2 = a(var, ':');
-		if (var2 == -1) {
-			if (var1) {
-				return var;
-			} else {
-				throw new RuntimeException("Unable to locate name/value separator for string: " + var);
-			}
-		} else {
-			return var.substring(var2 + 1).trim();
+	private long toArrayElement(Object value, char type, int start) {
+		if (!isInteger(value)) {
+			pos = start;
+			throw error("expected integer element of " + type + " array");
+		}
+		long number = ((Number) value).longValue();
+		if (!isInRange(number, type)) {
+			pos = start;
+			throw error("value is out of range of " + type + " array");
 		}
+		return number;
 	}
 
-	private static int a(String var, char var1) {
-		int result = 0;
+	private static boolean isInRange(long number, char type) {
+		return switch (type) {
+			case 'B' -> number >= Byte.MIN_VALUE && number <= Byte.MAX_VALUE;
+			case 'I' -> number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE;
+			default -> true;
+		};
+	}
 
-		for (boolean useQuote = true; result < var.length(); ++result) {
-			char c = var.charAt(result);
-			if (c == '"') {
-				if (!b(var, result)) {
-					useQuote = !useQuote;
-				}
-			} else if (useQuote) {
-				if (c == var1) {
-					return result;
+	private Object toArray(long[] values, int size, char type) {
+		return switch (type) {
+			case 'B' -> {
+				byte[] result = new byte[size];
+				for (int i = 0; i < size; i++) {
+					result[i] = (byte) values[i];
 				}
-				if (c == '{' || c == '[') {
-					return -1;
+				yield factory.createByteArray(result);
+			}
+			case 'I' -> {
+				int[] result = new int[size];
+				for (int i = 0; i < size; i++) {
+					result[i] = (int) values[i];
 				}
+				yield factory.createIntArray(result);
 			}
+			default -> factory.createLongArray(Arrays.copyOf(values, size));
+		};
+	}
+
+	private String readKey() {
+		if (pos < source.length() && (source.charAt(pos) == '"' || source.charAt(pos) == '\'')) {
+			return readQuoted();
 		}
+		return readToken();
+	}
 
-		return -1;
+	private String readQuoted() {
+		int start = pos;
+		char quote = source.charAt(pos++);
+		StringBuilder builder = null;
+		int chunk = pos;
+		while (pos < source.length()) {
+			char c = source.charAt(pos);
+			if (c == quote) {
+				String result = builder == null ? source.substring(chunk, pos) : builder.append(source, chunk, pos).toString();
+				pos++;
+				return result;
+			}
+			if (c == '\\') {
+				if (builder == null) {
+					builder = new StringBuilder();
+				}
+				builder.append(source, chunk, pos);
+				pos++;
+				builder.append(readEscape());
+				chunk = pos;
+			} else {
+				pos++;
+			}
+		}
+		pos = start;
+		throw error("unterminated string");
 	}
 
-	private static boolean b(String value, int pos) {
-		return pos > 0 && value.charAt(pos - 1) == '\\' && !b(value, pos - 1);
+	private char readEscape() {
+		if (pos >= source.length()) {
+			throw error("unexpected end of string");
+		}
+		char c = source.charAt(pos++);
+		return switch (c) {
+			case '\\', '\'', '"' -> c;
+			case 'n' -> '\n';
+			case 't' -> '\t';
+			case 'r' -> '\r';
+			case 'b' -> '\b';
+			case 'f' -> '\f';
+			case 'u' -> readUnicode();
+			default -> {
+				pos--;
+				throw error("can't escape symbol " + c);
+			}
+		};
 	}
 
-	static class PrimitiveParser extends TypeParser {
+	private char readUnicode() {
+		if (pos + 4 > source.length()) {
+			throw error("unexpected end of string");
+		}
+		try {
+			char result = (char) Integer.parseInt(source, pos, pos + 4, 16);
+			pos += 4;
+			return result;
+		} catch (NumberFormatException e) {
+			throw error("unexpected hex character");
+		}
+	}
 
-		private static final Pattern patDouble = Pattern.compile("[-+]?[0-9]*\\.?[0-9]+[d|D]");
-		private static final Pattern patFloat = Pattern.compile("[-+]?[0-9]*\\.?[0-9]+[f|F]");
-		private static final Pattern patByte = Pattern.compile("[-+]?[0-9]+[b|B]");
-		private static final Pattern patLong = Pattern.compile("[-+]?[0-9]+[l|L]");
-		private static final Pattern patShort = Pattern.compile("[-+]?[0-9]+[s|S]");
-		private static final Pattern patInt = Pattern.compile("[-+]?[0-9]+[i|I]");
-		private static final Pattern patIntDef = Pattern.compile("[-+]?[0-9]+");
-		private static final Pattern patDoubleDef = Pattern.compile("[-+]?[0-9]*\\.?[0-9]+");
-		private static final Splitter splitter = Splitter.on(',').omitEmptyStrings();
-		protected String value;
+	private String readToken() {
+		int start = pos;
+		while (pos < source.length() && isTokenChar(source.charAt(pos))) {
+			pos++;
+		}
+		return source.substring(start, pos);
+	}
 
-		public PrimitiveParser(String name, String value) {
-			this.name = name;
-			this.value = value;
+	private Object readPrimitive() {
+		int start = pos;
+		String token = readToken();
+		if (token.isEmpty()) {
+			throw error(pos < source.length() ? "unexpected '" + source.charAt(pos) + "'" : "expected value");
+		}
+		Object number = parseNumber(token);
+		if (number != null) {
+			return number;
+		}
+		if (token.equalsIgnoreCase("true")) {
+			return (byte) 1;
+		}
+		if (token.equalsIgnoreCase("false")) {
+			return (byte) 0;
+		}
+		if (pos < source.length() && source.charAt(pos) == '"') {
+			pos = start;
+			throw error("unexpected '\"' in unquoted string");
 		}
+		return token;
+	}
 
-		/* returns java value */
-		public Object parse() throws RuntimeException {
-			if (patDouble.matcher(value).matches()) {
-				return parseDouble(value.substring(0, value.length() - 1));
-			}
-			if (patFloat.matcher(value).matches()) {
-				return parseFloat(value.substring(0, value.length() - 1));
-			}
-			if (patByte.matcher(value).matches()) {
-				return parseByte(value.substring(0, value.length() - 1));
-			}
-			if (patLong.matcher(value).matches()) {
-				return parseLong(value.substring(0, value.length() - 1));
-			}
-			if (patShort.matcher(value).matches()) {
-				return parseShort(value.substring(0, value.length() - 1));
-			}
-			if (patInt.matcher(value).matches()) {
-				return parseInt(value.substring(0, value.length() - 1));
-			}
-			if (patIntDef.matcher(value).matches()) {
-				return parseInt(value);
-			}
-			if (patDoubleDef.matcher(value).matches()) {
-				return parseDouble(value);
-			}
-			if (value.equalsIgnoreCase("true")) {
-				return (byte) 1;
-			}
-			if (value.equalsIgnoreCase("false")) {
-				return (byte) 0;
-			}
-			if (this.value.startsWith("[") && (this.value.endsWith("]i") || this.value.endsWith("]I"))) {
-				String token = value.substring(1, this.value.length() - 2);
-				List<Integer> tempResult = new ArrayList<>();
-				for (String s : splitter.split(token)) {
-					tempResult.add(parseInt(s.trim()));
-				}
-				int[] result = new int[tempResult.size()];
-				for (int i = 0; i < result.length; i++) {
-					result[i] = tempResult.get(i);
-				}
-				return NBTManager.getInstance().getTagOfValue(result);
-			}
-			if (this.value.startsWith("[") && (this.value.endsWith("]b") || this.value.endsWith("]B"))) {
-				String token = value.substring(1, this.value.length() - 2);
-				List<Byte> tempResult = new ArrayList<>();
-				for (String s : splitter.split(token)) {
-					tempResult.add(parseByte(s.trim()));
-				}
-				byte[] result = new byte[tempResult.size()];
-				for (int i = 0; i < result.length; i++) {
-					result[i] = tempResult.get(i);
-				}
-				return result;
-			}
-			if (this.value.startsWith("[") && (this.value.endsWith("]l") || this.value.endsWith("]L"))) {
-				String token = value.substring(1, this.value.length() - 2);
-				List<Long> tempResult = new ArrayList<>();
-				for (String s : splitter.split(token)) {
-					tempResult.add(parseLong(s.trim()));
+	/**
+	 * Parse number with optional type suffix without regular expressions
+	 *
+	 * @return boxed number or null if token is not number
+	 */
+	private static Object parseNumber(String token) {
+		int length = token.length();
+		char suffix = Character.toLowerCase(token.charAt(length - 1));
+		boolean hasSuffix = length > 1 && "bsilfd".indexOf(suffix) != -1;
+		int end = hasSuffix ? length - 1 : length;
+		int i = 0;
+		if (token.charAt(0) == '-' || token.charAt(0) == '+') {
+			i++;
+		}
+		int digits = 0;
+		boolean point = false;
+		boolean exponent = false;
+		for (; i < end; i++) {
+			char c = token.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits++;
+			} else if (c == '.' && !point) {
+				point = true;
+			} else if ((c == 'e' || c == 'E') && digits > 0 && i + 1 < end) {
+				exponent = true;
+				int next = i + 1;
+				if (token.charAt(next) == '-' || token.charAt(next) == '+') {
+					next++;
 				}
-				long[] result = new long[tempResult.size()];
-				for (int i = 0; i < result.length; i++) {
-					result[i] = tempResult.get(i);
+				if (next == end) {
+					return null;
 				}
-				return result;
-			}
-			if (value.startsWith("[") && value.endsWith("]")) {
-				String token = this.value.substring(1, this.value.length() - 1);
-				String[] tokens = Iterables.toArray(splitter.split(token), String.class);
-				int[] result = new int[tokens.length];
-				for (int i = 0; i < tokens.length; ++i) {
-					result[i] = parseInt(tokens[i].trim());
+				for (int j = next; j < end; j++) {
+					if (token.charAt(j) < '0' || token.charAt(j) > '9') {
+						return null;
+					}
 				}
-				return result;
-			}
-			if (value.startsWith("\"") && value.endsWith("\"")) {
-				return value.substring(1, value.length() - 1);
+				break;
+			} else {
+				return null;
 			}
-
-			value = value.replaceAll("\\\\\"", "\"");
-			StringBuilder builder = new StringBuilder();
-
-			for (int i = 0; i < value.length(); ++i) {
-				if (i < value.length() - 1 && value.charAt(i) == '\\' && value.charAt(i + 1) == '\\') {
-					builder.append('\\');
-					++i;
-				} else {
-					builder.append(value.charAt(i));
-				}
+		}
+		if (digits == 0 || exponent && !point && !hasSuffix) {
+			return null;
+		}
+		boolean decimal = point || exponent;
+		String body = token.substring(0, end);
+		try {
+			if (!hasSuffix) {
+				return decimal ? (Object) Double.parseDouble(body) : (Object) Integer.parseInt(body);
 			}
-			return builder.toString();
+			return switch (suffix) {
+				case 'f' -> Float.parseFloat(body);
+				case 'd' -> Double.parseDouble(body);
+				case 'b' -> decimal ? null : Byte.parseByte(body);
+				case 's' -> decimal ? null : Short.parseShort(body);
+				case 'i' -> decimal ? null : Integer.parseInt(body);
+				default -> decimal ? null : Long.parseLong(body);
+			};
+		} catch (NumberFormatException e) {
+			return null; // out of range, it is string like in minecraft
 		}
-
 	}
 
-	static class ListParser extends TypeParser {
+	private static boolean isTokenChar(int c) {
+		return c >= 0 && !Character.isWhitespace(c) && ",:;[]{}\"'".indexOf(c) == -1;
+	}
 
-		protected List<TypeParser> parsers = new ArrayList<>();
+	private int peek(int offset) {
+		int index = pos + offset;
+		return index < source.length() ? source.charAt(index) : -1;
+	}
 
-		public ListParser(String name) {
-			this.name = name;
+	private boolean tryRead(char c) {
+		if (pos < source.length() && source.charAt(pos) == c) {
+			pos++;
+			return true;
 		}
+		return false;
+	}
 
-		public NBTList parse() throws RuntimeException {
-			return parsers.stream().map(TypeParser::parse).collect(toCollection(NBTList::new));
+	private void expect(char c) {
+		if (!tryRead(c)) {
+			throw error(pos < source.length() ? "expected '" + c + "' but found '" + source.charAt(pos) + "'" : "expected '" + c + "'");
 		}
-
 	}
 
-	static class CompoundParser extends TypeParser {
-
-		protected List<TypeParser> parsers = new ArrayList<>();
-
-		public CompoundParser(String name) {
-			this.name = name;
+	private void skipWhitespace() {
+		while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+			pos++;
 		}
+	}
 
-		public NBTCompound parse() throws RuntimeException {
-			NBTCompound result = new NBTCompound();
-			for (TypeParser parser : this.parsers) {
-				String key = parser.name;
-				if (key.startsWith("\"") && key.endsWith("\"")) {
-					key = StringParser.parse(key.substring(1, key.length() - 1));
-				}
-				result.put(key, parser.parse());
+	private ParseException error(String reason) {
+		int row = 0;
+		int col = 0;
+		for (int i = 0; i < pos && i < source.length(); i++) {
+			if (source.charAt(i) == '\n') {
+				row++;
+				col = 0;
+			} else {
+				col++;
 			}
-			return result;
 		}
-
-	}
-
-	public static abstract class TypeParser {
-
-		protected String name;
-
-		public abstract Object parse();
-
+		return new ParseException(source, row, col, reason);
 	}
 
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import me.dpohvar.powernbt.PowerNBT;
 import me.dpohvar.powernbt.api.NBTCompound;
 import me.dpohvar.powernbt.api.NBTList;
 import me.dpohvar.powernbt.api.NBTManagerUtils;
+import me.dpohvar.powernbt.api.NBTMappedList;
 import me.dpohvar.powernbt.nbt.NBTType;
 
 import org.apache.commons.lang.ArrayUtils;
@@ -13,7 +14,9 @@ import org.bukkit.configuration.file.FileConfiguration;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -453,6 +456,8 @@ public class NBTStaticViewer {
 					ChatColor c = NBTType.getTypeColorByValue(b);
 					if (b instanceof NBTList nbtListEntry) {
 						c = NBTType.fromByte(nbtListEntry.getType()).color;
+					} else if (b instanceof NBTMappedList mappedListEntry) {
+						c = NBTType.fromByte(mappedListEntry.getType()).color;
 					}
 					String bolder = switch (t) {
 						case LIST, COMPOUND -> ChatColor.BOLD.toString();
@@ -463,8 +468,13 @@ public class NBTStaticViewer {
 				value = PowerNBT.plugin.translate("data_elements", entries.size()) + buffer;
 			}
 		} else {
-			Object[] array = NBTManagerUtils.convertToObjectArrayOrNull(base);
-			if (array != null) {
+			// lists are not copied to array, only shown elements are requested
+			List<?> elements = base instanceof List<?> list ? list : null;
+			if (elements == null) {
+				Object[] objects = NBTManagerUtils.convertToObjectArrayOrNull(base);
+				elements = objects == null ? null : Arrays.asList(objects);
+			}
+			if (elements != null) {
 				if (start == 0 && end == 0) {
 					end = h_limit;
 				}
@@ -474,23 +484,27 @@ public class NBTStaticViewer {
 					NBTType listType = NBTType.fromByte(nbtList.getType());
 					typeColor = listType.color;
 					typeName = listType.name;
+				} else if (base instanceof NBTMappedList mappedList) {
+					NBTType listType = NBTType.fromByte(mappedList.getType());
+					typeColor = listType.color;
+					typeName = listType.name;
 				}
-				if (array.length == 0) {
+				if (elements.size() == 0) {
 					value = PowerNBT.plugin.translate("data_emptylist");
 				} else {
 					StringBuilder buffer = new StringBuilder();
 					for (int i = start; i < end; i++) {
-						if (i >= array.length) {
+						if (i >= elements.size()) {
 							break;
 						}
-						Object b = array[i];
+						Object b = elements.get(i);
 						ChatColor itemTypeColor = NBTType.getTypeColorByValue(b);
 						if (typeColor == ChatColor.MAGIC) {
 							typeColor = ChatColor.WHITE;
 						}
 						buffer.append('\n').append(itemTypeColor).append(ChatColor.BOLD).append("[").append(i).append("] ").append(ChatColor.RESET).append(getShortValue(b, hex, bin));
 					}
-					value = PowerNBT.plugin.translate("data_elements", array.length) + " " + typeColor + typeName + buffer;
+					value = PowerNBT.plugin.translate("data_elements", elements.size()) + " " + typeColor + typeName + buffer;
 				}
 			} else {
 				value = PowerNBT.plugin.translate("data_unknown");
@@ -2,10 +2,9 @@ package me.dpohvar.powernbt.utils;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import me.dpohvar.powernbt.api.NBTCodec;
 
 import java.io.*;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 public class PowerJSONParser {
 
@@ -40,13 +39,13 @@ public class PowerJSONParser {
 	}
 
 	public static void writeCompressed(Object value, File file) throws IOException {
-		try (var writer = new OutputStreamWriter(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))))) {
+		try (var writer = new OutputStreamWriter(NBTCodec.GZIP.encode(new FileOutputStream(file)))) {
 			write(value, writer);
 		}
 	}
 
 	public static Object readCompressed(File file) throws IOException {
-		try (var reader = new InputStreamReader(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+		try (var reader = new InputStreamReader(NBTCodec.GZIP.decode(file))) {
 			return read(reader);
 		}
 	}
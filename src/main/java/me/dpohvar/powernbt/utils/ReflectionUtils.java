@@ -8,12 +8,17 @@ import org.jetbrains.annotations.Nullable;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 
 /**
  * @author DPOH-VAR
@@ -34,6 +39,10 @@ public class ReflectionUtils {
 	 * classLoader in class names
 	 */
 	private static final HashMap<String, String> replacements = new HashMap<>();
+	/**
+	 * resolved classes by pattern, cleared when replacements are changed
+	 */
+	private static final Map<String, Class<?>> classCache = new ConcurrentHashMap<>();
 
 	/* check server version and class names */
 	static {
@@ -70,10 +79,12 @@ public class ReflectionUtils {
 
 	public static void addReplacements(Map<String, String> r) {
 		replacements.putAll(r);
+		classCache.clear();
 	}
 
 	public static void addReplacement(String key, String value) {
 		replacements.put(key, value);
+		classCache.clear();
 	}
 
 	static Yaml yaml = new Yaml();
@@ -85,6 +96,7 @@ public class ReflectionUtils {
 			for (Object key : keys) {
 				replacements.put("" + key, "" + (map).get(key));
 			}
+			classCache.clear();
 		}
 	}
 
@@ -159,10 +171,19 @@ public class ReflectionUtils {
 		if (classPatterns.containsKey(pattern)) {
 			return classPatterns.get(pattern);
 		}
-		for (Map.Entry<String, String> e : replacements.entrySet()) {
-			pattern = pattern.replace("{" + e.getKey() + "}", e.getValue());
+		Class<?> cached = classCache.get(pattern);
+		if (cached != null) {
+			return cached;
 		}
-		return classLoader.loadClass(pattern);
+		String className = pattern;
+		if (className.indexOf('{') >= 0) {
+			for (Map.Entry<String, String> e : replacements.entrySet()) {
+				className = className.replace("{" + e.getKey() + "}", e.getValue());
+			}
+		}
+		Class<?> clazz = classLoader.loadClass(className);
+		classCache.put(pattern, clazz);
+		return clazz;
 	}
 
 	/**
@@ -894,6 +915,9 @@ public class ReflectionUtils {
 
 		private final Method method;
 		private final int argumentsCount;
+		private final MethodHandle handle;
+		private final MethodHandle genericHandle;
+		private final MethodHandle spreadHandle;
 
 		/**
 		 * @return passed method
@@ -922,6 +946,28 @@ public class ReflectionUtils {
 			this.method = method;
 			this.argumentsCount = method.getParameterTypes().length;
 			method.setAccessible(true);
+			try {
+				MethodHandle unreflected = MethodHandles.lookup().unreflect(method);
+				this.handle = unreflected.asType(unreflected.type().erase());
+				MethodHandle generic = unreflected.asType(unreflected.type().generic());
+				if (Modifier.isStatic(method.getModifiers())) {
+					generic = MethodHandles.dropArguments(generic, 0, Object.class);
+				}
+				this.genericHandle = generic;
+				this.spreadHandle = generic.asSpreader(Object[].class, argumentsCount);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		/**
+		 * Method handle with all reference types erased to Object, primitives are kept.
+		 * Store it in a static final field and call it with invokeExact to avoid boxing and reflection.
+		 *
+		 * @return erased method handle, receiver is the first parameter for non-static methods
+		 */
+		public MethodHandle getHandle() {
+			return handle;
 		}
 
 		public int getArgumentsCount() {
@@ -967,6 +1013,58 @@ public class ReflectionUtils {
 			}
 		}
 
+		/**
+		 * invoke method without arguments through method handle
+		 *
+		 * @param target
+		 * 			  object to which the method is applied, ignored for static methods
+		 * @return return value
+		 */
+		@SuppressWarnings("unchecked")
+		public Z invoke(Object target) {
+			try {
+				return (Z) (Object) genericHandle.invokeExact(target);
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		/**
+		 * invoke method with one argument through method handle
+		 *
+		 * @param target
+		 * 			  object to which the method is applied, ignored for static methods
+		 * @param arg
+		 * 			  sent parameter
+		 * @return return value
+		 */
+		@SuppressWarnings("unchecked")
+		public Z invoke(Object target, Object arg) {
+			try {
+				return (Z) (Object) genericHandle.invokeExact(target, arg);
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		/**
+		 * invoke method through method handle
+		 *
+		 * @param target
+		 * 			  object to which the method is applied, ignored for static methods
+		 * @param args
+		 * 			  sent parameters
+		 * @return return value
+		 */
+		@SuppressWarnings("unchecked")
+		public Z invoke(Object target, Object... args) {
+			try {
+				return (Z) (Object) spreadHandle.invokeExact(target, args);
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+
 		public class RefExecutor {
 
 			Object e;
@@ -1105,6 +1203,7 @@ public class ReflectionUtils {
 	public static class RefConstructor<C> {
 
 		private final Constructor<C> constructor;
+		private final MethodHandle handle;
 
 		/**
 		 * @return passed constructor
@@ -1123,6 +1222,22 @@ public class ReflectionUtils {
 		public RefConstructor(Constructor<C> constructor) {
 			this.constructor = constructor;
 			constructor.setAccessible(true);
+			try {
+				MethodHandle unreflected = MethodHandles.lookup().unreflectConstructor(constructor);
+				this.handle = unreflected.asType(unreflected.type().erase());
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		/**
+		 * Constructor handle with all reference types erased to Object, primitives are kept.
+		 * Store it in a static final field and call it with invokeExact.
+		 *
+		 * @return erased constructor handle
+		 */
+		public MethodHandle getHandle() {
+			return handle;
 		}
 
 		/**
@@ -1153,6 +1268,10 @@ public class ReflectionUtils {
 	public static class RefField<T> {
 
 		private final Field field;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final MethodHandle genericGetter;
+		private final MethodHandle genericSetter;
 
 		/**
 		 * @return passed field
@@ -1179,6 +1298,82 @@ public class ReflectionUtils {
 		public RefField(Field field) {
 			this.field = field;
 			field.setAccessible(true);
+			boolean isStatic = Modifier.isStatic(field.getModifiers());
+			var lookup = MethodHandles.lookup();
+			try {
+				MethodHandle unreflected = lookup.unreflectGetter(field);
+				this.getter = unreflected.asType(unreflected.type().erase());
+				MethodHandle generic = unreflected.asType(unreflected.type().generic());
+				this.genericGetter = isStatic ? MethodHandles.dropArguments(generic, 0, Object.class) : generic;
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+			MethodHandle unreflectedSetter;
+			try {
+				unreflectedSetter = lookup.unreflectSetter(field);
+			} catch (IllegalAccessException e) {
+				unreflectedSetter = null; // static final field
+			}
+			if (unreflectedSetter == null) {
+				this.setter = null;
+				this.genericSetter = null;
+			} else {
+				this.setter = unreflectedSetter.asType(unreflectedSetter.type().erase());
+				MethodHandle generic = unreflectedSetter.asType(unreflectedSetter.type().generic().changeReturnType(void.class));
+				this.genericSetter = isStatic ? MethodHandles.dropArguments(generic, 0, Object.class) : generic;
+			}
+		}
+
+		/**
+		 * Getter handle with all reference types erased to Object, primitives are kept.
+		 * Store it in a static final field and call it with invokeExact.
+		 *
+		 * @return erased getter handle, receiver is the first parameter for non-static fields
+		 */
+		public MethodHandle getGetterHandle() {
+			return getter;
+		}
+
+		/**
+		 * @return erased setter handle or null if field can not be modified
+		 */
+		public MethodHandle getSetterHandle() {
+			return setter;
+		}
+
+		/**
+		 * get field value through method handle
+		 *
+		 * @param target
+		 * 			  applied object, ignored for static fields
+		 * @return value of field
+		 */
+		@SuppressWarnings("unchecked")
+		public T get(Object target) {
+			try {
+				return (T) (Object) genericGetter.invokeExact(target);
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		/**
+		 * set field value through method handle
+		 *
+		 * @param target
+		 * 			  applied object, ignored for static fields
+		 * @param value
+		 * 			  value
+		 */
+		public void set(Object target, T value) {
+			if (genericSetter == null) {
+				throw new RuntimeException("field is not modifiable: " + field);
+			}
+			try {
+				genericSetter.invokeExact(target, (Object) value);
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
 		}
 
 		/**
@@ -1245,4 +1440,159 @@ public class ReflectionUtils {
 
 	}
 
+	/**
+	 * Persistent cache of members found by {@link RefMethod#parse(String)} and {@link RefField#parse(String)}.<br>
+	 * Stores declaring class, name and parameter types of each resolved member,
+	 * so next startup can get it directly without scanning class hierarchy.
+	 */
+	public static class RefCache {
+
+		private static final String KEY_PROPERTY = "cache.key";
+
+		private final File file;
+		private final Properties entries = new Properties();
+		private int hits;
+		private int misses;
+
+		/**
+		 * @param file
+		 * 			  cache file
+		 * @param key
+		 * 			  cache key, cached entries are dropped if it differs from the stored one
+		 */
+		public RefCache(File file, String key) {
+			this.file = file;
+			if (file.isFile()) {
+				try (var reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+					Properties loaded = new Properties();
+					loaded.load(reader);
+					if (key.equals(loaded.getProperty(KEY_PROPERTY))) {
+						entries.putAll(loaded);
+					}
+				} catch (IOException e) {
+					Bukkit.getLogger().log(Level.WARNING, "can not read " + file, e);
+				}
+			}
+			entries.setProperty(KEY_PROPERTY, key);
+		}
+
+		/**
+		 * @return count of members resolved from cache
+		 */
+		public int getHits() {
+			return hits;
+		}
+
+		/**
+		 * @return count of members resolved by scanning classes
+		 */
+		public int getMisses() {
+			return misses;
+		}
+
+		/**
+		 * same as {@link RefMethod#parse(String)}, but uses cache
+		 *
+		 * @param signature
+		 * 			  method signature
+		 * @return method
+		 */
+		public @NotNull RefMethod<?> parseMethod(@NotNull String signature) {
+			String[] coordinates = getCoordinates(signature, "method", 4);
+			if (coordinates != null) {
+				try {
+					Method method = typeByName(coordinates[1]).getDeclaredMethod(coordinates[2], typesByNames(coordinates[3]));
+					hits++;
+					return new RefMethod<>(method);
+				} catch (ReflectiveOperationException ignored) {
+				}
+			}
+			misses++;
+			RefMethod<?> result = RefMethod.parse(signature);
+			Method method = result.getRealMethod();
+			entries.setProperty(signature, String.join("\t", "method", method.getDeclaringClass().getName(),
+					method.getName(), namesOfTypes(method.getParameterTypes())));
+			return result;
+		}
+
+		/**
+		 * same as {@link RefField#parse(String)}, but uses cache
+		 *
+		 * @param signature
+		 * 			  field signature
+		 * @return field
+		 */
+		public @NotNull RefField<?> parseField(@NotNull String signature) {
+			String[] coordinates = getCoordinates(signature, "field", 3);
+			if (coordinates != null) {
+				try {
+					Field field = typeByName(coordinates[1]).getDeclaredField(coordinates[2]);
+					hits++;
+					return new RefField<>(field);
+				} catch (ReflectiveOperationException ignored) {
+				}
+			}
+			misses++;
+			RefField<?> result = RefField.parse(signature);
+			Field field = result.getRealField();
+			entries.setProperty(signature, String.join("\t", "field", field.getDeclaringClass().getName(), field.getName()));
+			return result;
+		}
+
+		/**
+		 * write cache to file if something was resolved without it
+		 */
+		public void save() {
+			if (misses == 0) {
+				return;
+			}
+			File parent = file.getParentFile();
+			if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+				return;
+			}
+			try (var writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+				entries.store(writer, "PowerNBT resolved hooks, delete this file to rescan");
+			} catch (IOException e) {
+				Bukkit.getLogger().log(Level.WARNING, "can not write " + file, e);
+			}
+		}
+
+		private String[] getCoordinates(String signature, String kind, int length) {
+			String value = entries.getProperty(signature);
+			if (value == null) {
+				return null;
+			}
+			String[] coordinates = value.split("\t", -1);
+			if (coordinates.length != length || !coordinates[0].equals(kind)) {
+				return null;
+			}
+			return coordinates;
+		}
+
+		private static Class<?> typeByName(String name) throws ClassNotFoundException {
+			Class<?> primitive = classPatterns.get(name);
+			if (primitive != null) {
+				return primitive;
+			}
+			return Class.forName(name, false, classLoader);
+		}
+
+		private static Class<?>[] typesByNames(String names) throws ClassNotFoundException {
+			if (names.isEmpty()) {
+				return new Class<?>[0];
+			}
+			String[] split = names.split(",");
+			Class<?>[] types = new Class<?>[split.length];
+			for (int i = 0; i < split.length; i++) {
+				types[i] = typeByName(split[i]);
+			}
+			return types;
+		}
+
+		private static String namesOfTypes(Class<?>[] types) {
+			return Arrays.stream(types).map(Class::getName).collect(Collectors.joining(","));
+		}
+
+	}
+
 }
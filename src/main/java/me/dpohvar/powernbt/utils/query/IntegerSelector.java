@@ -2,6 +2,7 @@ package me.dpohvar.powernbt.utils.query;
 
 import me.dpohvar.powernbt.api.NBTList;
 import me.dpohvar.powernbt.api.NBTManagerUtils;
+import me.dpohvar.powernbt.api.NBTMappedList;
 import me.dpohvar.powernbt.exception.NBTTagNotFound;
 import me.dpohvar.powernbt.nbt.NBTType;
 
@@ -69,9 +70,9 @@ public interface IntegerSelector extends QSelector {
 	int indexToDelete(int size);
 
 	@Override
-	default Object delete(Object current) throws NBTTagNotFound {
+	default Object delete(Object current, NBTQuery.Mode mode) throws NBTTagNotFound {
 		if (current instanceof Collection<?> col) {
-			List<?> list = cloneCollection(col);
+			List<?> list = cloneCollection(col, mode);
 			list.remove(indexToDelete(list.size()));
 			return list;
 		}
@@ -87,13 +88,13 @@ public interface IntegerSelector extends QSelector {
 	}
 
 	@Override
-	default Object set(Object current, Object value, boolean createDir) throws NBTTagNotFound {
+	default Object set(Object current, Object value, boolean createDir, NBTQuery.Mode mode) throws NBTTagNotFound {
 		if (current == null && createDir) {
 			current = new ArrayList<>();
 		}
 		if (current instanceof Collection<?> col) {
-			List<Object> resultList = cloneCollection(col);
-			putToFreeIndex(resultList, indexToSet(col.size()), value);
+			List<Object> resultList = cloneCollection(col, mode);
+			putToFreeIndex(resultList, indexToSet(col.size()), value, mode != NBTQuery.Mode.COPY);
 			return resultList;
 		}
 		if (current instanceof String s) {
@@ -105,14 +106,14 @@ public interface IntegerSelector extends QSelector {
 			}
 			return s + StringUtils.repeat(" ", length - index) + pasteValue;
 		}
-		Object array = NBTManagerUtils.modifyArray(current, list -> putToFreeIndex(list, indexToSet(list.size()), value));
+		Object array = NBTManagerUtils.modifyArray(current, list -> putToFreeIndex(list, indexToSet(list.size()), value, false));
 		if (array != null) {
 			return array;
 		}
 		throw new NBTTagNotFound(current, this.toString());
 	}
 
-	private static void putToFreeIndex(List<Object> list, int index, Object value) {
+	private static void putToFreeIndex(List<Object> list, int index, Object value, boolean shared) {
 		int selectIndex = index;
 		if (selectIndex < 0) {
 			selectIndex = list.size() - selectIndex;
@@ -121,7 +122,11 @@ public interface IntegerSelector extends QSelector {
 			throw new IndexOutOfBoundsException(selectIndex);
 		}
 		if (selectIndex < list.size()) {
-			list.set(selectIndex, value);
+			if (shared && list instanceof NBTList nbtList) {
+				nbtList.setShared(selectIndex, value);
+			} else {
+				list.set(selectIndex, value);
+			}
 			return;
 		}
 		int addDefaultCount = selectIndex - list.size();
@@ -137,13 +142,37 @@ public interface IntegerSelector extends QSelector {
 				list.add(defaultValue);
 			}
 		}
-		list.add(value);
+		if (shared && list instanceof NBTList nbtList) {
+			nbtList.addShared(value);
+		} else {
+			list.add(value);
+		}
 	}
 
 	public static List<Object> cloneCollection(Collection<?> col) {
 		if (col instanceof NBTList c) {
 			return c.clone();
 		}
+		if (col instanceof NBTMappedList c) {
+			return new NBTList(c); // mapped data is read-only
+		}
+		return new ArrayList<>(col);
+	}
+
+	/**
+	 * Get list to change: list itself in place, its deep copy in copy mode or its node copy in share mode
+	 */
+	static List<Object> cloneCollection(Collection<?> col, NBTQuery.Mode mode) {
+		if (col instanceof NBTList c) {
+			return switch (mode) {
+				case COPY -> c.clone();
+				case SHARE -> c.shallowClone();
+				case IN_PLACE -> c;
+			};
+		}
+		if (col instanceof NBTMappedList c) {
+			return new NBTList(c); // mapped data is read-only
+		}
 		return new ArrayList<>(col);
 	}
 
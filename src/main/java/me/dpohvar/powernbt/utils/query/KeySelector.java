@@ -1,6 +1,7 @@
 package me.dpohvar.powernbt.utils.query;
 
 import me.dpohvar.powernbt.api.NBTCompound;
+import me.dpohvar.powernbt.api.NBTMappedCompound;
 import me.dpohvar.powernbt.exception.NBTTagNotFound;
 import me.dpohvar.powernbt.utils.StringParser;
 
@@ -28,12 +29,12 @@ public record KeySelector(String key) implements QSelector {
 	}
 
 	@Override
-	public Object delete(Object current) throws NBTTagNotFound {
+	public Object delete(Object current, NBTQuery.Mode mode) throws NBTTagNotFound {
 		if (current instanceof Map<?, ?> map) {
 			if (!map.containsKey(key)) {
 				throw new NBTTagNotFound(current, this.toString());
 			}
-			Map<?, ?> resultMap = cloneMap(map);
+			Map<?, ?> resultMap = cloneMap(map, mode);
 			resultMap.remove(key);
 			return resultMap;
 		}
@@ -41,7 +42,7 @@ public record KeySelector(String key) implements QSelector {
 	}
 
 	@Override
-	public Object set(Object current, Object value, boolean createDir) throws NBTTagNotFound {
+	public Object set(Object current, Object value, boolean createDir, NBTQuery.Mode mode) throws NBTTagNotFound {
 		if (current == null && createDir) {
 			current = new HashMap<>();
 		}
@@ -50,16 +51,30 @@ public record KeySelector(String key) implements QSelector {
 			if (map.containsKey(key) && Objects.equals(prevValue, value)) {
 				return map;
 			}
-			Map resultMap = cloneMap(map);
-			resultMap.put(key, value);
+			Map resultMap = cloneMap(map, mode);
+			if (mode != NBTQuery.Mode.COPY && resultMap instanceof NBTCompound compound) {
+				compound.putShared(key, value);
+			} else {
+				resultMap.put(key, value);
+			}
 			return resultMap;
 		}
 		throw new NBTTagNotFound(current, this.toString());
 	}
 
-	private static Map<?, ?> cloneMap(Map<?, ?> map) {
+	/**
+	 * Get map to change: compound itself in place, its deep copy in copy mode or its node copy in share mode
+	 */
+	private static Map<?, ?> cloneMap(Map<?, ?> map, NBTQuery.Mode mode) {
 		if (map instanceof NBTCompound c) {
-			return c.clone();
+			return switch (mode) {
+				case COPY -> c.clone();
+				case SHARE -> c.shallowClone();
+				case IN_PLACE -> c;
+			};
+		}
+		if (map instanceof NBTMappedCompound c) {
+			return new NBTCompound(c); // mapped data is read-only
 		}
 		return new HashMap<>(map);
 	}
@@ -1,5 +1,6 @@
 package me.dpohvar.powernbt.utils.query;
 
+import me.dpohvar.powernbt.api.NBTBox;
 import me.dpohvar.powernbt.exception.NBTTagNotFound;
 import me.dpohvar.powernbt.exception.NBTTagUnexpectedType;
 import me.dpohvar.powernbt.utils.StringParser;
@@ -14,6 +15,25 @@ import static me.dpohvar.powernbt.PowerNBT.plugin;
 
 public class NBTQuery {
 
+	/**
+	 * How nodes of root are changed by {@link #set(Object, Object, Mode)} and {@link #remove(Object, Mode)}
+	 */
+	public enum Mode {
+		/**
+		 * Nodes on the query path are deep copies, result is independent of root
+		 */
+		COPY,
+		/**
+		 * Only nodes on the query path are copied, other nodes are shared by result and root.
+		 * Changes of shared nodes of result are visible in root
+		 */
+		SHARE,
+		/**
+		 * Nodes of root are modified, root should not be shared
+		 */
+		IN_PLACE
+	}
+
 	private final QSelector[] selectors;
 
 	public List<QSelector> getSelectors() {
@@ -190,24 +210,34 @@ public class NBTQuery {
 		return new LinkedList<>(Arrays.asList(this.selectors));
 	}
 
+	/**
+	 * Remove element selected by query, result is independent of root
+	 *
+	 * @param root
+	 * 			  root element, not modified
+	 * @return new root element
+	 */
 	public Object remove(Object root) throws NBTTagNotFound {
+		return remove(root, Mode.COPY);
+	}
+
+	/**
+	 * Remove element selected by query
+	 *
+	 * @param root
+	 * 			  root element
+	 * @param mode
+	 * 			  how nodes of root are changed
+	 * @return new root element or root itself
+	 */
+	public Object remove(Object root, Mode mode) throws NBTTagNotFound {
 		if (selectors.length == 0) {
 			return null;
 		}
-		QSelector[] tailSelectors = Arrays.copyOf(selectors, selectors.length - 1);
-		QSelector headSelector = selectors[selectors.length - 1];
-		LinkedList<Object> stepValues = new LinkedList<>();
-		stepValues.add(root);
-		for (QSelector selector : tailSelectors) {
-			Object current = selector.get(stepValues.getLast(), false);
-			stepValues.add(current);
-		}
-		Object reduceValue = headSelector.delete(stepValues.pollLast());
-		for (int i = tailSelectors.length - 1; i >= 0; i--) {
-			QSelector selector = tailSelectors[i];
-			reduceValue = selector.set(stepValues.pollLast(), reduceValue, false);
-		}
-		return reduceValue;
+		Object[] stepValues = getStepValues(root, false);
+		int last = selectors.length - 1;
+		Object reduceValue = selectors[last].delete(stepValues[last], mode);
+		return reduce(root, stepValues, last, reduceValue, false, mode);
 	}
 
 	public Object get(Object root) throws NBTTagNotFound {
@@ -218,22 +248,62 @@ public class NBTQuery {
 		return current;
 	}
 
+	/**
+	 * Set element selected by query, result is independent of root
+	 *
+	 * @param root
+	 * 			  root element, not modified
+	 * @param value
+	 * 			  value to set
+	 * @return new root element
+	 */
 	public Object set(Object root, Object value) throws RuntimeException, NBTTagNotFound, NBTTagUnexpectedType {
+		return set(root, value, Mode.COPY);
+	}
+
+	/**
+	 * Set element selected by query.<br>
+	 * Value is copied once if nodes are shared or changed in place
+	 *
+	 * @param root
+	 * 			  root element
+	 * @param value
+	 * 			  value to set
+	 * @param mode
+	 * 			  how nodes of root are changed
+	 * @return new root element or root itself
+	 */
+	public Object set(Object root, Object value, Mode mode) throws RuntimeException, NBTTagNotFound, NBTTagUnexpectedType {
 		if (selectors.length == 0) {
 			return null;
 		}
-		QSelector[] tailSelectors = Arrays.copyOf(selectors, selectors.length - 1);
-		QSelector headSelector = selectors[selectors.length - 1];
-		LinkedList<Object> stepValues = new LinkedList<>();
-		stepValues.add(root);
-		for (QSelector selector : tailSelectors) {
-			Object current = selector.get(stepValues.getLast(), true);
-			stepValues.add(current);
+		if (mode != Mode.COPY && value instanceof NBTBox box) {
+			value = box.clone();
+		}
+		Object[] stepValues = getStepValues(root, true);
+		int last = selectors.length - 1;
+		Object reduceValue = selectors[last].set(stepValues[last], value, true, mode);
+		return reduce(root, stepValues, last, reduceValue, true, mode);
+	}
+
+	private Object[] getStepValues(Object root, boolean useDefault) throws NBTTagNotFound {
+		Object[] stepValues = new Object[selectors.length];
+		stepValues[0] = root;
+		for (int i = 1; i < selectors.length; i++) {
+			stepValues[i] = selectors[i - 1].get(stepValues[i - 1], useDefault);
 		}
-		Object reduceValue = headSelector.set(stepValues.pollLast(), value, true);
-		for (int i = tailSelectors.length - 1; i >= 0; i--) {
-			QSelector selector = tailSelectors[i];
-			reduceValue = selector.set(stepValues.pollLast(), reduceValue, true);
+		return stepValues;
+	}
+
+	/**
+	 * link modified element back to its parents up to root
+	 */
+	private Object reduce(Object root, Object[] stepValues, int index, Object reduceValue, boolean createDir, Mode mode) throws NBTTagNotFound {
+		for (int i = index - 1; i >= 0; i--) {
+			if (mode == Mode.IN_PLACE && reduceValue == stepValues[i + 1]) {
+				return root; // parents already contain modified element
+			}
+			reduceValue = selectors[i].set(stepValues[i], reduceValue, createDir, mode);
 		}
 		return reduceValue;
 	}
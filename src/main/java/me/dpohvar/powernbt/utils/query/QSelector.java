@@ -14,16 +14,38 @@ public interface QSelector {
 	/**
 	 * delete next element by key
 	 *
-	 * @return current element
+	 * @return copy of current element
 	 */
-	public Object delete(Object current) throws NBTTagNotFound;
+	public default Object delete(Object current) throws NBTTagNotFound {
+		return delete(current, NBTQuery.Mode.COPY);
+	}
 
 	/**
 	 * delete next element by key
 	 *
-	 * @return current element
+	 * @param mode
+	 * 			  how current element is changed if it is mutable
+	 * @return current element or its copy
+	 */
+	public Object delete(Object current, NBTQuery.Mode mode) throws NBTTagNotFound;
+
+	/**
+	 * set next element by key
+	 *
+	 * @return copy of current element
+	 */
+	public default Object set(Object current, Object value, boolean createDir) throws NBTTagNotFound {
+		return set(current, value, createDir, NBTQuery.Mode.COPY);
+	}
+
+	/**
+	 * set next element by key, value is linked to shared or changed element as is
+	 *
+	 * @param mode
+	 * 			  how current element is changed if it is mutable
+	 * @return current element or its copy
 	 */
-	public Object set(Object current, Object value, boolean createDir) throws NBTTagNotFound;
+	public Object set(Object current, Object value, boolean createDir, NBTQuery.Mode mode) throws NBTTagNotFound;
 
 	public default String getSeparator(QSelector prevSelector) {
 		return null;
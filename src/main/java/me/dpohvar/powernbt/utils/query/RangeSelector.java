@@ -88,7 +88,7 @@ public record RangeSelector(Integer start, Integer end) implements QSelector {
 	}
 
 	@Override
-	public Object delete(Object current) throws NBTTagNotFound {
+	public Object delete(Object current, NBTQuery.Mode mode) throws NBTTagNotFound {
 		if (current instanceof String string) {
 			int a = fixedIndex(start, string.length());
 			int b = fixedIndex(end, string.length());
@@ -103,7 +103,7 @@ public record RangeSelector(Integer start, Integer end) implements QSelector {
 			return string.substring(0, a) + string.substring(b);
 		}
 		if (current instanceof Collection col) {
-			List<Object> list = IntegerSelector.cloneCollection(col);
+			List<Object> list = IntegerSelector.cloneCollection(col, mode);
 			boolean removed = this.clearRange(list);
 			if (removed) {
 				return list;
@@ -140,7 +140,7 @@ public record RangeSelector(Integer start, Integer end) implements QSelector {
 	}
 
 	@Override
-	public Object set(Object current, Object value, boolean createDir) throws NBTTagNotFound {
+	public Object set(Object current, Object value, boolean createDir, NBTQuery.Mode mode) throws NBTTagNotFound {
 		if (current instanceof String s) {
 			int a = fixedIndex(start, s.length());
 			int b = fixedIndex(end, s.length());
@@ -160,7 +160,7 @@ public record RangeSelector(Integer start, Integer end) implements QSelector {
 			return before + pasteValue + after;
 		}
 		if (current instanceof Collection col) {
-			List<Object> list = IntegerSelector.cloneCollection(col);
+			List<Object> list = IntegerSelector.cloneCollection(col, mode);
 			insertSubList(list, value);
 			return list;
 		}
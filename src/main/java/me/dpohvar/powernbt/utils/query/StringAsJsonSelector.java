@@ -26,7 +26,7 @@ public record StringAsJsonSelector() implements QSelector {
 	}
 
 	@Override
-	public Object delete(Object current) throws NBTTagNotFound {
+	public Object delete(Object current, NBTQuery.Mode mode) throws NBTTagNotFound {
 		if (current instanceof String) {
 			return "";
 		}
@@ -34,7 +34,7 @@ public record StringAsJsonSelector() implements QSelector {
 	}
 
 	@Override
-	public Object set(Object current, Object value, boolean createDir) throws NBTTagNotFound {
+	public Object set(Object current, Object value, boolean createDir, NBTQuery.Mode mode) throws NBTTagNotFound {
 		return PowerJSONParser.stringify(value);
 	}
 
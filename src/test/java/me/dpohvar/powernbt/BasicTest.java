@@ -1,14 +1,44 @@
 package me.dpohvar.powernbt;
 
+import me.dpohvar.powernbt.api.NBTCodec;
+import me.dpohvar.powernbt.api.NBTCompound;
+import me.dpohvar.powernbt.api.NBTList;
+import me.dpohvar.powernbt.api.NBTManager;
+import me.dpohvar.powernbt.api.NBTMappedCompound;
+import me.dpohvar.powernbt.api.NBTMappedList;
+import me.dpohvar.powernbt.api.NBTSearch;
+import me.dpohvar.powernbt.api.NBTStringWriter;
+import me.dpohvar.powernbt.api.NBTTagFactory;
+import me.dpohvar.powernbt.api.NBTValidator;
+import me.dpohvar.powernbt.exception.NBTConvertException;
 import me.dpohvar.powernbt.exception.NBTTagNotFound;
 import me.dpohvar.powernbt.exception.NBTTagUnexpectedType;
+import me.dpohvar.powernbt.exception.ParseException;
 import me.dpohvar.powernbt.nbt.NBTContainerValue;
+import me.dpohvar.powernbt.utils.NBTParser;
 import me.dpohvar.powernbt.utils.query.NBTQuery;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 public class BasicTest extends Assert {
 
@@ -117,4 +147,784 @@ public class BasicTest extends Assert {
         Object selected = qGet(value, "x[0].foo.bar#baz#[4]fiz");
         assertEquals(12.0, selected);
     }
+
+    @Test
+    public void testStandaloneReadWrite() throws IOException {
+        LinkedHashMap<String, Object> value = new LinkedHashMap<>();
+        value.put("byte", (byte) 1);
+        value.put("long", 2L);
+        value.put("string", "text");
+        value.put("ints", new int[]{1, 2, 3});
+        value.put("list", Arrays.asList("a", "b"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NBTManager.getInstance().write(out, value);
+        Object result = NBTManager.getInstance().read(new ByteArrayInputStream(out.toByteArray()));
+        assertTrue(result instanceof NBTCompound);
+        NBTCompound compound = (NBTCompound) result;
+        assertEquals((byte) 1, compound.get("byte"));
+        assertEquals(2L, compound.get("long"));
+        assertEquals("text", compound.get("string"));
+        assertArrayEquals(new int[]{1, 2, 3}, compound.getIntArray("ints"));
+        assertEquals(Arrays.asList("a", "b"), compound.getList("list").toArrayList());
+    }
+
+    @Test
+    public void testValidatorRejectsCrossReferences() {
+        LinkedHashMap<String, Object> value = new LinkedHashMap<>();
+        value.put("self", value);
+        try {
+            new NBTCompound(value);
+            fail("cross-reference is not detected");
+        } catch (NBTConvertException ignored) {
+        }
+
+        LinkedHashMap<String, Object> child = new LinkedHashMap<>();
+        LinkedHashMap<String, Object> other = new LinkedHashMap<>();
+        value.clear();
+        value.put("a", child);
+        value.put("b", other); // equal but distinct maps are allowed
+        assertEquals(2, new NBTCompound(value).size());
+
+        NBTValidator validator = new NBTValidator(2, 100, 1000);
+        validator.validate(value);
+        child.put("deep", Collections.singletonList(1));
+        try {
+            validator.validate(value);
+            fail("depth limit is not checked");
+        } catch (NBTConvertException ignored) {
+        }
+    }
+
+    @Test
+    public void testMappedReaderMatchesEagerReader() throws IOException {
+        LinkedHashMap<String, Object> value = new LinkedHashMap<>();
+        value.put("name", "mapped");
+        value.put("strings", Arrays.asList("a", "bbb", "", "cccccc"));
+        value.put("compounds", Arrays.asList(Collections.singletonMap("x", 1), Collections.singletonMap("long name", "text"), Collections.emptyMap()));
+        value.put("lists", Arrays.asList(Arrays.asList(1, 2), Collections.emptyList(), Arrays.asList("x", "yy")));
+        value.put("ints", new int[]{1, 2, 3});
+        value.put("long", 5L);
+        NBTManager nbt = NBTManager.getInstance();
+        File file = File.createTempFile("mapped", ".nbt");
+        try {
+            nbt.write(file, value);
+            Object eager = nbt.read(file);
+            Object mapped = nbt.readMapped(file);
+            assertTrue(mapped instanceof NBTMappedCompound);
+            NBTMappedCompound compound = (NBTMappedCompound) mapped;
+            assertEquals("mapped", compound.get("name"));
+            assertEquals(5L, compound.get("long"));
+            assertNull(compound.get("missing"));
+            assertFalse(compound.containsKey("missing"));
+            assertArrayEquals(new int[]{1, 2, 3}, (int[]) compound.get("ints"));
+
+            NBTMappedList strings = (NBTMappedList) compound.get("strings");
+            assertEquals(Arrays.asList("a", "bbb", "", "cccccc"), strings);
+            assertEquals("cccccc", strings.get(3));
+            NBTMappedList compounds = (NBTMappedList) compound.get("compounds");
+            assertEquals("text", ((Map<?, ?>) compounds.get(1)).get("long name"));
+            assertTrue(((Map<?, ?>) compounds.get(2)).isEmpty());
+            NBTMappedList lists = (NBTMappedList) compound.get("lists");
+            assertEquals(Arrays.asList("x", "yy"), lists.get(2));
+
+            NBTStringWriter format = NBTStringWriter.COMPACT.withSortedKeys(true);
+            assertEquals(format.format(eager), format.format(mapped));
+            assertEquals(format.format(eager), format.format(nbt.readLazy(file)));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            nbt.write(out, mapped);
+            assertArrayEquals(Files.readAllBytes(file.toPath()), out.toByteArray());
+            out.reset();
+            nbt.write(out, Collections.singletonMap("copy", lists));
+            assertEquals(format.format(Collections.singletonMap("copy", lists)), format.format(nbt.read(new ByteArrayInputStream(out.toByteArray()))));
+
+            // detached views do not use the file
+            strings.detach();
+            Files.write(file.toPath(), new byte[0]);
+            assertEquals("cccccc", strings.get(3));
+            assertEquals(format.format(eager), format.format(mapped));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static String parseError(String value) {
+        try {
+            NBTParser.parse(value);
+        } catch (ParseException e) {
+            return e.getMessage().substring(0, e.getMessage().indexOf('\n'));
+        }
+        fail("no error in " + value);
+        return null;
+    }
+
+    @Test
+    public void testParserNumbers() {
+        assertEquals((byte) 1, NBTParser.parse("1b"));
+        assertEquals((short) -2, NBTParser.parse("-2S"));
+        assertEquals(3, NBTParser.parse("3"));
+        assertEquals(3, NBTParser.parse("+3i"));
+        assertEquals(4L, NBTParser.parse("4l"));
+        assertEquals(1.5f, NBTParser.parse("1.5f"));
+        assertEquals(1.5, NBTParser.parse("1.5"));
+        assertEquals(2.0, NBTParser.parse("2d"));
+        assertEquals(.5, NBTParser.parse(".5"));
+        assertEquals((byte) 1, NBTParser.parse("true"));
+        assertEquals((byte) 0, NBTParser.parse("FALSE"));
+
+        // exponent needs decimal point or suffix like in minecraft
+        assertEquals(1.5e5, NBTParser.parse("1.5e5"));
+        assertEquals(1e-3, NBTParser.parse("1.e-3"));
+        assertEquals(1e5, NBTParser.parse("1e5d"));
+        assertEquals(1e5f, NBTParser.parse("1E5f"));
+        assertEquals("1e5", NBTParser.parse("1e5"));
+        assertEquals("1e5b", NBTParser.parse("1e5b"));
+
+        // out of range or malformed numbers are strings
+        assertEquals("300b", NBTParser.parse("300b"));
+        assertEquals("3000000000", NBTParser.parse("3000000000"));
+        assertEquals("1.5b", NBTParser.parse("1.5b"));
+        assertEquals("1.2.3", NBTParser.parse("1.2.3"));
+        assertEquals("-", NBTParser.parse("-"));
+    }
+
+    @Test
+    public void testParserStrings() {
+        assertEquals("text", NBTParser.parse("text"));
+        assertEquals("minecraft:stone", NBTParser.parse("'minecraft:stone'"));
+        assertEquals("two words", NBTParser.parse("\"two words\""));
+        assertEquals("it's", NBTParser.parse("\"it's\""));
+        assertEquals("say \"hi\"", NBTParser.parse("'say \"hi\"'"));
+        assertEquals("a\"b'c\\d", NBTParser.parse("\"a\\\"b\\'c\\\\d\""));
+        assertEquals("line\nnext\ttab \u00e9", NBTParser.parse("\"line\\nnext\\ttab \\u00e9\""));
+        assertEquals("", NBTParser.parse("''"));
+        assertEquals("123", NBTParser.parse("\"123\""));
+
+        NBTCompound compound = (NBTCompound) NBTParser.parse("{\"quoted key\": 1, 'single': 2, plain.key_1-2+: 3}");
+        assertEquals(1, compound.get("quoted key"));
+        assertEquals(2, compound.get("single"));
+        assertEquals(3, compound.get("plain.key_1-2+"));
+    }
+
+    @Test
+    public void testParserArraysAndLists() {
+        assertArrayEquals(new byte[]{1, -2}, (byte[]) NBTParser.parse("[B; 1b, -2b]"));
+        assertArrayEquals(new int[]{1, 2, 3}, (int[]) NBTParser.parse("[I;1,2,3]"));
+        assertArrayEquals(new long[]{1, 2}, (long[]) NBTParser.parse("[L;1L,2]"));
+        assertArrayEquals(new int[0], (int[]) NBTParser.parse("[I;]"));
+
+        // plain list of numbers is list like in minecraft, not array
+        Object list = NBTParser.parse("[1,2,3]");
+        assertTrue(list instanceof NBTList);
+        assertEquals(Arrays.asList(1, 2, 3), ((NBTList) list).toArrayList());
+        assertTrue(((NBTList) NBTParser.parse("[]")).isEmpty());
+        assertEquals(Arrays.asList("a", "b c"), ((NBTList) NBTParser.parse("[a, \"b c\"]")).toArrayList());
+
+        // legacy arrays
+        assertArrayEquals(new byte[]{1, 2}, (byte[]) NBTParser.parse("[1,2]b"));
+        assertArrayEquals(new int[]{1, 2}, (int[]) NBTParser.parse("[1,2]I"));
+        assertArrayEquals(new long[]{1, 2}, (long[]) NBTParser.parse("[1,2]l"));
+    }
+
+    @Test
+    public void testParserNesting() {
+        NBTCompound compound = (NBTCompound) NBTParser.parse(
+                "{id:\"minecraft:chest\",Items:[{Slot:0b,id:\"minecraft:stone\",tag:{display:{Lore:[\"a\",\"b\"]}}}],"
+                        + "Pos:[1.0d,2.0d,3.0d],Empty:{},Nested:[[1,2],[3]]}");
+        assertEquals("minecraft:chest", compound.get("id"));
+        NBTCompound item = (NBTCompound) compound.getList("Items").get(0);
+        assertEquals((byte) 0, item.get("Slot"));
+        NBTCompound display = item.getCompound("tag").getCompound("display");
+        assertEquals(Arrays.asList("a", "b"), display.getList("Lore").toArrayList());
+        assertEquals(Arrays.asList(1.0, 2.0, 3.0), compound.getList("Pos").toArrayList());
+        assertTrue(compound.getCompound("Empty").isEmpty());
+        assertEquals(Arrays.asList(3), ((NBTList) compound.getList("Nested").get(1)).toArrayList());
+        assertEquals(compound, NBTParser.parse(NBTStringWriter.COMPACT.format(compound)));
+
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            deep.append('[');
+        }
+        try {
+            NBTParser.parse(deep.toString());
+            fail("depth limit is not checked");
+        } catch (ParseException e) {
+            assertTrue(e.getMessage().endsWith("depth is more than 512"));
+        }
+    }
+
+    @Test
+    public void testParserErrors() {
+        assertEquals(" at [1:5]", parseError("{a:1"));
+        assertEquals(" at [1:4]", parseError("{a 1}"));
+        assertEquals(" at [1:4]", parseError("{a:\"x}"));
+        assertEquals(" at [1:6]", parseError("[B;1,300]"));
+        assertEquals(" at [1:4]", parseError("[I;1.5]"));
+        assertEquals(" at [1:6]", parseError("{a:1}}"));
+        assertEquals(" at [1:2]", parseError("{:1}"));
+        assertEquals(" at [1:5]", parseError("[1, {a:1}]"));
+        assertEquals(" at [2:4]", parseError("{a:1,\n b c}"));
+        assertEquals(" at [1:6]", parseError("{a:1,,b:2}"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testParserDeprecatedDelegate() {
+        assertEquals(NBTParser.parse("{a:[1,2]}"), NBTParser.parser("", "{a:[1,2]}").parse());
+    }
+
+    @Test
+    public void testConcurrentReadsOfViews() throws Exception {
+        NBTCompound root = new NBTCompound();
+        for (int i = 0; i < 40; i++) {
+            root.compound("c" + i).put("v", i);
+            root.list("l" + i).add(new NBTCompound(Collections.singletonMap("v", i)));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    for (int n = 0; n < 200; n++) {
+                        for (int i = 0; i < 40; i++) {
+                            if (!Integer.valueOf(i).equals(root.getCompound("c" + i).get("v"))) {
+                                return false;
+                            }
+                            if (!Integer.valueOf(i).equals(((NBTCompound) root.getList("l" + i).get(0)).get("v"))) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        root.getCompound("c1").put("v", 100);
+        assertSame(root.getCompound("c1"), root.getCompound("c1"));
+        assertEquals(100, root.getCompound("c1").get("v"));
+        root.put("c1", Collections.singletonMap("v", 101));
+        assertEquals(101, root.getCompound("c1").get("v"));
+        root.remove("c2");
+        assertNull(root.getCompound("c2"));
+    }
+
+    /**
+     * Input which counts skipped bytes, so bytes decoded by reader are known
+     */
+    private static class SkipCountingInput extends ByteArrayInputStream {
+
+        private long skipped;
+
+        SkipCountingInput(byte[] data) {
+            super(data);
+        }
+
+        @Override
+        public synchronized long skip(long n) {
+            long result = super.skip(n);
+            skipped += result;
+            return result;
+        }
+
+        long decoded() {
+            return pos - skipped;
+        }
+
+    }
+
+    @Test
+    public void testQueryReaderPushdown() throws IOException, NBTTagNotFound {
+        NBTCompound value = new NBTCompound();
+        NBTList recipes = value.list("recipes");
+        for (int i = 0; i < 1000; i++) {
+            recipes.add("minecraft:recipe_" + i);
+        }
+        NBTList items = value.list("items");
+        for (int i = 0; i < 10; i++) {
+            items.add(new NBTCompound(Collections.singletonMap("id", "item" + i)));
+        }
+        value.put("ints", new int[]{1, 2, 3});
+        value.put("numbers", Arrays.asList(10L, 20L, 30L));
+        value.put("name", "player");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NBTManager nbt = NBTManager.getInstance();
+        nbt.write(out, value);
+        byte[] data = out.toByteArray();
+
+        for (String query : Arrays.asList("name", "items[3].id", "items[-1].id", "numbers[1]", "recipes[999]", "ints[1]", "items[2]", "name#[0]", "")) {
+            SkipCountingInput input = new SkipCountingInput(data);
+            Object selected = nbt.read(new DataInputStream(input), NBTQuery.fromString(query));
+            assertEquals(query, qGet(value, query), selected);
+            if (!query.isEmpty() && !query.startsWith("recipes")) {
+                // only length prefixes of skipped strings are decoded
+                assertTrue(query + " decoded " + input.decoded() + " bytes", input.decoded() * 5 < data.length);
+            }
+        }
+        for (String query : Arrays.asList("missing", "items[10]", "name.key", "items[0].missing")) {
+            try {
+                nbt.read(new DataInputStream(new ByteArrayInputStream(data)), NBTQuery.fromString(query));
+                fail(query);
+            } catch (NBTTagNotFound ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void testBinaryWriterTypeRules() throws IOException {
+        LinkedHashMap<Object, Object> value = new LinkedHashMap<>();
+        value.put("bool", true);
+        value.put("char", 'A');
+        value.put("short", (short) 7);
+        value.put("float", 1.5f);
+        value.put("mixed", Arrays.asList(1, 2.7f, (short) 3, 4L));
+        value.put("array", new Object[]{"a", "b"});
+        value.put("leadingNulls", Arrays.asList(null, null, "x", "y"));
+        value.put("onlyNulls", Arrays.asList(null, null));
+        value.put("empty", Collections.emptyList());
+        value.put("skipped", null);
+        value.put(5, "number key");
+        value.put("bytes", new byte[]{1, 2});
+        value.put("longs", new long[]{3L});
+        NBTManager nbt = NBTManager.getInstance();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        nbt.write(out, value);
+        NBTCompound read = (NBTCompound) nbt.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals((byte) 1, read.get("bool"));
+        assertEquals((byte) 'A', read.get("char"));
+        assertEquals((short) 7, read.get("short"));
+        assertEquals(1.5f, read.get("float"));
+        assertEquals(Arrays.asList(1, 2, 3, 4), read.getList("mixed").toArrayList());
+        assertEquals(Arrays.asList("a", "b"), read.getList("array").toArrayList());
+        assertEquals(Arrays.asList("x", "y"), read.getList("leadingNulls").toArrayList());
+        assertTrue(read.getList("onlyNulls").isEmpty());
+        assertTrue(read.getList("empty").isEmpty());
+        assertFalse(read.containsKey("skipped"));
+        assertEquals("number key", read.get("5"));
+        assertArrayEquals(new byte[]{1, 2}, (byte[]) read.get("bytes"));
+        assertArrayEquals(new long[]{3L}, (long[]) read.get("longs"));
+
+        // same data as writing of converted tag
+        value.remove("leadingNulls");
+        value.remove("onlyNulls");
+        ByteArrayOutputStream tagOut = new ByteArrayOutputStream();
+        nbt.write(tagOut, new NBTCompound(value));
+        read.remove("leadingNulls");
+        read.remove("onlyNulls");
+        assertEquals(read, nbt.read(new ByteArrayInputStream(tagOut.toByteArray())));
+
+        try {
+            nbt.write(new ByteArrayOutputStream(), Collections.singletonMap("bad", new Object()));
+            fail("value of unknown type is written");
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    @Test
+    public void testSearchContains() {
+        NBTCompound chest = new NBTCompound();
+        chest.put("id", "minecraft:chest");
+        chest.put("Items", new NBTList(List.of(
+                Map.of("id", "minecraft:stone", "Count", (byte) 64, "Slot", (byte) 0),
+                Map.of("id", "minecraft:shulker_box", "Count", (byte) 1, "tag", Map.of("BlockEntityTag", Map.of("Items", List.of(
+                        Map.of("id", "minecraft:diamond", "Count", (byte) 3, "Slot", (byte) 2)
+                ))))
+        )));
+        chest.put("Colors", new int[]{1, 2, 3});
+
+        // equality and nested values
+        assertTrue(NBTSearch.contains("minecraft:chest").test(chest));
+        assertTrue(NBTSearch.contains("minecraft:diamond").test(chest));
+        assertTrue(NBTSearch.contains((byte) 3).test(chest));
+        assertFalse(NBTSearch.contains(3).test(chest));
+        assertFalse(NBTSearch.contains("minecraft:gold").test(chest));
+
+        // compound pattern is subset of compound
+        assertTrue(NBTSearch.contains(Map.of("id", "minecraft:diamond", "Count", (byte) 3)).test(chest));
+        assertFalse(NBTSearch.contains(Map.of("id", "minecraft:diamond", "Count", (byte) 4)).test(chest));
+        assertFalse(NBTSearch.contains(Map.of("id", "minecraft:diamond", "Damage", 0)).test(chest));
+        assertTrue(NBTSearch.contains(Map.of()).test(chest));
+        assertFalse(NBTSearch.contains(Map.of()).test("minecraft:chest"));
+
+        // list pattern needs matching element for every element of pattern
+        Predicate<Object> stoneAndShulker = NBTSearch.contains(List.of(
+                Map.of("id", "minecraft:shulker_box"),
+                Map.of("id", "minecraft:stone")
+        ));
+        assertTrue(stoneAndShulker.test(chest));
+        assertFalse(NBTSearch.contains(List.of(Map.of("id", "minecraft:stone"), Map.of("id", "minecraft:dirt"))).test(chest));
+        assertFalse(NBTSearch.contains(List.of("minecraft:chest")).test(chest));
+
+        // arrays are compared by content
+        assertTrue(NBTSearch.contains(new int[]{1, 2, 3}).test(chest));
+        assertFalse(NBTSearch.contains(new int[]{1, 2}).test(chest));
+        assertFalse(NBTSearch.contains(new long[]{1, 2, 3}).test(chest));
+
+        // plain maps and lists are searched too
+        assertTrue(NBTSearch.contains("minecraft:diamond").test(chest.toHashMap()));
+        assertFalse(NBTSearch.contains("minecraft:diamond").test(null));
+    }
+
+    private static byte[] encode(NBTCodec codec, byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream encoded = codec.encode(out)) {
+            encoded.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static NBTCodec.Type detect(byte[] data) throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(data);
+        NBTCodec.Type type = NBTCodec.detect(in).type();
+        assertEquals("stream is consumed", data.length, in.available());
+        return type;
+    }
+
+    @Test
+    public void testCodecDetect() throws IOException {
+        ByteArrayOutputStream nbtOut = new ByteArrayOutputStream();
+        NBTManager.getInstance().write(nbtOut, Map.of("id", "minecraft:stone"));
+        byte[] nbt = nbtOut.toByteArray();
+        byte[] json = "{\"id\":\"minecraft:stone\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] jsonList = "[1,2]".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(NBTCodec.Type.RAW, detect(nbt));
+        assertEquals(NBTCodec.Type.RAW, detect(json));
+        assertEquals(NBTCodec.Type.RAW, detect(jsonList));
+        assertEquals(NBTCodec.Type.RAW, detect(new byte[0]));
+        assertEquals(NBTCodec.Type.RAW, detect(new byte[]{0x1F}));
+        assertEquals(NBTCodec.Type.RAW, detect(new byte[]{0x78}));
+        assertEquals(NBTCodec.Type.RAW, detect(new byte[]{0x78, 0x00}));
+        assertEquals(NBTCodec.Type.GZIP, detect(encode(NBTCodec.GZIP, nbt)));
+        assertEquals(NBTCodec.Type.GZIP, detect(encode(NBTCodec.GZIP, json)));
+        for (int level = -1; level <= 9; level++) {
+            assertEquals("level " + level, NBTCodec.Type.ZLIB, detect(encode(NBTCodec.ZLIB.withLevel(level), nbt)));
+        }
+
+        // decompression in single pass
+        for (NBTCodec codec : List.of(NBTCodec.RAW, NBTCodec.GZIP, NBTCodec.ZLIB)) {
+            for (byte[] data : List.of(nbt, json)) {
+                byte[] encoded = encode(codec, data);
+                try (InputStream in = NBTCodec.decodeDetected(new ByteArrayInputStream(encoded))) {
+                    assertArrayEquals(data, in.readAllBytes());
+                }
+                File file = File.createTempFile("codec", ".dat");
+                try {
+                    Files.write(file.toPath(), encoded);
+                    try (InputStream in = NBTCodec.decodeDetected(file)) {
+                        assertArrayEquals(data, in.readAllBytes());
+                    }
+                } finally {
+                    file.delete();
+                }
+            }
+        }
+        assertEquals("minecraft:stone", ((Map<?, ?>) NBTManager.getInstance().read(
+                NBTCodec.decodeDetected(new ByteArrayInputStream(encode(NBTCodec.GZIP, nbt))))).get("id"));
+
+        try {
+            NBTCodec.ZLIB.withLevel(10);
+            fail("wrong level is accepted");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @Test
+    public void testStringWriterEscaping() throws ParseException {
+        NBTStringWriter compact = NBTStringWriter.COMPACT;
+        assertEquals("\"a\\\"b\\\\c\"", compact.format("a\"b\\c"));
+        assertEquals("\"\"", compact.format(""));
+        assertEquals("\"it's\"", compact.format("it's"));
+
+        LinkedHashMap<String, Object> keys = new LinkedHashMap<>();
+        keys.put("plain_key-1.0+", 1);
+        keys.put("with space", 2);
+        keys.put("", 3);
+        keys.put("quote\"", 4);
+        keys.put("skipped", null);
+        assertEquals("{plain_key-1.0+:1,\"with space\":2,\"\":3,\"quote\\\"\":4}", compact.format(keys));
+        keys.remove("skipped");
+        keys.put("value", "back\\slash \"quoted\"");
+        assertEquals(new NBTCompound(keys), NBTParser.parse(compact.format(keys)));
+    }
+
+    @Test
+    public void testStringWriterModes() {
+        LinkedHashMap<String, Object> value = new LinkedHashMap<>();
+        value.put("list", Arrays.asList(1, null, 2));
+        value.put("empty", Map.of());
+        value.put("ints", new int[]{1, 2});
+        value.put("byte", (byte) 5);
+        assertEquals("{list:[1,2],empty:{},ints:[I;1,2],byte:5b}", NBTStringWriter.COMPACT.format(value));
+        assertEquals("{byte:5b,empty:{},ints:[I;1,2],list:[1,2]}", NBTStringWriter.COMPACT.withSortedKeys(true).format(value));
+        assertEquals("{\n    list: [\n        1,\n        2\n    ],\n    empty: {},\n    ints: [I; 1, 2],\n    byte: 5b\n}",
+                NBTStringWriter.PRETTY.format(value));
+        assertEquals("[]", NBTStringWriter.PRETTY.format(List.of()));
+        assertEquals("[1L,2.5f,3.0d,4s,[B;1B],[L;7L]]", NBTStringWriter.COMPACT.format(
+                List.of(1L, 2.5f, 3.0d, (short) 4, new byte[]{1}, new long[]{7L})));
+    }
+
+    @Test
+    public void testStringWriterBudget() throws IOException {
+        LinkedHashMap<String, Object> value = new LinkedHashMap<>();
+        value.put("id", "minecraft:diamond_sword");
+        value.put("tag", Map.of("Lore", List.of("first \"line\"", "second line"), "Damage", 5));
+        String full = NBTStringWriter.COMPACT.format(value);
+        assertEquals(full, NBTStringWriter.COMPACT.withMaxLength(full.length()).format(value));
+        assertNull(NBTStringWriter.COMPACT.withMaxLength(full.length() - 1).format(value));
+        assertNull(NBTStringWriter.COMPACT.withMaxLength(0).format(""));
+
+        // output is cut inside budget
+        for (int maxLength = 0; maxLength < full.length(); maxLength++) {
+            StringBuilder out = new StringBuilder();
+            assertFalse(NBTStringWriter.COMPACT.withMaxLength(maxLength).write(value, out));
+            assertTrue(out.length() <= maxLength);
+            assertTrue(full.startsWith(out.toString()));
+        }
+
+        // budget stops writing of large value
+        List<Object> large = Collections.nCopies(1_000_000, "element");
+        StringBuilder out = new StringBuilder();
+        assertFalse(NBTStringWriter.COMPACT.withMaxLength(255).write(large, out));
+        assertTrue(out.length() <= 255);
+
+        try {
+            NBTStringWriter.COMPACT.withMaxLength(-1);
+            fail("negative length budget is accepted");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @Test
+    public void testTagFactory() throws ParseException {
+        NBTTagFactory factory = NBTTagFactory.getDefault();
+        NBTManager nbt = NBTManager.getInstance();
+        assertEquals((byte) 1, nbt.getValueOfTag(factory.createByte((byte) 1)));
+        assertEquals((short) 2, nbt.getValueOfTag(factory.createShort((short) 2)));
+        assertEquals(3, nbt.getValueOfTag(factory.createInt(3)));
+        assertEquals(4L, nbt.getValueOfTag(factory.createLong(4L)));
+        assertEquals(5.5f, nbt.getValueOfTag(factory.createFloat(5.5f)));
+        assertEquals(6.5d, nbt.getValueOfTag(factory.createDouble(6.5d)));
+        assertEquals("seven", nbt.getValueOfTag(factory.createString("seven")));
+        assertArrayEquals(new byte[]{8}, (byte[]) nbt.getValueOfTag(factory.createByteArray(new byte[]{8})));
+        assertArrayEquals(new int[]{9}, (int[]) nbt.getValueOfTag(factory.createIntArray(new int[]{9})));
+        assertArrayEquals(new long[]{10L}, (long[]) nbt.getValueOfTag(factory.createLongArray(new long[]{10L})));
+
+        // tags are put without copy
+        Object compound = factory.createCompound();
+        Object list = factory.createList();
+        factory.put(compound, "list", list);
+        factory.add(list, factory.createInt(1));
+        factory.add(list, factory.createShort((short) 2));
+        factory.add(list, factory.createString("3"));
+        NBTCompound wrapped = (NBTCompound) nbt.getValueOfTag(compound);
+        assertEquals(Arrays.asList(1, 2, 3), wrapped.getList("list").toArrayList());
+        assertSame(list, wrapped.getList("list").getHandle());
+
+        Object compounds = factory.createList();
+        Object first = factory.createCompound();
+        factory.put(first, "id", factory.createString("minecraft:stone"));
+        factory.add(compounds, first);
+        factory.add(compounds, factory.createCompound());
+        assertEquals(List.of(Map.of("id", "minecraft:stone"), Map.of()), ((NBTList) nbt.getValueOfTag(compounds)).toArrayList());
+
+        // tags which can not be converted to type of list
+        for (Object tag : List.of(factory.createCompound(), factory.createString("x"))) {
+            try {
+                factory.add(list, tag);
+                fail("tag is added to int list");
+            } catch (RuntimeException ignored) {
+            }
+        }
+        assertEquals(3, wrapped.getList("list").size());
+
+        assertEquals(NBTParser.parse("{a:[1,2s],b:[B;1B],c:{d:\"e\"}}"),
+                nbt.getValueOfTag(NBTParser.parseTag("{a:[1,2s],b:[B;1B],c:{d:\"e\"}}", factory)));
+    }
+
+    @Test
+    public void testQueryEditModes() throws NBTTagNotFound, NBTTagUnexpectedType {
+        NBTCompound root = new NBTCompound();
+        root.put("a", Map.of("b", Map.of("c", 1), "other", Map.of("d", 2)));
+        root.put("list", List.of(Map.of("e", 3), Map.of("f", 4)));
+        NBTCompound original = root.clone();
+
+        // default mode copies all nodes, result is independent of root
+        for (NBTCompound result : List.of(
+                (NBTCompound) NBTQuery.fromString("a.b.c").set(root, 5),
+                (NBTCompound) NBTQuery.fromString("a.b").remove(root),
+                (NBTCompound) NBTQuery.fromString("list[0].e").set(root, 6)
+        )) {
+            result.getCompound("a").getCompound("other").put("d", 100);
+            ((NBTCompound) result.getList("list").get(1)).put("f", 100);
+        }
+        assertEquals(original, root);
+
+        // share mode copies only the path
+        NBTCompound shared = (NBTCompound) NBTQuery.fromString("a.b.c").set(root, 5, NBTQuery.Mode.SHARE);
+        assertEquals(5, shared.getCompound("a").getCompound("b").get("c"));
+        assertEquals(1, root.getCompound("a").getCompound("b").get("c"));
+        shared.getCompound("a").getCompound("other").put("d", 100);
+        assertEquals(100, root.getCompound("a").getCompound("other").get("d"));
+        NBTCompound removed = (NBTCompound) NBTQuery.fromString("list[0]").remove(root, NBTQuery.Mode.SHARE);
+        assertEquals(2, root.getList("list").size());
+        assertEquals(1, removed.getList("list").size());
+        ((NBTCompound) removed.getList("list").get(0)).put("f", 100);
+        assertEquals(100, ((NBTCompound) root.getList("list").get(1)).get("f"));
+
+        // value is copied once in share mode
+        NBTCompound value = new NBTCompound(Map.of("x", 1));
+        shared = (NBTCompound) NBTQuery.fromString("a.v").set(root, value, NBTQuery.Mode.SHARE);
+        value.put("x", 2);
+        assertEquals(1, shared.getCompound("a").getCompound("v").get("x"));
+
+        // in place mode changes root
+        assertSame(root, NBTQuery.fromString("a.b.c").set(root, 7, NBTQuery.Mode.IN_PLACE));
+        assertEquals(7, root.getCompound("a").getCompound("b").get("c"));
+        assertSame(root, NBTQuery.fromString("list[0]").remove(root, NBTQuery.Mode.IN_PLACE));
+        assertEquals(1, root.getList("list").size());
+    }
+
+    @Test
+    public void testLazyClone() throws NBTTagNotFound, NBTTagUnexpectedType {
+        NBTCompound source = new NBTCompound();
+        source.put("a", Map.of("b", Map.of("c", 1), "other", Map.of("d", 2)));
+        source.put("list", List.of(Map.of("e", 3), Map.of("f", 4)));
+        NBTCompound original = source.clone();
+
+        // clone shares tags until they are changed
+        NBTCompound clone = source.lazyClone();
+        assertSame(source.getHandle(), clone.getHandle());
+        NBTCompound b = clone.getCompound("a").getCompound("b");
+        assertSame(b, clone.getCompound("a").getCompound("b"));
+        b.put("c", 5);
+        assertEquals(original, source);
+        assertEquals(5, clone.getCompound("a").getCompound("b").get("c"));
+        assertSame(b, clone.getCompound("a").getCompound("b"));
+
+        // only the changed path is copied
+        Map<String, Object> sourceA = source.getCompound("a").getHandleMap();
+        Map<String, Object> cloneA = clone.getCompound("a").getHandleMap();
+        assertNotSame(source.getHandle(), clone.getHandle());
+        assertNotSame(sourceA.get("b"), cloneA.get("b"));
+        assertSame(sourceA.get("other"), cloneA.get("other"));
+        assertSame(source.getHandleMap().get("list"), clone.getHandleMap().get("list"));
+
+        // views of lists, iterators, removed values and created children are copy-on-write
+        ((NBTCompound) clone.getList("list").get(1)).put("f", 100);
+        for (Object element : clone.getList("list")) {
+            ((NBTCompound) element).put("g", 0);
+        }
+        ((NBTCompound) clone.getCompound("a").remove("other")).put("d", 100);
+        clone.compound("new").put("x", 1);
+        clone.getCompound("new").put("y", 2);
+        NBTQuery.fromString("a.b.c").set(clone, 6, NBTQuery.Mode.IN_PLACE);
+        assertEquals(original, source);
+        assertEquals(NBTParser.parse("{a:{b:{c:6}},list:[{e:3,g:0},{f:100,g:0}],new:{x:1,y:2}}"), clone);
+
+        // tags of clone linked into other compound are copied
+        NBTCompound target = new NBTCompound();
+        NBTCompound sharedList = source.lazyClone();
+        target.putShared("list", sharedList.getList("list"));
+        target.getList("list").add(Map.of("h", 5));
+        assertEquals(original, source);
+
+        // clone of lazy clone is independent
+        NBTCompound copy = clone.clone();
+        copy.getCompound("a").getCompound("b").put("c", 7);
+        assertEquals(6, clone.getCompound("a").getCompound("b").get("c"));
+        NBTList list = source.getList("list").lazyClone();
+        list.add(Map.of("i", 6));
+        list.remove(0);
+        assertEquals(original, source);
+        assertEquals(2, list.size());
+    }
+
+    @Test
+    public void testUnboxedAccessors() {
+        NBTCompound compound = new NBTCompound();
+        assertSame(compound, compound.putInt("i", 5).putDouble("d", 2.75));
+        assertEquals(5, compound.get("i"));
+        assertEquals(2.75, compound.get("d"));
+        assertEquals(5, compound.getInt("i"));
+        assertEquals(2, compound.getInt("d"));
+        assertEquals(5.0, compound.getDouble("i"), 0);
+        compound.putInt("d", 7);
+        assertEquals(7, compound.get("d"));
+        assertEquals(0, compound.getInt("missing"));
+
+        // list of ints stores int tags directly
+        NBTList ints = new NBTList(List.of(1, 2, 3));
+        assertEquals(2, ints.getIntAt(1));
+        ints.setIntAt(1, 20);
+        assertEquals(List.of(1, 20, 3), ints);
+        assertEquals(20.0, ints.getDoubleAt(1), 0);
+
+        // other list types convert value to type of list
+        NBTList doubles = new NBTList(List.of(1.5, -2.5));
+        assertEquals(1, doubles.getIntAt(0));
+        assertEquals(-2, doubles.getIntAt(1));
+        doubles.setIntAt(0, 4);
+        assertEquals(List.of(4.0, -2.5), doubles);
+        NBTList longs = new NBTList(List.of(1L, 2L));
+        longs.setIntAt(1, 9);
+        assertEquals(List.of(1L, 9L), longs);
+        assertEquals(9, longs.getIntAt(1));
+
+        // value that can not be converted is rejected as by set
+        NBTList strings = new NBTList(List.of("a", "b"));
+        assertEquals(0, strings.getIntAt(0));
+        try {
+            strings.setIntAt(1, 9);
+            fail("int is stored in list of strings");
+        } catch (RuntimeException ignored) {
+        }
+        assertEquals(List.of("a", "b"), strings);
+    }
+
+    @Test
+    public void testBoxValuesAreCopied() {
+        NBTCompound source = new NBTCompound();
+        source.put("c", Map.of("x", 1));
+        source.put("l", List.of(1, 2));
+        NBTCompound original = source.clone();
+
+        // put, putAll and addAll copy tags of boxes
+        NBTCompound target = new NBTCompound();
+        target.put("box", source);
+        target.putAll(source);
+        target.getCompound("box").put("y", 2);
+        target.getCompound("c").put("x", 10);
+        target.getList("l").add(3);
+        assertEquals(original, source);
+        assertNotSame(source.getHandleMap().get("c"), target.getHandleMap().get("c"));
+
+        NBTList sourceList = new NBTList(List.of(Map.of("x", 1), Map.of("x", 2)));
+        NBTList originalList = sourceList.clone();
+        NBTList targetList = new NBTList();
+        targetList.addAll(sourceList);
+        targetList.addAll(0, sourceList);
+        assertEquals(4, targetList.size());
+        for (Object element : targetList) {
+            ((NBTCompound) element).put("x", 10);
+        }
+        assertEquals(originalList, sourceList);
+
+        // putShared and addShared link tags as is
+        NBTCompound shared = new NBTCompound();
+        shared.putShared("c", source.getCompound("c"));
+        assertSame(source.getHandleMap().get("c"), shared.getHandleMap().get("c"));
+        shared.getCompound("c").put("x", 20);
+        assertEquals(20, source.getCompound("c").get("x"));
+        NBTList sharedList = new NBTList();
+        sharedList.addShared(sourceList.get(0));
+        assertSame(sourceList.getHandleList().get(0), sharedList.getHandleList().get(0));
+        ((NBTCompound) sharedList.get(0)).put("x", 20);
+        assertEquals(20, ((NBTCompound) sourceList.get(0)).get("x"));
+    }
 }
@@ -0,0 +1,142 @@
+package me.dpohvar.powernbt.api;
+
+import me.dpohvar.powernbt.exception.NBTQueryException;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+
+public class NBTBatchEditTest extends Assert {
+
+    private static final Predicate<Object> BEDROCK = NBTSearch.contains(Map.of("id", "minecraft:bedrock"));
+
+    private static NBTCompound createPlayer(String... items) {
+        NBTCompound player = new NBTCompound();
+        NBTList inventory = new NBTList();
+        for (String item : items) {
+            inventory.add(new NBTCompound(Map.of("id", item, "Count", (byte) 1)));
+        }
+        player.put("Inventory", inventory);
+        player.put("Health", 20f);
+        return player;
+    }
+
+    private static List<String> diff(Object before, Object after) {
+        NBTBatchEdit.Diff diff = new NBTBatchEdit.Diff();
+        diff.compare("", before, after);
+        assertEquals(diff.changes.size(), Math.min(diff.count, 8));
+        return diff.changes;
+    }
+
+    @Test
+    public void testDiff() {
+        NBTCompound player = createPlayer("minecraft:stone", "minecraft:dirt");
+        assertEquals(List.of(), diff(player, player));
+        assertEquals(List.of(), diff(player, player.clone()));
+
+        NBTCompound changed = player.clone();
+        changed.put("Health", 10f);
+        changed.put("XpLevel", 5);
+        changed.remove("Inventory");
+        List<String> changes = diff(player, changed);
+        assertEquals(3, changes.size());
+        assertTrue(changes.containsAll(List.of("~Health", "+XpLevel", "-Inventory")));
+
+        NBTCompound item = player.clone();
+        ((NBTCompound) item.getList("Inventory").get(1)).put("id", "minecraft:sand");
+        assertEquals(List.of("~Inventory[1].id"), diff(player, item));
+
+        NBTCompound shorter = player.clone();
+        shorter.getList("Inventory").remove(0);
+        assertEquals(List.of("~Inventory (2 -> 1)"), diff(player, shorter));
+
+        assertEquals(List.of(), diff(Map.of("a", new int[]{1, 2}), Map.of("a", new int[]{1, 2})));
+        assertEquals(List.of("~a"), diff(Map.of("a", new int[]{1, 2}), Map.of("a", new int[]{1, 3})));
+    }
+
+    @Test
+    public void testDiffLimit() {
+        NBTCompound before = new NBTCompound();
+        NBTCompound after = new NBTCompound();
+        for (int i = 0; i < 20; i++) {
+            after.put("key" + i, i);
+        }
+        NBTBatchEdit.Diff diff = new NBTBatchEdit.Diff();
+        diff.compare("", before, after);
+        assertEquals(20, diff.count);
+        assertEquals(8, diff.changes.size());
+    }
+
+    @Test
+    public void testRemoveIf() throws NBTQueryException {
+        NBTBatchEdit.Edit strip = NBTBatchEdit.removeIf(NBTQuery.fromString("Inventory"), BEDROCK);
+
+        NBTCompound player = createPlayer("minecraft:stone", "minecraft:bedrock", "minecraft:dirt", "minecraft:bedrock");
+        Object edited = strip.apply(player);
+        assertNotSame(player, edited);
+        List<Object> ids = new ArrayList<>();
+        for (Object item : (List<?>) ((Map<?, ?>) edited).get("Inventory")) {
+            ids.add(((Map<?, ?>) item).get("id"));
+        }
+        assertEquals(List.of("minecraft:stone", "minecraft:dirt"), ids);
+        assertEquals(4, player.getList("Inventory").size());
+
+        NBTCompound clean = createPlayer("minecraft:stone");
+        assertSame(clean, strip.apply(clean));
+        NBTCompound empty = new NBTCompound();
+        assertSame(empty, strip.apply(empty));
+
+        NBTCompound compound = new NBTCompound();
+        compound.put("Slots", new NBTCompound(Map.of(
+                "a", Map.of("id", "minecraft:bedrock"),
+                "b", Map.of("id", "minecraft:stone")
+        )));
+        Object strippedCompound = NBTBatchEdit.removeIf(NBTQuery.fromString("Slots"), BEDROCK).apply(compound);
+        assertEquals(Map.of("b", Map.of("id", "minecraft:stone")), ((Map<?, ?>) strippedCompound).get("Slots"));
+    }
+
+    @Test
+    public void testEditFiles() throws IOException {
+        File folder = Files.createTempDirectory("playerdata").toFile();
+        NBTManager manager = NBTManager.getInstance();
+        File dirty = new File(folder, "dirty.dat");
+        File clean = new File(folder, "clean.dat");
+        File guarded = new File(folder, "guarded.dat");
+        manager.writeCompressed(dirty, createPlayer("minecraft:bedrock", "minecraft:stone"));
+        manager.writeCompressed(clean, createPlayer("minecraft:stone"));
+        manager.writeCompressed(guarded, createPlayer("minecraft:bedrock"));
+        new File(folder, "other.txt").createNewFile();
+        List<File> files = NBTBatchEdit.listFiles(folder);
+        assertEquals(3, files.size());
+        List<NBTBatchEdit.Edit> edits = List.of(NBTBatchEdit.removeIf(NBTQuery.fromString("Inventory"), BEDROCK));
+
+        NBTBatchEdit dryRun = new NBTBatchEdit(files, edits, true);
+        assertEquals(2, (int) dryRun.start(result -> {}, 2).join());
+        assertEquals(2, ((NBTCompound) manager.readCompressed(dirty)).getList("Inventory").size());
+
+        ConcurrentLinkedQueue<NBTBatchEdit.Result> results = new ConcurrentLinkedQueue<>();
+        NBTBatchEdit batch = new NBTBatchEdit(files, edits, false, file -> !file.equals(guarded), Runnable::run);
+        assertEquals(1, (int) batch.start(results::add, 2).join());
+        assertTrue(batch.isDone());
+        assertEquals(3, batch.getProcessedFiles());
+        assertEquals(1, batch.getSkippedFiles());
+        assertEquals(0, batch.getErrors());
+        assertEquals(2, results.size());
+        assertEquals(1, ((NBTCompound) manager.readCompressed(dirty)).getList("Inventory").size());
+        assertEquals(1, ((NBTCompound) manager.readCompressed(guarded)).getList("Inventory").size());
+        try {
+            batch.start(result -> {});
+            fail();
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+}
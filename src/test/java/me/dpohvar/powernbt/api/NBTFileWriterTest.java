@@ -0,0 +1,224 @@
+package me.dpohvar.powernbt.api;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+public class NBTFileWriterTest extends Assert {
+
+    private static NBTFileWriter.Output text(String text) {
+        return outputStream -> outputStream.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> listNames(File folder) {
+        String[] names = folder.list();
+        assertNotNull(names);
+        Arrays.sort(names);
+        return Arrays.asList(names);
+    }
+
+    @Test
+    public void testWriteReplacesFile() throws IOException {
+        File folder = Files.createTempDirectory("writer").toFile();
+        File file = new File(folder, "sub/data.dat");
+        NBTFileWriter writer = new NBTFileWriter();
+        writer.setBackups(0);
+        writer.write(file, text("first")).join();
+        assertEquals("first", read(file));
+        writer.write(file, text("second")).join();
+        assertEquals("second", read(file));
+        assertEquals(List.of("data.dat"), listNames(file.getParentFile()));
+    }
+
+    @Test
+    public void testBackups() throws IOException {
+        File folder = Files.createTempDirectory("writer").toFile();
+        File file = new File(folder, "data.dat");
+        NBTFileWriter writer = new NBTFileWriter();
+
+        writer.setBackups(0);
+        writer.write(file, text("v0")).join();
+        writer.write(file, text("v1")).join();
+        assertEquals(List.of("data.dat"), listNames(folder));
+
+        writer.setBackups(1);
+        writer.write(file, text("v2")).join();
+        writer.write(file, text("v3")).join();
+        assertEquals(List.of("data.dat", "data.dat.1.bak"), listNames(folder));
+        assertEquals("v2", read(new File(folder, "data.dat.1.bak")));
+
+        writer.setBackups(3);
+        for (int i = 4; i <= 7; i++) {
+            writer.write(file, text("v" + i)).join();
+        }
+        assertEquals(List.of("data.dat", "data.dat.1.bak", "data.dat.2.bak", "data.dat.3.bak"), listNames(folder));
+        assertEquals("v7", read(file));
+        assertEquals("v6", read(new File(folder, "data.dat.1.bak")));
+        assertEquals("v5", read(new File(folder, "data.dat.2.bak")));
+        assertEquals("v4", read(new File(folder, "data.dat.3.bak")));
+
+        try {
+            writer.setBackups(-1);
+            fail("negative count of backups is accepted");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @Test
+    public void testCommitOrder() throws IOException {
+        File folder = Files.createTempDirectory("writer").toFile();
+        File file = new File(folder, "data.dat");
+        NBTFileWriter writer = new NBTFileWriter();
+        writer.setBackups(19);
+        for (int i = 0; i < 20; i++) {
+            NBTFileWriter.Output output = text("v" + i);
+            if (i % 2 == 0) {
+                writer.write(file, output);
+            } else {
+                writer.writeAsync(file, output);
+            }
+        }
+        assertEquals("v19", writer.afterCommit(file, () -> {
+            try {
+                return read(file);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, Runnable::run).join());
+        writer.awaitAll();
+        // backups keep previous versions in order of commits
+        for (int i = 1; i < 20; i++) {
+            assertEquals("v" + (19 - i), read(new File(folder, "data.dat." + i + ".bak")));
+        }
+        assertEquals(20, listNames(folder).size());
+    }
+
+    @Test
+    public void testReaderSeesWholeFiles() throws Exception {
+        File folder = Files.createTempDirectory("writer").toFile();
+        File file = new File(folder, "data.dat");
+        NBTFileWriter writer = new NBTFileWriter();
+        writer.setBackups(0);
+        byte[][] versions = new byte[2][200_000];
+        Arrays.fill(versions[0], (byte) 'a');
+        Arrays.fill(versions[1], (byte) 'b');
+        writer.write(file, outputStream -> outputStream.write(versions[0])).join();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CompletableFuture<Integer> reader = CompletableFuture.supplyAsync(() -> {
+            int reads = 0;
+            while (running.get()) {
+                try {
+                    byte[] data = Files.readAllBytes(file.toPath());
+                    assertEquals(versions[0].length, data.length);
+                    assertTrue(Arrays.equals(versions[0], data) || Arrays.equals(versions[1], data));
+                    reads++;
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return reads;
+        });
+        for (int i = 0; i < 50; i++) {
+            byte[] version = versions[i % 2];
+            writer.write(file, outputStream -> {
+                outputStream.write(version, 0, version.length / 2);
+                outputStream.flush();
+                outputStream.write(version, version.length / 2, version.length - version.length / 2);
+            }).join();
+        }
+        running.set(false);
+        assertTrue(reader.get() > 0);
+    }
+
+    @Test
+    public void testTempFileIsDeletedOnFailure() throws IOException {
+        File folder = Files.createTempDirectory("writer").toFile();
+        File file = new File(folder, "data.dat");
+        NBTFileWriter writer = new NBTFileWriter();
+        writer.setBackups(0);
+        writer.write(file, text("valid")).join();
+
+        NBTFileWriter.Output failing = outputStream -> {
+            outputStream.write(1);
+            throw new IOException("broken value");
+        };
+        try {
+            writer.write(file, failing);
+            fail("failed output is committed");
+        } catch (IOException e) {
+            assertEquals("broken value", e.getMessage());
+        }
+        try {
+            writer.writeAsync(file, failing).join();
+            fail("failed async output is committed");
+        } catch (CompletionException e) {
+            assertEquals("broken value", e.getCause().getCause().getMessage());
+        }
+        assertEquals("valid", read(file));
+        assertEquals(List.of("data.dat"), listNames(folder));
+
+        // target can not be replaced by temp file
+        File busy = new File(folder, "busy");
+        assertTrue(new File(busy, "child").mkdirs());
+        try {
+            writer.write(busy, text("data")).join();
+            fail("directory is replaced");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+        }
+        assertEquals(List.of("busy", "data.dat"), listNames(folder));
+    }
+
+    @Test
+    public void testFailureIsLoggedWithoutServer() throws Exception {
+        File folder = Files.createTempDirectory("writer").toFile();
+        File busy = new File(folder, "busy");
+        assertTrue(new File(busy, "child").mkdirs());
+        CountDownLatch logged = new CountDownLatch(1);
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel() == Level.WARNING && record.getMessage().contains(busy.getPath())) {
+                    logged.countDown();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(NBTFileWriter.class.getName());
+        logger.addHandler(handler);
+        try {
+            new NBTFileWriter().writeAsync(busy, text("data"));
+            assertTrue(logged.await(10, TimeUnit.SECONDS));
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+}
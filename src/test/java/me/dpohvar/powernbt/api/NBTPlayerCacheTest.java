@@ -0,0 +1,106 @@
+package me.dpohvar.powernbt.api;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class NBTPlayerCacheTest extends Assert {
+
+    private static byte[] createPlayerData(int value) throws IOException {
+        NBTCompound compound = new NBTCompound();
+        compound.put("v", value);
+        compound.put("inv", new NBTList(List.of(Map.of("id", "a"))));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        NBTManager.getInstance().writeCompressed(outputStream, compound);
+        return outputStream.toByteArray();
+    }
+
+    private static File createPlayerFile(File folder, UUID uuid, int value) throws IOException {
+        File file = new File(folder, uuid + ".dat");
+        Files.write(file.toPath(), createPlayerData(value));
+        return file;
+    }
+
+    @Test
+    public void testReadCompoundReturnsCopy() throws IOException {
+        NBTPlayerCache cache = new NBTPlayerCache();
+        try {
+            UUID uuid = UUID.randomUUID();
+            File file = createPlayerFile(Files.createTempDirectory("players").toFile(), uuid, 1);
+            NBTCompound compound = cache.readCompound(uuid, file);
+            assertEquals(1, compound.get("v"));
+            // reads share cached tag until it is changed
+            assertSame(compound.getHandle(), cache.readCompound(uuid, file).getHandle());
+            compound.put("v", 2);
+            assertSame(cache.readCompound(uuid, file).getHandleMap().get("inv"), compound.getHandleMap().get("inv"));
+            ((NBTCompound) compound.getList("inv").get(0)).put("id", "b");
+            NBTCompound next = cache.readCompound(uuid, file);
+            assertEquals(1, next.get("v"));
+            assertEquals("a", ((NBTCompound) next.getList("inv").get(0)).get("id"));
+            assertNotSame(compound.getHandle(), next.getHandle());
+            assertTrue(cache.read(uuid, file) instanceof NBTMappedCompound);
+        } finally {
+            cache.clear();
+        }
+    }
+
+    @Test
+    public void testInvalidationByTimeAndSize() throws IOException {
+        NBTPlayerCache cache = new NBTPlayerCache();
+        try {
+            File folder = Files.createTempDirectory("players").toFile();
+            UUID uuid = UUID.randomUUID();
+            File file = createPlayerFile(folder, uuid, 1);
+            FileTime time = Files.getLastModifiedTime(file.toPath());
+            assertEquals(1, cache.readCompound(uuid, file).get("v"));
+
+            // other size, same time
+            Files.write(file.toPath(), createPlayerData(300));
+            Files.setLastModifiedTime(file.toPath(), time);
+            assertEquals(300, cache.readCompound(uuid, file).get("v"));
+
+            // same size, other time
+            Files.write(file.toPath(), createPlayerData(301));
+            Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(time.toMillis() + 5000));
+            assertEquals(301, ((Map<?, ?>) cache.read(uuid, file)).get("v"));
+            assertEquals(301, cache.readCompound(uuid, file).get("v"));
+
+            // explicit invalidation
+            Files.write(file.toPath(), createPlayerData(302));
+            Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(time.toMillis() + 5000));
+            cache.invalidate(file);
+            assertEquals(302, cache.readCompound(uuid, file).get("v"));
+        } finally {
+            cache.clear();
+        }
+    }
+
+    @Test
+    public void testMaxSize() throws IOException {
+        NBTPlayerCache cache = new NBTPlayerCache();
+        try {
+            File folder = Files.createTempDirectory("players").toFile();
+            cache.setMaxSize(0);
+            UUID uuid = UUID.randomUUID();
+            File file = createPlayerFile(folder, uuid, 5);
+            assertEquals(5, cache.readCompound(uuid, file).get("v"));
+            assertEquals(5, ((Map<?, ?>) cache.read(uuid, file)).get("v"));
+            try {
+                cache.setMaxSize(-1);
+                fail();
+            } catch (IllegalArgumentException ignored) {
+            }
+        } finally {
+            cache.clear();
+        }
+    }
+
+}
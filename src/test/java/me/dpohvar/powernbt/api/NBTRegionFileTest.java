@@ -0,0 +1,155 @@
+package me.dpohvar.powernbt.api;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+
+public class NBTRegionFileTest extends Assert {
+
+    private static final int SECTOR_SIZE = 4096;
+
+    private static NBTCompound createChunk(int x, int z, int payload) {
+        NBTCompound chunk = new NBTCompound();
+        chunk.put("xPos", x);
+        chunk.put("zPos", z);
+        byte[] data = new byte[payload];
+        new Random(x * 31L + z).nextBytes(data); // random data is not compressed
+        chunk.put("data", data);
+        return chunk;
+    }
+
+    private static File createRegionFile() throws IOException {
+        return new File(Files.createTempDirectory("region").toFile(), "r.0.0.mca");
+    }
+
+    /**
+     * @return first sector and count of sectors of chunk in header of region file
+     */
+    private static int[] getLocation(File file, int x, int z) throws IOException {
+        int location = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).getInt(((x & 31) + (z & 31) * 32) * 4);
+        return new int[]{location >>> 8, location & 0xFF};
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        File file = createRegionFile();
+        try (var region = new NBTRegionFile(file, true)) {
+            assertFalse(region.hasChunk(0, 0));
+            assertNull(region.read(0, 0));
+            assertEquals(0, region.getTimestamp(0, 0));
+            region.write(0, 0, createChunk(0, 0, 100));
+            region.write(31, 31, createChunk(31, 31, 100));
+            assertTrue(region.hasChunk(0, 0));
+            assertTrue(region.hasChunk(31, 31));
+            assertFalse(region.hasChunk(1, 0));
+            assertTrue(region.getTimestamp(0, 0) > 0);
+            assertEquals(createChunk(0, 0, 100), region.read(0, 0));
+        }
+        assertEquals(4 * SECTOR_SIZE, file.length());
+        assertArrayEquals(new int[]{2, 1}, getLocation(file, 0, 0));
+        assertArrayEquals(new int[]{3, 1}, getLocation(file, 31, 31));
+        try (var region = new NBTRegionFile(file, false)) {
+            assertEquals(createChunk(31, 31, 100), region.read(31, 31));
+            try {
+                region.write(0, 0, new NBTCompound());
+                fail("read only region is written");
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void testSectorReuseAndGrowth() throws IOException {
+        File file = createRegionFile();
+        try (var region = new NBTRegionFile(file, true)) {
+            region.write(0, 0, createChunk(0, 0, 100));
+            region.write(1, 0, createChunk(1, 0, 100));
+            assertArrayEquals(new int[]{2, 1}, getLocation(file, 0, 0));
+            assertArrayEquals(new int[]{3, 1}, getLocation(file, 1, 0));
+
+            // data fits into own sectors
+            region.write(0, 0, createChunk(0, 0, 200));
+            assertArrayEquals(new int[]{2, 1}, getLocation(file, 0, 0));
+
+            // larger data is moved to end of file, old sector is free
+            region.write(0, 0, createChunk(0, 0, 3 * SECTOR_SIZE));
+            assertArrayEquals(new int[]{4, 4}, getLocation(file, 0, 0));
+            assertEquals(8 * SECTOR_SIZE, file.length());
+
+            // free sector is reused
+            region.write(2, 0, createChunk(2, 0, 100));
+            assertArrayEquals(new int[]{2, 1}, getLocation(file, 2, 0));
+
+            // smaller data keeps start of own sectors
+            region.write(0, 0, createChunk(0, 0, 100));
+            assertArrayEquals(new int[]{4, 1}, getLocation(file, 0, 0));
+            region.write(3, 0, createChunk(3, 0, 2 * SECTOR_SIZE));
+            assertArrayEquals(new int[]{5, 3}, getLocation(file, 3, 0));
+            assertEquals(8 * SECTOR_SIZE, file.length());
+
+            for (int x = 0; x < 4; x++) {
+                assertEquals(createChunk(x, 0, x == 3 ? 2 * SECTOR_SIZE : 100), region.read(x, 0));
+            }
+        }
+    }
+
+    @Test
+    public void testExternalChunk() throws IOException {
+        File file = createRegionFile();
+        File external = new File(file.getParentFile(), "c.1.2.mcc");
+        NBTCompound large = createChunk(1, 2, 256 * SECTOR_SIZE);
+        try (var region = new NBTRegionFile(file, true)) {
+            region.write(1, 2, large);
+            assertTrue(external.isFile());
+            assertArrayEquals(new int[]{2, 1}, getLocation(file, 1, 2));
+            assertEquals(3 * SECTOR_SIZE, file.length());
+            assertEquals(large, region.read(1, 2));
+
+            region.write(1, 2, createChunk(1, 2, 100));
+            assertFalse(external.exists());
+            assertEquals(createChunk(1, 2, 100), region.read(1, 2));
+        }
+    }
+
+    @Test
+    public void testReadCompressionTypes() throws IOException {
+        File file = createRegionFile();
+        NBTCompound chunk = createChunk(0, 0, 10);
+        ByteBuffer data = ByteBuffer.allocate(5 * SECTOR_SIZE);
+        int sector = 2;
+        for (int type = 1; type <= 3; type++) {
+            NBTCodec codec = type == 1 ? NBTCodec.GZIP : type == 2 ? NBTCodec.ZLIB : NBTCodec.RAW;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream encoded = codec.encode(bytes); var output = new DataOutputStream(encoded)) {
+                NBTManager.getInstance().write((DataOutput) output, chunk);
+            }
+            data.putInt(type * 4, (sector << 8) | 1);
+            data.putInt(sector * SECTOR_SIZE, bytes.size() + 1);
+            data.put(sector * SECTOR_SIZE + 4, (byte) type);
+            data.put(sector * SECTOR_SIZE + 5, bytes.toByteArray());
+            sector++;
+        }
+        data.putInt(4 * 4, (sector << 8) | 1); // out of file
+        Files.write(file.toPath(), data.array());
+        try (var region = new NBTRegionFile(file, false)) {
+            for (int x = 1; x <= 3; x++) {
+                assertEquals(chunk, region.read(x, 0));
+            }
+            try {
+                region.read(4, 0);
+                fail("chunk out of file is read");
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package me.dpohvar.powernbt.api;
+
+import me.dpohvar.powernbt.utils.query.NBTQuery;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class NBTSearchTest extends Assert {
+
+    private static final int SECTOR_SIZE = 4096;
+
+    private static NBTCompound createChunk(int x) {
+        NBTCompound chunk = new NBTCompound();
+        chunk.put("block_entities", List.of(Map.of(
+                "id", "minecraft:chest",
+                "x", x, "y", 64, "z", 0,
+                "Items", List.of(Map.of("id", "minecraft:diamond", "Count", (byte) 1))
+        )));
+        return chunk;
+    }
+
+    /**
+     * @return world folder with one region file, chunks 0, 1 and 2 are stored in sectors 2, 3 and 4
+     */
+    private static File createWorld() throws IOException {
+        File folder = Files.createTempDirectory("world").toFile();
+        File regionFolder = new File(folder, "region");
+        assertTrue(regionFolder.mkdir());
+        try (var region = new NBTRegionFile(new File(regionFolder, "r.0.0.mca"), true)) {
+            for (int x = 0; x < 3; x++) {
+                region.write(x, 0, createChunk(x * 16));
+            }
+        }
+        return folder;
+    }
+
+    @Test
+    public void testSearch() throws IOException {
+        File folder = createWorld();
+        File playerFolder = new File(folder, "playerdata");
+        assertTrue(playerFolder.mkdir());
+        NBTCompound player = new NBTCompound();
+        player.put("Pos", List.of(1.0, 2.0, 3.0));
+        player.put("Inventory", List.of(Map.of("id", "minecraft:diamond", "Count", (byte) 1)));
+        NBTManager.getInstance().writeCompressed(new File(playerFolder, UUID.randomUUID() + ".dat"), player);
+
+        NBTSearch search = new NBTSearch(folder, NBTQuery.fromString(""), NBTSearch.contains("minecraft:diamond"));
+        assertFalse(search.whenListed().isDone());
+        ConcurrentLinkedQueue<NBTSearch.Match> matches = new ConcurrentLinkedQueue<>();
+        assertEquals(4, (int) search.start(matches::add, 1).join());
+        assertEquals(2, (int) search.whenListed().join());
+        assertEquals(2, search.getTotalFiles());
+        assertEquals(2, search.getProcessedFiles());
+        assertEquals(3, search.getProcessedChunks());
+        assertEquals(0, search.getErrors());
+        assertEquals(1, matches.stream().filter(match -> match.source() == NBTSearch.Source.PLAYER && match.z() == 3.0).count());
+        assertEquals(3, matches.stream().filter(match -> match.source() == NBTSearch.Source.BLOCK_ENTITY).count());
+    }
+
+    @Test
+    public void testMissingFolderIsListedInPool() {
+        File folder = new File(System.getProperty("java.io.tmpdir"), "missing-world-" + UUID.randomUUID());
+        NBTSearch search = new NBTSearch(folder, NBTQuery.fromString(""), value -> true);
+        assertEquals(0, (int) search.start(match -> {}, 1).join());
+        assertEquals(0, (int) search.whenListed().join());
+    }
+
+    @Test
+    public void testTruncatedRegionFileIsCountedAsError() throws IOException {
+        File folder = createWorld();
+        File file = new File(folder, "region/r.0.0.mca");
+        NBTSearch search = new NBTSearch(folder, NBTQuery.fromString("Items"), NBTSearch.contains("minecraft:diamond"));
+        // region file is truncated while it is mapped, next chunks are read out of file
+        int found = search.start(match -> {
+            try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(3 * SECTOR_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, 1).join();
+        assertEquals(1, found);
+        assertEquals(2, search.getErrors());
+        assertEquals(1, search.getProcessedFiles());
+    }
+
+}
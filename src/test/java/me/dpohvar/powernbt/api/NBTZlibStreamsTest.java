@@ -0,0 +1,189 @@
+package me.dpohvar.powernbt.api;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+public class NBTZlibStreamsTest extends Assert {
+
+    private static final byte[] DATA = createData();
+
+    private static byte[] createData() {
+        byte[] data = new byte[50_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31 % 251);
+        }
+        return data;
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        try (inputStream) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testGzipCompatibleWithJdk() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = NBTCodec.GZIP.encode(out)) {
+            gzip.write(DATA, 0, 100);
+            gzip.write(DATA, 100, DATA.length - 100);
+        }
+        assertArrayEquals(DATA, readAll(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))));
+
+        out.reset();
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(DATA);
+        }
+        assertArrayEquals(DATA, readAll(NBTCodec.GZIP.decode(new ByteArrayInputStream(out.toByteArray()))));
+    }
+
+    @Test
+    public void testGzipHeaderFields() throws IOException {
+        byte[] text = "header fields".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[]{0x1F, (byte) 0x8B, 8, 4 | 8 | 16 | 2, 0, 0, 0, 0, 0, 0});
+        out.write(new byte[]{3, 0, 'e', 'x', 't'}); // FEXTRA
+        out.write(new byte[]{'n', 'a', 'm', 'e', 0}); // FNAME
+        out.write(new byte[]{'c', 0}); // FCOMMENT
+        out.write(new byte[]{0, 0}); // FHCRC
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(text);
+        deflater.finish();
+        byte[] buffer = new byte[256];
+        out.write(buffer, 0, deflater.deflate(buffer));
+        deflater.end();
+        CRC32 crc = new CRC32();
+        crc.update(text);
+        writeIntLE(out, (int) crc.getValue());
+        writeIntLE(out, text.length);
+        byte[] data = out.toByteArray();
+        assertEquals(NBTCodec.GZIP, NBTCodec.detect(new ByteArrayInputStream(data)));
+        assertArrayEquals(text, readAll(NBTCodec.GZIP.decode(new ByteArrayInputStream(data))));
+
+        data[data.length - 5] ^= 1; // size in trailer
+        try {
+            readAll(NBTCodec.GZIP.decode(new ByteArrayInputStream(data)));
+            fail("wrong trailer is not detected");
+        } catch (ZipException ignored) {
+        }
+    }
+
+    @Test
+    public void testCorruptTrailerAndTruncatedData() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = NBTCodec.GZIP.encode(out)) {
+            gzip.write(DATA);
+        }
+        byte[] data = out.toByteArray();
+        byte[] corrupt = data.clone();
+        corrupt[corrupt.length - 8] ^= 1; // crc
+        try {
+            readAll(NBTCodec.GZIP.decode(new ByteArrayInputStream(corrupt)));
+            fail("wrong crc is not detected");
+        } catch (ZipException ignored) {
+        }
+        try {
+            readAll(NBTCodec.GZIP.decode(new ByteArrayInputStream(Arrays.copyOf(data, data.length - 3))));
+            fail("truncated data is not detected");
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    public void testMarkReset() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream zlib = NBTCodec.ZLIB.withBufferSize(64).encode(out)) {
+            zlib.write(DATA);
+        }
+        try (InputStream input = NBTCodec.ZLIB.withBufferSize(64).decode(new ByteArrayInputStream(out.toByteArray()))) {
+            assertTrue(input.markSupported());
+            byte[] skipped = new byte[60];
+            assertEquals(60, input.readNBytes(skipped, 0, skipped.length));
+            input.mark(16);
+            byte[] first = input.readNBytes(16); // crosses the end of buffer
+            input.reset();
+            byte[] second = input.readNBytes(16);
+            assertArrayEquals(Arrays.copyOfRange(DATA, 60, 76), first);
+            assertArrayEquals(first, second);
+            assertArrayEquals(Arrays.copyOfRange(DATA, 76, DATA.length), input.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testInflaterReturnsToPool() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = NBTCodec.GZIP.encode(out)) {
+            gzip.write(DATA);
+        }
+        byte[] data = out.toByteArray();
+        readAll(NBTCodec.GZIP.decode(new ByteArrayInputStream(data)));
+        int pooled = NBTZlibStreams.pooledInflaters(true);
+        assertTrue(pooled > 0);
+
+        InputStream input = NBTCodec.decodeDetected(new ByteArrayInputStream(data));
+        assertEquals(pooled - 1, NBTZlibStreams.pooledInflaters(true));
+        input.close();
+        input.close();
+        assertEquals(pooled, NBTZlibStreams.pooledInflaters(true));
+        try {
+            input.read();
+            fail("closed stream is readable");
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    public void testReadCompressedReturnsInflater() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NBTManager.getInstance().writeCompressed(out, Collections.singletonMap("a", 1));
+        byte[] data = out.toByteArray();
+        NBTManager.getInstance().readCompressed(new ByteArrayInputStream(data));
+        int pooled = NBTZlibStreams.pooledInflaters(true);
+        assertTrue(pooled > 0);
+
+        boolean[] closed = {false};
+        InputStream input = new ByteArrayInputStream(data) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        Object value = NBTManager.getInstance().readCompressed(input);
+        assertEquals(1, ((NBTCompound) value).get("a"));
+        assertEquals(pooled, NBTZlibStreams.pooledInflaters(true));
+        assertFalse("stream of caller is closed", closed[0]);
+
+        File file = File.createTempFile("zlib", ".dat");
+        try {
+            Files.write(file.toPath(), data);
+            assertEquals(value, NBTManager.getInstance().readCompressed(file));
+            assertEquals(pooled, NBTZlibStreams.pooledInflaters(true));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void writeIntLE(OutputStream out, int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >> 8) & 0xFF);
+        out.write((value >> 16) & 0xFF);
+        out.write((value >> 24) & 0xFF);
+    }
+
+}
@@ -0,0 +1,122 @@
+package me.dpohvar.powernbt.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measurement and fixtures shared by benchmarks of this package.<br>
+ * Benchmarks have main method and run without server:
+ * <pre>
+ *   java -cp target/classes:target/test-classes me.dpohvar.powernbt.benchmark.WriterBenchmark
+ * </pre>
+ */
+final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Measured code, result is printed so work is not removed by JIT
+     */
+    interface Task {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Run task once and print time and allocation of current thread per operation
+     *
+     * @param name
+     *            name of row
+     * @param iterations
+     *            count of operations done by task
+     * @param task
+     *            task
+     */
+    static void measure(String name, int iterations, Task task) throws Exception {
+        measure(name, iterations, 0, task);
+    }
+
+    /**
+     * Run task once and print time, allocation and throughput per operation
+     *
+     * @param name
+     *            name of row
+     * @param iterations
+     *            count of operations done by task
+     * @param inputSize
+     *            size of input of one operation in bytes, 0 to skip throughput
+     * @param task
+     *            task
+     */
+    static void measure(String name, int iterations, long inputSize, Task task) throws Exception {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = bean.getThreadAllocatedBytes(threadId);
+        long timeBefore = System.nanoTime();
+        Object result = task.run();
+        long time = System.nanoTime() - timeBefore;
+        long bytes = bean.getThreadAllocatedBytes(threadId) - bytesBefore;
+        String throughput = inputSize > 0 ? String.format(" %8.1f MB/s", (double) inputSize * iterations / time * 1e3) : "";
+        System.out.printf("%-24s %12.1f ns/op %12.1f bytes/op%s (%s)%n", name,
+                (double) time / iterations, (double) bytes / iterations, throughput, result);
+    }
+
+    /**
+     * @return player data with two inventories of enchanted items and large recipe book
+     */
+    static Map<String, Object> createPlayer() {
+        Map<String, Object> player = new HashMap<>();
+        player.put("Pos", List.of(10.5, 64.0, -20.5));
+        List<Object> inventory = new ArrayList<>();
+        for (int i = 0; i < 36; i++) {
+            inventory.add(createItem(i));
+        }
+        player.put("Inventory", inventory);
+        player.put("EnderItems", inventory);
+        List<Object> recipes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            recipes.add("minecraft:recipe_" + i);
+        }
+        player.put("recipeBook", Map.of("recipes", recipes));
+        player.put("Health", 20f);
+        player.put("XpLevel", 30);
+        return player;
+    }
+
+    /**
+     * @return enchanted sword with name and lore
+     */
+    static Map<String, Object> createItem(int slot) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("Slot", (byte) slot);
+        item.put("id", "minecraft:diamond_sword");
+        item.put("Count", (byte) 1);
+        List<Object> enchantments = new ArrayList<>();
+        for (String id : List.of("sharpness", "unbreaking", "mending", "looting")) {
+            enchantments.add(Map.of("id", "minecraft:" + id, "lvl", (short) 3));
+        }
+        item.put("tag", Map.of(
+                "Damage", slot,
+                "display", Map.of("Name", "{\"text\":\"Sword " + slot + "\"}", "Lore", List.of("first line", "second line")),
+                "Enchantments", enchantments,
+                "AttackSpeed", 1.6d
+        ));
+        return item;
+    }
+
+    /**
+     * @return shulker box item with items in all slots
+     */
+    static Map<String, Object> createShulker(int slots) {
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < slots; i++) {
+            items.add(createItem(i));
+        }
+        return Map.of("id", "minecraft:shulker_box", "Count", (byte) 1, "tag", Map.of("BlockEntityTag", Map.of("Items", items)));
+    }
+
+}
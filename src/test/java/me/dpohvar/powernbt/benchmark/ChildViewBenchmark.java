@@ -0,0 +1,47 @@
+package me.dpohvar.powernbt.benchmark;
+
+import me.dpohvar.powernbt.api.NBTCompound;
+import me.dpohvar.powernbt.api.NBTList;
+import me.dpohvar.powernbt.api.NBTManager;
+
+/**
+ * Allocation rate of chained navigation compound.getCompound("tag").getList("Items").
+ * Compares fresh wrappers on every access (old behaviour) with cached child views.
+ */
+public class ChildViewBenchmark {
+
+    private static final int ITERATIONS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        NBTCompound root = new NBTCompound();
+        NBTList items = root.compound("tag").list("Items");
+        for (int i = 0; i < 27; i++) {
+            NBTCompound item = new NBTCompound();
+            item.put("Slot", (byte) i);
+            item.put("id", "minecraft:stone");
+            item.put("Count", (byte) 64);
+            items.add(item);
+        }
+        NBTManager nbt = NBTManager.getInstance();
+
+        for (int round = 0; round < 3; round++) {
+            Benchmarks.measure("fresh wrappers", ITERATIONS, () -> {
+                long sum = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    NBTCompound tag = (NBTCompound) nbt.getValueOfTag(root.getHandleMap().get("tag"));
+                    NBTList list = (NBTList) nbt.getValueOfTag(tag.getHandleMap().get("Items"));
+                    sum += list.size();
+                }
+                return sum;
+            });
+            Benchmarks.measure("cached views", ITERATIONS, () -> {
+                long sum = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    sum += root.getCompound("tag").getList("Items").size();
+                }
+                return sum;
+            });
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package me.dpohvar.powernbt.benchmark;
+
+import me.dpohvar.powernbt.api.NBTCompound;
+import me.dpohvar.powernbt.api.NBTManager;
+import me.dpohvar.powernbt.api.NBTVisitor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Reading one field of player data: full tag tree versus event reader which skips other values.
+ */
+public class EventReaderBenchmark {
+
+    private static final int ITERATIONS = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NBTManager.getInstance().writeCompressed(out, Benchmarks.createPlayer());
+        byte[] data = out.toByteArray();
+        NBTManager nbt = NBTManager.getInstance();
+
+        for (int round = 0; round < 3; round++) {
+            Benchmarks.measure("full tree", ITERATIONS, () -> {
+                double sum = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    NBTCompound player = (NBTCompound) nbt.readCompressed(new ByteArrayInputStream(data));
+                    sum += player.getFloat("Health");
+                }
+                return sum;
+            });
+            Benchmarks.measure("events", ITERATIONS, () -> {
+                double sum = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    HealthVisitor visitor = new HealthVisitor();
+                    nbt.readEventsCompressed(new ByteArrayInputStream(data), visitor);
+                    sum += visitor.health;
+                }
+                return sum;
+            });
+        }
+    }
+
+    private static class HealthVisitor implements NBTVisitor {
+
+        private float health;
+        private boolean found;
+        private int depth;
+
+        @Override
+        public void startCompound() {
+            depth++;
+        }
+
+        @Override
+        public boolean key(String key, byte type) {
+            return depth == 1 && key.equals("Health");
+        }
+
+        @Override
+        public void primitive(Object value) {
+            health = (Float) value;
+            found = true;
+        }
+
+        @Override
+        public boolean isDone() {
+            return found;
+        }
+
+    }
+
+}
@@ -0,0 +1,40 @@
+package me.dpohvar.powernbt.benchmark;
+
+import me.dpohvar.powernbt.api.NBTStringWriter;
+import me.dpohvar.powernbt.utils.NBTParser;
+
+
+/**
+ * Parsing SNBT of items: substring and regex based legacy parser versus single-pass cursor parser.
+ * Throughput is measured for small item and for shulker boxes of growing size.
+ */
+public class ParserBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String item = NBTStringWriter.COMPACT.format(Benchmarks.createItem(0));
+        for (int round = 0; round < 3; round++) {
+            run("item", item, 20_000);
+            for (int slots : new int[]{27, 108, 432}) {
+                run("shulker " + slots, NBTStringWriter.COMPACT.format(Benchmarks.createShulker(slots)), 20_000 / slots + 1);
+            }
+        }
+    }
+
+    private static void run(String name, String snbt, int iterations) throws Exception {
+        Benchmarks.measure(name + " legacy", iterations, snbt.length(), () -> {
+            Object result = null;
+            for (int i = 0; i < iterations; i++) {
+                result = LegacyNBTParser.parser("", snbt).parse();
+            }
+            return result.hashCode();
+        });
+        Benchmarks.measure(name + " cursor", iterations, snbt.length(), () -> {
+            Object result = null;
+            for (int i = 0; i < iterations; i++) {
+                result = NBTParser.parse(snbt);
+            }
+            return result.hashCode();
+        });
+    }
+
+}
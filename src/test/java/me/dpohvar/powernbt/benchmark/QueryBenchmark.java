@@ -0,0 +1,85 @@
+package me.dpohvar.powernbt.benchmark;
+
+import me.dpohvar.powernbt.api.NBTCompound;
+import me.dpohvar.powernbt.api.NBTList;
+import me.dpohvar.powernbt.utils.query.NBTQuery;
+
+import java.util.Arrays;
+
+/**
+ * Cost of NBTQuery.set deep inside large item and entity tags.
+ * Compares deep copy of every node on the path (default mode), path copying with shared subtrees and in-place update.
+ */
+public class QueryBenchmark {
+
+    private static final int ITERATIONS = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        NBTCompound shulker = new NBTCompound(Benchmarks.createShulker(27));
+        NBTQuery itemQuery = NBTQuery.fromString("tag.BlockEntityTag.Items[13].tag.display.Name");
+        NBTCompound entity = createEntityStack(6);
+        NBTQuery entityQuery = NBTQuery.fromString("Passengers[0].Passengers[0].Passengers[0].Passengers[0].HandItems[0].Count");
+
+        for (int round = 0; round < 3; round++) {
+            run("item", shulker, itemQuery, "name");
+            run("entity", entity, entityQuery, (byte) 32);
+        }
+    }
+
+    private static void run(String name, NBTCompound root, NBTQuery query, Object value) throws Exception {
+        Benchmarks.measure(name + " copy", ITERATIONS, () -> {
+            Object result = null;
+            for (int i = 0; i < ITERATIONS; i++) {
+                result = query.set(root, value);
+            }
+            return result != root;
+        });
+        Benchmarks.measure(name + " path copy", ITERATIONS, () -> {
+            Object result = null;
+            for (int i = 0; i < ITERATIONS; i++) {
+                result = query.set(root, value, NBTQuery.Mode.SHARE);
+            }
+            return result != root;
+        });
+        Benchmarks.measure(name + " in place", ITERATIONS, () -> {
+            Object result = null;
+            for (int i = 0; i < ITERATIONS; i++) {
+                result = query.set(root, value, NBTQuery.Mode.IN_PLACE);
+            }
+            return result == root;
+        });
+    }
+
+    private static NBTCompound createEntityStack(int depth) {
+        NBTCompound entity = new NBTCompound();
+        entity.put("id", "minecraft:zombie");
+        entity.putFloat("Health", 20f);
+        entity.put("Pos", Arrays.asList(1.5, 64.0, -3.5));
+        entity.put("Motion", Arrays.asList(0.0, 0.0, 0.0));
+        entity.put("UUID", new int[]{1, 2, 3, 4});
+        NBTList hand = entity.list("HandItems");
+        NBTList armor = entity.list("ArmorItems");
+        for (int i = 0; i < 4; i++) {
+            NBTCompound stack = new NBTCompound();
+            stack.put("id", "minecraft:iron_ingot");
+            stack.putByte("Count", (byte) 1);
+            stack.compound("tag").putInt("Damage", i);
+            armor.add(stack);
+            if (i < 2) {
+                hand.add(stack);
+            }
+        }
+        NBTList attributes = entity.list("Attributes");
+        for (String attribute : Arrays.asList("generic.max_health", "generic.movement_speed", "generic.armor")) {
+            NBTCompound modifier = new NBTCompound();
+            modifier.put("Name", attribute);
+            modifier.putDouble("Base", 1.0);
+            attributes.add(modifier);
+        }
+        if (depth > 1) {
+            entity.list("Passengers").add(createEntityStack(depth - 1));
+        }
+        return entity;
+    }
+
+}
@@ -0,0 +1,42 @@
+package me.dpohvar.powernbt.benchmark;
+
+import me.dpohvar.powernbt.api.NBTCompound;
+import me.dpohvar.powernbt.api.NBTManager;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+/**
+ * Writing java maps to binary NBT: conversion to tag tree before writing versus direct encoding.
+ */
+public class WriterBenchmark {
+
+    private static final int ITERATIONS = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Object> player = Benchmarks.createPlayer();
+        NBTManager nbt = NBTManager.getInstance();
+
+        for (int round = 0; round < 3; round++) {
+            Benchmarks.measure("tag tree", ITERATIONS, () -> {
+                long sum = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+                    nbt.write(out, new NBTCompound(player));
+                    sum += out.size();
+                }
+                return sum;
+            });
+            Benchmarks.measure("direct", ITERATIONS, () -> {
+                long sum = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+                    nbt.write(out, player);
+                    sum += out.size();
+                }
+                return sum;
+            });
+        }
+    }
+
+}